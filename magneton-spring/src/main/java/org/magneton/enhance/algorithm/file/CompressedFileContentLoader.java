@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 压缩文件内容加载器，支持的格式见 {@link FileCompression}，不需要先把文件解压到磁盘
+ *
+ * <p>
+ * 解码后的数据按 {@link #getChunkSize()} 切分为以换行符对齐的堆内分块，分块接口与 {@link MappedFileContentLoader} 一致。
+ * gzip、zstd和lz4的流格式没有块索引，单个文件只能顺序解码，{@link #loadParallel} 在当前线程解码的同时把已解码的分块交给
+ * {@link ForkJoinPool} 并行处理，解码和解析重叠执行，同时处理的分块数量不超过线程池并行度的两倍。多个文件之间仍可以并行解码。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class CompressedFileContentLoader extends AbstractFileContextLoader {
+
+	/**
+	 * 默认分块大小，8M，分块在堆中，比内存映射的分块小
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+	private final int chunkSize;
+
+	private final Charset charset;
+
+	private final ForkJoinPool pool;
+
+	public CompressedFileContentLoader() {
+		this(DEFAULT_CHUNK_SIZE, StandardCharsets.UTF_8, ForkJoinPool.commonPool());
+	}
+
+	public CompressedFileContentLoader(int chunkSize, Charset charset, ForkJoinPool pool) {
+		this.chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize);
+		this.charset = Preconditions.checkNotNull(charset, "charset");
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+	}
+
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	public Charset getCharset() {
+		return this.charset;
+	}
+
+	/**
+	 * 并行处理文件，分块结果按分块顺序合并，空文件会以一个空分块调用一次处理器
+	 * @param path 文件地址
+	 * @param lineIndexed 是否需要分块的起始行号，需要时在解码时统计每个分块的行数
+	 * @param processor 分块处理器
+	 * @param combiner 分块结果合并器，左侧为序号较小的分块结果
+	 * @param <R> 结果类型
+	 * @return 合并后的结果
+	 */
+	public <R> R loadParallel(Path path, boolean lineIndexed, FileChunkProcessor<R> processor,
+			BinaryOperator<R> combiner) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(processor, "processor");
+		Preconditions.checkNotNull(combiner, "combiner");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		int maxPending = Math.max(2, this.pool.getParallelism() * 2);
+		Deque<ForkJoinTask<R>> pending = new ArrayDeque<>(maxPending);
+		try (ChunkReader reader = new ChunkReader(path, lineIndexed)) {
+			R result = null;
+			boolean empty = true;
+			FileChunk chunk;
+			while ((chunk = reader.next()) != null) {
+				FileChunk current = chunk;
+				pending.add(this.pool.submit(() -> processor.process(current)));
+				if (pending.size() >= maxPending) {
+					result = combine(result, pending.poll().join(), empty, combiner);
+					empty = false;
+				}
+			}
+			while (!pending.isEmpty()) {
+				result = combine(result, pending.poll().join(), empty, combiner);
+				empty = false;
+			}
+			if (empty) {
+				return processor.process(new FileChunk(path, 0, 0, ByteBuffer.allocate(0), 0, this.charset));
+			}
+			return result;
+		}
+		catch (IOException e) {
+			pending.forEach(task -> task.cancel(true));
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 在当前线程中按顺序处理分块，分块的起始行号未知
+	 * @param path 文件地址
+	 * @param processor 分块处理器，返回 {@code false} 时中断后续分块
+	 */
+	public void forEachChunk(Path path, FileChunkProcessor<Boolean> processor) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(processor, "processor");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		try (ChunkReader reader = new ChunkReader(path, false)) {
+			FileChunk chunk;
+			while ((chunk = reader.next()) != null) {
+				if (!processor.process(chunk)) {
+					break;
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	@Override
+	protected FileContentReader newFileContentReader(Path path) throws IOException {
+		return new CompressedFileContentReader(FileCompression.open(path, FileCompression.DEFAULT_BUFFER_SIZE),
+				this.charset);
+	}
+
+	private static <R> R combine(R left, R right, boolean first, BinaryOperator<R> combiner) {
+		return first ? right : combiner.apply(left, right);
+	}
+
+	/**
+	 * 解码并切分分块，每个分块使用新的数组，可以在其他线程中处理
+	 */
+	private class ChunkReader implements Closeable {
+
+		private final Path path;
+
+		private final boolean lineIndexed;
+
+		private final InputStream in;
+
+		/**
+		 * 上一个分块最后一个换行符之后的数据
+		 */
+		private byte[] carry = new byte[0];
+
+		private boolean eof;
+
+		private int index;
+
+		private long position;
+
+		private long line;
+
+		ChunkReader(Path path, boolean lineIndexed) throws IOException {
+			this.path = path;
+			this.lineIndexed = lineIndexed;
+			this.in = FileCompression.open(path, FileCompression.DEFAULT_BUFFER_SIZE);
+		}
+
+		FileChunk next() throws IOException {
+			if (this.eof && this.carry.length == 0) {
+				return null;
+			}
+			int chunkSize = CompressedFileContentLoader.this.chunkSize;
+			byte[] bytes = new byte[Math.max(chunkSize, this.carry.length << 1)];
+			System.arraycopy(this.carry, 0, bytes, 0, this.carry.length);
+			int length = this.carry.length;
+			int scanned = 0;
+			int end = -1;
+			while (end < 0) {
+				while (!this.eof && length < bytes.length) {
+					int read = this.in.read(bytes, length, bytes.length - length);
+					if (read < 0) {
+						this.eof = true;
+					}
+					else {
+						length += read;
+					}
+				}
+				if (this.eof) {
+					end = length;
+					break;
+				}
+				end = lastLineEnd(bytes, scanned, length);
+				if (end < 0) {
+					// 单行超过分块大小时扩容
+					scanned = length;
+					byte[] expanded = new byte[bytes.length << 1];
+					System.arraycopy(bytes, 0, expanded, 0, length);
+					bytes = expanded;
+				}
+			}
+			this.carry = new byte[length - end];
+			System.arraycopy(bytes, end, this.carry, 0, this.carry.length);
+			if (end == 0) {
+				return null;
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, end);
+			long startLine = -1;
+			if (this.lineIndexed) {
+				startLine = this.line;
+				this.line += FileChunk.countLines(buffer);
+			}
+			FileChunk chunk = new FileChunk(this.path, this.index++, this.position, buffer, startLine,
+					CompressedFileContentLoader.this.charset);
+			this.position += end;
+			return chunk;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+
+		/**
+		 * 最后一个换行符之后的位置
+		 */
+		private int lastLineEnd(byte[] bytes, int from, int to) {
+			for (int i = to - 1; i >= from; i--) {
+				if (bytes[i] == '\n') {
+					return i + 1;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+	public static class CompressedFileContentReader implements FileContentReader {
+
+		private final BufferedReader reader;
+
+		private String next;
+
+		public CompressedFileContentReader(InputStream in, Charset charset) {
+			this.reader = new BufferedReader(new InputStreamReader(in, charset), FileCompression.DEFAULT_BUFFER_SIZE);
+		}
+
+		@Override
+		public boolean hasNext() throws IOException {
+			if (this.next == null) {
+				this.next = this.reader.readLine();
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public String next() throws IOException {
+			if (!this.hasNext()) {
+				return null;
+			}
+			String line = this.next;
+			this.next = null;
+			return line;
+		}
+
+		@Override
+		public void close() {
+			try {
+				this.reader.close();
+			}
+			catch (Exception e) {
+				// ignore
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节级的十进制数解析
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class DecimalParser {
+
+	private DecimalParser() {
+		// ignore
+	}
+
+	/**
+	 * 解析十进制long，规则与 {@link Long#parseLong(String)} 一致
+	 * @param buffer 数据
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @return 解析值
+	 * @throws NumberFormatException 数据不是合法的long
+	 */
+	public static long parseLong(ByteBuffer buffer, int from, int to) {
+		if (from >= to) {
+			throw numberFormatException(buffer, from, to);
+		}
+		int i = from;
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+		byte first = buffer.get(i);
+		if (first == '-' || first == '+') {
+			if (to - from == 1) {
+				throw numberFormatException(buffer, from, to);
+			}
+			if (first == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+			}
+			i++;
+		}
+		long multmin = limit / 10;
+		long result = 0;
+		// 与Long.parseLong一样以负数累加，避免Long.MIN_VALUE溢出
+		for (; i < to; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9 || result < multmin) {
+				throw numberFormatException(buffer, from, to);
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				throw numberFormatException(buffer, from, to);
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * 解析十进制long
+	 * @param bytes 数据
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @return 解析值
+	 * @throws NumberFormatException 数据不是合法的long
+	 */
+	public static long parseLong(byte[] bytes, int from, int to) {
+		return parseLong(ByteBuffer.wrap(bytes), from, to);
+	}
+
+	private static NumberFormatException numberFormatException(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i = from; i < to; i++) {
+			bytes[i - from] = buffer.get(i);
+		}
+		return new NumberFormatException(
+				"For input string: \"" + new String(bytes, StandardCharsets.UTF_8) + "\"");
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * 按换行符对齐的文件分块
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+@ToString(exclude = "buffer")
+public class FileChunk {
+
+	private static final byte LF = '\n';
+
+	private static final byte CR = '\r';
+
+	private final Path path;
+
+	/**
+	 * 分块序号
+	 */
+	private final int index;
+
+	/**
+	 * 分块在文件中的起始位置
+	 */
+	private final long position;
+
+	/**
+	 * 分块数据，只读
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * 分块第一行在文件中的行号（从0开始），小于0表示未知
+	 */
+	private final long startLine;
+
+	private final Charset charset;
+
+	public FileChunk(Path path, int index, long position, ByteBuffer buffer, long startLine, Charset charset) {
+		this.path = path;
+		this.index = index;
+		this.position = position;
+		this.buffer = buffer;
+		this.startLine = startLine;
+		this.charset = charset;
+	}
+
+	/**
+	 * 统计分块行数
+	 * @return 行数
+	 */
+	public long countLines() {
+		return countLines(this.buffer);
+	}
+
+	/**
+	 * 按行读取分块，行数据不包含换行符（{@code \n} 或 {@code \r\n}）
+	 * @param listener 行监听器
+	 * @return 如果读取完整个分块返回 {@code true}，被监听器中断返回 {@code false}.
+	 */
+	public boolean forEachLine(FileChunkLineListener listener) {
+		byte[][] bytes = { new byte[256] };
+		return this.forEachRawLine((line, buffer, from, to) -> {
+			int len = to - from;
+			if (bytes[0].length < len) {
+				bytes[0] = new byte[Math.max(len, bytes[0].length << 1)];
+			}
+			for (int i = 0; i < len; i++) {
+				bytes[0][i] = buffer.get(from + i);
+			}
+			return listener.onLine(line, new String(bytes[0], 0, len, this.charset));
+		});
+	}
+
+	/**
+	 * 按行读取分块的原始字节，行数据不包含换行符（{@code \n} 或 {@code \r\n}）
+	 * @param listener 原始行监听器
+	 * @return 如果读取完整个分块返回 {@code true}，被监听器中断返回 {@code false}.
+	 */
+	public boolean forEachRawLine(FileChunkRawLineListener listener) {
+		ByteBuffer buf = this.buffer;
+		int limit = buf.limit();
+		long line = Math.max(this.startLine, 0);
+		int from = buf.position();
+		for (int i = from; i < limit; i++) {
+			if (buf.get(i) == LF) {
+				if (!listener.onLine(line++, buf, from, trimCr(buf, from, i))) {
+					return false;
+				}
+				from = i + 1;
+			}
+		}
+		if (from < limit) {
+			return listener.onLine(line, buf, from, trimCr(buf, from, limit));
+		}
+		return true;
+	}
+
+	private static int trimCr(ByteBuffer buffer, int from, int to) {
+		return to > from && buffer.get(to - 1) == CR ? to - 1 : to;
+	}
+
+	/**
+	 * 统计数据行数，末尾没有换行符的最后一行也计为一行
+	 * @param buffer 数据
+	 * @return 行数
+	 */
+	public static long countLines(ByteBuffer buffer) {
+		int start = buffer.position();
+		int limit = buffer.limit();
+		long lines = 0;
+		for (int i = start; i < limit; i++) {
+			if (buffer.get(i) == LF) {
+				lines++;
+			}
+		}
+		if (limit > start && buffer.get(limit - 1) != LF) {
+			lines++;
+		}
+		return lines;
+	}
+
+}
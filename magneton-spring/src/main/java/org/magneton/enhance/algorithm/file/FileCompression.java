@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 文件压缩格式，按扩展名识别，扩展名无法识别时按文件头的魔数识别
+ *
+ * <p>
+ * gzip使用JDK解码，zstd依赖 {@code com.github.luben:zstd-jni}，lz4（frame格式）依赖
+ * {@code org.apache.commons:commons-compress}，依赖只在读取对应格式的文件时加载。多个gzip成员、zstd帧或lz4帧拼接的文件会完整解码。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public enum FileCompression {
+
+	/**
+	 * 未压缩
+	 */
+	NONE(new String[0], new byte[0]),
+
+	GZIP(new String[] { ".gz", ".gzip" }, new byte[] { 0x1f, (byte) 0x8b }),
+
+	ZSTD(new String[] { ".zst", ".zstd" }, new byte[] { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd }),
+
+	LZ4(new String[] { ".lz4" }, new byte[] { 0x04, 0x22, 0x4d, 0x18 });
+
+	/**
+	 * 压缩文件的读缓冲区大小
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+	private static final int MAGIC_SIZE = 4;
+
+	/**
+	 * gzip解码器的输入缓冲区，外层已有读缓冲区
+	 */
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	private final String[] extensions;
+
+	private final byte[] magic;
+
+	FileCompression(String[] extensions, byte[] magic) {
+		this.extensions = extensions;
+		this.magic = magic;
+	}
+
+	public boolean isCompressed() {
+		return this != NONE;
+	}
+
+	/**
+	 * 识别文件的压缩格式
+	 * @param path 文件地址
+	 * @return 压缩格式，文件不可读时返回 {@link #NONE}
+	 */
+	public static FileCompression detect(Path path) {
+		String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+		for (FileCompression compression : values()) {
+			for (String extension : compression.extensions) {
+				if (name.endsWith(extension)) {
+					return compression;
+				}
+			}
+		}
+		ByteBuffer header = ByteBuffer.allocate(MAGIC_SIZE);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			int read = 0;
+			while (header.hasRemaining() && read >= 0) {
+				read = channel.read(header);
+			}
+		}
+		catch (IOException e) {
+			return NONE;
+		}
+		for (FileCompression compression : values()) {
+			if (compression.isCompressed() && compression.matches(header)) {
+				return compression;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * 打开文件并按识别的格式解码
+	 * @param path 文件地址
+	 * @param bufferSize 读缓冲区大小
+	 * @return 解码后的输入流
+	 * @throws IOException IO异常
+	 */
+	public static InputStream open(Path path, int bufferSize) throws IOException {
+		return detect(path).decode(new BufferedInputStream(Files.newInputStream(path), bufferSize));
+	}
+
+	/**
+	 * 解码输入流
+	 * @param in 压缩数据
+	 * @return 解码后的输入流
+	 * @throws IOException IO异常
+	 */
+	public InputStream decode(InputStream in) throws IOException {
+		switch (this) {
+			case GZIP:
+				return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+			case ZSTD:
+				return Zstd.decode(in);
+			case LZ4:
+				return Lz4.decode(in);
+			default:
+				return in;
+		}
+	}
+
+	private boolean matches(ByteBuffer header) {
+		if (header.position() < this.magic.length) {
+			return false;
+		}
+		for (int i = 0; i < this.magic.length; i++) {
+			if (header.get(i) != this.magic[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 单独的类，未读取zstd文件时不需要zstd-jni
+	 */
+	private static final class Zstd {
+
+		static InputStream decode(InputStream in) throws IOException {
+			return new ZstdInputStream(in);
+		}
+
+	}
+
+	/**
+	 * 单独的类，未读取lz4文件时不需要commons-compress
+	 */
+	private static final class Lz4 {
+
+		static InputStream decode(InputStream in) throws IOException {
+			return new FramedLZ4CompressorInputStream(in, true);
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件行数预估
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileLineEstimator {
+
+	private static final int SAMPLE_SIZE = 64 * 1024;
+
+	/**
+	 * 压缩文件解码后的采样大小，解码器按块读取输入，采样过小时压缩比误差较大
+	 */
+	private static final int COMPRESSED_SAMPLE_SIZE = 4 * 1024 * 1024;
+
+	private FileLineEstimator() {
+		// ignore
+	}
+
+	/**
+	 * 根据文件头部采样的平均行长度预估文件行数，压缩文件按解码采样消耗的压缩字节数折算
+	 * @param path 文件地址
+	 * @return 预估行数，文件不可读时返回-1
+	 */
+	public static long estimate(Path path) {
+		FileCompression compression = FileCompression.detect(path);
+		if (compression.isCompressed()) {
+			return estimateCompressed(path, compression);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size == 0) {
+				return 0;
+			}
+			ByteBuffer sample = ByteBuffer.allocate((int) Math.min(size, SAMPLE_SIZE));
+			int read;
+			do {
+				read = channel.read(sample);
+			}
+			while (read >= 0 && sample.hasRemaining());
+			sample.flip();
+			long lines = FileChunk.countLines(sample);
+			if (sample.limit() == size) {
+				return lines;
+			}
+			return size * lines / sample.limit();
+		}
+		catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static long estimateCompressed(Path path, FileCompression compression) {
+		try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(path));
+				InputStream in = compression.decode(counting)) {
+			byte[] sample = new byte[COMPRESSED_SAMPLE_SIZE];
+			int length = ByteStreams.read(in, sample, 0, sample.length);
+			long lines = FileChunk.countLines(ByteBuffer.wrap(sample, 0, length));
+			if (length < sample.length) {
+				return lines;
+			}
+			return Files.size(path) * lines / Math.max(1, counting.getCount());
+		}
+		catch (IOException e) {
+			return -1;
+		}
+	}
+
+}
@@ -44,6 +44,10 @@ public class LineFileContextLoader extends AbstractFileContextLoader {
 
 	@Override
 	protected FileContentReader newFileContentReader(Path path) throws IOException {
+		if (FileCompression.detect(path).isCompressed()) {
+			return new CompressedFileContentLoader.CompressedFileContentReader(
+					FileCompression.open(path, this.bufferSize), this.charset);
+		}
 		return new LineFileContentReader(new FileInputStream(path.toFile()), this.bufferSize, this.charset);
 	}
 
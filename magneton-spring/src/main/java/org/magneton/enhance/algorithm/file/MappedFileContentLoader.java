@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.file;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 基于内存映射的文件内容加载器
+ *
+ * <p>
+ * 文件按 {@link #getChunkSize()} 切分为以换行符对齐的分块，每个分块单独通过 {@link FileChannel#map}
+ * 映射。除了按行顺序读取之外，还支持通过 {@link #loadParallel} 在 {@link ForkJoinPool} 中并行处理分块。
+ *
+ * <p>
+ * 压缩文件无法映射，识别为压缩文件（见 {@link FileCompression}）时由 {@link CompressedFileContentLoader} 边解码边处理。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class MappedFileContentLoader extends AbstractFileContextLoader {
+
+	/**
+	 * 默认分块大小，64M
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+	private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+	private final int chunkSize;
+
+	private final Charset charset;
+
+	private final ForkJoinPool pool;
+
+	private final CompressedFileContentLoader compressedLoader;
+
+	public MappedFileContentLoader() {
+		this(DEFAULT_CHUNK_SIZE, StandardCharsets.UTF_8, ForkJoinPool.commonPool());
+	}
+
+	public MappedFileContentLoader(int chunkSize, Charset charset, ForkJoinPool pool) {
+		this.chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize);
+		this.charset = Preconditions.checkNotNull(charset, "charset");
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+		this.compressedLoader = new CompressedFileContentLoader(CompressedFileContentLoader.DEFAULT_CHUNK_SIZE,
+				charset, pool);
+	}
+
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	public Charset getCharset() {
+		return this.charset;
+	}
+
+	/**
+	 * 并行加载文件
+	 *
+	 * <p>
+	 * 每个分块在 {@link ForkJoinPool} 中单独处理，分块结果按分块顺序两两合并。空文件会以一个空分块调用一次处理器。
+	 * @param path 文件地址
+	 * @param lineIndexed 是否需要分块的起始行号，需要时会先并行统计每个分块的行数
+	 * @param processor 分块处理器
+	 * @param combiner 分块结果合并器，左侧为序号较小的分块结果
+	 * @param <R> 结果类型
+	 * @return 合并后的结果
+	 */
+	public <R> R loadParallel(Path path, boolean lineIndexed, FileChunkProcessor<R> processor,
+			BinaryOperator<R> combiner) {
+		return this.loadParallel(path, lineIndexed ? Long.MAX_VALUE : 0, processor, combiner);
+	}
+
+	/**
+	 * 并行加载文件，只为文件开头的部分行统计分块的起始行号
+	 *
+	 * <p>
+	 * 分块的行数按线程池的并行度分批统计，统计到行数达到 {@code indexedLines} 为止，之后的分块不需要统计，
+	 * 起始行号为-1，这些分块中的所有行的行号都大于等于 {@code indexedLines}。适用于跳过和限制的行数远小于文件行数的场景。
+	 * 压缩文件在解码时统计行数，所有分块的起始行号都是准确的。
+	 * @param path 文件地址
+	 * @param indexedLines 需要行号的行数，小于等于0时不统计行数
+	 * @param processor 分块处理器
+	 * @param combiner 分块结果合并器，左侧为序号较小的分块结果
+	 * @param <R> 结果类型
+	 * @return 合并后的结果
+	 */
+	public <R> R loadParallel(Path path, long indexedLines, FileChunkProcessor<R> processor,
+			BinaryOperator<R> combiner) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(processor, "processor");
+		Preconditions.checkNotNull(combiner, "combiner");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		if (FileCompression.detect(path).isCompressed()) {
+			return this.compressedLoader.loadParallel(path, indexedLines > 0, processor, combiner);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			List<long[]> ranges = this.split(channel);
+			if (ranges.isEmpty()) {
+				return processor.process(new FileChunk(path, 0, 0, ByteBuffer.allocate(0), 0, this.charset));
+			}
+			long[] startLines = indexedLines > 0 ? this.startLines(channel, ranges, indexedLines) : null;
+			return this.pool
+				.invoke(new ChunkTask<>(path, channel, ranges, startLines, 0, ranges.size(), processor, combiner));
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 在当前线程中按顺序处理分块，分块的起始行号未知
+	 * @param path 文件地址
+	 * @param processor 分块处理器，返回 {@code false} 时中断后续分块
+	 */
+	public void forEachChunk(Path path, FileChunkProcessor<Boolean> processor) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(processor, "processor");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		if (FileCompression.detect(path).isCompressed()) {
+			this.compressedLoader.forEachChunk(path, processor);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			List<long[]> ranges = this.split(channel);
+			for (int i = 0; i < ranges.size(); i++) {
+				long[] range = ranges.get(i);
+				FileChunk chunk = new FileChunk(path, i, range[0], map(channel, range), -1, this.charset);
+				if (!processor.process(chunk)) {
+					break;
+				}
+			}
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	@Override
+	protected FileContentReader newFileContentReader(Path path) throws IOException {
+		if (FileCompression.detect(path).isCompressed()) {
+			return this.compressedLoader.newFileContentReader(path);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new MappedFileContentReader(channel, this.split(channel), this.charset);
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 按线程池的并行度分批统计分块的起始行号，直到行数达到 {@code indexedLines}
+	 * @param channel 文件通道
+	 * @param ranges 分块范围列表
+	 * @param indexedLines 需要行号的行数
+	 * @return 每个分块的起始行号，未统计的分块为-1
+	 */
+	private long[] startLines(FileChannel channel, List<long[]> ranges, long indexedLines) {
+		long[] startLines = new long[ranges.size()];
+		Arrays.fill(startLines, -1);
+		int batch = Math.max(1, this.pool.getParallelism());
+		long lines = 0;
+		int from = 0;
+		while (from < ranges.size() && lines < indexedLines) {
+			int to = Math.min(from + batch, ranges.size());
+			long[] counts = this.pool.invoke(new CountTask(channel, ranges, from, to));
+			for (int i = from; i < to; i++) {
+				startLines[i] = lines;
+				lines += counts[i - from];
+			}
+			from = to;
+		}
+		if (from < ranges.size()) {
+			startLines[from] = lines;
+		}
+		return startLines;
+	}
+
+	/**
+	 * 按换行符对齐切分文件
+	 * @param channel 文件通道
+	 * @return 分块范围列表，每个元素为 {@code [start, end)}
+	 * @throws IOException IO异常
+	 */
+	private List<long[]> split(FileChannel channel) throws IOException {
+		long size = channel.size();
+		List<long[]> ranges = new ArrayList<>((int) (size / this.chunkSize) + 1);
+		ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long start = 0;
+		while (start < size) {
+			long end = Math.min(start + this.chunkSize, size);
+			if (end < size) {
+				end = this.nextLineStart(channel, end - 1, size, scan);
+			}
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("line too long at position " + start);
+			}
+			ranges.add(new long[] { start, end });
+			start = end;
+		}
+		return ranges;
+	}
+
+	private long nextLineStart(FileChannel channel, long from, long size, ByteBuffer scan) throws IOException {
+		long pos = from;
+		while (pos < size) {
+			scan.clear();
+			int read = channel.read(scan, pos);
+			if (read < 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (scan.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return size;
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long[] range) {
+		try {
+			return channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static class CountTask extends RecursiveTask<long[]> {
+
+		private final FileChannel channel;
+
+		private final List<long[]> ranges;
+
+		private final int from;
+
+		private final int to;
+
+		CountTask(FileChannel channel, List<long[]> ranges, int from, int to) {
+			this.channel = channel;
+			this.ranges = ranges;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (this.to - this.from == 1) {
+				return new long[] { FileChunk.countLines(map(this.channel, this.ranges.get(this.from))) };
+			}
+			int mid = (this.from + this.to) >>> 1;
+			CountTask left = new CountTask(this.channel, this.ranges, this.from, mid);
+			left.fork();
+			long[] right = new CountTask(this.channel, this.ranges, mid, this.to).compute();
+			long[] lines = new long[this.to - this.from];
+			long[] leftLines = left.join();
+			System.arraycopy(leftLines, 0, lines, 0, leftLines.length);
+			System.arraycopy(right, 0, lines, leftLines.length, right.length);
+			return lines;
+		}
+
+	}
+
+	private class ChunkTask<R> extends RecursiveTask<R> {
+
+		private final Path path;
+
+		private final FileChannel channel;
+
+		private final List<long[]> ranges;
+
+		private final long[] startLines;
+
+		private final int from;
+
+		private final int to;
+
+		private final FileChunkProcessor<R> processor;
+
+		private final BinaryOperator<R> combiner;
+
+		ChunkTask(Path path, FileChannel channel, List<long[]> ranges, long[] startLines, int from, int to,
+				FileChunkProcessor<R> processor, BinaryOperator<R> combiner) {
+			this.path = path;
+			this.channel = channel;
+			this.ranges = ranges;
+			this.startLines = startLines;
+			this.from = from;
+			this.to = to;
+			this.processor = processor;
+			this.combiner = combiner;
+		}
+
+		@Override
+		protected R compute() {
+			if (this.to - this.from == 1) {
+				long[] range = this.ranges.get(this.from);
+				long startLine = this.startLines == null ? -1 : this.startLines[this.from];
+				return this.processor.process(new FileChunk(this.path, this.from, range[0], map(this.channel, range),
+						startLine, MappedFileContentLoader.this.charset));
+			}
+			int mid = (this.from + this.to) >>> 1;
+			ChunkTask<R> left = new ChunkTask<>(this.path, this.channel, this.ranges, this.startLines, this.from, mid,
+					this.processor, this.combiner);
+			left.fork();
+			R right = new ChunkTask<>(this.path, this.channel, this.ranges, this.startLines, mid, this.to,
+					this.processor, this.combiner)
+				.compute();
+			return this.combiner.apply(left.join(), right);
+		}
+
+	}
+
+	public static class MappedFileContentReader implements FileContentReader {
+
+		private final FileChannel channel;
+
+		private final List<long[]> ranges;
+
+		private final Charset charset;
+
+		private int chunkIndex;
+
+		private ByteBuffer buffer;
+
+		private byte[] bytes = new byte[256];
+
+		public MappedFileContentReader(FileChannel channel, List<long[]> ranges, Charset charset) {
+			this.channel = channel;
+			this.ranges = ranges;
+			this.charset = charset;
+		}
+
+		@Override
+		public boolean hasNext() throws IOException {
+			while (this.buffer == null || !this.buffer.hasRemaining()) {
+				if (this.chunkIndex >= this.ranges.size()) {
+					return false;
+				}
+				long[] range = this.ranges.get(this.chunkIndex++);
+				this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+			}
+			return true;
+		}
+
+		@Override
+		public String next() throws IOException {
+			if (!this.hasNext()) {
+				return null;
+			}
+			int len = 0;
+			while (this.buffer.hasRemaining()) {
+				byte b = this.buffer.get();
+				if (b == '\n') {
+					break;
+				}
+				if (len == this.bytes.length) {
+					byte[] expand = new byte[this.bytes.length << 1];
+					System.arraycopy(this.bytes, 0, expand, 0, len);
+					this.bytes = expand;
+				}
+				this.bytes[len++] = b;
+			}
+			if (len > 0 && this.bytes[len - 1] == '\r') {
+				len--;
+			}
+			return new String(this.bytes, 0, len, this.charset);
+		}
+
+		@Override
+		public void close() {
+			try {
+				this.channel.close();
+			}
+			catch (Exception e) {
+				// ignore
+			}
+		}
+
+	}
+
+}
@@ -34,6 +34,10 @@ public class CompositeFileReadMeter implements FileReadMeter {
 		this.fileReadMeters.add(Preconditions.checkNotNull(fileReadMeter, "fileReadMeter"));
 	}
 
+	public void remove(FileReadMeter fileReadMeter) {
+		this.fileReadMeters.remove(fileReadMeter);
+	}
+
 	@Override
 	public boolean preRead(Path file) {
 		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
@@ -65,4 +69,45 @@ public class CompositeFileReadMeter implements FileReadMeter {
 		}
 	}
 
+	/**
+	 * 任意一个指标需要忽略的数据时都需要逐行上报
+	 */
+	@Override
+	public boolean isIgnoreDataRequired() {
+		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
+			if (fileReadMeter.isIgnoreDataRequired()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void incrReadCount(Path file, long count) {
+		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
+			fileReadMeter.incrReadCount(file, count);
+		}
+	}
+
+	@Override
+	public void incrSkipCount(Path file, long count) {
+		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
+			fileReadMeter.incrSkipCount(file, count);
+		}
+	}
+
+	@Override
+	public void incrIgnoreCount(Path file, long count) {
+		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
+			fileReadMeter.incrIgnoreCount(file, count);
+		}
+	}
+
+	@Override
+	public void incrReadBytes(Path file, long bytes) {
+		for (FileReadMeter fileReadMeter : this.fileReadMeters) {
+			fileReadMeter.incrReadBytes(file, bytes);
+		}
+	}
+
 }
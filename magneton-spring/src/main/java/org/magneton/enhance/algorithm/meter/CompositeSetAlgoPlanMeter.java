@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.meter;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 复合
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class CompositeSetAlgoPlanMeter implements SetAlgoPlanMeter {
+
+	private final List<SetAlgoPlanMeter> planMeters = new CopyOnWriteArrayList<>();
+
+	public void add(SetAlgoPlanMeter planMeter) {
+		this.planMeters.add(Preconditions.checkNotNull(planMeter, "planMeter"));
+	}
+
+	public void remove(SetAlgoPlanMeter planMeter) {
+		this.planMeters.remove(planMeter);
+	}
+
+	@Override
+	public void reorder(SetAlgoOperation operation, int nodes) {
+		for (SetAlgoPlanMeter planMeter : this.planMeters) {
+			planMeter.reorder(operation, nodes);
+		}
+	}
+
+	@Override
+	public void skipFile(Path file, long bytes) {
+		for (SetAlgoPlanMeter planMeter : this.planMeters) {
+			planMeter.skipFile(file, bytes);
+		}
+	}
+
+	@Override
+	public void skipData(long rows) {
+		for (SetAlgoPlanMeter planMeter : this.planMeters) {
+			planMeter.skipData(rows);
+		}
+	}
+
+	@Override
+	public void beginNode(SetAlgoOperation operation, String name, int index, int nodes) {
+		for (SetAlgoPlanMeter planMeter : this.planMeters) {
+			planMeter.beginNode(operation, name, index, nodes);
+		}
+	}
+
+}
@@ -51,4 +51,58 @@ public interface FileReadMeter extends Meter {
 	 */
 	<T> void ignoreCount(Path file, Object data);
 
+	/**
+	 * 批量增加读取行数
+	 * @param file 文件地址
+	 * @param count 行数
+	 */
+	default void incrReadCount(Path file, long count) {
+		for (long i = 0; i < count; i++) {
+			this.incrReadCount(file);
+		}
+	}
+
+	/**
+	 * 批量增加跳过行数
+	 * @param file 文件地址
+	 * @param count 行数
+	 */
+	default void incrSkipCount(Path file, long count) {
+		for (long i = 0; i < count; i++) {
+			this.incrSkipCount(file);
+		}
+	}
+
+	/**
+	 * 是否需要逐行上报忽略的数据
+	 *
+	 * <p>
+	 * 需要时读取器对每个忽略的行调用 {@link #ignoreCount(Path, Object)} 并传入数据列，把整个文件解析为位图后合并的批量读取方式无法得到忽略的数据，
+	 * 会退回逐行读取；不需要时读取器可以通过 {@link #incrIgnoreCount(Path, long)} 批量上报忽略行数。
+	 * @return 默认返回 {@code true}
+	 */
+	default boolean isIgnoreDataRequired() {
+		return true;
+	}
+
+	/**
+	 * 批量增加忽略行数，只在 {@link #isIgnoreDataRequired()} 返回 {@code false} 时调用，用于无法逐行回调忽略数据的批量读取场景
+	 * @param file 文件地址
+	 * @param count 行数
+	 */
+	default void incrIgnoreCount(Path file, long count) {
+		for (long i = 0; i < count; i++) {
+			this.ignoreCount(file, null);
+		}
+	}
+
+	/**
+	 * 增加读取字节数，按分块批量上报，压缩文件为解码后的字节数
+	 * @param file 文件地址
+	 * @param bytes 字节数
+	 */
+	default void incrReadBytes(Path file, long bytes) {
+
+	}
+
 }
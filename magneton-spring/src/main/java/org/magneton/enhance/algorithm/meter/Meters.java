@@ -24,6 +24,10 @@ public class Meters {
 
 	private static final CompositeFileReadMeter FILE_READ_METER = new CompositeFileReadMeter();
 
+	private static final CompositeSetAlgoPlanMeter SET_ALGO_PLAN_METER = new CompositeSetAlgoPlanMeter();
+
+	private static final CompositeFileCacheMeter FILE_CACHE_METER = new CompositeFileCacheMeter();
+
 	private Meters() {
 		// ignore
 	}
@@ -32,8 +36,32 @@ public class Meters {
 		FILE_READ_METER.add(meter);
 	}
 
+	public static void unregFileReadMeter(FileReadMeter meter) {
+		FILE_READ_METER.remove(meter);
+	}
+
 	public static FileReadMeter fileReadMeter() {
 		return FILE_READ_METER;
 	}
 
+	public static void regSetAlgoPlanMeter(SetAlgoPlanMeter meter) {
+		SET_ALGO_PLAN_METER.add(meter);
+	}
+
+	public static void unregSetAlgoPlanMeter(SetAlgoPlanMeter meter) {
+		SET_ALGO_PLAN_METER.remove(meter);
+	}
+
+	public static SetAlgoPlanMeter setAlgoPlanMeter() {
+		return SET_ALGO_PLAN_METER;
+	}
+
+	public static void regFileCacheMeter(FileCacheMeter meter) {
+		FILE_CACHE_METER.add(meter);
+	}
+
+	public static FileCacheMeter fileCacheMeter() {
+		return FILE_CACHE_METER;
+	}
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.meter;
+
+import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.nio.file.Path;
+
+/**
+ * 集合算法执行计划指标
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public interface SetAlgoPlanMeter extends Meter {
+
+	/**
+	 * 连续的同类可交换节点被重新排序
+	 * @param operation 运算类型
+	 * @param nodes 节点数量
+	 */
+	void reorder(SetAlgoOperation operation, int nodes);
+
+	/**
+	 * 因链路数据为空而跳过读取文件
+	 * @param file 文件
+	 * @param bytes 文件大小
+	 */
+	void skipFile(Path file, long bytes);
+
+	/**
+	 * 因链路数据为空而跳过非文件数据
+	 * @param rows 数据量，未知时为-1
+	 */
+	void skipData(long rows);
+
+	/**
+	 * 开始执行节点，按执行计划调整后的顺序回调，因链路数据为空而跳过的节点也会回调
+	 * @param node 节点
+	 * @param index 节点序号，从0开始
+	 * @param nodes 节点总数
+	 */
+	default void beginNode(SetAlgoNode<?, ?> node, int index, int nodes) {
+		this.beginNode(node.getOperation(), node.getClass().getSimpleName(), index, nodes);
+	}
+
+	/**
+	 * 开始执行节点，用于不以 {@link SetAlgoNode} 组成的算法链
+	 * @param operation 运算类型，未知时为 {@code null}
+	 * @param name 节点名称
+	 * @param index 节点序号，从0开始
+	 * @param nodes 节点总数
+	 */
+	default void beginNode(SetAlgoOperation operation, String name, int index, int nodes) {
+
+	}
+
+}
@@ -61,4 +61,24 @@ public class SimpleFileReadMeter implements FileReadMeter {
 		this.ignoreCount.increment();
 	}
 
+	@Override
+	public boolean isIgnoreDataRequired() {
+		return false;
+	}
+
+	@Override
+	public void incrReadCount(Path file, long count) {
+		this.readCount.add(count);
+	}
+
+	@Override
+	public void incrSkipCount(Path file, long count) {
+		this.skipCount.add(count);
+	}
+
+	@Override
+	public void incrIgnoreCount(Path file, long count) {
+		this.ignoreCount.add(count);
+	}
+
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.meter;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 简单的集合算法执行计划指标
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+@Getter
+public class SimpleSetAlgoPlanMeter implements SetAlgoPlanMeter {
+
+	private final LongAdder reorderCount = new LongAdder();
+
+	private final LongAdder skipFileCount = new LongAdder();
+
+	private final LongAdder skipFileBytes = new LongAdder();
+
+	private final LongAdder skipDataCount = new LongAdder();
+
+	@Override
+	public void reorder(SetAlgoOperation operation, int nodes) {
+		if (log.isDebugEnabled()) {
+			log.debug("reorder {} {} nodes", operation, nodes);
+		}
+		this.reorderCount.increment();
+	}
+
+	@Override
+	public void skipFile(Path file, long bytes) {
+		if (log.isDebugEnabled()) {
+			log.debug("skip reading {}, {} bytes", file, bytes);
+		}
+		this.skipFileCount.increment();
+		this.skipFileBytes.add(bytes);
+	}
+
+	@Override
+	public void skipData(long rows) {
+		this.skipDataCount.increment();
+	}
+
+}
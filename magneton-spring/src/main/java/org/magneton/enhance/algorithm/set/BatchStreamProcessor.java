@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import java.util.function.Function;
+
+/**
+ * 批量流处理器，以整块数据（如一个文件对应的位图）的方式提供数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public interface BatchStreamProcessor<T, D> extends StreamProcessor<T> {
+
+	/**
+	 * 是否使用批量模式，不使用时回退到 {@link #nextData(Function)}
+	 * @return 如果使用批量模式返回 {@code true}，否则返回 {@code false}.
+	 */
+	boolean isBatch();
+
+	/**
+	 * 批量读取下一份数据
+	 * @param merger 数据合并器，返回合并时可用的数据数量
+	 */
+	void nextBatch(Function<D, Long> merger);
+
+}
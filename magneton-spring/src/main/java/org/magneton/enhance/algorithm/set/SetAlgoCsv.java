@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV文件的读取规则，从每行中取出指定列作为数据，并可以按其他列的值过滤行
+ *
+ * <p>
+ * 解析直接在文件的字节上进行，不会把行转换为字符串。列号从0开始，分隔符和引号必须是ASCII字符。
+ * 以引号开头的字段内可以包含分隔符，字段内的引号以两个连续的引号转义，过滤条件按转义后的值比较，数据列按原始字节读取。
+ * 未加引号的字段去掉首尾的空格和制表符。列数不足的行视为跳过的行。
+ *
+ * <pre>
+ * // 第3列为id，只读取第5列为1的行
+ * SetAlgoFile file = SetAlgoFile.of("orders.csv", 1).csv(SetAlgoCsv.of(2).where(4, "1"));
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetAlgoCsv {
+
+	private static final int NONE = -1;
+
+	private final int column;
+
+	private byte delimiter = ',';
+
+	/**
+	 * 引号，为 {@code 0} 时不处理引号
+	 */
+	private byte quote = '"';
+
+	private final List<Filter> filters = new ArrayList<>();
+
+	/**
+	 * 需要解析到的最大列号
+	 */
+	private int maxColumn;
+
+	private SetAlgoCsv(int column) {
+		Preconditions.checkArgument(column >= 0, "column must not be negative");
+		this.column = column;
+		this.maxColumn = column;
+	}
+
+	/**
+	 * 读取指定列
+	 * @param column 列号，从0开始
+	 * @return 读取规则
+	 */
+	public static SetAlgoCsv of(int column) {
+		return new SetAlgoCsv(column);
+	}
+
+	/**
+	 * 分隔符，默认为逗号
+	 * @param delimiter 分隔符，例如 {@code '\t'}
+	 * @return 读取规则
+	 */
+	public SetAlgoCsv delimiter(char delimiter) {
+		Preconditions.checkArgument(delimiter > 0 && delimiter < 128, "delimiter must be ascii");
+		this.delimiter = (byte) delimiter;
+		return this;
+	}
+
+	/**
+	 * 引号，默认为双引号
+	 * @param quote 引号
+	 * @return 读取规则
+	 */
+	public SetAlgoCsv quote(char quote) {
+		Preconditions.checkArgument(quote > 0 && quote < 128, "quote must be ascii");
+		this.quote = (byte) quote;
+		return this;
+	}
+
+	/**
+	 * 不处理引号，引号作为普通字符
+	 * @return 读取规则
+	 */
+	public SetAlgoCsv unquoted() {
+		this.quote = 0;
+		return this;
+	}
+
+	/**
+	 * 只读取指定列的值等于其中一个值的行，多个条件之间为且
+	 * @param column 列号
+	 * @param values 值
+	 * @return 读取规则
+	 */
+	public SetAlgoCsv where(int column, String... values) {
+		return this.filter(column, false, values);
+	}
+
+	/**
+	 * 只读取指定列的值不等于任何一个值的行，多个条件之间为且
+	 * @param column 列号
+	 * @param values 值
+	 * @return 读取规则
+	 */
+	public SetAlgoCsv whereNot(int column, String... values) {
+		return this.filter(column, true, values);
+	}
+
+	public int getColumn() {
+		return this.column;
+	}
+
+	/**
+	 * 在一行中定位数据列
+	 * @param buffer 数据
+	 * @param from 行的起始位置（包含）
+	 * @param to 行的结束位置（不包含）
+	 * @return 数据列的位置，通过 {@link #start(long)} 和 {@link #end(long)} 取出，行被过滤或列数不足时返回负数
+	 */
+	public long locate(ByteBuffer buffer, int from, int to) {
+		long field = NONE;
+		int i = from;
+		for (int column = 0;; column++) {
+			int start = i;
+			int end;
+			int next;
+			boolean quoted = this.quote != 0 && i < to && buffer.get(i) == this.quote;
+			if (quoted) {
+				start = i + 1;
+				end = to;
+				int j = start;
+				while (j < to) {
+					if (buffer.get(j) == this.quote) {
+						if (j + 1 < to && buffer.get(j + 1) == this.quote) {
+							j += 2;
+							continue;
+						}
+						end = j++;
+						break;
+					}
+					j++;
+				}
+				while (j < to && buffer.get(j) != this.delimiter) {
+					j++;
+				}
+				next = j;
+			}
+			else {
+				int j = i;
+				while (j < to && buffer.get(j) != this.delimiter) {
+					j++;
+				}
+				end = j;
+				next = j;
+				while (start < end && isBlank(buffer.get(start))) {
+					start++;
+				}
+				while (end > start && isBlank(buffer.get(end - 1))) {
+					end--;
+				}
+			}
+			if (column == this.column) {
+				field = pack(start, end);
+			}
+			if (!this.test(column, buffer, start, end, quoted)) {
+				return NONE;
+			}
+			if (column == this.maxColumn) {
+				return field;
+			}
+			if (next >= to) {
+				return NONE;
+			}
+			i = next + 1;
+		}
+	}
+
+	/**
+	 * 从一行文本中取出数据列，转义的引号会还原
+	 * @param line 行
+	 * @return 数据列，行被过滤或列数不足时返回 {@code null}
+	 */
+	public String extract(String line) {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		long field = this.locate(ByteBuffer.wrap(bytes), 0, bytes.length);
+		if (field < 0) {
+			return null;
+		}
+		String value = new String(bytes, start(field), end(field) - start(field), StandardCharsets.UTF_8);
+		if (this.quote == 0) {
+			return value;
+		}
+		String quote = String.valueOf((char) this.quote);
+		return value.replace(quote + quote, quote);
+	}
+
+	/**
+	 * 按读取规则定位一行中的数据
+	 * @param csv 读取规则，为空时整行作为数据
+	 * @param buffer 数据
+	 * @param from 行的起始位置（包含）
+	 * @param to 行的结束位置（不包含）
+	 * @return 数据的位置，行被过滤、列数不足或数据为空时返回负数
+	 */
+	public static long field(SetAlgoCsv csv, ByteBuffer buffer, int from, int to) {
+		long field = csv == null ? pack(from, to) : csv.locate(buffer, from, to);
+		return field < 0 || start(field) == end(field) ? NONE : field;
+	}
+
+	/**
+	 * 按读取规则取出一行中的数据
+	 * @param csv 读取规则，为空时整行作为数据
+	 * @param line 行
+	 * @return 数据，行被过滤、列数不足或数据为空时返回 {@code null}
+	 */
+	public static String value(SetAlgoCsv csv, String line) {
+		String value = csv == null ? line : csv.extract(line);
+		return value == null || value.isEmpty() ? null : value;
+	}
+
+	/**
+	 * 数据列的起始位置
+	 * @param field {@link #locate(ByteBuffer, int, int)} 的返回值
+	 * @return 起始位置（包含）
+	 */
+	public static int start(long field) {
+		return (int) (field >>> 32);
+	}
+
+	/**
+	 * 数据列的结束位置
+	 * @param field {@link #locate(ByteBuffer, int, int)} 的返回值
+	 * @return 结束位置（不包含）
+	 */
+	public static int end(long field) {
+		return (int) field;
+	}
+
+	private static long pack(int start, int end) {
+		return ((long) start << 32) | end;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+	private SetAlgoCsv filter(int column, boolean negate, String... values) {
+		Preconditions.checkArgument(column >= 0, "column must not be negative");
+		Preconditions.checkArgument(values != null && values.length > 0, "values must not be empty");
+		byte[][] bytes = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = Preconditions.checkNotNull(values[i], "value").getBytes(StandardCharsets.UTF_8);
+		}
+		this.filters.add(new Filter(column, negate, bytes));
+		this.maxColumn = Math.max(this.maxColumn, column);
+		return this;
+	}
+
+	private boolean test(int column, ByteBuffer buffer, int start, int end, boolean quoted) {
+		for (Filter filter : this.filters) {
+			if (filter.column != column) {
+				continue;
+			}
+			boolean matched = false;
+			for (byte[] value : filter.values) {
+				if (this.equals(buffer, start, end, quoted, value)) {
+					matched = true;
+					break;
+				}
+			}
+			if (matched == filter.negate) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 比较字段与值，引号内转义的引号按一个引号比较
+	 */
+	private boolean equals(ByteBuffer buffer, int start, int end, boolean quoted, byte[] value) {
+		int j = 0;
+		for (int i = start; i < end; i++, j++) {
+			byte b = buffer.get(i);
+			if (quoted && b == this.quote) {
+				i++;
+			}
+			if (j >= value.length || value[j] != b) {
+				return false;
+			}
+		}
+		return j == value.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("csv(").append(this.column)
+			.append(",d=")
+			.append(this.delimiter)
+			.append(",q=")
+			.append(this.quote);
+		for (Filter filter : this.filters) {
+			builder.append(',').append(filter.column).append(filter.negate ? "!=" : "=");
+			for (int i = 0; i < filter.values.length; i++) {
+				builder.append(i == 0 ? "" : "|").append(new String(filter.values[i], StandardCharsets.UTF_8));
+			}
+		}
+		return builder.append(')').toString();
+	}
+
+	private static class Filter {
+
+		private final int column;
+
+		private final boolean negate;
+
+		private final byte[][] values;
+
+		Filter(int column, boolean negate, byte[][] values) {
+			this.column = column;
+			this.negate = negate;
+			this.values = values;
+		}
+
+	}
+
+}
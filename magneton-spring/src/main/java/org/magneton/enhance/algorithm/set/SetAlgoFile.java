@@ -48,6 +48,16 @@ public class SetAlgoFile {
 	 */
 	private int limit;
 
+	/**
+	 * 是否使用内存映射分块并行读取文件
+	 */
+	private boolean parallel;
+
+	/**
+	 * CSV读取规则，为空时整行作为数据
+	 */
+	private SetAlgoCsv csv;
+
 	public static SetAlgoFile of(String... files) {
 		return new SetAlgoFile(Lists.newArrayList(files));
 	}
@@ -88,12 +98,15 @@ public class SetAlgoFile {
 
 	public SetAlgoFile get(int i) {
 		String file = this.files.get(i);
-		return SetAlgoFile.of(file).skip(this.skip).limit(this.limit);
+		return SetAlgoFile.of(file).skip(this.skip).limit(this.limit).parallel(this.parallel).csv(this.csv);
 	}
 
 	public SetAlgoFile getRange(int start, int end) {
 		List<String> rangeFiles = this.files.subList(start, end);
-		return new SetAlgoFile(Lists.newArrayList(rangeFiles)).skip(this.skip).limit(this.limit);
+		return new SetAlgoFile(Lists.newArrayList(rangeFiles)).skip(this.skip)
+			.limit(this.limit)
+			.parallel(this.parallel)
+			.csv(this.csv);
 	}
 
 	public void setFiles(Set<String> files) {
@@ -114,4 +127,14 @@ public class SetAlgoFile {
 		return this;
 	}
 
+	public SetAlgoFile parallel(boolean parallel) {
+		this.parallel = parallel;
+		return this;
+	}
+
+	public SetAlgoFile csv(SetAlgoCsv csv) {
+		this.csv = csv;
+		return this;
+	}
+
 }
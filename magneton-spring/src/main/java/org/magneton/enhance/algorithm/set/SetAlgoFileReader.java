@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.file.DecimalParser;
+import org.magneton.enhance.algorithm.file.FileChunk;
+import org.magneton.enhance.algorithm.file.FileContentLoader;
+import org.magneton.enhance.algorithm.file.FileContextReadListener;
+import org.magneton.enhance.algorithm.file.FileLineEstimator;
+import org.magneton.enhance.algorithm.file.LineFileContextLoader;
+import org.magneton.enhance.algorithm.file.MappedFileContentLoader;
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * 文件读取器，统一各个引擎的文件流处理器按行读取文件的规则
+ *
+ * <p>
+ * 跳过和限制都按文件行号计算：行号小于 {@link SetAlgoFile#getSkip()} 的行和空行为跳过的行，行号达到
+ * {@link SetAlgoFile#getLimit()} 时停止读取。配置了 {@link SetAlgoFile#getCsv()} 时取出数据列，被过滤或列数不足的行也为跳过的行。
+ * 读取、跳过和读取字节数由读取器上报到指标中，忽略行数取决于数据最终是否可用，顺序读取时由读取器上报，批量读取时由调用方上报。
+ * 指标需要逐行的忽略数据（见 {@link FileReadMeter#isIgnoreDataRequired()}）时，顺序读取逐行上报忽略的数据列，
+ * 调用方应通过 {@link #isBatchable()} 判断是否可以批量读取。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetAlgoFileReader {
+
+	private final FileContentLoader fileContentLoader = new LineFileContextLoader();
+
+	private final MappedFileContentLoader mappedFileContentLoader;
+
+	private final SetAlgoFile algoFile;
+
+	private final FileReadMeter fileReadMeter;
+
+	public SetAlgoFileReader(SetAlgoFile algoFile, FileReadMeter fileReadMeter) {
+		this(algoFile, fileReadMeter, new MappedFileContentLoader());
+	}
+
+	public SetAlgoFileReader(SetAlgoFile algoFile, FileReadMeter fileReadMeter,
+			MappedFileContentLoader mappedFileContentLoader) {
+		this.algoFile = Preconditions.checkNotNull(algoFile, "algoFile");
+		this.fileReadMeter = Preconditions.checkNotNull(fileReadMeter, "fileReadMeter");
+		this.mappedFileContentLoader = Preconditions.checkNotNull(mappedFileContentLoader,
+				"mappedFileContentLoader");
+	}
+
+	/**
+	 * 预估所有文件可读取的数据行数
+	 * @return 预估行数，任意一个文件不可预估时返回-1
+	 */
+	public long estimate() {
+		long total = 0;
+		for (String file : this.algoFile.getFiles()) {
+			long lines = this.estimate(Paths.get(file));
+			if (lines < 0) {
+				return -1;
+			}
+			total += lines;
+		}
+		return total;
+	}
+
+	/**
+	 * 预估单个文件可读取的数据行数
+	 * @param path 文件地址
+	 * @return 预估行数，不可预估时返回-1
+	 */
+	public long estimate(Path path) {
+		long lines = FileLineEstimator.estimate(path);
+		if (lines < 0) {
+			return -1;
+		}
+		return estimate(lines, this.algoFile.getSkip(), this.algoFile.getLimit());
+	}
+
+	/**
+	 * 根据文件行数计算可读取的数据行数，限制行数和读取时一样从文件第一行开始计算，包含被跳过的行
+	 * @param lines 文件行数
+	 * @param skip 跳过行数
+	 * @param limit 限制行数，小于等于0表示不限制
+	 * @return 数据行数
+	 */
+	public static long estimate(long lines, int skip, int limit) {
+		if (limit > 0) {
+			lines = Math.min(lines, limit);
+		}
+		return Math.max(0, lines - Math.max(0, skip));
+	}
+
+	/**
+	 * 在当前线程中按行读取文件的数据列字符串，逐行上报指标
+	 * @param path 文件地址
+	 * @param accessor 数据访问器，返回 {@code false} 时计为忽略的行
+	 */
+	public void forEachValue(Path path, Function<String, Boolean> accessor) {
+		SetAlgoJobContext.checkpoint();
+		if (!this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		int skip = this.algoFile.getSkip();
+		int limit = this.algoFile.getLimit();
+		SetAlgoCsv csv = this.algoFile.getCsv();
+		FileReadMeter meter = this.fileReadMeter;
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		this.fileContentLoader.load(path, new FileContextReadListener() {
+			private int readLine = 0;
+
+			@Override
+			public boolean onRead(Path path, String data) {
+				if (context != null) {
+					context.check();
+				}
+				meter.incrReadCount(path);
+				if (this.readLine++ < skip || data == null || data.isEmpty()) {
+					meter.incrSkipCount(path);
+					return true;
+				}
+				if (limit > 0 && this.readLine > limit) {
+					return false;
+				}
+				String value = SetAlgoCsv.value(csv, data);
+				if (value == null) {
+					meter.incrSkipCount(path);
+					return true;
+				}
+				if (!accessor.apply(value)) {
+					meter.ignoreCount(path, value);
+				}
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * 在当前线程中按分块顺序读取文件，直接从字节解析long，计数按分块汇总到指标中
+	 * @param path 文件地址
+	 * @param accessor 数据访问器，返回 {@code false} 时计为忽略的行
+	 */
+	public void forEachLong(Path path, LongPredicate accessor) {
+		this.forEachField(path, (buffer, from, to) -> accessor.test(DecimalParser.parseLong(buffer, from, to)));
+	}
+
+	/**
+	 * 在当前线程中按分块顺序读取文件的数据列字节，计数按分块汇总到指标中
+	 * @param path 文件地址
+	 * @param accessor 数据列访问器，返回 {@code false} 时计为忽略的行
+	 */
+	public void forEachField(Path path, FieldAccessor accessor) {
+		SetAlgoJobContext.checkpoint();
+		if (!this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		boolean ignoreData = this.fileReadMeter.isIgnoreDataRequired();
+		long[] lineOffset = { 0 };
+		this.mappedFileContentLoader.forEachChunk(path, chunk -> {
+			Result<Void> result = this.readChunk(chunk, lineOffset[0], true, this.algoFile.getSkip(), accessor,
+					ignoreData);
+			lineOffset[0] += result.readCount;
+			this.fileReadMeter.incrReadCount(path, result.readCount);
+			this.fileReadMeter.incrSkipCount(path, result.skipCount);
+			if (result.ignoreCount > 0) {
+				this.fileReadMeter.incrIgnoreCount(path, result.ignoreCount);
+			}
+			this.fileReadMeter.incrReadBytes(path, result.readBytes);
+			return !result.stopped;
+		});
+	}
+
+	/**
+	 * 是否可以批量读取，批量读取时只能通过 {@link FileReadMeter#incrIgnoreCount(Path, long)} 上报忽略行数，
+	 * 指标需要逐行的忽略数据时只能逐行读取
+	 * @return 如果可以批量读取返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isBatchable() {
+		return !this.fileReadMeter.isIgnoreDataRequired();
+	}
+
+	/**
+	 * 读取文件并把数据列累积到结果中，{@link SetAlgoFile#isParallel()} 时分块并行读取后按分块顺序合并，否则在当前线程中顺序读取
+	 *
+	 * <p>
+	 * 读取和跳过行数以及读取字节数会上报到指标中，忽略行数由调用方根据 {@link Result#getParseCount()} 上报。
+	 * @param path 文件地址
+	 * @param factory 结果工厂，并行读取时每个分块创建一个结果
+	 * @param accumulator 数据列累积方式
+	 * @param combiner 结果合并方式，左侧为序号较小的分块结果
+	 * @param <R> 结果类型
+	 * @return 读取结果
+	 */
+	public <R> Result<R> read(Path path, Supplier<R> factory, FieldAccumulator<R> accumulator,
+			BinaryOperator<R> combiner) {
+		SetAlgoJobContext.checkpoint();
+		int skip = this.algoFile.getSkip();
+		int limit = this.algoFile.getLimit();
+		Result<R> result;
+		if (this.algoFile.isParallel()) {
+			// 只有跳过和限制范围内的行需要行号，之后的分块起始行号未知
+			long indexedLines = Math.max(skip, limit);
+			result = this.mappedFileContentLoader.loadParallel(path, indexedLines, SetAlgoJobContext.wrap(chunk -> {
+				boolean unindexed = indexedLines > 0 && chunk.getStartLine() < 0;
+				if (unindexed && limit > 0) {
+					// 分块在限制行数之后
+					Result<R> stopped = new Result<>();
+					stopped.stopped = true;
+					return stopped;
+				}
+				R value = factory.get();
+				FieldAccessor collector = (buffer, from, to) -> {
+					accumulator.accept(value, buffer, from, to);
+					return true;
+				};
+				boolean indexed = chunk.getIndex() == 0 || chunk.getStartLine() >= 0;
+				Result<R> chunkResult = this.readChunk(chunk, 0, indexed, unindexed ? 0 : skip, collector, false);
+				chunkResult.value = value;
+				return chunkResult;
+			}), (left, right) -> Result.combine(left, right, combiner));
+			this.fileReadMeter.incrReadBytes(path, result.readBytes);
+		}
+		else {
+			Result<R> total = new Result<>();
+			total.value = factory.get();
+			this.mappedFileContentLoader.forEachChunk(path, chunk -> {
+				Result<R> chunkResult = this.readChunk(chunk, total.readCount, true, skip, (buffer, from, to) -> {
+					accumulator.accept(total.value, buffer, from, to);
+					return true;
+				}, false);
+				Result.combine(total, chunkResult, null);
+				this.fileReadMeter.incrReadBytes(path, chunkResult.readBytes);
+				return !chunkResult.stopped;
+			});
+			result = total;
+		}
+		this.fileReadMeter.incrReadCount(path, result.readCount);
+		this.fileReadMeter.incrSkipCount(path, result.skipCount);
+		return result;
+	}
+
+	/**
+	 * 读取分块，读取之前检查任务是否已被取消
+	 * @param chunk 分块
+	 * @param lineOffset 分块行号的偏移量
+	 * @param indexed 行号是否为文件中的行号，用于异常信息
+	 * @param skip 跳过行数
+	 * @param accessor 数据列访问器
+	 * @param ignoreData 是否逐行上报忽略的数据，否则只统计忽略行数
+	 * @param <R> 结果类型
+	 * @return 读取结果，不包含累积值
+	 */
+	private <R> Result<R> readChunk(FileChunk chunk, long lineOffset, boolean indexed, int skip,
+			FieldAccessor accessor, boolean ignoreData) {
+		SetAlgoJobContext.checkpoint();
+		int limit = this.algoFile.getLimit();
+		SetAlgoCsv csv = this.algoFile.getCsv();
+		Result<R> result = new Result<>();
+		result.readBytes = chunk.getBuffer().remaining();
+		result.stopped = !chunk.forEachRawLine((line, buffer, from, to) -> {
+			long readLine = lineOffset + line;
+			result.readCount++;
+			if (readLine < skip || from == to) {
+				result.skipCount++;
+				return true;
+			}
+			if (limit > 0 && readLine >= limit) {
+				return false;
+			}
+			long field = SetAlgoCsv.field(csv, buffer, from, to);
+			if (field < 0) {
+				result.skipCount++;
+				return true;
+			}
+			result.parseCount++;
+			int start = SetAlgoCsv.start(field);
+			int end = SetAlgoCsv.end(field);
+			boolean useable;
+			try {
+				useable = accessor.onField(buffer, start, end);
+			}
+			catch (NumberFormatException e) {
+				throw invalidValue(chunk, readLine, indexed, e);
+			}
+			if (!useable) {
+				if (ignoreData) {
+					this.fileReadMeter.ignoreCount(chunk.getPath(), decode(buffer, start, end, chunk.getCharset()));
+				}
+				else {
+					result.ignoreCount++;
+				}
+			}
+			return true;
+		});
+		return result;
+	}
+
+	/**
+	 * 数据列不是合法数值时的异常，包含文件地址和行号
+	 * @param path 文件地址
+	 * @param line 文件中的行号，从0开始
+	 * @param cause 数值解析异常
+	 * @return 异常
+	 */
+	public static NotFileException invalidValue(Path path, long line, NumberFormatException cause) {
+		return new NotFileException(path + " line " + (line + 1) + ": " + cause.getMessage(), cause);
+	}
+
+	/**
+	 * 数据列不是合法数值时的异常，分块起始行号未知时给出分块序号和分块内的行号
+	 * @param chunk 分块
+	 * @param line 行号，从0开始
+	 * @param indexed 行号是否为文件中的行号
+	 * @param cause 数值解析异常
+	 * @return 异常
+	 */
+	public static NotFileException invalidValue(FileChunk chunk, long line, boolean indexed,
+			NumberFormatException cause) {
+		if (indexed) {
+			return invalidValue(chunk.getPath(), line, cause);
+		}
+		return new NotFileException(chunk.getPath() + " chunk " + chunk.getIndex() + " line " + (line + 1) + ": "
+				+ cause.getMessage(), cause);
+	}
+
+	private static String decode(ByteBuffer buffer, int from, int to, Charset charset) {
+		byte[] bytes = new byte[to - from];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * 数据列访问器
+	 */
+	@FunctionalInterface
+	public interface FieldAccessor {
+
+		/**
+		 * 访问数据列
+		 * @param buffer 数据
+		 * @param from 数据列的起始位置（包含）
+		 * @param to 数据列的结束位置（不包含）
+		 * @return 数据是否可用
+		 */
+		boolean onField(ByteBuffer buffer, int from, int to);
+
+	}
+
+	/**
+	 * 数据列累积方式
+	 *
+	 * @param <R> 结果类型
+	 */
+	@FunctionalInterface
+	public interface FieldAccumulator<R> {
+
+		/**
+		 * 把数据列累积到结果中
+		 * @param target 结果
+		 * @param buffer 数据
+		 * @param from 数据列的起始位置（包含）
+		 * @param to 数据列的结束位置（不包含）
+		 */
+		void accept(R target, ByteBuffer buffer, int from, int to);
+
+	}
+
+	/**
+	 * 读取结果
+	 *
+	 * @param <R> 结果类型
+	 */
+	public static class Result<R> {
+
+		private R value;
+
+		private long readCount;
+
+		private long skipCount;
+
+		private long parseCount;
+
+		private long ignoreCount;
+
+		private long readBytes;
+
+		/**
+		 * 是否因为达到限制行数而中断，中断后后续分块的数据都不可用
+		 */
+		private boolean stopped;
+
+		/**
+		 * 创建只包含累积值的结果，用于从缓存中加载的数据
+		 * @param value 累积值
+		 * @param parseCount 解析行数
+		 * @param <R> 结果类型
+		 * @return 结果
+		 */
+		public static <R> Result<R> of(R value, long parseCount) {
+			Result<R> result = new Result<>();
+			result.value = value;
+			result.parseCount = parseCount;
+			return result;
+		}
+
+		public R getValue() {
+			return this.value;
+		}
+
+		public long getReadCount() {
+			return this.readCount;
+		}
+
+		public long getSkipCount() {
+			return this.skipCount;
+		}
+
+		/**
+		 * 解析的数据行数，即累积到结果中的行数
+		 * @return 行数
+		 */
+		public long getParseCount() {
+			return this.parseCount;
+		}
+
+		public long getReadBytes() {
+			return this.readBytes;
+		}
+
+		private static <R> Result<R> combine(Result<R> left, Result<R> right, BinaryOperator<R> combiner) {
+			if (left.stopped) {
+				return left;
+			}
+			if (combiner != null && right.value != null) {
+				left.value = combiner.apply(left.value, right.value);
+			}
+			left.readCount += right.readCount;
+			left.skipCount += right.skipCount;
+			left.parseCount += right.parseCount;
+			left.ignoreCount += right.ignoreCount;
+			left.readBytes += right.readBytes;
+			left.stopped = right.stopped;
+			return left;
+		}
+
+	}
+
+}
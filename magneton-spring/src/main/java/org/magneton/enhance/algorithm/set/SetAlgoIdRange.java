@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.ToString;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.file.DecimalParser;
+import org.magneton.enhance.algorithm.file.FileChunk;
+import org.magneton.enhance.algorithm.file.FileCompression;
+import org.magneton.enhance.algorithm.file.MappedFileContentLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 数据值域，用于选择32位或64位的集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+@ToString
+public class SetAlgoIdRange {
+
+	/**
+	 * 32位算法支持的最小值
+	 */
+	public static final long N32_MIN = 0;
+
+	/**
+	 * 32位算法支持的最大值，即无符号32位整数的最大值
+	 */
+	public static final long N32_MAX = 0xFFFFFFFFL;
+
+	/**
+	 * 采样的窗口数
+	 */
+	private static final int SAMPLE_WINDOWS = 64;
+
+	/**
+	 * 采样的窗口大小，64K
+	 */
+	private static final int SAMPLE_WINDOW_SIZE = 64 * 1024;
+
+	private static final SetAlgoIdRange EMPTY = new SetAlgoIdRange(Long.MAX_VALUE, Long.MIN_VALUE);
+
+	private final long min;
+
+	private final long max;
+
+	private SetAlgoIdRange(long min, long max) {
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * 创建值域
+	 * @param min 最小值
+	 * @param max 最大值
+	 * @return 值域
+	 */
+	public static SetAlgoIdRange of(long min, long max) {
+		Preconditions.checkArgument(min <= max, "min must be less than or equal to max");
+		return new SetAlgoIdRange(min, max);
+	}
+
+	/**
+	 * 采样文件得到值域，跳过和限制规则与集合算法读取文件时一致
+	 *
+	 * <p>
+	 * 未压缩且没有限制行数的文件在全文件范围内均匀读取64个64K的窗口，只解析窗口内的完整行，跳过的行只在文件头部的窗口中按行号跳过；
+	 * 压缩文件和限制了行数的文件从头部顺序读取，限制了行数时读取到限制的行数为止，否则读取约4M的数据。小于4M的文件完整读取。
+	 *
+	 * <p>
+	 * 采样的值域可能小于实际值域，据此选择的32位算法在读到超出值域的数据时抛出 {@link NumberFormatException}，
+	 * 需要精确值域时使用 {@link #scan(SetAlgoFile...)}。
+	 * @param files 文件
+	 * @return 值域，没有数据时返回空值域
+	 */
+	public static SetAlgoIdRange observe(SetAlgoFile... files) {
+		Preconditions.checkNotNull(files, "files");
+		SetAlgoIdRange range = EMPTY;
+		for (SetAlgoFile file : files) {
+			for (String path : file.getFiles()) {
+				range = range.merge(sample(Paths.get(path), file));
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * 扫描文件得到精确值域，跳过和限制规则与集合算法读取文件时一致
+	 *
+	 * <p>
+	 * 扫描需要完整读取一遍文件，已知值域时应使用 {@link #of(long, long)}，可以接受估计值时使用 {@link #observe(SetAlgoFile...)}。
+	 * @param files 文件
+	 * @return 值域，没有数据时返回空值域
+	 */
+	public static SetAlgoIdRange scan(SetAlgoFile... files) {
+		Preconditions.checkNotNull(files, "files");
+		MappedFileContentLoader loader = new MappedFileContentLoader();
+		SetAlgoIdRange range = EMPTY;
+		for (SetAlgoFile file : files) {
+			// 只有跳过和限制范围内的行需要行号，之后的分块起始行号未知
+			long indexedLines = Math.max(file.getSkip(), file.getLimit());
+			for (String path : file.getFiles()) {
+				SetAlgoIdRange fileRange = loader.loadParallel(Paths.get(path), indexedLines, chunk -> {
+					boolean unindexed = indexedLines > 0 && chunk.getStartLine() < 0;
+					if (unindexed && file.getLimit() > 0) {
+						return EMPTY;
+					}
+					long[] state = newState();
+					boolean indexed = chunk.getIndex() == 0 || chunk.getStartLine() >= 0;
+					int skip = unindexed ? 0 : file.getSkip();
+					scan(chunk, 0, indexed, skip, file.getLimit(), file.getCsv(), state);
+					return new SetAlgoIdRange(state[0], state[1]);
+				}, SetAlgoIdRange::merge);
+				range = range.merge(fileRange);
+			}
+		}
+		return range;
+	}
+
+	private static SetAlgoIdRange sample(Path path, SetAlgoFile file) {
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		long sampleSize = (long) SAMPLE_WINDOWS * SAMPLE_WINDOW_SIZE;
+		if (file.getLimit() > 0 || FileCompression.detect(path).isCompressed()) {
+			return head(path, file, file.getLimit() > 0 ? Long.MAX_VALUE : sampleSize);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size <= sampleSize) {
+				return head(path, file, Long.MAX_VALUE);
+			}
+			long[] state = newState();
+			ByteBuffer window = ByteBuffer.allocate(SAMPLE_WINDOW_SIZE);
+			long step = (size - SAMPLE_WINDOW_SIZE) / (SAMPLE_WINDOWS - 1);
+			for (int i = 0; i < SAMPLE_WINDOWS; i++) {
+				long position = step * i;
+				window.clear();
+				while (window.hasRemaining() && channel.read(window, position + window.position()) > 0) {
+					// 读满窗口
+				}
+				int from = 0;
+				int to = window.position();
+				if (i > 0) {
+					// 窗口中的首行不完整
+					while (from < to && window.get(from) != '\n') {
+						from++;
+					}
+					from++;
+				}
+				if (position + to < size) {
+					// 窗口中的末行不完整
+					while (to > from && window.get(to - 1) != '\n') {
+						to--;
+					}
+				}
+				if (from >= to) {
+					continue;
+				}
+				window.limit(to);
+				window.position(from);
+				FileChunk chunk = new FileChunk(path, i, position + from, window.slice(), -1, StandardCharsets.UTF_8);
+				scan(chunk, 0, i == 0, i == 0 ? file.getSkip() : 0, 0, file.getCsv(), state);
+			}
+			return new SetAlgoIdRange(state[0], state[1]);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 从文件头部顺序读取
+	 * @param path 文件地址
+	 * @param file 文件
+	 * @param maxBytes 最多读取的字节数，按分块计算
+	 * @return 值域
+	 */
+	private static SetAlgoIdRange head(Path path, SetAlgoFile file, long maxBytes) {
+		MappedFileContentLoader loader = new MappedFileContentLoader(SAMPLE_WINDOW_SIZE, StandardCharsets.UTF_8,
+				ForkJoinPool.commonPool());
+		long[] state = newState();
+		long[] readBytes = { 0 };
+		loader.forEachChunk(path, chunk -> {
+			readBytes[0] += chunk.getBuffer().remaining();
+			return scan(chunk, state[2], true, file.getSkip(), file.getLimit(), file.getCsv(), state)
+					&& readBytes[0] < maxBytes;
+		});
+		return new SetAlgoIdRange(state[0], state[1]);
+	}
+
+	/**
+	 * @return 扫描状态，依次为最小值、最大值和读取行数
+	 */
+	private static long[] newState() {
+		return new long[] { Long.MAX_VALUE, Long.MIN_VALUE, 0 };
+	}
+
+	/**
+	 * 扫描分块并更新扫描状态
+	 * @param chunk 分块
+	 * @param lineOffset 分块行号的偏移量
+	 * @param indexed 行号是否为文件中的行号，用于异常信息
+	 * @param skip 跳过行数
+	 * @param limit 限制行数
+	 * @param csv CSV读取规则
+	 * @param state 扫描状态
+	 * @return 是否继续读取后续分块
+	 */
+	private static boolean scan(FileChunk chunk, long lineOffset, boolean indexed, int skip, int limit, SetAlgoCsv csv,
+			long[] state) {
+		return chunk.forEachRawLine((line, buffer, from, to) -> {
+			long readLine = lineOffset + line;
+			state[2]++;
+			if (readLine < skip || from == to) {
+				return true;
+			}
+			if (limit > 0 && readLine >= limit) {
+				return false;
+			}
+			long field = SetAlgoCsv.field(csv, buffer, from, to);
+			if (field < 0) {
+				return true;
+			}
+			long val;
+			try {
+				val = DecimalParser.parseLong(buffer, SetAlgoCsv.start(field), SetAlgoCsv.end(field));
+			}
+			catch (NumberFormatException e) {
+				throw SetAlgoFileReader.invalidValue(chunk, readLine, indexed, e);
+			}
+			state[0] = Math.min(state[0], val);
+			state[1] = Math.max(state[1], val);
+			return true;
+		});
+	}
+
+	/**
+	 * 合并值域
+	 * @param other 值域
+	 * @return 合并后的值域
+	 */
+	public SetAlgoIdRange merge(SetAlgoIdRange other) {
+		Preconditions.checkNotNull(other, "other");
+		return new SetAlgoIdRange(Math.min(this.min, other.min), Math.max(this.max, other.max));
+	}
+
+	/**
+	 * 是否为空值域
+	 * @return 如果没有数据返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isEmpty() {
+		return this.min > this.max;
+	}
+
+	/**
+	 * 是否可以使用32位算法
+	 * @return 如果值域在 {@code [0, 4294967295]} 内返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isN32() {
+		return this.isEmpty() || (this.min >= N32_MIN && this.max <= N32_MAX);
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 集合算法并行配置
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Setter
+@Getter
+@ToString
+public class SetAlgoParallelConfig {
+
+	/**
+	 * 并行度，即同时加载的数据源数量，默认为CPU核数
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 并行加载时允许占用的内存预算，单位字节，默认为最大堆内存的1/4
+	 */
+	private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+	/**
+	 * 执行线程池，为空时每次执行创建 {@link #parallelism} 个线程的临时线程池
+	 */
+	private ExecutorService executor;
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ObjectArrays;
+import com.google.common.math.LongMath;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 集合算法查询，以SQL查询结果的某一列作为集合数据，替代先导出文件再读取文件
+ *
+ * <p>
+ * 查询使用只进只读的游标按 {@link #fetchSize} 分批拉取数据。设置分区后每个分区单独执行一次查询，分区参数追加在查询参数之后，
+ * 开启 {@link #parallel} 时多个分区并行查询。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+@ToString
+public class SetAlgoQuery {
+
+	/**
+	 * 默认每批拉取的行数
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 10000;
+
+	/**
+	 * 数据源
+	 */
+	@ToString.Exclude
+	private final DataSource dataSource;
+
+	/**
+	 * 查询语句
+	 */
+	private final String sql;
+
+	/**
+	 * 查询参数
+	 */
+	private final List<Object> params;
+
+	/**
+	 * 分区参数，每个分区执行一次查询，为空时只执行一次
+	 */
+	private final List<Object[]> partitions = new ArrayList<>();
+
+	/**
+	 * 数据所在的列，从1开始
+	 */
+	private int column = 1;
+
+	/**
+	 * 每批拉取的行数
+	 */
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	/**
+	 * 是否并行查询多个分区
+	 */
+	private boolean parallel;
+
+	/**
+	 * 并行查询的并行度，默认为CPU核数
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	public static SetAlgoQuery of(DataSource dataSource, String sql, Object... params) {
+		return new SetAlgoQuery(dataSource, sql, Lists.newArrayList(params));
+	}
+
+	public SetAlgoQuery(DataSource dataSource, String sql, List<Object> params) {
+		this.dataSource = Preconditions.checkNotNull(dataSource, "dataSource");
+		this.sql = Preconditions.checkNotNull(sql, "sql");
+		this.params = Preconditions.checkNotNull(params, "params");
+	}
+
+	public SetAlgoQuery column(int column) {
+		Preconditions.checkArgument(column > 0, "column must be greater than 0");
+		this.column = column;
+		return this;
+	}
+
+	public SetAlgoQuery fetchSize(int fetchSize) {
+		Preconditions.checkArgument(fetchSize > 0, "fetchSize must be greater than 0");
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public SetAlgoQuery parallel(boolean parallel) {
+		this.parallel = parallel;
+		return this;
+	}
+
+	public SetAlgoQuery parallelism(int parallelism) {
+		Preconditions.checkArgument(parallelism > 0, "parallelism must be greater than 0");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * 添加分区，分区参数追加在查询参数之后
+	 * @param params 分区参数
+	 * @return 查询
+	 */
+	public SetAlgoQuery partition(Object... params) {
+		Preconditions.checkNotNull(params, "params");
+		this.partitions.add(params);
+		return this;
+	}
+
+	/**
+	 * 按值域将查询均分为多个分区，每个分区追加闭区间的起止两个参数，查询语句需要以类似
+	 * {@code WHERE member_id BETWEEN ? AND ?} 的条件结尾
+	 * @param min 最小值
+	 * @param max 最大值
+	 * @param partitions 分区数量
+	 * @return 查询
+	 */
+	public SetAlgoQuery ranges(long min, long max, int partitions) {
+		Preconditions.checkArgument(min <= max, "min must be less than or equal to max");
+		Preconditions.checkArgument(partitions > 0, "partitions must be greater than 0");
+		long step = LongMath.checkedSubtract(max, min) / partitions + 1;
+		long start = min;
+		while (true) {
+			long end = start > max - step ? max : start + step - 1;
+			this.partition(start, end);
+			if (end == max) {
+				return this;
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * 查询需要执行的次数
+	 * @return 分区数量，没有分区时返回1
+	 */
+	public int getPartitionCount() {
+		return Math.max(1, this.partitions.size());
+	}
+
+	/**
+	 * 分区的完整查询参数
+	 * @param partition 分区序号
+	 * @return 查询参数
+	 */
+	public Object[] getParams(int partition) {
+		Object[] base = this.params.toArray();
+		if (this.partitions.isEmpty()) {
+			return base;
+		}
+		return ObjectArrays.concat(base, this.partitions.get(partition), Object.class);
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 集合算法查询读取器
+ *
+ * <p>
+ * 查询在关闭自动提交的连接上以只进只读的游标执行，使PostgreSQL等数据库使用服务端游标按批拉取。MySQL驱动只有在连接参数开启
+ * {@code useCursorFetch} 时才使用服务端游标，否则会一次读取全部结果，此时改为逐行流式读取。执行查询之前和每拉取一批数据检查一次任务是否被取消。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public final class SetAlgoQueryReader {
+
+	private static final ExecutorService DEFAULT_EXECUTOR = Executors
+		.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("set-algo-query-%d").setDaemon(true).build());
+
+	private SetAlgoQueryReader() {
+
+	}
+
+	/**
+	 * 读取分区数据
+	 * @param query 查询
+	 * @param partition 分区序号
+	 * @param accessor 数据访问器，值为 {@code NULL} 的行会被忽略
+	 * @return 读取的行数
+	 */
+	public static long readLong(SetAlgoQuery query, int partition, LongPredicate accessor) {
+		int column = query.getColumn();
+		return read(query, partition, rs -> {
+			long val = rs.getLong(column);
+			if (!rs.wasNull()) {
+				accessor.test(val);
+			}
+		});
+	}
+
+	/**
+	 * 以文本读取分区数据
+	 * @param query 查询
+	 * @param partition 分区序号
+	 * @param accessor 数据访问器，值为 {@code NULL} 的行会被忽略
+	 * @return 读取的行数
+	 */
+	public static long readString(SetAlgoQuery query, int partition, Function<String, Boolean> accessor) {
+		int column = query.getColumn();
+		return read(query, partition, rs -> {
+			String val = rs.getString(column);
+			if (val != null) {
+				accessor.apply(val);
+			}
+		});
+	}
+
+	/**
+	 * 默认的并行查询线程池，为守护线程的缓存线程池，空闲线程会被回收。查询的线程大部分时间阻塞在数据库IO上，不适合使用计算线程池
+	 * @return 线程池
+	 */
+	public static ExecutorService defaultExecutor() {
+		return DEFAULT_EXECUTOR;
+	}
+
+	/**
+	 * 并行读取多个分区，最多 {@link SetAlgoQuery#getParallelism()} 个读取任务同时执行，每个任务依次领取分区并读取到自己的批量数据中，
+	 * 全部完成后归并
+	 * @param query 查询
+	 * @param from 起始分区序号
+	 * @param executor 执行读取任务的线程池，由调用方管理
+	 * @param factory 批量数据工厂
+	 * @param adder 添加数据到批量数据
+	 * @param reducer 归并器，可以直接修改并返回左侧数据
+	 * @param <D> 批量数据类型
+	 * @return 归并后的数据
+	 */
+	public static <D> D readAll(SetAlgoQuery query, int from, Executor executor, Supplier<D> factory,
+			ObjLongConsumer<D> adder, BinaryOperator<D> reducer) {
+		Preconditions.checkNotNull(executor, "executor");
+		int partitions = query.getPartitionCount();
+		Preconditions.checkArgument(from >= 0 && from < partitions, "from out of range");
+		int workers = Math.max(1, Math.min(query.getParallelism(), partitions - from));
+		AtomicInteger next = new AtomicInteger(from);
+		List<FutureTask<D>> tasks = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			FutureTask<D> task = new FutureTask<>(SetAlgoJobContext.wrap(() -> {
+				D data = factory.get();
+				try {
+					for (int partition = next.getAndIncrement(); partition < partitions; partition = next
+						.getAndIncrement()) {
+						readLong(query, partition, val -> {
+							adder.accept(data, val);
+							return true;
+						});
+					}
+				}
+				catch (RuntimeException e) {
+					// 其他任务不再领取新的分区
+					next.set(partitions);
+					throw e;
+				}
+				return data;
+			}));
+			tasks.add(task);
+			executor.execute(task);
+		}
+		try {
+			D result = null;
+			for (FutureTask<D> task : tasks) {
+				D data = task.get();
+				result = result == null ? data : reducer.apply(result, data);
+			}
+			return result;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("parallel query interrupted", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			next.set(partitions);
+			for (FutureTask<D> task : tasks) {
+				task.cancel(true);
+			}
+		}
+	}
+
+	private static long read(SetAlgoQuery query, int partition, RowReader reader) {
+		SetAlgoJobContext.checkpoint();
+		Object[] params = query.getParams(partition);
+		long rows = 0;
+		try (Connection connection = query.getDataSource().getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit) {
+				connection.setAutoCommit(false);
+			}
+			try (PreparedStatement statement = connection.prepareStatement(query.getSql(), ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY)) {
+				statement.setFetchSize(fetchSize(connection, query.getFetchSize()));
+				for (int i = 0; i < params.length; i++) {
+					statement.setObject(i + 1, params[i]);
+				}
+				try (ResultSet rs = statement.executeQuery()) {
+					int fetchSize = query.getFetchSize();
+					while (rs.next()) {
+						reader.read(rs);
+						if (++rows % fetchSize == 0) {
+							SetAlgoJobContext.checkpoint();
+						}
+					}
+				}
+			}
+			finally {
+				if (autoCommit) {
+					connection.setAutoCommit(true);
+				}
+			}
+		}
+		catch (SQLException e) {
+			throw new IllegalStateException("query partition " + partition + " failed: " + query.getSql(), e);
+		}
+		return rows;
+	}
+
+	private static int fetchSize(Connection connection, int fetchSize) throws SQLException {
+		String product = connection.getMetaData().getDatabaseProductName();
+		if (product != null && product.toLowerCase().contains("mysql")) {
+			String url = connection.getMetaData().getURL();
+			if (url == null || !url.contains("useCursorFetch=true")) {
+				return Integer.MIN_VALUE;
+			}
+		}
+		return fetchSize;
+	}
+
+	@FunctionalInterface
+	private interface RowReader {
+
+		void read(ResultSet rs) throws SQLException;
+
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 集合存储目录的公共规则，包括集合名称的校验、元数据文件的读写和目录的删除
+ *
+ * <p>
+ * 每个集合保存在以名称命名的目录中，目录下的 {@link #META_FILE} 以UTF-8的properties格式保存元数据。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public final class SetAlgoStorage {
+
+	/**
+	 * 元数据文件名
+	 */
+	public static final String META_FILE = "meta.properties";
+
+	private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_.\\-]*");
+
+	private SetAlgoStorage() {
+
+	}
+
+	/**
+	 * 名称是否合法，只能包含字母、数字、下划线、点和中划线，且不能以点和中划线开头
+	 * @param name 名称
+	 * @return 如果合法返回 {@code true}，否则返回 {@code false}.
+	 */
+	public static boolean isValidName(String name) {
+		return name != null && NAME_PATTERN.matcher(name).matches();
+	}
+
+	/**
+	 * 校验名称
+	 * @param name 名称
+	 * @throws IllegalArgumentException 名称不合法
+	 */
+	public static void checkName(String name) {
+		Preconditions.checkArgument(isValidName(name), "illegal name %s", name);
+	}
+
+	/**
+	 * 目录中是否有元数据文件
+	 * @param dir 目录
+	 * @return 如果有返回 {@code true}，否则返回 {@code false}.
+	 */
+	public static boolean hasMeta(Path dir) {
+		return Files.isRegularFile(dir.resolve(META_FILE));
+	}
+
+	/**
+	 * 读取目录中的元数据
+	 * @param dir 目录
+	 * @return 元数据
+	 */
+	public static Properties readMeta(Path dir) {
+		Path meta = dir.resolve(META_FILE);
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		catch (IOException e) {
+			throw new NotFileException(meta.toString(), e);
+		}
+		return properties;
+	}
+
+	/**
+	 * 把元数据写入目录，已有的元数据会被覆盖
+	 * @param dir 目录
+	 * @param properties 元数据
+	 */
+	public static void writeMeta(Path dir, Properties properties) {
+		Path meta = dir.resolve(META_FILE);
+		try (Writer writer = Files.newBufferedWriter(meta, StandardCharsets.UTF_8)) {
+			properties.store(writer, null);
+		}
+		catch (IOException e) {
+			throw new NotFileException(meta.toString(), e);
+		}
+	}
+
+	/**
+	 * 删除文件或目录及其中的所有文件，不存在时直接返回
+	 * @param path 文件或目录
+	 */
+	public static void deleteRecursively(Path path) {
+		if (!Files.exists(path)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(path)) {
+			for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+}
@@ -14,8 +14,24 @@
 
 package org.magneton.enhance.algorithm.set;
 
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.dict.DictSetAlgoStream;
+import org.magneton.enhance.algorithm.set.dict.DictSetAlgorithm;
+import org.magneton.enhance.algorithm.set.dict.StringDictionary;
+import org.magneton.enhance.algorithm.set.n32.N32SetAlgoStream;
+import org.magneton.enhance.algorithm.set.n32.N32SetAlgorithm;
 import org.magneton.enhance.algorithm.set.n64.N64SetAlgoStream;
 import org.magneton.enhance.algorithm.set.n64.N64SetAlgorithm;
+import org.magneton.enhance.algorithm.set.p64.P64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.p64.P64SetAlgorithm;
+import org.magneton.enhance.algorithm.set.p64.SetAlgoMemoryGovernor;
+import org.magneton.enhance.algorithm.set.sketch.SketchConfig;
+import org.magneton.enhance.algorithm.set.sketch.SketchSetAlgoStream;
+import org.magneton.enhance.algorithm.set.sketch.SketchSetAlgorithm;
+import org.magneton.enhance.algorithm.set.sorted.SortedSetAlgoStream;
+import org.magneton.enhance.algorithm.set.sorted.SortedSetAlgorithm;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 集合算法
@@ -33,4 +49,137 @@ public class SetAlgorithm {
 		return new N64SetAlgorithm().resource();
 	}
 
+	/**
+	 * 创建一个并行处理多文件的long型集合算法
+	 * @param parallelConfig 并行配置
+	 * @return long型集合算法
+	 */
+	public static SetAlgoResource<Long, N64SetAlgoStream> number64(SetAlgoParallelConfig parallelConfig) {
+		return new N64SetAlgorithm(parallelConfig).resource();
+	}
+
+	/**
+	 * 创建一个32位集合算法，数据值域为 {@code [0, 4294967295]}，比long型集合算法占用更少的内存，运算更快
+	 * @return 32位集合算法
+	 */
+	public static SetAlgoResource<Long, N32SetAlgoStream> number32() {
+		return new N32SetAlgorithm().resource();
+	}
+
+	/**
+	 * 创建一个并行处理多文件的32位集合算法
+	 * @param parallelConfig 并行配置
+	 * @return 32位集合算法
+	 */
+	public static SetAlgoResource<Long, N32SetAlgoStream> number32(SetAlgoParallelConfig parallelConfig) {
+		return new N32SetAlgorithm(parallelConfig).resource();
+	}
+
+	/**
+	 * 根据数据值域创建集合算法，值域在32位内时使用32位集合算法，否则使用long型集合算法
+	 * @param range 数据值域
+	 * @return 集合算法
+	 * @see SetAlgoIdRange#observe(SetAlgoFile...)
+	 */
+	public static SetAlgoResource<Long, ? extends SetAlgoStream<Long>> number(SetAlgoIdRange range) {
+		return number(range, null);
+	}
+
+	/**
+	 * 根据数据值域创建并行处理多文件的集合算法，值域在32位内时使用32位集合算法，否则使用long型集合算法
+	 * @param range 数据值域
+	 * @param parallelConfig 并行配置，为空时按顺序处理文件
+	 * @return 集合算法
+	 */
+	public static SetAlgoResource<Long, ? extends SetAlgoStream<Long>> number(SetAlgoIdRange range,
+			SetAlgoParallelConfig parallelConfig) {
+		Preconditions.checkNotNull(range, "range");
+		if (range.isN32()) {
+			return new N32SetAlgorithm(parallelConfig).resource();
+		}
+		return new N64SetAlgorithm(parallelConfig).resource();
+	}
+
+	/**
+	 * 创建一个按高40位分区的long型集合算法，每个分区覆盖 2<sup>24</sup> 个连续的值，位图运算和多文件加载按分区在
+	 * {@link ForkJoinPool#commonPool()} 中并行执行，适用于高40位集中的数据
+	 * @return 分区集合算法
+	 */
+	public static SetAlgoResource<Long, P64SetAlgoStream> partitioned() {
+		return new P64SetAlgorithm().resource();
+	}
+
+	/**
+	 * 创建一个使用指定线程池的分区集合算法
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 * @return 分区集合算法
+	 */
+	public static SetAlgoResource<Long, P64SetAlgoStream> partitioned(ForkJoinPool pool) {
+		return new P64SetAlgorithm(pool).resource();
+	}
+
+	/**
+	 * 创建一个受内存预算约束的分区集合算法，堆内存占用超过预算时最久未访问的分区溢出到磁盘，
+	 * 使用完成后通过 {@link SetAlgoMemoryGovernor#close()} 删除溢出文件
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 * @param governor 内存管理器
+	 * @return 分区集合算法
+	 */
+	public static SetAlgoResource<Long, P64SetAlgoStream> partitioned(ForkJoinPool pool,
+			SetAlgoMemoryGovernor governor) {
+		Preconditions.checkNotNull(governor, "governor");
+		return new P64SetAlgorithm(pool, governor).resource();
+	}
+
+	/**
+	 * 创建一个有序归并的long型集合算法，输入已经按升序排列时以多路归并计算，内存占用与数据量无关，输入无序时回退到long型集合算法
+	 * @return 有序归并集合算法
+	 */
+	public static SetAlgoResource<Long, SortedSetAlgoStream> sorted() {
+		return new SortedSetAlgorithm().resource();
+	}
+
+	/**
+	 * 创建一个有序归并的long型集合算法
+	 * @param parallelConfig 输入无序回退到long型集合算法时使用的并行配置
+	 * @return 有序归并集合算法
+	 */
+	public static SetAlgoResource<Long, SortedSetAlgoStream> sorted(SetAlgoParallelConfig parallelConfig) {
+		return new SortedSetAlgorithm(parallelConfig).resource();
+	}
+
+	/**
+	 * 创建一个字符串集合算法，字符串通过字典转换为编号后使用位图运算
+	 * @return 字符串集合算法
+	 */
+	public static SetAlgoResource<String, DictSetAlgoStream> string() {
+		return new DictSetAlgorithm().resource();
+	}
+
+	/**
+	 * 创建一个使用指定字典的字符串集合算法
+	 * @param dictionary 字典，可以是通过 {@link StringDictionary#load(java.nio.file.Path)} 加载的字典
+	 * @return 字符串集合算法
+	 */
+	public static SetAlgoResource<String, DictSetAlgoStream> string(StringDictionary dictionary) {
+		return new DictSetAlgorithm(dictionary).resource();
+	}
+
+	/**
+	 * 创建一个近似集合算法，只估计结果的基数，内存占用与数据量无关，结果通过 {@link SketchSetAlgoStream#read()} 读取
+	 * @return 近似集合算法
+	 */
+	public static SketchSetAlgoStream approximate() {
+		return new SketchSetAlgorithm().resource();
+	}
+
+	/**
+	 * 创建一个指定误差的近似集合算法
+	 * @param config 草图配置
+	 * @return 近似集合算法
+	 */
+	public static SketchSetAlgoStream approximate(SketchConfig config) {
+		return new SketchSetAlgorithm(config).resource();
+	}
+
 }
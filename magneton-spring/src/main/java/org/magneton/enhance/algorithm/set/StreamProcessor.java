@@ -28,4 +28,29 @@ public interface StreamProcessor<T> {
 
 	void nextData(Function<String, Boolean> accessor);
 
+	/**
+	 * 预估剩余的数据量（行数），用于执行计划
+	 * @return 数据量，未知时返回-1
+	 */
+	default long estimate() {
+		return -1;
+	}
+
+	/**
+	 * 跳过剩余的数据，跳过之后 {@link #hasNext()} 返回 {@code false}
+	 * @return 如果支持跳过返回 {@code true}，否则返回 {@code false}.
+	 */
+	default boolean skip() {
+		return false;
+	}
+
+	/**
+	 * 跳过接下来的若干份数据，用于从检查点恢复，跳过的数据不会被读取
+	 * @param count 数据份数，与 {@link #hasNext()} 之后的读取次数一致
+	 * @return 如果支持跳过返回 {@code true}，不支持时不会跳过任何数据
+	 */
+	default boolean skip(int count) {
+		return false;
+	}
+
 }
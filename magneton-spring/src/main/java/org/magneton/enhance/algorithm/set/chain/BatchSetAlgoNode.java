@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.chain;
+
+import java.util.List;
+
+/**
+ * 支持批量合并的算法节点，处理器以批量数据（例如整个文件解析出的位图）提供数据时使用
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public interface BatchSetAlgoNode<T, D> extends SetAlgoNode<T, D> {
+
+	/**
+	 * 合并批量数据，效果等同于对批量数据中的每个值调用 {@link #useable(ChainData, String)}
+	 * @param chainData 链路数据
+	 * @param data 批量数据
+	 * @return 可用的数据数量
+	 */
+	long merge(ChainData<T, D> chainData, D data);
+
+	/**
+	 * 归并同一节点的两份批量数据，归并结果再通过 {@link #merge(ChainData, Object)} 合并到链路中，
+	 * 效果等同于依次合并两份数据
+	 * @param left 批量数据，可以直接修改并返回
+	 * @param right 批量数据
+	 * @return 归并后的数据
+	 */
+	D reduce(D left, D right);
+
+	/**
+	 * 多路归并同一节点的多份批量数据，效果等同于依次调用 {@link #reduce(Object, Object)}
+	 * @param data 批量数据，不能为空，第一份数据可以直接修改并返回
+	 * @return 归并后的数据
+	 */
+	default D aggregate(List<D> data) {
+		D result = data.get(0);
+		for (int i = 1; i < data.size(); i++) {
+			result = this.reduce(result, data.get(i));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.chain;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 基于数据量预估的集合算法链执行计划
+ *
+ * <p>
+ * 连续的交集节点满足交换律，按预估数据量从小到大执行，使链路数据尽早缩小；连续的排除节点同样满足交换律，按预估数据量从大到小执行。
+ * 其他节点保持添加顺序，运算类型未知的节点不参与排序。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetAlgoChainPlanner<T, D> {
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	/**
+	 * 生成执行计划
+	 * @param chainNodes 按添加顺序的链路节点
+	 * @return 执行顺序的链路节点
+	 */
+	public List<ChainNode<T, D>> plan(List<ChainNode<T, D>> chainNodes) {
+		Preconditions.checkNotNull(chainNodes, "chainNodes");
+		return this.plan(chainNodes, chainNode -> chainNode.getNode().getOperation(),
+				chainNode -> chainNode.getProcessor().estimate());
+	}
+
+	/**
+	 * 生成执行计划，用于不以 {@link ChainNode} 组成的算法链
+	 * @param nodes 按添加顺序的节点
+	 * @param operation 节点的运算类型，未知时返回 {@code null}
+	 * @param estimate 节点的预估数据量，未知时返回-1
+	 * @param <N> 节点类型
+	 * @return 执行顺序的节点
+	 */
+	public <N> List<N> plan(List<N> nodes, Function<N, SetAlgoOperation> operation, ToLongFunction<N> estimate) {
+		Preconditions.checkNotNull(nodes, "nodes");
+		List<N> planned = new ArrayList<>(nodes.size());
+		int size = nodes.size();
+		int start = 0;
+		while (start < size) {
+			SetAlgoOperation current = operation.apply(nodes.get(start));
+			int end = start + 1;
+			while (end < size && current != null && current == operation.apply(nodes.get(end))) {
+				end++;
+			}
+			List<N> run = nodes.subList(start, end);
+			if (run.size() > 1 && current.keepEmpty()) {
+				List<N> sorted = this.sort(run, current, estimate);
+				if (!sorted.equals(run)) {
+					this.planMeter.reorder(current, run.size());
+				}
+				run = sorted;
+			}
+			planned.addAll(run);
+			start = end;
+		}
+		return planned;
+	}
+
+	private <N> List<N> sort(List<N> run, SetAlgoOperation operation, ToLongFunction<N> estimate) {
+		Map<N, Long> estimates = new IdentityHashMap<>();
+		for (N node : run) {
+			long value = estimate.applyAsLong(node);
+			if (value < 0) {
+				// 未知数据量的节点排在最后
+				value = operation == SetAlgoOperation.INTERSECT ? Long.MAX_VALUE : -1;
+			}
+			estimates.put(node, value);
+		}
+		Comparator<N> comparator = Comparator.comparingLong(estimates::get);
+		if (operation == SetAlgoOperation.EXCLUDE) {
+			comparator = comparator.reversed();
+		}
+		List<N> sorted = new ArrayList<>(run);
+		sorted.sort(comparator);
+		return sorted;
+	}
+
+}
@@ -30,6 +30,14 @@ public interface SetAlgoNode<T, D> {
 	 */
 	boolean useable(ChainData<T, D> chainData, String data);
 
+	/**
+	 * 节点的运算类型，用于执行计划
+	 * @return 运算类型，未知时返回 {@code null}，执行计划不会跨越该节点调整顺序
+	 */
+	default SetAlgoOperation getOperation() {
+		return null;
+	}
+
 	/**
 	 * 每个节点切换之前
 	 * @param chainData 链路数据
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.StreamProcessor;
+import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.n32.Bmp32ChainData;
+import org.magneton.enhance.algorithm.set.n32.Bmp32DistinctSetAlgoNode;
+import org.magneton.enhance.algorithm.set.n32.Bmp32ExcludeSetAlgoNode;
+import org.magneton.enhance.algorithm.set.n32.Bmp32IntersectSetAlgoNode;
+import org.magneton.enhance.algorithm.set.n32.Bmp32UnionSetAlgoNode;
+import org.magneton.enhance.algorithm.set.n32.N32SetAlgoStream;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * 字典编码的字符串集合算法流
+ *
+ * <p>
+ * 字符串通过 {@link StringDictionary} 转换为连续的编号后使用32位集合算法运算，输出时再解码。交集和排除只查找字典，
+ * 字典中不存在的字符串一定不在结果中，不会加入字典。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class DictSetAlgoStream implements SetAlgoResource<String, DictSetAlgoStream>, SetAlgoStream<String> {
+
+	private final StringDictionary dictionary;
+
+	private final N32SetAlgoStream stream = new N32SetAlgoStream(new Bmp32ChainData());
+
+	public DictSetAlgoStream(StringDictionary dictionary) {
+		this.dictionary = Preconditions.checkNotNull(dictionary, "dictionary");
+	}
+
+	/**
+	 * 获取字典
+	 * @return 字典
+	 */
+	public StringDictionary getDictionary() {
+		return this.dictionary;
+	}
+
+	@Override
+	public DictSetAlgoStream stream() {
+		this.stream.stream();
+		return this;
+	}
+
+	@Override
+	public SetStream<String> read() {
+		return new DictSetStream(this.stream.read(), this.dictionary);
+	}
+
+	@Override
+	public SetStream<String> randomExtract(long size) {
+		return new DictSetStream(this.stream.randomExtract(size), this.dictionary);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.stream.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		this.stream.clear();
+	}
+
+	@Override
+	public DictSetAlgoStream distinct(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new FileDictStreamProcessor(file, this.dictionary, false));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> distinct(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new DataDictStreamProcessor(data, this.dictionary, false));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> distinct(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(),
+				new StreamDictStreamProcessor(stream, this.dictionary, false));
+		return this;
+	}
+
+	@Override
+	public DictSetAlgoStream exclude(SetAlgoFile files) {
+		Preconditions.checkNotNull(files, "file");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new FileDictStreamProcessor(files, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> exclude(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new DataDictStreamProcessor(data, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> exclude(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new StreamDictStreamProcessor(stream, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public DictSetAlgoStream intersect(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new FileDictStreamProcessor(file, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> intersect(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new DataDictStreamProcessor(data, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> intersect(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(),
+				new StreamDictStreamProcessor(stream, this.dictionary, true));
+		return this;
+	}
+
+	@Override
+	public DictSetAlgoStream union(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new FileDictStreamProcessor(file, this.dictionary, false));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> union(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new DataDictStreamProcessor(data, this.dictionary, false));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<String, DictSetAlgoStream> union(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new StreamDictStreamProcessor(stream, this.dictionary, false));
+		return this;
+	}
+
+	private void addChainNode(SetAlgoNode<Long, RoaringBitmap> node, StreamProcessor<Long> processor) {
+		Preconditions.checkNotNull(node, "node");
+		Preconditions.checkNotNull(processor, "processor");
+		this.stream.getChain().addChainNode(new ChainNode<>(node, processor));
+	}
+
+}
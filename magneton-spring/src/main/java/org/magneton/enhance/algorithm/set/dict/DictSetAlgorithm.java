@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+
+/**
+ * 字典编码的字符串集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class DictSetAlgorithm {
+
+	private final DictSetAlgoStream stream;
+
+	public DictSetAlgorithm() {
+		this(new StringDictionary());
+	}
+
+	/**
+	 * 创建算法
+	 * @param dictionary 字典，多个算法共用同一个字典时结果流之间不需要重新编码
+	 */
+	public DictSetAlgorithm(StringDictionary dictionary) {
+		this.stream = new DictSetAlgoStream(dictionary);
+	}
+
+	public SetAlgoResource<String, DictSetAlgoStream> resource() {
+		return this.stream;
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.n64.N64TextWriter;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 字典编码的字符串输出流，只在输出时解码
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class DictSetStream implements SetStream<String> {
+
+	private final SetStream<Long> ids;
+
+	private final StringDictionary dictionary;
+
+	public DictSetStream(SetStream<Long> ids, StringDictionary dictionary) {
+		this.ids = ids;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * 获取编号流
+	 * @return 编号流
+	 */
+	public SetStream<Long> getIds() {
+		return this.ids;
+	}
+
+	/**
+	 * 获取字典
+	 * @return 字典
+	 */
+	public StringDictionary getDictionary() {
+		return this.dictionary;
+	}
+
+	@Override
+	public List<String> fetch() {
+		List<String> result = new LinkedList<>();
+		this.forEach(result::add);
+		return result;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		Iterator<Long> iterator = this.ids.iterator();
+		return new Iterator<String>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public String next() {
+				return DictSetStream.this.dictionary.decode(iterator.next().intValue());
+			}
+		};
+	}
+
+	@Override
+	public void forEach(Consumer<String> consumer) {
+		Iterator<Long> iterator = this.ids.iterator();
+		while (iterator.hasNext()) {
+			consumer.accept(this.dictionary.decode(iterator.next().intValue()));
+		}
+	}
+
+	@Override
+	public long write(Path path, List<String> headers) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(headers, "header");
+		try (N64TextWriter writer = new N64TextWriter(path)) {
+			for (String header : headers) {
+				writer.writeLine(header);
+			}
+			Iterator<Long> iterator = this.ids.iterator();
+			while (iterator.hasNext()) {
+				this.dictionary.decode(iterator.next().intValue(), writer::writeLine);
+			}
+		}
+		catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+		return this.ids.size() + headers.size();
+	}
+
+	@Override
+	public long size() {
+		return this.ids.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.ids.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		this.ids.clear();
+	}
+
+}
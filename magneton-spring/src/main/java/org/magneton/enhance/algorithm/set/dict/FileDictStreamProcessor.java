@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.LongStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 字典编码的文件流处理器，每一行的UTF-8字节直接通过字典转换为编号
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileDictStreamProcessor implements LongStreamProcessor {
+
+	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final SetAlgoFile algoFile;
+
+	private final SetAlgoFileReader fileReader;
+
+	private final Iterator<String> iterator;
+
+	private final StringDictionary dictionary;
+
+	/**
+	 * 是否只查找字典，不存在的字符串不会加入字典并作为忽略的数据
+	 */
+	private final boolean lookup;
+
+	public FileDictStreamProcessor(SetAlgoFile algoFile, StringDictionary dictionary, boolean lookup) {
+		this.algoFile = algoFile;
+		this.fileReader = new SetAlgoFileReader(algoFile, this.fileReadMeter);
+		this.iterator = algoFile.getFiles().iterator();
+		this.dictionary = dictionary;
+		this.lookup = lookup;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.iterator.hasNext();
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		this.nextLong(id -> accessor.apply(String.valueOf(id)));
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.doFileStream(path, accessor);
+	}
+
+	@Override
+	public long estimate() {
+		return this.fileReader.estimate();
+	}
+
+	@Override
+	public boolean skip() {
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			this.planMeter.skipFile(path, path.toFile().length());
+		}
+		return true;
+	}
+
+	private void doFileStream(Path path, LongPredicate accessor) {
+		this.fileReader.forEachField(path, (buffer, from, to) -> {
+			int id = this.lookup ? this.dictionary.find(buffer, from, to) : this.dictionary.encode(buffer, from, to);
+			return id >= 0 && accessor.test(id);
+		});
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.LongStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetStream;
+
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 字典编码的流数据处理器，使用同一个字典的流直接读取编号，不需要解码
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class StreamDictStreamProcessor implements LongStreamProcessor {
+
+	private final SetStream<String> stream;
+
+	private final StringDictionary dictionary;
+
+	/**
+	 * 是否只查找字典，不存在的字符串不会加入字典
+	 */
+	private final boolean lookup;
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private boolean hasNext = true;
+
+	public StreamDictStreamProcessor(SetStream<String> stream, StringDictionary dictionary, boolean lookup) {
+		this.stream = stream;
+		this.dictionary = dictionary;
+		this.lookup = lookup;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long estimate() {
+		return this.hasNext ? this.stream.size() : 0;
+	}
+
+	@Override
+	public boolean skip() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			this.planMeter.skipData(this.stream.size());
+		}
+		return true;
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		this.nextLong(id -> accessor.apply(String.valueOf(id)));
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		if (this.stream instanceof DictSetStream
+				&& ((DictSetStream) this.stream).getDictionary() == this.dictionary) {
+			Iterator<Long> ids = ((DictSetStream) this.stream).getIds().iterator();
+			while (ids.hasNext()) {
+				accessor.test(ids.next());
+			}
+			return;
+		}
+		this.stream.forEach(v -> {
+			int id = this.lookup ? this.dictionary.find(v) : this.dictionary.encode(v);
+			if (id >= 0) {
+				accessor.test(id);
+			}
+		});
+	}
+
+}
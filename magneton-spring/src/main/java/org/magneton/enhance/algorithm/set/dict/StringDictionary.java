@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.dict;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 字符串字典，将每个不同的字符串映射为从0开始连续递增的编号
+ *
+ * <p>
+ * 字符串以UTF-8字节按编号顺序存储在堆外内存页中，每16个字符串为一个块，块内字符串只存储与前一个字符串不同的后缀（前缀压缩）。
+ * 哈希索引同样位于堆外内存中，每个槽位保存字符串的哈希值和编号，扩容时不需要读取字符串。堆内只保存每个块的起始位置。
+ *
+ * <p>
+ * 字典可以通过 {@link #save(Path)} 持久化，{@link #load(Path)} 加载时以内存映射的方式读取字符串。
+ *
+ * <p>
+ * 字典不是线程安全的。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class StringDictionary {
+
+	/**
+	 * 字符串的最大字节长度
+	 */
+	public static final int MAX_LENGTH = 1024 * 1024;
+
+	private static final int MAGIC = 0x53444943;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 16;
+
+	private static final int PAGE_SHIFT = 24;
+
+	private static final int MAX_PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private static final int MIN_PAGE_SIZE = 64 * 1024;
+
+	private static final int BLOCK_SHIFT = 4;
+
+	private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+	private static final int MAX_TABLE_CAPACITY = 1 << 28;
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	/**
+	 * 字符串存储页，编号连续的字符串依次写入，写不下时换到下一页
+	 */
+	private final List<ByteBuffer> pages = new ArrayList<>();
+
+	/**
+	 * 每一页已写入的长度
+	 */
+	private int[] pageLimits = new int[16];
+
+	/**
+	 * 每个块第一个字符串的位置，高位为页号，低 {@value #PAGE_SHIFT} 位为页内位置
+	 */
+	private long[] blockOffsets = new long[1024];
+
+	/**
+	 * 哈希索引，每个槽位高32位为哈希值，低32位为编号加1，为0时表示空槽位
+	 */
+	private ByteBuffer table;
+
+	private int capacity;
+
+	private int size;
+
+	/**
+	 * 最后写入的字符串，用于前缀压缩
+	 */
+	private byte[] last = new byte[64];
+
+	private int lastLength;
+
+	/**
+	 * 解码缓冲区及其对应的编号和读取位置，顺序解码时可以从上一个位置继续
+	 */
+	private byte[] scratch = new byte[64];
+
+	private int scratchId = -1;
+
+	private int scratchPage;
+
+	private int scratchPos;
+
+	private int scratchLength;
+
+	private byte[] input = new byte[64];
+
+	public StringDictionary() {
+		this(1 << 16);
+	}
+
+	/**
+	 * 创建字典
+	 * @param expectedSize 预计的字符串数量，用于初始化哈希索引
+	 */
+	public StringDictionary(int expectedSize) {
+		Preconditions.checkArgument(expectedSize >= 0, "expectedSize must be greater than or equal to 0");
+		int cap = 16;
+		while (cap < MAX_TABLE_CAPACITY && cap * LOAD_FACTOR < expectedSize) {
+			cap <<= 1;
+		}
+		this.allocateTable(cap);
+	}
+
+	/**
+	 * 字符串数量
+	 * @return 字符串数量
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * 字典占用的内存，包括堆外的字符串页、哈希索引和堆内的块位置
+	 * @return 占用的字节数
+	 */
+	public long getMemoryBytes() {
+		long bytes = (long) this.capacity * 8 + (long) this.blockOffsets.length * 8 + this.pageLimits.length * 4L;
+		for (ByteBuffer page : this.pages) {
+			bytes += page.capacity();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 获取字符串的编号，不存在时添加
+	 * @param value 字符串
+	 * @return 编号
+	 */
+	public int encode(String value) {
+		Preconditions.checkNotNull(value, "value");
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return this.encode(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 获取UTF-8字节的编号，不存在时添加
+	 * @param buffer 缓冲区
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @return 编号
+	 */
+	public int encode(ByteBuffer buffer, int from, int to) {
+		int length = this.copyInput(buffer, from, to);
+		return this.encode(this.input, 0, length);
+	}
+
+	/**
+	 * 获取UTF-8字节的编号，不存在时添加
+	 * @param bytes 字节
+	 * @param offset 起始位置
+	 * @param length 长度
+	 * @return 编号
+	 */
+	public int encode(byte[] bytes, int offset, int length) {
+		Preconditions.checkArgument(length <= MAX_LENGTH, "value length %s exceeds %s", length, MAX_LENGTH);
+		int hash = hash(bytes, offset, length);
+		int mask = this.capacity - 1;
+		int idx = hash & mask;
+		while (true) {
+			long slot = this.table.getLong(idx << 3);
+			if (slot == 0) {
+				break;
+			}
+			if ((int) (slot >>> 32) == hash) {
+				int id = (int) slot - 1;
+				if (this.entryEquals(id, bytes, offset, length)) {
+					return id;
+				}
+			}
+			idx = (idx + 1) & mask;
+		}
+		int id = this.append(bytes, offset, length);
+		this.table.putLong(idx << 3, slot(hash, id));
+		if (this.size > this.capacity * LOAD_FACTOR) {
+			this.resize();
+		}
+		return id;
+	}
+
+	/**
+	 * 获取字符串的编号
+	 * @param value 字符串
+	 * @return 编号，不存在时返回 {@code -1}
+	 */
+	public int find(String value) {
+		Preconditions.checkNotNull(value, "value");
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return this.find(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 获取UTF-8字节的编号
+	 * @param buffer 缓冲区
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @return 编号，不存在时返回 {@code -1}
+	 */
+	public int find(ByteBuffer buffer, int from, int to) {
+		int length = this.copyInput(buffer, from, to);
+		return this.find(this.input, 0, length);
+	}
+
+	/**
+	 * 获取UTF-8字节的编号
+	 * @param bytes 字节
+	 * @param offset 起始位置
+	 * @param length 长度
+	 * @return 编号，不存在时返回 {@code -1}
+	 */
+	public int find(byte[] bytes, int offset, int length) {
+		int hash = hash(bytes, offset, length);
+		int mask = this.capacity - 1;
+		int idx = hash & mask;
+		while (true) {
+			long slot = this.table.getLong(idx << 3);
+			if (slot == 0) {
+				return -1;
+			}
+			if ((int) (slot >>> 32) == hash) {
+				int id = (int) slot - 1;
+				if (this.entryEquals(id, bytes, offset, length)) {
+					return id;
+				}
+			}
+			idx = (idx + 1) & mask;
+		}
+	}
+
+	/**
+	 * 获取编号对应的字符串
+	 * @param id 编号
+	 * @return 字符串
+	 */
+	public String decode(int id) {
+		int length = this.decodeToScratch(id);
+		return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 获取编号对应的UTF-8字节，按编号顺序解码时不需要回到块的起始位置
+	 * @param id 编号
+	 * @param consumer 字节消费者，字节数组在下一次调用字典方法时会被覆盖
+	 * @throws IOException 消费者抛出的IO异常
+	 */
+	public void decode(int id, BytesConsumer consumer) throws IOException {
+		int length = this.decodeToScratch(id);
+		consumer.accept(this.scratch, 0, length);
+	}
+
+	/**
+	 * 持久化字典，只写入字符串页和块位置，哈希索引在加载时重建
+	 * @param path 文件地址
+	 */
+	public void save(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		int blockCount = (this.size + BLOCK_MASK) >>> BLOCK_SHIFT;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + blockCount * 8 + this.pages.size() * 4);
+		header.putInt(MAGIC).putInt(VERSION).putInt(this.size).putInt(this.pages.size());
+		for (int i = 0; i < blockCount; i++) {
+			header.putLong(this.blockOffsets[i]);
+		}
+		for (int i = 0; i < this.pages.size(); i++) {
+			header.putInt(this.pageLimits[i]);
+		}
+		header.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			writeFully(channel, header);
+			for (int i = 0; i < this.pages.size(); i++) {
+				ByteBuffer page = this.pages.get(i).duplicate();
+				page.position(0).limit(this.pageLimits[i]);
+				writeFully(channel, page);
+			}
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 加载 {@link #save(Path)} 持久化的字典，字符串页以只读内存映射的方式读取，新增的字符串写入新的堆外内存页
+	 * @param path 文件地址
+	 * @return 字典
+	 */
+	public static StringDictionary load(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			Preconditions.checkState(header.getInt() == MAGIC, "not a dictionary file: %s", path);
+			int version = header.getInt();
+			Preconditions.checkState(version == VERSION, "unsupported dictionary version: %s", version);
+			int size = header.getInt();
+			int pageCount = header.getInt();
+			int blockCount = (size + BLOCK_MASK) >>> BLOCK_SHIFT;
+			ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+					blockCount * 8L + pageCount * 4L);
+			StringDictionary dictionary = new StringDictionary(size);
+			dictionary.blockOffsets = new long[Math.max(blockCount, 1024)];
+			for (int i = 0; i < blockCount; i++) {
+				dictionary.blockOffsets[i] = index.getLong();
+			}
+			dictionary.pageLimits = new int[Math.max(pageCount, 16)];
+			long position = HEADER_SIZE + blockCount * 8L + pageCount * 4L;
+			for (int i = 0; i < pageCount; i++) {
+				int limit = index.getInt();
+				dictionary.pageLimits[i] = limit;
+				dictionary.pages.add(channel.map(FileChannel.MapMode.READ_ONLY, position, limit));
+				position += limit;
+			}
+			dictionary.rebuild(size);
+			return dictionary;
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 按编号顺序读取所有字符串，重建哈希索引和前缀压缩状态
+	 */
+	private void rebuild(int count) {
+		this.size = count;
+		int mask = this.capacity - 1;
+		for (int id = 0; id < count; id++) {
+			int length = this.decodeToScratch(id);
+			int hash = hash(this.scratch, 0, length);
+			int idx = hash & mask;
+			while (this.table.getLong(idx << 3) != 0) {
+				idx = (idx + 1) & mask;
+			}
+			this.table.putLong(idx << 3, slot(hash, id));
+		}
+		if (count > 0) {
+			this.lastLength = this.decodeToScratch(count - 1);
+			this.last = Arrays.copyOf(this.scratch, this.scratch.length);
+		}
+	}
+
+	private int append(byte[] bytes, int offset, int length) {
+		Preconditions.checkState(this.size < Integer.MAX_VALUE, "dictionary is full");
+		int id = this.size;
+		boolean restart = (id & BLOCK_MASK) == 0;
+		int shared = 0;
+		if (!restart) {
+			int max = Math.min(this.lastLength, length);
+			while (shared < max && this.last[shared] == bytes[offset + shared]) {
+				shared++;
+			}
+		}
+		int suffix = length - shared;
+		int need = varIntSize(shared) + varIntSize(suffix) + suffix;
+		ByteBuffer page = this.pages.isEmpty() ? null : this.pages.get(this.pages.size() - 1);
+		if (page == null || page.isReadOnly() || page.capacity() - this.pageLimits[this.pages.size() - 1] < need) {
+			page = this.newPage(need);
+		}
+		int pageIndex = this.pages.size() - 1;
+		if (restart) {
+			int block = id >>> BLOCK_SHIFT;
+			if (block == this.blockOffsets.length) {
+				this.blockOffsets = Arrays.copyOf(this.blockOffsets, this.blockOffsets.length << 1);
+			}
+			this.blockOffsets[block] = ((long) pageIndex << PAGE_SHIFT) | page.position();
+		}
+		writeVarInt(page, shared);
+		writeVarInt(page, suffix);
+		page.put(bytes, offset + shared, suffix);
+		this.pageLimits[pageIndex] = page.position();
+		this.last = ensureCapacity(this.last, length);
+		System.arraycopy(bytes, offset + shared, this.last, shared, suffix);
+		this.lastLength = length;
+		this.size++;
+		return id;
+	}
+
+	private ByteBuffer newPage(int need) {
+		int previous = this.pages.isEmpty() ? 0 : this.pages.get(this.pages.size() - 1).capacity();
+		int pageSize = Math.min(MAX_PAGE_SIZE, Math.max(Math.max(MIN_PAGE_SIZE, previous << 1), need));
+		ByteBuffer page = ByteBuffer.allocateDirect(pageSize);
+		if (this.pages.size() == this.pageLimits.length) {
+			this.pageLimits = Arrays.copyOf(this.pageLimits, this.pageLimits.length << 1);
+		}
+		this.pages.add(page);
+		return page;
+	}
+
+	private boolean entryEquals(int id, byte[] bytes, int offset, int length) {
+		int entryLength = this.decodeToScratch(id);
+		if (entryLength != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (this.scratch[i] != bytes[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 解码字符串到解码缓冲区
+	 * @param id 编号
+	 * @return 字符串的字节长度
+	 */
+	private int decodeToScratch(int id) {
+		if (id < 0 || id >= this.size) {
+			throw new IndexOutOfBoundsException("id: " + id + ", size: " + this.size);
+		}
+		int page;
+		int pos;
+		int from;
+		int length;
+		if (id == this.scratchId) {
+			return this.scratchLength;
+		}
+		if (id == this.scratchId + 1 && (id & BLOCK_MASK) != 0) {
+			page = this.scratchPage;
+			pos = this.scratchPos;
+			from = id;
+			length = this.scratchLength;
+		}
+		else {
+			long offset = this.blockOffsets[id >>> BLOCK_SHIFT];
+			page = (int) (offset >>> PAGE_SHIFT);
+			pos = (int) (offset & (MAX_PAGE_SIZE - 1));
+			from = id & ~BLOCK_MASK;
+			length = 0;
+		}
+		for (int i = from; i <= id; i++) {
+			if (pos >= this.pageLimits[page]) {
+				page++;
+				pos = 0;
+			}
+			ByteBuffer buffer = this.pages.get(page);
+			int shared = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.get(pos++);
+				shared |= (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while (b < 0);
+			int suffix = 0;
+			shift = 0;
+			do {
+				b = buffer.get(pos++);
+				suffix |= (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while (b < 0);
+			this.scratch = ensureCapacity(this.scratch, shared + suffix);
+			for (int j = 0; j < suffix; j++) {
+				this.scratch[shared + j] = buffer.get(pos + j);
+			}
+			pos += suffix;
+			length = shared + suffix;
+		}
+		this.scratchId = id;
+		this.scratchPage = page;
+		this.scratchPos = pos;
+		this.scratchLength = length;
+		return length;
+	}
+
+	private int copyInput(ByteBuffer buffer, int from, int to) {
+		int length = to - from;
+		Preconditions.checkArgument(length <= MAX_LENGTH, "value length %s exceeds %s", length, MAX_LENGTH);
+		this.input = ensureCapacity(this.input, length);
+		for (int i = 0; i < length; i++) {
+			this.input[i] = buffer.get(from + i);
+		}
+		return length;
+	}
+
+	private void resize() {
+		Preconditions.checkState(this.capacity < MAX_TABLE_CAPACITY, "dictionary index is full");
+		ByteBuffer old = this.table;
+		int oldCapacity = this.capacity;
+		this.allocateTable(oldCapacity << 1);
+		int mask = this.capacity - 1;
+		for (int i = 0; i < oldCapacity; i++) {
+			long slot = old.getLong(i << 3);
+			if (slot == 0) {
+				continue;
+			}
+			int idx = (int) (slot >>> 32) & mask;
+			while (this.table.getLong(idx << 3) != 0) {
+				idx = (idx + 1) & mask;
+			}
+			this.table.putLong(idx << 3, slot);
+		}
+	}
+
+	private void allocateTable(int capacity) {
+		// 直接内存分配后内容为0，即所有槽位为空
+		this.table = ByteBuffer.allocateDirect(capacity << 3);
+		this.capacity = capacity;
+	}
+
+	private static long slot(int hash, int id) {
+		return ((long) hash << 32) | ((id + 1) & 0xFFFFFFFFL);
+	}
+
+	private static int hash(byte[] bytes, int offset, int length) {
+		int h = 0x9747b28c;
+		for (int i = 0; i < length; i++) {
+			h = 31 * h + bytes[offset + i];
+		}
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private static int varIntSize(int val) {
+		int size = 1;
+		while ((val >>>= 7) != 0) {
+			size++;
+		}
+		return size;
+	}
+
+	private static void writeVarInt(ByteBuffer buffer, int val) {
+		while ((val & ~0x7F) != 0) {
+			buffer.put((byte) ((val & 0x7F) | 0x80));
+			val >>>= 7;
+		}
+		buffer.put((byte) val);
+	}
+
+	private static byte[] ensureCapacity(byte[] bytes, int length) {
+		if (bytes.length >= length) {
+			return bytes;
+		}
+		return Arrays.copyOf(bytes, Math.max(length, bytes.length << 1));
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * 字节消费者
+	 */
+	@FunctionalInterface
+	public interface BytesConsumer {
+
+		/**
+		 * 消费字节
+		 * @param bytes 字节数组
+		 * @param offset 起始位置
+		 * @param length 长度
+		 * @throws IOException IO异常
+		 */
+		void accept(byte[] bytes, int offset, int length) throws IOException;
+
+	}
+
+}
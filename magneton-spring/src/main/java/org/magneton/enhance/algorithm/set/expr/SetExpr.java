@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.expr;
+
+import lombok.Getter;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译后的集合表达式，是一个有向无环图
+ *
+ * <p>
+ * 并集和交集的操作数按规范键排序并展开嵌套的同类运算，差集的减数同样排序，因此书写顺序不同但语义相同的子表达式具有相同的规范键，
+ * 编译时相同的子表达式只会创建一个节点。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+public final class SetExpr {
+
+	/**
+	 * 数据源名称，仅叶子节点有值
+	 */
+	private final String name;
+
+	/**
+	 * 运算类型，叶子节点为空，可能的值为 {@link SetAlgoOperation#UNION}、{@link SetAlgoOperation#INTERSECT} 和
+	 * {@link SetAlgoOperation#EXCLUDE}
+	 */
+	private final SetAlgoOperation operation;
+
+	/**
+	 * 操作数，差集的第一个操作数为被减数
+	 */
+	private final List<SetExpr> operands;
+
+	/**
+	 * 规范键，语义相同的表达式规范键相同
+	 */
+	private final String key;
+
+	SetExpr(String name) {
+		this.name = name;
+		this.operation = null;
+		this.operands = Collections.emptyList();
+		this.key = name;
+	}
+
+	SetExpr(SetAlgoOperation operation, List<SetExpr> operands, String key) {
+		this.name = null;
+		this.operation = operation;
+		this.operands = Collections.unmodifiableList(operands);
+		this.key = key;
+	}
+
+	/**
+	 * 是否为数据源
+	 * @return 如果是数据源返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isLeaf() {
+		return this.operation == null;
+	}
+
+	@Override
+	public String toString() {
+		return this.key;
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.expr;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按内存上限淘汰的子表达式结果缓存，超过上限时按最近最少使用淘汰，缓存的位图不能被修改
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class SetExprCache {
+
+	private final long maxBytes;
+
+	private final LinkedHashMap<String, Roaring64Bitmap> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+	private final Map<String, Long> sizes = new LinkedHashMap<>();
+
+	private long totalBytes;
+
+	SetExprCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	synchronized Roaring64Bitmap get(String key) {
+		return this.entries.get(key);
+	}
+
+	/**
+	 * 缓存结果，单个结果超过上限时不缓存
+	 * @param key 缓存键
+	 * @param bitmap 结果
+	 */
+	synchronized void put(String key, Roaring64Bitmap bitmap) {
+		// 序列化大小与内存占用接近，Roaring64Bitmap 不支持直接统计内存占用
+		long bytes = bitmap.serializedSizeInBytes();
+		if (bytes > this.maxBytes || this.entries.containsKey(key)) {
+			return;
+		}
+		this.entries.put(key, bitmap);
+		this.sizes.put(key, bytes);
+		this.totalBytes += bytes;
+		Iterator<Map.Entry<String, Roaring64Bitmap>> iterator = this.entries.entrySet().iterator();
+		while (this.totalBytes > this.maxBytes && iterator.hasNext()) {
+			String eldest = iterator.next().getKey();
+			iterator.remove();
+			this.totalBytes -= this.sizes.remove(eldest);
+		}
+	}
+
+	synchronized void clear() {
+		this.entries.clear();
+		this.sizes.clear();
+		this.totalBytes = 0;
+	}
+
+	synchronized long getTotalBytes() {
+		return this.totalBytes;
+	}
+
+}
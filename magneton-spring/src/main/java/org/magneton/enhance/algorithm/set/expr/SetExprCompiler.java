@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.expr;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.SetExprSyntaxException;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 集合表达式编译器
+ *
+ * <p>
+ * 语法如下，交集的优先级高于并集和差集，同级运算从左到右结合：
+ *
+ * <pre>
+ * expr   := term (('|' | '∪' | '-' | '−' | '\') term)*
+ * term   := factor (('&amp;' | '∩') factor)*
+ * factor := name | '(' expr ')'
+ * name   := [A-Za-z_][A-Za-z0-9_.]*
+ * </pre>
+ *
+ * 例如 {@code (A | B) & (C - D)}. 差集的减数是并集时展开为多个减数，即 {@code A - (B | C)} 与 {@code A - B - C}
+ * 编译为同一个节点。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public final class SetExprCompiler {
+
+	private final String expression;
+
+	private int position;
+
+	/**
+	 * 已创建的节点，相同规范键的子表达式共享同一个节点
+	 */
+	private final Map<String, SetExpr> nodes = new HashMap<>();
+
+	private SetExprCompiler(String expression) {
+		this.expression = expression;
+	}
+
+	/**
+	 * 编译表达式
+	 * @param expression 表达式
+	 * @return 编译结果
+	 * @throws SetExprSyntaxException 表达式语法错误
+	 */
+	public static SetExpr compile(String expression) {
+		Preconditions.checkNotNull(expression, "expression");
+		SetExprCompiler compiler = new SetExprCompiler(expression);
+		SetExpr expr = compiler.parseExpr();
+		compiler.skipWhitespace();
+		if (compiler.position < expression.length()) {
+			throw compiler.error("unexpected '" + expression.charAt(compiler.position) + "'");
+		}
+		return expr;
+	}
+
+	private SetExpr parseExpr() {
+		SetExpr left = this.parseTerm();
+		while (true) {
+			this.skipWhitespace();
+			if (this.accept('|') || this.accept('∪')) {
+				left = this.union(SetAlgoOperation.UNION, left, this.parseTerm());
+			}
+			else if (this.accept('-') || this.accept('−') || this.accept('\\')) {
+				left = this.exclude(left, this.parseTerm());
+			}
+			else {
+				return left;
+			}
+		}
+	}
+
+	private SetExpr parseTerm() {
+		SetExpr left = this.parseFactor();
+		while (true) {
+			this.skipWhitespace();
+			if (this.accept('&') || this.accept('∩')) {
+				left = this.union(SetAlgoOperation.INTERSECT, left, this.parseFactor());
+			}
+			else {
+				return left;
+			}
+		}
+	}
+
+	private SetExpr parseFactor() {
+		this.skipWhitespace();
+		if (this.accept('(')) {
+			SetExpr expr = this.parseExpr();
+			this.skipWhitespace();
+			if (!this.accept(')')) {
+				throw this.error("expected ')'");
+			}
+			return expr;
+		}
+		int start = this.position;
+		while (this.position < this.expression.length() && isNameChar(this.expression.charAt(this.position),
+				this.position == start)) {
+			this.position++;
+		}
+		if (start == this.position) {
+			throw this.error(this.position < this.expression.length()
+					? "unexpected '" + this.expression.charAt(this.position) + "'" : "unexpected end");
+		}
+		String name = this.expression.substring(start, this.position);
+		return this.nodes.computeIfAbsent(name, SetExpr::new);
+	}
+
+	/**
+	 * 并集或交集，展开同类运算的操作数，去重后按规范键排序
+	 */
+	private SetExpr union(SetAlgoOperation operation, SetExpr left, SetExpr right) {
+		TreeMap<String, SetExpr> operands = new TreeMap<>();
+		for (SetExpr expr : new SetExpr[] { left, right }) {
+			if (expr.getOperation() == operation) {
+				expr.getOperands().forEach(operand -> operands.put(operand.getKey(), operand));
+			}
+			else {
+				operands.put(expr.getKey(), expr);
+			}
+		}
+		if (operands.size() == 1) {
+			return left;
+		}
+		String symbol = operation == SetAlgoOperation.UNION ? "|" : "&";
+		return this.node(operation, new ArrayList<>(operands.values()), symbol);
+	}
+
+	/**
+	 * 差集，连续的差集合并为一个被减数和多个减数，减数为并集时展开，减数去重后按规范键排序
+	 */
+	private SetExpr exclude(SetExpr left, SetExpr right) {
+		SetExpr minuend = left;
+		TreeMap<String, SetExpr> subtrahends = new TreeMap<>();
+		if (left.getOperation() == SetAlgoOperation.EXCLUDE) {
+			minuend = left.getOperands().get(0);
+			left.getOperands().subList(1, left.getOperands().size())
+				.forEach(operand -> subtrahends.put(operand.getKey(), operand));
+		}
+		if (right.getOperation() == SetAlgoOperation.UNION) {
+			right.getOperands().forEach(operand -> subtrahends.put(operand.getKey(), operand));
+		}
+		else {
+			subtrahends.put(right.getKey(), right);
+		}
+		List<SetExpr> operands = new ArrayList<>(subtrahends.size() + 1);
+		operands.add(minuend);
+		operands.addAll(subtrahends.values());
+		return this.node(SetAlgoOperation.EXCLUDE, operands, "-");
+	}
+
+	private SetExpr node(SetAlgoOperation operation, List<SetExpr> operands, String symbol) {
+		StringBuilder key = new StringBuilder("(");
+		for (int i = 0; i < operands.size(); i++) {
+			if (i > 0) {
+				key.append(symbol);
+			}
+			key.append(operands.get(i).getKey());
+		}
+		key.append(')');
+		return this.nodes.computeIfAbsent(key.toString(), k -> new SetExpr(operation, operands, k));
+	}
+
+	private boolean accept(char c) {
+		if (this.position < this.expression.length() && this.expression.charAt(this.position) == c) {
+			this.position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.expression.length()
+				&& Character.isWhitespace(this.expression.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private SetExprSyntaxException error(String message) {
+		return new SetExprSyntaxException(this.expression, this.position, message);
+	}
+
+	private static boolean isNameChar(char c, boolean first) {
+		if (c == '_' || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+			return true;
+		}
+		return !first && ((c >= '0' && c <= '9') || c == '.');
+	}
+
+}
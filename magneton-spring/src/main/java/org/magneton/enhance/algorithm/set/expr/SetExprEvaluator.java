@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.expr;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+import org.magneton.enhance.algorithm.set.n64.Bmp64ChainData;
+import org.magneton.enhance.algorithm.set.n64.N64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.n64.N64SetStream;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集合表达式执行器
+ *
+ * <p>
+ * 表达式中的名称通过 {@code bind} 绑定到文件、数据或流，数据源的语义为其所有数据的并集。表达式编译为有向无环图后，
+ * 每个运算节点转换为一条long型集合算法链，相互独立的分支在线程池中并行执行。
+ *
+ * <p>
+ * 每个子表达式的结果按规范键缓存，同一个表达式中重复的子表达式以及之后执行的表达式中相同的子表达式只计算一次。
+ * 缓存键还包含子表达式引用的每个文件的路径、大小和修改时间，文件变化后不会命中变化前的结果。
+ * 缓存按内存上限以最近最少使用淘汰，重新绑定数据源时清空缓存，绑定的数据和流在绑定期间不应被修改。
+ *
+ * <pre>
+ * SetExprEvaluator evaluator = new SetExprEvaluator();
+ * evaluator.bind("A", SetAlgoFile.of("a.txt")).bind("B", SetAlgoFile.of("b.txt"));
+ * N64SetStream result = evaluator.evaluate("(A | B) &amp; (C - D)");
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SetExprEvaluator {
+
+	private final Map<String, Object> bindings = new HashMap<>();
+
+	private final SetExprCache cache;
+
+	private final SetAlgoParallelConfig parallelConfig;
+
+	public SetExprEvaluator() {
+		this(Runtime.getRuntime().maxMemory() / 8, new SetAlgoParallelConfig());
+	}
+
+	/**
+	 * 创建执行器
+	 * @param cacheBytes 子表达式结果缓存的内存上限，单位字节
+	 * @param parallelConfig 并行配置，并行度为同时执行的分支数量
+	 */
+	public SetExprEvaluator(long cacheBytes, SetAlgoParallelConfig parallelConfig) {
+		Preconditions.checkArgument(cacheBytes >= 0, "cacheBytes must not be negative");
+		this.cache = new SetExprCache(cacheBytes);
+		this.parallelConfig = Preconditions.checkNotNull(parallelConfig, "parallelConfig");
+	}
+
+	/**
+	 * 绑定文件，多个文件的语义为并集
+	 * @param name 名称
+	 * @param file 文件
+	 * @return 执行器
+	 */
+	public SetExprEvaluator bind(String name, SetAlgoFile file) {
+		return this.doBind(name, file);
+	}
+
+	/**
+	 * 绑定数据
+	 * @param name 名称
+	 * @param data 数据
+	 * @return 执行器
+	 */
+	public SetExprEvaluator bind(String name, SetAlgoData<Long> data) {
+		return this.doBind(name, data);
+	}
+
+	/**
+	 * 绑定流，执行期间流不能被修改
+	 * @param name 名称
+	 * @param stream 流
+	 * @return 执行器
+	 */
+	public SetExprEvaluator bind(String name, SetStream<Long> stream) {
+		return this.doBind(name, stream);
+	}
+
+	/**
+	 * 执行表达式
+	 * @param expression 表达式，语法见 {@link SetExprCompiler}
+	 * @return 结果
+	 */
+	public N64SetStream evaluate(String expression) {
+		return this.evaluate(SetExprCompiler.compile(expression));
+	}
+
+	/**
+	 * 执行编译后的表达式
+	 * @param expr 表达式
+	 * @return 结果，可以修改，不影响缓存
+	 */
+	public N64SetStream evaluate(SetExpr expr) {
+		Preconditions.checkNotNull(expr, "expr");
+		Map<String, Integer> references = new HashMap<>();
+		this.reference(expr, references);
+		Map<String, String> cacheKeys = new HashMap<>();
+		this.cacheKeys(expr, new HashMap<>(), new HashMap<>(), cacheKeys);
+		long s = System.currentTimeMillis();
+		ExecutorService executor = this.parallelConfig.getExecutor();
+		boolean temporary = executor == null;
+		if (temporary) {
+			executor = Executors.newFixedThreadPool(Math.max(1, this.parallelConfig.getParallelism()),
+					new ThreadFactoryBuilder().setNameFormat("set-algo-expr-%d").setDaemon(true).build());
+		}
+		try {
+			// 全部节点调度完成后再开始执行，保证释放中间结果时消费者数量已经统计完整
+			CompletableFuture<Void> start = new CompletableFuture<>();
+			Schedule schedule = new Schedule(references, cacheKeys, executor, start);
+			CompletableFuture<Roaring64Bitmap> future = this.schedule(expr, schedule);
+			start.complete(null);
+			Roaring64Bitmap result = future.join();
+			if (log.isDebugEnabled()) {
+				log.debug("evaluate {}, used {} ms", expr, (System.currentTimeMillis() - s));
+			}
+			// 结果可能被缓存，返回副本避免调用方修改缓存
+			return new N64SetStream(this.cache.get(cacheKeys.get(expr.getKey())) == result ? result.clone() : result,
+					null);
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			if (temporary) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * 清空子表达式结果缓存
+	 */
+	public void clearCache() {
+		this.cache.clear();
+	}
+
+	/**
+	 * 缓存占用的内存
+	 * @return 字节数
+	 */
+	public long getCacheBytes() {
+		return this.cache.getTotalBytes();
+	}
+
+	private SetExprEvaluator doBind(String name, Object source) {
+		Preconditions.checkNotNull(name, "name");
+		Preconditions.checkNotNull(source, "source");
+		this.bindings.put(name, source);
+		this.cache.clear();
+		return this;
+	}
+
+	/**
+	 * 统计每个节点被引用的次数，相同的节点只遍历一次
+	 */
+	private void reference(SetExpr expr, Map<String, Integer> references) {
+		if (references.merge(expr.getKey(), 1, Integer::sum) > 1) {
+			return;
+		}
+		if (expr.isLeaf()) {
+			Preconditions.checkArgument(this.bindings.containsKey(expr.getName()), "unbound name %s", expr.getName());
+		}
+		for (SetExpr operand : expr.getOperands()) {
+			this.reference(operand, references);
+		}
+	}
+
+	/**
+	 * 计算每个节点的缓存键，即规范键加上节点引用的文件的路径、大小和修改时间，每个数据源只读取一次文件属性
+	 * @return 节点引用的数据源名称
+	 */
+	private SortedSet<String> cacheKeys(SetExpr expr, Map<String, SortedSet<String>> names,
+			Map<String, String> versions, Map<String, String> cacheKeys) {
+		SortedSet<String> referenced = names.get(expr.getKey());
+		if (referenced != null) {
+			return referenced;
+		}
+		referenced = new TreeSet<>();
+		if (expr.isLeaf()) {
+			referenced.add(expr.getName());
+		}
+		for (SetExpr operand : expr.getOperands()) {
+			referenced.addAll(this.cacheKeys(operand, names, versions, cacheKeys));
+		}
+		StringBuilder key = new StringBuilder(expr.getKey());
+		for (String name : referenced) {
+			Object source = this.bindings.get(name);
+			if (source instanceof SetAlgoFile) {
+				key.append('|').append(versions.computeIfAbsent(name, n -> version((SetAlgoFile) source)));
+			}
+		}
+		names.put(expr.getKey(), referenced);
+		cacheKeys.put(expr.getKey(), key.toString());
+		return referenced;
+	}
+
+	/**
+	 * 文件的版本，由每个文件的路径、大小和修改时间组成，无法读取属性的文件大小和修改时间为-1
+	 */
+	private static String version(SetAlgoFile file) {
+		StringBuilder version = new StringBuilder();
+		for (String path : file.getFiles()) {
+			Path normalized = Paths.get(path).toAbsolutePath().normalize();
+			long size;
+			long modified;
+			try {
+				BasicFileAttributes attributes = Files.readAttributes(normalized, BasicFileAttributes.class);
+				size = attributes.size();
+				modified = attributes.lastModifiedTime().toMillis();
+			}
+			catch (IOException e) {
+				size = -1;
+				modified = -1;
+			}
+			version.append(normalized).append(':').append(size).append(':').append(modified).append(';');
+		}
+		return version.toString();
+	}
+
+	/**
+	 * 数据源只被引用一次时直接作为算法链的输入，不需要单独计算，多个文件的数据源在交集中的语义不是并集，也需要单独计算
+	 */
+	private boolean inline(SetExpr expr, Map<String, Integer> references) {
+		if (!expr.isLeaf() || references.get(expr.getKey()) > 1) {
+			return false;
+		}
+		Object source = this.bindings.get(expr.getName());
+		return !(source instanceof SetAlgoFile) || ((SetAlgoFile) source).getFiles().size() == 1;
+	}
+
+	private CompletableFuture<Roaring64Bitmap> schedule(SetExpr expr, Schedule schedule) {
+		CompletableFuture<Roaring64Bitmap> future = schedule.futures.get(expr.getKey());
+		if (future != null) {
+			return future;
+		}
+		Roaring64Bitmap cached = this.cache.get(schedule.cacheKeys.get(expr.getKey()));
+		if (cached != null) {
+			future = CompletableFuture.completedFuture(cached);
+		}
+		else {
+			Map<String, CompletableFuture<Roaring64Bitmap>> operands = new HashMap<>();
+			for (SetExpr operand : expr.getOperands()) {
+				if (!this.inline(operand, schedule.references) && !operands.containsKey(operand.getKey())) {
+					operands.put(operand.getKey(), this.schedule(operand, schedule));
+					schedule.consumers.computeIfAbsent(operand.getKey(), key -> new AtomicInteger()).incrementAndGet();
+				}
+			}
+			List<CompletableFuture<?>> dependencies = new ArrayList<>(operands.values());
+			dependencies.add(schedule.start);
+			future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+				.thenApplyAsync(v -> this.compute(expr, operands, schedule), schedule.executor);
+		}
+		schedule.futures.put(expr.getKey(), future);
+		return future;
+	}
+
+	/**
+	 * 把节点转换为算法链执行，单独计算的操作数以流的形式输入
+	 */
+	private Roaring64Bitmap compute(SetExpr expr, Map<String, CompletableFuture<Roaring64Bitmap>> operands,
+			Schedule schedule) {
+		Bmp64ChainData chainData = new Bmp64ChainData();
+		SetAlgoResource<Long, N64SetAlgoStream> resource = new N64SetAlgoStream(chainData);
+		if (expr.isLeaf()) {
+			resource = add(resource, SetAlgoOperation.UNION, this.bindings.get(expr.getName()));
+		}
+		List<SetExpr> exprs = expr.getOperands();
+		for (int i = 0; i < exprs.size(); i++) {
+			SetExpr operand = exprs.get(i);
+			CompletableFuture<Roaring64Bitmap> future = operands.get(operand.getKey());
+			Object source = future == null ? this.bindings.get(operand.getName())
+					: new N64SetStream(future.join(), null);
+			resource = add(resource, i == 0 ? SetAlgoOperation.UNION : expr.getOperation(), source);
+		}
+		resource.stream();
+		operands.keySet().forEach(schedule::release);
+		Roaring64Bitmap bitmap = chainData.getData();
+		this.cache.put(schedule.cacheKeys.get(expr.getKey()), bitmap);
+		return bitmap;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static SetAlgoResource<Long, N64SetAlgoStream> add(SetAlgoResource<Long, N64SetAlgoStream> resource,
+			SetAlgoOperation operation, Object source) {
+		switch (operation) {
+			case UNION:
+				if (source instanceof SetAlgoFile) {
+					return resource.union((SetAlgoFile) source);
+				}
+				return source instanceof SetAlgoData ? resource.union((SetAlgoData<Long>) source)
+						: resource.union((SetStream<Long>) source);
+			case INTERSECT:
+				if (source instanceof SetAlgoFile) {
+					return resource.intersect((SetAlgoFile) source);
+				}
+				return source instanceof SetAlgoData ? resource.intersect((SetAlgoData<Long>) source)
+						: resource.intersect((SetStream<Long>) source);
+			case EXCLUDE:
+				if (source instanceof SetAlgoFile) {
+					return resource.exclude((SetAlgoFile) source);
+				}
+				return source instanceof SetAlgoData ? resource.exclude((SetAlgoData<Long>) source)
+						: resource.exclude((SetStream<Long>) source);
+			default:
+				throw new IllegalArgumentException("unsupported operation " + operation);
+		}
+	}
+
+	/**
+	 * 一次执行的调度状态，中间结果在最后一个消费者执行完成后从调度表中移除，不再等到整个表达式执行结束
+	 */
+	private static final class Schedule {
+
+		private final Map<String, Integer> references;
+
+		/**
+		 * 每个节点的缓存键，在开始执行前计算完成
+		 */
+		private final Map<String, String> cacheKeys;
+
+		private final ExecutorService executor;
+
+		private final CompletableFuture<Void> start;
+
+		private final Map<String, CompletableFuture<Roaring64Bitmap>> futures = new ConcurrentHashMap<>();
+
+		/**
+		 * 每个节点的消费者数量，在开始执行前统计完成
+		 */
+		private final Map<String, AtomicInteger> consumers = new HashMap<>();
+
+		private Schedule(Map<String, Integer> references, Map<String, String> cacheKeys, ExecutorService executor,
+				CompletableFuture<Void> start) {
+			this.references = references;
+			this.cacheKeys = cacheKeys;
+			this.executor = executor;
+			this.start = start;
+		}
+
+		private void release(String key) {
+			if (this.consumers.get(key).decrementAndGet() == 0) {
+				this.futures.remove(key);
+			}
+		}
+
+	}
+
+}
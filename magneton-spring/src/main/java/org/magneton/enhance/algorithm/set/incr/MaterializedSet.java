@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.incr;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import org.magneton.enhance.algorithm.set.p64.P64SetStream;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 物化集合的一个版本快照，由 {@link MaterializedSetStore} 创建，快照创建后不再修改
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+public class MaterializedSet {
+
+	/**
+	 * 名称
+	 */
+	private final String name;
+
+	/**
+	 * 生成结果的表达式，语法见 {@link org.magneton.enhance.algorithm.set.expr.SetExprCompiler}
+	 */
+	private final String expression;
+
+	/**
+	 * 版本号，创建时为0，每次应用增量加1
+	 */
+	private final long version;
+
+	/**
+	 * 结果的数据量
+	 */
+	private final long cardinality;
+
+	/**
+	 * 表达式中的数据源名称
+	 */
+	private final List<String> inputs;
+
+	/**
+	 * 快照的创建时间
+	 */
+	private final long createTime;
+
+	/**
+	 * 快照目录
+	 */
+	private final Path directory;
+
+	MaterializedSet(String name, String expression, long version, long cardinality, List<String> inputs,
+			long createTime, Path directory) {
+		this.name = name;
+		this.expression = expression;
+		this.version = version;
+		this.cardinality = cardinality;
+		this.inputs = inputs;
+		this.createTime = createTime;
+		this.directory = directory;
+	}
+
+	/**
+	 * 读取结果
+	 * @return 结果流，可以作为集合算法的数据源
+	 */
+	public P64SetStream read() {
+		return new P64SetStream(PartitionLog.read(this.getResultDirectory(), ForkJoinPool.commonPool()), null);
+	}
+
+	/**
+	 * 读取该版本中数据源的内容
+	 * @param input 数据源名称
+	 * @return 数据源流
+	 */
+	public P64SetStream readInput(String input) {
+		Preconditions.checkArgument(this.inputs.contains(input), "unknown input %s", input);
+		return new P64SetStream(PartitionLog.read(this.getInputDirectory(input), ForkJoinPool.commonPool()), null);
+	}
+
+	/**
+	 * 结果的分区目录
+	 * @return 目录
+	 */
+	public Path getResultDirectory() {
+		return this.directory.resolve("result");
+	}
+
+	/**
+	 * 数据源的分区目录
+	 * @param input 数据源名称
+	 * @return 目录
+	 */
+	public Path getInputDirectory(String input) {
+		return this.directory.resolve("input").resolve(input);
+	}
+
+	@Override
+	public String toString() {
+		return this.name + "@" + this.version + "[" + this.expression + "]";
+	}
+
+}
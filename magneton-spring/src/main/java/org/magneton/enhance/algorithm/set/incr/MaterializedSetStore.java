@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.incr;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetAlgoStorage;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.expr.SetExpr;
+import org.magneton.enhance.algorithm.set.expr.SetExprCompiler;
+import org.magneton.enhance.algorithm.set.p64.P64ChainData;
+import org.magneton.enhance.algorithm.set.p64.P64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.p64.PartitionedBitmap;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 物化集合存储，保存有名称的集合表达式结果，并在数据源变化时增量更新
+ *
+ * <p>
+ * 物化集合记录生成它的表达式，每个版本的快照保存结果和每个数据源的内容，均按 {@link PartitionedBitmap} 的分区存储。
+ * 集合表达式中每个值是否在结果中只取决于它是否在各个数据源中，因此增量中出现的值是结果中唯一可能变化的值，
+ * 新结果为 {@code (旧结果 - 候选值) ∪ 表达式(数据源 ∩ 候选值)}。
+ *
+ * <p>
+ * 每个分区由基础文件和增量日志组成，应用增量时只读取基础文件中候选值所在的容器，并为受影响的分区追加一条只包含候选值的日志，
+ * 日志累计到基础文件的一半大小时才合并为新的基础文件，因此平均每次更新的读写量与增量的数据量成正比。
+ * 未变化的文件硬链接到新版本，链接的数量与分区和日志文件的数量成正比。
+ *
+ * <p>
+ * 目录结构为 {@code <存储目录>/<名称>/v<版本号>/}，其中包括 {@code meta.properties}、{@code result/} 和
+ * {@code input/<数据源名称>/}，新版本先写入临时目录，完成后再移动为版本目录，因此读取到的版本总是完整的。
+ *
+ * <pre>
+ * MaterializedSetStore store = new MaterializedSetStore(Paths.get("/data/sets"));
+ * store.create("active", "buyers - unsubscribed", new SetDelta().add("buyers", SetAlgoFile.of("buyers.txt"))
+ * 	.add("unsubscribed", SetAlgoFile.of("unsubscribed.txt")));
+ * // 每天只应用当天的增量
+ * store.apply("active", new SetDelta().add("buyers", SetAlgoFile.of("buyers-20261018.txt")));
+ * SetStream&lt;Long&gt; active = store.get("active").read();
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class MaterializedSetStore {
+
+	private static final String VERSION_PREFIX = "v";
+
+	private static final ImmutableRoaringBitmap EMPTY = new MutableRoaringBitmap();
+
+	private final Path directory;
+
+	private final ForkJoinPool pool;
+
+	public MaterializedSetStore(Path directory) {
+		this(directory, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建存储
+	 * @param directory 存储目录，不存在时创建
+	 * @param pool 增量加载和分区计算的线程池
+	 */
+	public MaterializedSetStore(Path directory, ForkJoinPool pool) {
+		this.directory = Preconditions.checkNotNull(directory, "directory");
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+	}
+
+	/**
+	 * 创建一个空的物化集合，版本号为0，所有数据源为空
+	 * @param name 名称，只能包含字母、数字、下划线、点和中划线
+	 * @param expression 表达式，语法见 {@link SetExprCompiler}
+	 * @return 快照
+	 */
+	public synchronized MaterializedSet create(String name, String expression) {
+		SetAlgoStorage.checkName(name);
+		Preconditions.checkArgument(this.versions(name).isEmpty(), "materialized set %s already exists", name);
+		Set<String> inputs = new TreeSet<>();
+		collectInputs(SetExprCompiler.compile(expression), inputs);
+		Path temp = this.tempDirectory(name, 0);
+		MaterializedSet snapshot = new MaterializedSet(name, expression, 0, 0, new ArrayList<>(inputs),
+				System.currentTimeMillis(), temp);
+		try {
+			Files.createDirectories(snapshot.getResultDirectory());
+			for (String input : inputs) {
+				Files.createDirectories(snapshot.getInputDirectory(input));
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(temp.toString(), e);
+		}
+		return this.commit(snapshot);
+	}
+
+	/**
+	 * 创建物化集合并加载初始数据，等同于创建空集合之后应用增量
+	 * @param name 名称
+	 * @param expression 表达式
+	 * @param initial 初始数据
+	 * @return 快照，版本号为1
+	 */
+	public synchronized MaterializedSet create(String name, String expression, SetDelta initial) {
+		this.create(name, expression);
+		return this.apply(name, initial);
+	}
+
+	/**
+	 * 获取最新版本
+	 * @param name 名称
+	 * @return 快照，不存在时返回 {@code null}
+	 */
+	public MaterializedSet get(String name) {
+		List<Long> versions = this.versions(name);
+		return versions.isEmpty() ? null : this.get(name, versions.get(versions.size() - 1));
+	}
+
+	/**
+	 * 获取指定版本
+	 * @param name 名称
+	 * @param version 版本号
+	 * @return 快照，不存在时返回 {@code null}
+	 */
+	public MaterializedSet get(String name, long version) {
+		Path dir = this.versionDirectory(name, version);
+		if (!SetAlgoStorage.hasMeta(dir)) {
+			return null;
+		}
+		Properties properties = SetAlgoStorage.readMeta(dir);
+		String inputs = properties.getProperty("inputs", "");
+		return new MaterializedSet(name, properties.getProperty("expression"), version,
+				Long.parseLong(properties.getProperty("cardinality")),
+				inputs.isEmpty() ? Collections.emptyList() : Splitter.on(',').splitToList(inputs),
+				Long.parseLong(properties.getProperty("createTime")), dir);
+	}
+
+	/**
+	 * 所有版本号
+	 * @param name 名称
+	 * @return 升序排列的版本号，不存在时返回空列表
+	 */
+	public List<Long> versions(String name) {
+		Path dir = this.directory.resolve(name);
+		List<Long> versions = new ArrayList<>();
+		if (!Files.isDirectory(dir)) {
+			return versions;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, VERSION_PREFIX + "*")) {
+			for (Path path : stream) {
+				versions.add(Long.parseLong(path.getFileName().toString().substring(VERSION_PREFIX.length())));
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+		Collections.sort(versions);
+		return versions;
+	}
+
+	/**
+	 * 在最新版本上应用增量，生成新版本
+	 * @param name 名称
+	 * @param delta 增量
+	 * @return 新版本的快照
+	 */
+	public synchronized MaterializedSet apply(String name, SetDelta delta) {
+		Preconditions.checkNotNull(delta, "delta");
+		MaterializedSet base = this.get(name);
+		Preconditions.checkArgument(base != null, "materialized set %s not exists", name);
+		for (String input : delta.getAdded().keySet()) {
+			Preconditions.checkArgument(base.getInputs().contains(input), "unknown input %s", input);
+		}
+		for (String input : delta.getRemoved().keySet()) {
+			Preconditions.checkArgument(base.getInputs().contains(input), "unknown input %s", input);
+		}
+		long s = System.currentTimeMillis();
+		Map<String, PartitionedBitmap> added = this.load(delta.getAdded());
+		Map<String, PartitionedBitmap> removed = this.load(delta.getRemoved());
+		// 增量中出现的所有值是结果中仅有的可能变化的值
+		List<PartitionedBitmap> deltas = new ArrayList<>(added.values());
+		deltas.addAll(removed.values());
+		Map<Long, ImmutableRoaringBitmap> candidates = deltas.isEmpty() ? Collections.emptyMap()
+				: PartitionedBitmap.or(deltas).getPartitions();
+
+		Path temp = this.tempDirectory(name, base.getVersion() + 1);
+		MaterializedSet target = new MaterializedSet(name, base.getExpression(), base.getVersion() + 1, 0,
+				base.getInputs(), System.currentTimeMillis(), temp);
+		Map<String, Map<Long, List<Path>>> logs = new HashMap<>();
+		for (String input : base.getInputs()) {
+			linkPartitions(base.getInputDirectory(input), target.getInputDirectory(input));
+			logs.put(input, PartitionLog.logs(base.getInputDirectory(input)));
+		}
+		linkPartitions(base.getResultDirectory(), target.getResultDirectory());
+		Map<Long, List<Path>> resultLogs = PartitionLog.logs(base.getResultDirectory());
+
+		SetExpr expr = SetExprCompiler.compile(base.getExpression());
+		List<ForkJoinTask<Long>> tasks = new ArrayList<>(candidates.size());
+		for (Map.Entry<Long, ImmutableRoaringBitmap> entry : candidates.entrySet()) {
+			tasks.add(this.pool.submit(() -> applyPartition(expr, base, target, entry.getKey(), entry.getValue(),
+					added, removed, logs, resultLogs)));
+		}
+		long cardinality = base.getCardinality();
+		for (ForkJoinTask<Long> task : tasks) {
+			cardinality += task.join();
+		}
+		MaterializedSet snapshot = this.commit(new MaterializedSet(name, target.getExpression(), target.getVersion(),
+				cardinality, target.getInputs(), target.getCreateTime(), temp));
+		if (log.isDebugEnabled()) {
+			log.debug("apply {} on {} partitions, used {} ms", snapshot, candidates.size(),
+					(System.currentTimeMillis() - s));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * 只保留最新的若干个版本，删除更早的版本，版本之间通过硬链接共享的分区文件不受影响
+	 * @param name 名称
+	 * @param count 保留的版本数量，至少为1
+	 */
+	public synchronized void retain(String name, int count) {
+		Preconditions.checkArgument(count > 0, "count must be greater than 0");
+		List<Long> versions = this.versions(name);
+		for (int i = 0; i < versions.size() - count; i++) {
+			SetAlgoStorage.deleteRecursively(this.versionDirectory(name, versions.get(i)));
+		}
+	}
+
+	/**
+	 * 删除物化集合的所有版本
+	 * @param name 名称
+	 */
+	public synchronized void drop(String name) {
+		SetAlgoStorage.deleteRecursively(this.directory.resolve(name));
+	}
+
+	/**
+	 * 重新计算一个分区，为新版本中变化的数据源和结果分区追加日志
+	 * @return 该分区结果数据量的变化
+	 */
+	private static long applyPartition(SetExpr expr, MaterializedSet base, MaterializedSet target, long key,
+			ImmutableRoaringBitmap candidate, Map<String, PartitionedBitmap> added,
+			Map<String, PartitionedBitmap> removed, Map<String, Map<Long, List<Path>>> logs,
+			Map<Long, List<Path>> resultLogs) {
+		Map<String, ImmutableRoaringBitmap> leaves = new HashMap<>();
+		for (String input : base.getInputs()) {
+			List<Path> inputLogs = logs.get(input).getOrDefault(key, Collections.emptyList());
+			MutableRoaringBitmap leaf = PartitionLog.restrict(base.getInputDirectory(input), key, inputLogs,
+					candidate);
+			ImmutableRoaringBitmap plus = partition(added.get(input), key);
+			ImmutableRoaringBitmap minus = partition(removed.get(input), key);
+			if (plus != null || minus != null) {
+				MutableRoaringBitmap changed = ImmutableRoaringBitmap.or(plus == null ? EMPTY : plus,
+						minus == null ? EMPTY : minus);
+				if (plus != null) {
+					leaf.or(plus);
+				}
+				if (minus != null) {
+					leaf.andNot(minus);
+				}
+				PartitionLog.append(target.getInputDirectory(input), key, target.getVersion(), inputLogs, changed,
+						ImmutableRoaringBitmap.and(leaf, changed));
+			}
+			leaves.put(input, leaf);
+		}
+		List<Path> previousLogs = resultLogs.getOrDefault(key, Collections.emptyList());
+		MutableRoaringBitmap previous = PartitionLog.restrict(base.getResultDirectory(), key, previousLogs,
+				candidate);
+		MutableRoaringBitmap result = evaluate(expr, leaves, new HashMap<>()).toMutableRoaringBitmap();
+		PartitionLog.append(target.getResultDirectory(), key, target.getVersion(), previousLogs, candidate, result);
+		return result.getLongCardinality() - previous.getLongCardinality();
+	}
+
+	/**
+	 * 在单个分区的候选值上计算表达式，相同的子表达式只计算一次
+	 */
+	private static ImmutableRoaringBitmap evaluate(SetExpr expr, Map<String, ImmutableRoaringBitmap> leaves,
+			Map<String, ImmutableRoaringBitmap> results) {
+		ImmutableRoaringBitmap result = results.get(expr.getKey());
+		if (result != null) {
+			return result;
+		}
+		if (expr.isLeaf()) {
+			result = leaves.get(expr.getName());
+		}
+		else {
+			List<ImmutableRoaringBitmap> operands = new ArrayList<>(expr.getOperands().size());
+			for (SetExpr operand : expr.getOperands()) {
+				operands.add(evaluate(operand, leaves, results));
+			}
+			switch (expr.getOperation()) {
+				case UNION:
+					result = BufferFastAggregation.or(operands.iterator());
+					break;
+				case INTERSECT:
+					result = BufferFastAggregation.and(operands.iterator());
+					break;
+				case EXCLUDE:
+					result = ImmutableRoaringBitmap.andNot(operands.get(0),
+							BufferFastAggregation.or(operands.subList(1, operands.size()).iterator()));
+					break;
+				default:
+					throw new IllegalArgumentException("unsupported operation " + expr.getOperation());
+			}
+		}
+		results.put(expr.getKey(), result);
+		return result;
+	}
+
+	/**
+	 * 写入元数据，并把临时目录移动为版本目录
+	 */
+	private MaterializedSet commit(MaterializedSet snapshot) {
+		Properties properties = new Properties();
+		properties.setProperty("name", snapshot.getName());
+		properties.setProperty("expression", snapshot.getExpression());
+		properties.setProperty("version", String.valueOf(snapshot.getVersion()));
+		properties.setProperty("cardinality", String.valueOf(snapshot.getCardinality()));
+		properties.setProperty("inputs", Joiner.on(',').join(snapshot.getInputs()));
+		properties.setProperty("createTime", String.valueOf(snapshot.getCreateTime()));
+		Path temp = snapshot.getDirectory();
+		Path dir = this.versionDirectory(snapshot.getName(), snapshot.getVersion());
+		try {
+			SetAlgoStorage.writeMeta(temp, properties);
+			Files.move(temp, dir, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			SetAlgoStorage.deleteRecursively(temp);
+			throw new NotFileException(dir.toString(), e);
+		}
+		catch (NotFileException e) {
+			SetAlgoStorage.deleteRecursively(temp);
+			throw e;
+		}
+		return this.get(snapshot.getName(), snapshot.getVersion());
+	}
+
+	/**
+	 * 按数据源加载增量，每个数据源的多份数据合并为一个位图
+	 */
+	private Map<String, PartitionedBitmap> load(Map<String, List<Object>> sources) {
+		Map<String, PartitionedBitmap> bitmaps = new HashMap<>();
+		sources.forEach((input, list) -> {
+			P64ChainData chainData = new P64ChainData(this.pool);
+			SetAlgoResource<Long, P64SetAlgoStream> resource = new P64SetAlgoStream(chainData);
+			for (Object source : list) {
+				resource = union(resource, source);
+			}
+			resource.stream();
+			bitmaps.put(input, chainData.getData());
+		});
+		return bitmaps;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static SetAlgoResource<Long, P64SetAlgoStream> union(SetAlgoResource<Long, P64SetAlgoStream> resource,
+			Object source) {
+		if (source instanceof SetAlgoFile) {
+			return resource.union((SetAlgoFile) source);
+		}
+		return source instanceof SetAlgoData ? resource.union((SetAlgoData<Long>) source)
+				: resource.union((SetStream<Long>) source);
+	}
+
+	private Path versionDirectory(String name, long version) {
+		return this.directory.resolve(name).resolve(String.format("%s%010d", VERSION_PREFIX, version));
+	}
+
+	private Path tempDirectory(String name, long version) {
+		Path temp = this.directory.resolve(name).resolve(String.format(".%s%010d.tmp", VERSION_PREFIX, version));
+		SetAlgoStorage.deleteRecursively(temp);
+		try {
+			return Files.createDirectories(temp);
+		}
+		catch (IOException e) {
+			throw new NotFileException(temp.toString(), e);
+		}
+	}
+
+	private static ImmutableRoaringBitmap partition(PartitionedBitmap bitmap, long key) {
+		return bitmap == null ? null : bitmap.getPartitions().get(key);
+	}
+
+	/**
+	 * 把上一个版本的基础文件和日志硬链接到新版本，文件系统不支持硬链接时复制，新版本只追加或合并文件，不会修改链接的文件
+	 */
+	private static void linkPartitions(Path from, Path to) {
+		try {
+			Files.createDirectories(to);
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(from)) {
+				for (Path path : stream) {
+					Path link = to.resolve(path.getFileName());
+					try {
+						Files.createLink(link, path);
+					}
+					catch (UnsupportedOperationException | FileSystemException e) {
+						Files.copy(path, link, StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(to.toString(), e);
+		}
+	}
+
+	private static void collectInputs(SetExpr expr, Set<String> inputs) {
+		if (expr.isLeaf()) {
+			inputs.add(expr.getName());
+		}
+		for (SetExpr operand : expr.getOperands()) {
+			collectInputs(operand, inputs);
+		}
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.incr;
+
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.p64.PartitionedBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 分区的基础文件和增量日志
+ *
+ * <p>
+ * 每个分区由基础文件 {@code <高40位>.rbm} 和若干增量日志 {@code <高40位>-<版本号>.log} 组成，每条日志依次保存本次变化的候选值和
+ * 候选值上的新内容，分区的内容为基础文件按版本号依次应用日志：{@code (内容 - 候选值) ∪ 新内容}。
+ *
+ * <p>
+ * 日志的累计大小达到基础文件的一半时合并为新的基础文件，合并写入的数据量不超过这些日志大小的3倍，
+ * 因此平均每次更新写入的数据量与增量的数据量成正比，而不是与分区的大小成正比。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class PartitionLog {
+
+	static final String LOG_SUFFIX = ".log";
+
+	private PartitionLog() {
+	}
+
+	/**
+	 * 目录中每个分区的增量日志
+	 * @param dir 目录
+	 * @return 高40位到按版本号升序排列的日志文件
+	 */
+	static Map<Long, List<Path>> logs(Path dir) {
+		Map<Long, List<Path>> logs = new TreeMap<>();
+		if (!Files.isDirectory(dir)) {
+			return logs;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + LOG_SUFFIX)) {
+			for (Path path : stream) {
+				logs.computeIfAbsent(key(path), key -> new ArrayList<>()).add(path);
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+		logs.values().forEach(paths -> paths.sort(Comparator.comparingLong(PartitionLog::version)));
+		return logs;
+	}
+
+	/**
+	 * 读取分区在候选值上的内容，基础文件以内存映射的方式读取，只有候选值所在的容器会被加载
+	 * @param dir 目录
+	 * @param key 高40位
+	 * @param logs 该分区的日志，按版本号升序
+	 * @param candidate 候选值
+	 * @return 分区与候选值的交集
+	 */
+	static MutableRoaringBitmap restrict(Path dir, long key, List<Path> logs, ImmutableRoaringBitmap candidate) {
+		Path base = PartitionedBitmap.partitionPath(dir, key);
+		MutableRoaringBitmap content = Files.exists(base)
+				? ImmutableRoaringBitmap.and(PartitionedBitmap.mapPartition(base), candidate)
+				: new MutableRoaringBitmap();
+		for (Path log : logs) {
+			ImmutableRoaringBitmap[] entry = readLog(log);
+			content.andNot(entry[0]);
+			content.or(ImmutableRoaringBitmap.and(entry[1], candidate));
+		}
+		return content;
+	}
+
+	/**
+	 * 追加一条日志，日志累计大小达到基础文件的一半时合并为新的基础文件
+	 * @param dir 新版本的目录，已经链接了上一个版本的基础文件和日志
+	 * @param key 高40位
+	 * @param version 新版本的版本号
+	 * @param logs 上一个版本中该分区的日志，按版本号升序
+	 * @param candidate 本次变化的候选值
+	 * @param content 候选值上的新内容，必须是候选值的子集
+	 */
+	static void append(Path dir, long key, long version, List<Path> logs, ImmutableRoaringBitmap candidate,
+			MutableRoaringBitmap content) {
+		List<Path> linked = new ArrayList<>(logs.size() + 1);
+		for (Path log : logs) {
+			linked.add(dir.resolve(log.getFileName()));
+		}
+		Path path = dir.resolve(String.format("%d-%010d%s", key, version, LOG_SUFFIX));
+		content.runOptimize();
+		try (OutputStream out = Files.newOutputStream(path);
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			candidate.serialize(data);
+			content.serialize(data);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+		linked.add(path);
+		Path base = PartitionedBitmap.partitionPath(dir, key);
+		try {
+			long logBytes = 0;
+			for (Path log : linked) {
+				logBytes += Files.size(log);
+			}
+			if (logBytes * 2 >= (Files.exists(base) ? Files.size(base) : 0)) {
+				compact(base, linked);
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+	}
+
+	/**
+	 * 读取目录中所有分区的完整内容
+	 * @param dir 目录
+	 * @param pool 分区读取的线程池
+	 * @return 分区位图
+	 */
+	static PartitionedBitmap read(Path dir, ForkJoinPool pool) {
+		if (!Files.isDirectory(dir)) {
+			throw new NotFileException(dir.toString());
+		}
+		Map<Long, List<Path>> logs = logs(dir);
+		if (logs.isEmpty()) {
+			return PartitionedBitmap.read(dir, pool);
+		}
+		List<Long> keys = new ArrayList<>(logs.keySet());
+		String suffix = PartitionedBitmap.PARTITION_SUFFIX;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + suffix)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				long key = Long.parseLong(name.substring(0, name.length() - suffix.length()));
+				if (!logs.containsKey(key)) {
+					keys.add(key);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+		List<ForkJoinTask<MutableRoaringBitmap>> tasks = new ArrayList<>(keys.size());
+		for (long key : keys) {
+			List<Path> paths = logs.getOrDefault(key, new ArrayList<>());
+			tasks.add(pool.submit(() -> fold(PartitionedBitmap.partitionPath(dir, key), paths)));
+		}
+		PartitionedBitmap bitmap = new PartitionedBitmap(pool);
+		for (int i = 0; i < keys.size(); i++) {
+			bitmap.putPartition(keys.get(i), tasks.get(i).join());
+		}
+		return bitmap;
+	}
+
+	/**
+	 * 基础文件依次应用日志之后的完整内容
+	 */
+	private static MutableRoaringBitmap fold(Path base, List<Path> logs) {
+		MutableRoaringBitmap content = Files.exists(base)
+				? PartitionedBitmap.mapPartition(base).toMutableRoaringBitmap() : new MutableRoaringBitmap();
+		for (Path log : logs) {
+			ImmutableRoaringBitmap[] entry = readLog(log);
+			content.andNot(entry[0]);
+			content.or(entry[1]);
+		}
+		return content;
+	}
+
+	/**
+	 * 把日志合并为新的基础文件，目录中的文件可能是上一个版本的硬链接，因此先写临时文件再替换，不能原地修改
+	 */
+	private static void compact(Path base, List<Path> logs) throws IOException {
+		MutableRoaringBitmap content = fold(base, logs);
+		if (content.isEmpty()) {
+			Files.deleteIfExists(base);
+		}
+		else {
+			content.runOptimize();
+			Path temp = base.resolveSibling(base.getFileName() + ".tmp");
+			PartitionedBitmap.writePartition(content, temp);
+			Files.move(temp, base, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		for (Path log : logs) {
+			Files.delete(log);
+		}
+	}
+
+	/**
+	 * 以内存映射的方式读取日志
+	 * @return 候选值和新内容
+	 */
+	private static ImmutableRoaringBitmap[] readLog(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			ImmutableRoaringBitmap candidate = new ImmutableRoaringBitmap(buffer);
+			buffer.position(candidate.serializedSizeInBytes());
+			return new ImmutableRoaringBitmap[] { candidate, new ImmutableRoaringBitmap(buffer.slice()) };
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	private static long key(Path log) {
+		String name = log.getFileName().toString();
+		return Long.parseLong(name.substring(0, name.indexOf('-')));
+	}
+
+	private static long version(Path log) {
+		String name = log.getFileName().toString();
+		return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - LOG_SUFFIX.length()));
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.incr;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetStream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 物化集合输入数据源的增量
+ *
+ * <p>
+ * 每个数据源可以同时有新增和删除的数据，应用后数据源的内容为 {@code (原数据 ∪ 新增) - 删除}，
+ * 同一个值同时出现在新增和删除中时以删除为准。
+ *
+ * <pre>
+ * SetDelta delta = new SetDelta().add("buyers", SetAlgoFile.of("buyers-20261018.txt"))
+ * 	.add("unsubscribed", SetAlgoFile.of("unsubscribed-20261018.txt"));
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetDelta {
+
+	private final Map<String, List<Object>> added = new LinkedHashMap<>();
+
+	private final Map<String, List<Object>> removed = new LinkedHashMap<>();
+
+	/**
+	 * 新增文件中的数据
+	 * @param input 数据源名称
+	 * @param file 文件
+	 * @return 增量
+	 */
+	public SetDelta add(String input, SetAlgoFile file) {
+		return this.put(this.added, input, file);
+	}
+
+	/**
+	 * 新增数据
+	 * @param input 数据源名称
+	 * @param data 数据
+	 * @return 增量
+	 */
+	public SetDelta add(String input, SetAlgoData<Long> data) {
+		return this.put(this.added, input, data);
+	}
+
+	/**
+	 * 新增流中的数据
+	 * @param input 数据源名称
+	 * @param stream 流
+	 * @return 增量
+	 */
+	public SetDelta add(String input, SetStream<Long> stream) {
+		return this.put(this.added, input, stream);
+	}
+
+	/**
+	 * 删除文件中的数据
+	 * @param input 数据源名称
+	 * @param file 文件
+	 * @return 增量
+	 */
+	public SetDelta remove(String input, SetAlgoFile file) {
+		return this.put(this.removed, input, file);
+	}
+
+	/**
+	 * 删除数据
+	 * @param input 数据源名称
+	 * @param data 数据
+	 * @return 增量
+	 */
+	public SetDelta remove(String input, SetAlgoData<Long> data) {
+		return this.put(this.removed, input, data);
+	}
+
+	/**
+	 * 删除流中的数据
+	 * @param input 数据源名称
+	 * @param stream 流
+	 * @return 增量
+	 */
+	public SetDelta remove(String input, SetStream<Long> stream) {
+		return this.put(this.removed, input, stream);
+	}
+
+	public boolean isEmpty() {
+		return this.added.isEmpty() && this.removed.isEmpty();
+	}
+
+	/**
+	 * 新增的数据源，值为 {@link SetAlgoFile}、{@link SetAlgoData} 或 {@link SetStream}
+	 * @return 按数据源名称分组的新增数据
+	 */
+	Map<String, List<Object>> getAdded() {
+		return Collections.unmodifiableMap(this.added);
+	}
+
+	/**
+	 * 删除的数据源，值为 {@link SetAlgoFile}、{@link SetAlgoData} 或 {@link SetStream}
+	 * @return 按数据源名称分组的删除数据
+	 */
+	Map<String, List<Object>> getRemoved() {
+		return Collections.unmodifiableMap(this.removed);
+	}
+
+	private SetDelta put(Map<String, List<Object>> sources, String input, Object source) {
+		Preconditions.checkNotNull(input, "input");
+		Preconditions.checkNotNull(source, "source");
+		sources.computeIfAbsent(input, k -> new ArrayList<>()).add(source);
+		return this;
+	}
+
+}
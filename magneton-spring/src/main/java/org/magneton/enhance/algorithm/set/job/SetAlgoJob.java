@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.job;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 集合算法异步任务，由 {@link SetAlgoJobExecutor} 提交。
+ *
+ * <p>
+ * 取消是协作式的：{@link #cancel(boolean)} 会立即结束等待结果的调用方，正在执行的任务在下一个检查点（节点、文件或分块之间）停止并释放执行名额，
+ * 被取消任务的算法资源只包含部分数据，不能再使用。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetAlgoJob<R> implements Future<R> {
+
+	private final SetAlgoJobContext context;
+
+	private final CompletableFuture<R> future = new CompletableFuture<>();
+
+	SetAlgoJob(SetAlgoJobContext context) {
+		this.context = context;
+		// 直接取消CompletableFuture时同样通知任务停止
+		this.future.whenComplete((result, e) -> {
+			if (this.future.isCancelled()) {
+				this.context.cancel();
+			}
+		});
+	}
+
+	public long getId() {
+		return this.context.getId();
+	}
+
+	public SetAlgoJobState getState() {
+		return this.context.getState();
+	}
+
+	/**
+	 * 执行进度
+	 * @return 进度快照
+	 */
+	public SetAlgoJobProgress getProgress() {
+		return this.context.snapshot();
+	}
+
+	/**
+	 * 转换为 {@link CompletableFuture}，用于组合后续的异步处理
+	 * @return 结果
+	 */
+	public CompletableFuture<R> toCompletableFuture() {
+		return this.future;
+	}
+
+	/**
+	 * 取消任务
+	 * @param mayInterruptIfRunning 忽略，任务只在检查点停止，不会中断执行线程
+	 * @return 如果任务尚未结束返回 {@code true}，否则返回 {@code false}.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		this.context.cancel();
+		return this.future.cancel(false);
+	}
+
+	/**
+	 * 取消任务
+	 * @return 如果任务尚未结束返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean cancel() {
+		return this.cancel(false);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return this.future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return this.future.isDone();
+	}
+
+	@Override
+	public R get() throws InterruptedException, ExecutionException {
+		return this.future.get();
+	}
+
+	@Override
+	public R get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return this.future.get(timeout, unit);
+	}
+
+	SetAlgoJobContext getContext() {
+		return this.context;
+	}
+
+	CompletableFuture<R> getFuture() {
+		return this.future;
+	}
+
+	@Override
+	public String toString() {
+		return "SetAlgoJob{" + this.getProgress() + "}";
+	}
+
+}
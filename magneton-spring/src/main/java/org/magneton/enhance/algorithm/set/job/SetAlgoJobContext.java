@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.job;
+
+import org.magneton.enhance.algorithm.file.FileChunkProcessor;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 集合算法任务上下文，绑定在执行任务的线程上，用于协作式取消和进度统计。
+ *
+ * <p>
+ * 取消检查点（{@link #checkpoint()}）位于节点之间、文件之间、分块之间和查询的每批数据之间，任务被取消后在下一个检查点抛出
+ * {@link CancellationException}。进度由 {@link SetAlgoJobMeter} 在指标回调时统计，指标回调不会抛出异常。
+ * 提交到其他线程池的子任务需要通过 {@link #wrap(Callable)} 传递上下文。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public final class SetAlgoJobContext {
+
+	private static final ThreadLocal<SetAlgoJobContext> CURRENT = new ThreadLocal<>();
+
+	private final long id;
+
+	private final LongAdder files = new LongAdder();
+
+	private final LongAdder readBytes = new LongAdder();
+
+	private final LongAdder readRows = new LongAdder();
+
+	private final LongAdder skipRows = new LongAdder();
+
+	private final LongAdder ignoreRows = new LongAdder();
+
+	private volatile SetAlgoJobState state = SetAlgoJobState.QUEUED;
+
+	private volatile boolean cancelled;
+
+	private volatile String node;
+
+	private volatile int nodeIndex = -1;
+
+	private volatile int nodes;
+
+	private volatile long startTime;
+
+	private volatile long endTime;
+
+	SetAlgoJobContext(long id) {
+		this.id = id;
+	}
+
+	/**
+	 * 当前线程绑定的任务上下文
+	 * @return 上下文，不在任务中执行时返回 {@code null}
+	 */
+	public static SetAlgoJobContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * 取消检查点，当前线程的任务已被取消时抛出 {@link CancellationException}，不在任务中执行时直接返回
+	 */
+	public static void checkpoint() {
+		SetAlgoJobContext context = CURRENT.get();
+		if (context != null) {
+			context.check();
+		}
+	}
+
+	/**
+	 * 包装子任务，在执行子任务的线程上绑定当前线程的任务上下文
+	 * @param task 子任务
+	 * @param <V> 结果类型
+	 * @return 包装后的子任务，当前线程不在任务中执行时返回原任务
+	 */
+	public static <V> Callable<V> wrap(Callable<V> task) {
+		SetAlgoJobContext context = CURRENT.get();
+		if (context == null) {
+			return task;
+		}
+		return () -> {
+			SetAlgoJobContext previous = context.attach();
+			try {
+				return task.call();
+			}
+			finally {
+				detach(previous);
+			}
+		};
+	}
+
+	/**
+	 * 包装子任务，在执行子任务的线程上绑定当前线程的任务上下文
+	 * @param task 子任务
+	 * @return 包装后的子任务，当前线程不在任务中执行时返回原任务
+	 */
+	public static Runnable wrap(Runnable task) {
+		SetAlgoJobContext context = CURRENT.get();
+		if (context == null) {
+			return task;
+		}
+		return () -> {
+			SetAlgoJobContext previous = context.attach();
+			try {
+				task.run();
+			}
+			finally {
+				detach(previous);
+			}
+		};
+	}
+
+	/**
+	 * 包装分块处理器，在并行处理分块的线程上绑定当前线程的任务上下文
+	 * @param processor 分块处理器
+	 * @param <R> 结果类型
+	 * @return 包装后的处理器，当前线程不在任务中执行时返回原处理器
+	 */
+	public static <R> FileChunkProcessor<R> wrap(FileChunkProcessor<R> processor) {
+		SetAlgoJobContext context = CURRENT.get();
+		if (context == null) {
+			return processor;
+		}
+		return chunk -> {
+			SetAlgoJobContext previous = context.attach();
+			try {
+				return processor.process(chunk);
+			}
+			finally {
+				detach(previous);
+			}
+		};
+	}
+
+	public long getId() {
+		return this.id;
+	}
+
+	public SetAlgoJobState getState() {
+		return this.state;
+	}
+
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * 任务已被取消时抛出 {@link CancellationException}
+	 */
+	public void check() {
+		if (this.cancelled) {
+			throw new CancellationException("set algorithm job " + this.id + " cancelled");
+		}
+	}
+
+	/**
+	 * 进度快照
+	 * @return 进度
+	 */
+	public SetAlgoJobProgress snapshot() {
+		long start = this.startTime;
+		long end = this.endTime;
+		long elapsed = start == 0 ? 0 : (end == 0 ? System.currentTimeMillis() : end) - start;
+		return new SetAlgoJobProgress(this.id, this.state, this.files.sum(), this.readBytes.sum(), this.readRows.sum(),
+				this.skipRows.sum(), this.ignoreRows.sum(), this.node, this.nodeIndex, this.nodes, elapsed);
+	}
+
+	void cancel() {
+		this.cancelled = true;
+		if (this.state == SetAlgoJobState.QUEUED) {
+			this.finish(SetAlgoJobState.CANCELLED);
+		}
+	}
+
+	void start() {
+		this.startTime = System.currentTimeMillis();
+		this.state = SetAlgoJobState.RUNNING;
+	}
+
+	void finish(SetAlgoJobState state) {
+		if (this.startTime != 0) {
+			this.endTime = System.currentTimeMillis();
+		}
+		this.state = state;
+	}
+
+	SetAlgoJobContext attach() {
+		SetAlgoJobContext previous = CURRENT.get();
+		CURRENT.set(this);
+		return previous;
+	}
+
+	static void detach(SetAlgoJobContext previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		}
+		else {
+			CURRENT.set(previous);
+		}
+	}
+
+	void incrFiles() {
+		this.files.increment();
+	}
+
+	void incrReadBytes(long bytes) {
+		this.readBytes.add(bytes);
+	}
+
+	void incrReadRows(long rows) {
+		this.readRows.add(rows);
+	}
+
+	void incrSkipRows(long rows) {
+		this.skipRows.add(rows);
+	}
+
+	void incrIgnoreRows(long rows) {
+		this.ignoreRows.add(rows);
+	}
+
+	void node(SetAlgoOperation operation, String name, int index, int nodes) {
+		this.node = operation == null ? name : operation + "(" + name + ")";
+		this.nodeIndex = index;
+		this.nodes = nodes;
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.job;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集合算法异步任务执行器，提交后立即返回 {@link SetAlgoJob}，调用线程不会阻塞到链路执行完成。
+ *
+ * <p>
+ * 任务在指定的执行器上运行，同时执行的任务数受 {@code maxConcurrency} 限制，超出的任务在执行线程上排队等待名额。
+ * 使用虚拟线程时大量任务只占用少量载体线程，实际的计算并发由名额数决定；文件的并行读取仍然使用算法自身的并行配置。
+ *
+ * <pre>
+ * SetAlgoJobExecutor executor = SetAlgoJobExecutor.fixed(4);
+ * SetAlgoJob&lt;SetStream&lt;Long&gt;&gt; job = executor.submit(SetAlgorithm.number64().union(a).intersect(b));
+ * job.getProgress();
+ * job.cancel();
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SetAlgoJobExecutor implements Closeable {
+
+	private static final AtomicLong ID = new AtomicLong();
+
+	private final Executor executor;
+
+	/**
+	 * 由执行器创建的线程池，关闭执行器时一起关闭
+	 */
+	private final ExecutorService owned;
+
+	private final Semaphore permits;
+
+	private final int maxConcurrency;
+
+	private final Map<Long, SetAlgoJob<?>> jobs = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+	/**
+	 * 使用指定的执行器运行任务
+	 * @param executor 执行器，由调用方负责关闭
+	 * @param maxConcurrency 最多同时执行的任务数
+	 */
+	public SetAlgoJobExecutor(Executor executor, int maxConcurrency) {
+		this(executor, null, maxConcurrency);
+	}
+
+	private SetAlgoJobExecutor(Executor executor, ExecutorService owned, int maxConcurrency) {
+		Preconditions.checkNotNull(executor, "executor");
+		Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be greater than 0");
+		this.executor = executor;
+		this.owned = owned;
+		this.maxConcurrency = maxConcurrency;
+		this.permits = new Semaphore(maxConcurrency, true);
+		SetAlgoJobMeter.register();
+	}
+
+	/**
+	 * 使用专用的固定大小线程池运行任务
+	 * @param threads 线程数，同时也是最多同时执行的任务数
+	 * @return 执行器
+	 */
+	public static SetAlgoJobExecutor fixed(int threads) {
+		Preconditions.checkArgument(threads > 0, "threads must be greater than 0");
+		ExecutorService pool = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("set-algo-job-%d").setDaemon(true).build());
+		return new SetAlgoJobExecutor(pool, pool, threads);
+	}
+
+	/**
+	 * 每个任务使用一个虚拟线程运行，运行环境不支持虚拟线程（JDK 21以下）时使用守护线程的缓存线程池
+	 * @param maxConcurrency 最多同时执行的任务数
+	 * @return 执行器
+	 */
+	public static SetAlgoJobExecutor virtual(int maxConcurrency) {
+		ExecutorService pool;
+		try {
+			pool = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e) {
+			log.debug("virtual threads unavailable, fallback to cached thread pool");
+			pool = Executors.newCachedThreadPool(
+					new ThreadFactoryBuilder().setNameFormat("set-algo-job-%d").setDaemon(true).build());
+		}
+		return new SetAlgoJobExecutor(pool, pool, maxConcurrency);
+	}
+
+	/**
+	 * 提交算法资源，异步执行 {@link SetAlgoResource#stream()} 并读取结果
+	 * @param resource 算法资源，执行期间不能再修改
+	 * @param <T> 数据类型
+	 * @return 任务
+	 */
+	public <T> SetAlgoJob<SetStream<T>> submit(SetAlgoResource<T, ? extends SetAlgoStream<T>> resource) {
+		Preconditions.checkNotNull(resource, "resource");
+		return this.submit(() -> resource.stream().read());
+	}
+
+	/**
+	 * 提交任务，任务中的算法执行可以被取消并统计进度
+	 * @param task 任务
+	 * @param <R> 结果类型
+	 * @return 任务
+	 */
+	public <R> SetAlgoJob<R> submit(Callable<R> task) {
+		Preconditions.checkNotNull(task, "task");
+		Preconditions.checkState(!this.closed, "executor closed");
+		SetAlgoJob<R> job = new SetAlgoJob<>(new SetAlgoJobContext(ID.incrementAndGet()));
+		this.jobs.put(job.getId(), job);
+		try {
+			this.executor.execute(() -> this.run(job, task));
+		}
+		catch (RejectedExecutionException e) {
+			this.jobs.remove(job.getId());
+			job.getContext().finish(SetAlgoJobState.FAILED);
+			job.getFuture().completeExceptionally(e);
+		}
+		return job;
+	}
+
+	/**
+	 * 获取未结束的任务
+	 * @param id 任务编号
+	 * @return 任务，不存在或已经结束时返回 {@code null}
+	 */
+	public SetAlgoJob<?> getJob(long id) {
+		return this.jobs.get(id);
+	}
+
+	/**
+	 * 未结束的任务，包括排队中的任务
+	 * @return 任务列表
+	 */
+	public List<SetAlgoJob<?>> getJobs() {
+		return new ArrayList<>(this.jobs.values());
+	}
+
+	/**
+	 * 正在执行的任务数
+	 * @return 任务数
+	 */
+	public int getRunningCount() {
+		return this.maxConcurrency - this.permits.availablePermits();
+	}
+
+	public int getMaxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	private <R> void run(SetAlgoJob<R> job, Callable<R> task) {
+		SetAlgoJobContext context = job.getContext();
+		try {
+			if (context.isCancelled()) {
+				return;
+			}
+			try {
+				this.permits.acquire();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				context.finish(SetAlgoJobState.FAILED);
+				job.getFuture().completeExceptionally(e);
+				return;
+			}
+			try {
+				this.execute(job, task);
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+		finally {
+			this.jobs.remove(job.getId());
+		}
+	}
+
+	private <R> void execute(SetAlgoJob<R> job, Callable<R> task) {
+		SetAlgoJobContext context = job.getContext();
+		if (context.isCancelled()) {
+			return;
+		}
+		context.start();
+		SetAlgoJobContext previous = context.attach();
+		try {
+			R result = task.call();
+			context.check();
+			context.finish(SetAlgoJobState.SUCCEEDED);
+			job.getFuture().complete(result);
+		}
+		catch (Throwable e) {
+			// 取消后在检查点抛出的异常可能被包装，统一按取消处理
+			if (context.isCancelled()) {
+				context.finish(SetAlgoJobState.CANCELLED);
+				job.getFuture().cancel(false);
+			}
+			else {
+				log.warn("set algorithm job {} failed", context.getId(), e);
+				context.finish(SetAlgoJobState.FAILED);
+				job.getFuture().completeExceptionally(e);
+			}
+		}
+		finally {
+			SetAlgoJobContext.detach(previous);
+		}
+	}
+
+	/**
+	 * 取消所有未结束的任务，并关闭执行器创建的线程池，关闭之后的任务不再统计进度
+	 */
+	@Override
+	public synchronized void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		SetAlgoJobMeter.unregister();
+		for (SetAlgoJob<?> job : this.jobs.values()) {
+			job.cancel();
+		}
+		if (this.owned != null) {
+			this.owned.shutdown();
+		}
+	}
+
+}
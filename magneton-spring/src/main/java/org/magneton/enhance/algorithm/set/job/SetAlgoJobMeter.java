@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.job;
+
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.nio.file.Path;
+
+/**
+ * 把读取指标和执行计划指标归集到当前线程的任务上下文中，只统计进度，不检查取消，避免抛出异常导致后面的指标收不到回调。
+ * 存在未关闭的 {@link SetAlgoJobExecutor} 时注册在全局指标中，最后一个执行器关闭后注销
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class SetAlgoJobMeter implements FileReadMeter, SetAlgoPlanMeter {
+
+	private static final SetAlgoJobMeter INSTANCE = new SetAlgoJobMeter();
+
+	/**
+	 * 未关闭的执行器数量
+	 */
+	private static int references;
+
+	private SetAlgoJobMeter() {
+		// ignore
+	}
+
+	/**
+	 * 执行器创建时调用，第一个执行器创建时注册到全局指标中
+	 */
+	static synchronized void register() {
+		if (references++ == 0) {
+			Meters.regFileReadMeter(INSTANCE);
+			Meters.regSetAlgoPlanMeter(INSTANCE);
+		}
+	}
+
+	/**
+	 * 执行器关闭时调用，最后一个执行器关闭时从全局指标中注销
+	 */
+	static synchronized void unregister() {
+		if (references > 0 && --references == 0) {
+			Meters.unregFileReadMeter(INSTANCE);
+			Meters.unregSetAlgoPlanMeter(INSTANCE);
+		}
+	}
+
+	@Override
+	public boolean preRead(Path file) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.incrFiles();
+		}
+		return true;
+	}
+
+	@Override
+	public void incrReadCount(Path file) {
+		this.incrReadCount(file, 1);
+	}
+
+	@Override
+	public void incrSkipCount(Path file) {
+		this.incrSkipCount(file, 1);
+	}
+
+	@Override
+	public <T> void ignoreCount(Path file, Object data) {
+		this.incrIgnoreCount(file, 1);
+	}
+
+	@Override
+	public boolean isIgnoreDataRequired() {
+		return false;
+	}
+
+	@Override
+	public void incrReadCount(Path file, long count) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.incrReadRows(count);
+		}
+	}
+
+	@Override
+	public void incrSkipCount(Path file, long count) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.incrSkipRows(count);
+		}
+	}
+
+	@Override
+	public void incrIgnoreCount(Path file, long count) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.incrIgnoreRows(count);
+		}
+	}
+
+	@Override
+	public void incrReadBytes(Path file, long bytes) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.incrReadBytes(bytes);
+		}
+	}
+
+	@Override
+	public void reorder(SetAlgoOperation operation, int nodes) {
+		// ignore
+	}
+
+	@Override
+	public void skipFile(Path file, long bytes) {
+		// ignore
+	}
+
+	@Override
+	public void skipData(long rows) {
+		// ignore
+	}
+
+	@Override
+	public void beginNode(SetAlgoOperation operation, String name, int index, int nodes) {
+		SetAlgoJobContext context = SetAlgoJobContext.current();
+		if (context != null) {
+			context.node(operation, name, index, nodes);
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.job;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 集合算法任务进度快照，读取指标来自 {@link org.magneton.enhance.algorithm.meter.FileReadMeter}
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+@ToString
+public class SetAlgoJobProgress {
+
+	private final long id;
+
+	private final SetAlgoJobState state;
+
+	/**
+	 * 已开始读取的文件数
+	 */
+	private final long files;
+
+	/**
+	 * 已读取的字节数，压缩文件为解码后的字节数
+	 */
+	private final long readBytes;
+
+	/**
+	 * 已读取的行数
+	 */
+	private final long readRows;
+
+	/**
+	 * 跳过的行数
+	 */
+	private final long skipRows;
+
+	/**
+	 * 忽略的行数
+	 */
+	private final long ignoreRows;
+
+	/**
+	 * 当前节点，未开始时为空
+	 */
+	private final String node;
+
+	/**
+	 * 当前节点序号，从0开始，未开始时为-1
+	 */
+	private final int nodeIndex;
+
+	/**
+	 * 当前链路的节点总数
+	 */
+	private final int nodes;
+
+	/**
+	 * 已执行的毫秒数，未开始时为0
+	 */
+	private final long elapsedMillis;
+
+	SetAlgoJobProgress(long id, SetAlgoJobState state, long files, long readBytes, long readRows, long skipRows,
+			long ignoreRows, String node, int nodeIndex, int nodes, long elapsedMillis) {
+		this.id = id;
+		this.state = state;
+		this.files = files;
+		this.readBytes = readBytes;
+		this.readRows = readRows;
+		this.skipRows = skipRows;
+		this.ignoreRows = ignoreRows;
+		this.node = node;
+		this.nodeIndex = nodeIndex;
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * 基于32位Bitmap的链路数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Bmp32ChainData implements LongChainData<RoaringBitmap> {
+
+	private final RoaringBitmap bitmap = new RoaringBitmap();
+
+	@Override
+	public boolean contains(Long val) {
+		return this.contains(val.longValue());
+	}
+
+	@Override
+	public void add(Long val) {
+		this.add(val.longValue());
+	}
+
+	@Override
+	public void remove(Long val) {
+		this.remove(val.longValue());
+	}
+
+	@Override
+	public boolean contains(long val) {
+		return val >= 0 && val <= 0xFFFFFFFFL && this.bitmap.contains((int) val);
+	}
+
+	@Override
+	public void add(long val) {
+		this.bitmap.add(N32Values.toInt(val));
+	}
+
+	@Override
+	public void remove(long val) {
+		if (val >= 0 && val <= 0xFFFFFFFFL) {
+			this.bitmap.remove((int) val);
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.bitmap.isEmpty();
+	}
+
+	@Override
+	public RoaringBitmap getData() {
+		return this.bitmap;
+	}
+
+	@Override
+	public void clear() {
+		this.bitmap.clear();
+	}
+
+	@Override
+	public long size() {
+		return this.bitmap.getLongCardinality();
+	}
+
+	@Override
+	public RoaringBitmap randomExtract(long size) {
+		return this.randomExtract(size, new SetAlgoSampler());
+	}
+
+	/**
+	 * 使用指定的抽样器随机抽出数据，抽出的数据将从数据集中移出
+	 * @param size 抽出数量，小于1时返回空集，超过数据量时返回全部数据
+	 * @param sampler 抽样器
+	 * @return 抽出的数据
+	 */
+	public RoaringBitmap randomExtract(long size, SetAlgoSampler sampler) {
+		RoaringBitmap extractBitmap = sampler.sample(this.bitmap, size);
+		// 抽取之后，原结果集要丢失这些数据
+		if (extractBitmap.getLongCardinality() == this.size()) {
+			this.bitmap.clear();
+		}
+		else {
+			this.bitmap.andNot(extractBitmap);
+		}
+		return extractBitmap;
+	}
+
+}
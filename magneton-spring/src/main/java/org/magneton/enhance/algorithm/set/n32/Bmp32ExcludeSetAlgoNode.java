@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.ChainData;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+/**
+ * 32位去除算法节点
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Bmp32ExcludeSetAlgoNode implements LongSetAlgoNode<RoaringBitmap>, BatchSetAlgoNode<Long, RoaringBitmap> {
+
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.EXCLUDE;
+	}
+
+	@Override
+	public boolean useable(ChainData<Long, RoaringBitmap> chainData, String data) {
+		Long val = Long.valueOf(data);
+		chainData.remove(val);
+		return false;
+	}
+
+	@Override
+	public boolean useable(LongChainData<RoaringBitmap> chainData, long data) {
+		chainData.remove(data);
+		return false;
+	}
+
+	@Override
+	public long merge(ChainData<Long, RoaringBitmap> chainData, RoaringBitmap data) {
+		chainData.getData().andNot(data);
+		return 0;
+	}
+
+	@Override
+	public RoaringBitmap reduce(RoaringBitmap left, RoaringBitmap right) {
+		left.or(right);
+		return left;
+	}
+
+	@Override
+	public RoaringBitmap aggregate(List<RoaringBitmap> data) {
+		return FastAggregation.or(data.iterator());
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.file.DecimalParser;
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 32位文件流处理器
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileN32StreamProcessor implements N32StreamProcessor, BatchStreamProcessor<Long, RoaringBitmap> {
+
+	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final SetAlgoFile algoFile;
+
+	private final SetAlgoFileReader fileReader;
+
+	private final Iterator<String> iterator;
+
+	public FileN32StreamProcessor(SetAlgoFile algoFile) {
+		this.algoFile = algoFile;
+		this.fileReader = new SetAlgoFileReader(algoFile, this.fileReadMeter);
+		this.iterator = algoFile.getFiles().iterator();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.iterator.hasNext();
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.fileReader.forEachValue(path, accessor);
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.fileReader.forEachLong(path, accessor);
+	}
+
+	@Override
+	public long estimate() {
+		return this.fileReader.estimate();
+	}
+
+	@Override
+	public boolean skip() {
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			this.planMeter.skipFile(path, path.toFile().length());
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isBatch() {
+		return this.algoFile.isParallel() && this.fileReader.isBatchable();
+	}
+
+	@Override
+	public void nextBatch(Function<RoaringBitmap, Long> merger) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.doFileBatch(path, merger);
+	}
+
+	private void doFileBatch(Path path, Function<RoaringBitmap, Long> merger) {
+		if (!this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		SetAlgoFileReader.Result<RoaringBitmap> result = this.parseFile(path);
+		long useable = merger.apply(result.getValue());
+		this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - useable);
+	}
+
+	/**
+	 * 是否可以通过 {@code nextAll} 批量加载剩余的所有文件
+	 * @return 如果可以批量加载返回 {@code true}，否则返回 {@code false}.
+	 * @see SetAlgoFileReader#isBatchable()
+	 */
+	public boolean isBatchable() {
+		return this.fileReader.isBatchable();
+	}
+
+	/**
+	 * 并行加载剩余的所有文件，每个文件加载为一个位图，位图之间多路归并后一次性合并到节点中
+	 *
+	 * <p>
+	 * 忽略行数只统计文件内的重复数据。
+	 * @param reducer 并行归并器
+	 * @param aggregator 位图多路归并方式
+	 * @param merger 数据合并器
+	 */
+	public void nextAll(Bmp32ParallelReducer reducer, Function<List<RoaringBitmap>, RoaringBitmap> aggregator,
+			Function<RoaringBitmap, Long> merger) {
+		List<Path> paths = new ArrayList<>();
+		while (this.iterator.hasNext()) {
+			paths.add(Paths.get(this.iterator.next()));
+		}
+		RoaringBitmap bitmap = reducer.reduce(paths, this::fileSize, path -> {
+			if (!this.fileReadMeter.preRead(path)) {
+				return new RoaringBitmap();
+			}
+			SetAlgoFileReader.Result<RoaringBitmap> result = this.parseFile(path);
+			this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - result.getValue().getLongCardinality());
+			return result.getValue();
+		}, aggregator);
+		merger.apply(bitmap);
+	}
+
+	private long fileSize(Path path) {
+		try {
+			return Files.size(path);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 解析文件为位图，{@link SetAlgoFile#isParallel()} 时分块并行读取，否则在当前线程中顺序读取
+	 * @param path 文件地址
+	 * @return 解析结果
+	 */
+	private SetAlgoFileReader.Result<RoaringBitmap> parseFile(Path path) {
+		return this.fileReader.read(path, RoaringBitmap::new,
+				(bitmap, buffer, from, to) -> bitmap.add(N32Values.toInt(DecimalParser.parseLong(buffer, from, to))),
+				(left, right) -> {
+					left.or(right);
+					return left;
+				});
+	}
+
+}
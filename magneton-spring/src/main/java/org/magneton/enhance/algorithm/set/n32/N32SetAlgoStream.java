@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.*;
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChain;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChainPlanner;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SimpleSetAlgoChain;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 32位集合算法流，数据值域为 {@code [0, 4294967295]}
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class N32SetAlgoStream implements SetAlgoQueryResource<Long, N32SetAlgoStream>, SetAlgoStream<Long> {
+
+	@Getter
+	private final SetAlgoChain<Long, RoaringBitmap> chain = new SimpleSetAlgoChain<>();
+
+	private final Bmp32ChainData chainData;
+
+	private final SetAlgoChainPlanner<Long, RoaringBitmap> planner = new SetAlgoChainPlanner<>();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	/**
+	 * 并行归并器，为空时按顺序逐个处理文件
+	 */
+	private final Bmp32ParallelReducer parallelReducer;
+
+	/**
+	 * 并行读取查询分区的线程池，优先使用并行配置指定的线程池
+	 */
+	private final Executor queryExecutor;
+
+	public N32SetAlgoStream(Bmp32ChainData chainData) {
+		this(chainData, null);
+	}
+
+	public N32SetAlgoStream(Bmp32ChainData chainData, SetAlgoParallelConfig parallelConfig) {
+		this.chainData = chainData;
+		this.parallelReducer = parallelConfig == null ? null : new Bmp32ParallelReducer(parallelConfig);
+		this.queryExecutor = parallelConfig == null || parallelConfig.getExecutor() == null
+				? SetAlgoQueryReader.defaultExecutor() : parallelConfig.getExecutor();
+	}
+
+	@Override
+	public N32SetAlgoStream stream() {
+		// 加载流
+		this.doStream();
+		// 数据流处理完成之后，移除已经处理完成的链
+		this.chain.getChainNodes().clear();
+		return this;
+	}
+
+	@Override
+	public SetStream<Long> read() {
+		RoaringBitmap data = this.chainData.getData();
+		return new N32SetStream(data, this);
+	}
+
+	@Override
+	public SetStream<Long> randomExtract(long size) {
+		return new N32SetStream(this.chainData.randomExtract(size), this);
+	}
+
+	/**
+	 * 使用指定的抽样器随机抽取数据，抽取的数据会从流中移除
+	 * @param size 抽取数量，如果数量小于1则返回空集，超过数据量则返回全部数据
+	 * @param sampler 抽样器，可以指定随机种子和并行度
+	 * @return 抽取数据
+	 */
+	public SetStream<Long> randomExtract(long size, SetAlgoSampler sampler) {
+		Preconditions.checkNotNull(sampler, "sampler");
+		return new N32SetStream(this.chainData.randomExtract(size, sampler), this);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.chainData == null || this.chainData.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		if (this.chainData != null) {
+			this.chainData.clear();
+		}
+		for (ChainNode<Long, RoaringBitmap> chainNode : this.chain.getChainNodes()) {
+			chainNode.getNode().clear();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void doStream() {
+		List<ChainNode<Long, RoaringBitmap>> chainNodes = this.planner.plan(this.chain.getChainNodes());
+
+		long s = System.currentTimeMillis();
+		SetAlgoNode<Long, RoaringBitmap> preNode = null;
+		int index = 0;
+		for (ChainNode<Long, RoaringBitmap> chainNode : chainNodes) {
+			SetAlgoNode<Long, RoaringBitmap> algoNode = chainNode.getNode();
+			SetAlgoJobContext.checkpoint();
+			this.planMeter.beginNode(algoNode, index++, chainNodes.size());
+			StreamProcessor<Long> processor = chainNode.getProcessor();
+			BatchSetAlgoNode<Long, RoaringBitmap> batchNode = algoNode instanceof BatchSetAlgoNode
+					? (BatchSetAlgoNode<Long, RoaringBitmap>) algoNode : null;
+			boolean batch = batchNode != null && processor instanceof BatchStreamProcessor
+					&& ((BatchStreamProcessor<Long, RoaringBitmap>) processor).isBatch();
+			boolean primitive = processor instanceof LongStreamProcessor && algoNode instanceof LongSetAlgoNode;
+			// 链路数据为空时交集和排除的结果仍为空，不需要再读取数据
+			boolean skippable = algoNode.getOperation() != null && algoNode.getOperation().keepEmpty();
+			if (skippable && this.chainData.isEmpty() && processor.skip()) {
+				algoNode.eachNode(this.chainData, algoNode);
+				continue;
+			}
+			if (this.parallelReducer != null && batchNode != null
+					&& processor instanceof FileN32StreamProcessor && ((FileN32StreamProcessor) processor).isBatchable()
+					&& processor.hasNext()) {
+				((FileN32StreamProcessor) processor).nextAll(this.parallelReducer, batchNode::aggregate,
+						data -> batchNode.merge(this.chainData, data));
+				algoNode.eachStream(this.chainData, algoNode);
+			}
+			while (processor.hasNext()) {
+				if (batch) {
+					((BatchStreamProcessor<Long, RoaringBitmap>) processor)
+						.nextBatch(data -> batchNode.merge(this.chainData, data));
+				}
+				else if (primitive) {
+					LongSetAlgoNode<RoaringBitmap> longNode = (LongSetAlgoNode<RoaringBitmap>) algoNode;
+					((LongStreamProcessor) processor).nextLong(data -> longNode.useable(this.chainData, data));
+				}
+				else {
+					processor.nextData(data -> algoNode.useable(this.chainData, data));
+				}
+				algoNode.eachStream(this.chainData, algoNode);
+				if (skippable && this.chainData.isEmpty() && processor.skip()) {
+					break;
+				}
+			}
+			algoNode.eachNode(this.chainData, algoNode);
+			preNode = algoNode;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("doStream, used {} ms", (System.currentTimeMillis() - s));
+		}
+	}
+
+	@Override
+	public N32SetAlgoStream distinct(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new FileN32StreamProcessor(file));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> distinct(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new DataN32StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> distinct(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new StreamN32StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> distinct(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp32DistinctSetAlgoNode(), new QueryN32StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
+	@Override
+	public N32SetAlgoStream exclude(SetAlgoFile files) {
+		Preconditions.checkNotNull(files, "file");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new FileN32StreamProcessor(files));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> exclude(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new DataN32StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> exclude(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new StreamN32StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> exclude(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp32ExcludeSetAlgoNode(), new QueryN32StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
+	@Override
+	public N32SetAlgoStream intersect(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new FileN32StreamProcessor(file));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> intersect(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new DataN32StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> intersect(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new StreamN32StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> intersect(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp32IntersectSetAlgoNode(), new QueryN32StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
+	@Override
+	public N32SetAlgoStream union(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new FileN32StreamProcessor(file));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> union(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new DataN32StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> union(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new StreamN32StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, N32SetAlgoStream> union(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp32UnionSetAlgoNode(), new QueryN32StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
+	private void addChainNode(SetAlgoNode<Long, RoaringBitmap> node, N32StreamProcessor processor) {
+		Preconditions.checkNotNull(node, "node");
+		Preconditions.checkNotNull(node, "processor");
+		this.chain.addChainNode(new ChainNode<>(node, processor));
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+
+/**
+ * 32位集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class N32SetAlgorithm {
+
+	private final N32SetAlgoStream stream;
+
+	public N32SetAlgorithm() {
+		this(null);
+	}
+
+	/**
+	 * 创建算法
+	 * @param parallelConfig 并行配置，不为空时每个节点的多个文件会并行加载后归并
+	 */
+	public N32SetAlgorithm(SetAlgoParallelConfig parallelConfig) {
+		this.stream = new N32SetAlgoStream(new Bmp32ChainData(), parallelConfig);
+	}
+
+	public SetAlgoResource<Long, N32SetAlgoStream> resource() {
+		return this.stream;
+	}
+
+}
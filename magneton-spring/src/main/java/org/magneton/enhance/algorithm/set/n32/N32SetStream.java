@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.n64.N64TextWriter;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.LongConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 32位输出流
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class N32SetStream implements SetStream<Long> {
+
+	private final RoaringBitmap data;
+
+	private final SetAlgoStream<Long> stream;
+
+	public N32SetStream(RoaringBitmap data, SetAlgoStream<Long> stream) {
+		this.data = data;
+		this.stream = stream;
+	}
+
+	@Override
+	public List<Long> fetch() {
+		List<Long> result = new LinkedList<>();
+		this.data.forEach((IntConsumer) v -> result.add(N32Values.toLong(v)));
+		return result;
+	}
+
+	@Override
+	public Iterator<Long> iterator() {
+		PeekableIntIterator iterator = this.data.getIntIterator();
+		return new Iterator<Long>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Long next() {
+				return N32Values.toLong(iterator.next());
+			}
+		};
+	}
+
+	@Override
+	public void forEach(Consumer<Long> consumer) {
+		this.data.forEach((IntConsumer) v -> consumer.accept(N32Values.toLong(v)));
+	}
+
+	/**
+	 * 无装箱的循环获取
+	 * @param consumer 消费者
+	 */
+	public void forEachLong(LongConsumer consumer) {
+		this.data.forEach((IntConsumer) v -> consumer.accept(N32Values.toLong(v)));
+	}
+
+	/**
+	 * 获取底层位图，仅用于同包内的批量合并，调用方不应修改其内容
+	 * @return 底层位图
+	 */
+	RoaringBitmap bitmap() {
+		return this.data;
+	}
+
+	@Override
+	public long write(Path path, List<String> headers) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(headers, "header");
+		try (N64TextWriter writer = new N64TextWriter(path)) {
+			for (String header : headers) {
+				writer.writeLine(header);
+			}
+			PeekableIntIterator iterator = this.data.getIntIterator();
+			while (iterator.hasNext()) {
+				writer.writeLong(N32Values.toLong(iterator.next()));
+			}
+		}
+		catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+		return this.data.getLongCardinality() + headers.size();
+	}
+
+	/**
+	 * 以RoaringBitmap的标准序列化格式写流，可以通过 {@link #readBinary(Path)} 读取
+	 * @param path 文件地址
+	 * @return 写入数量
+	 */
+	public long writeBinary(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		this.data.runOptimize();
+		ByteBuffer buffer = ByteBuffer.allocate(this.data.serializedSizeInBytes()).order(ByteOrder.LITTLE_ENDIAN);
+		this.data.serialize(buffer);
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return this.data.getLongCardinality();
+	}
+
+	/**
+	 * 读取 {@link #writeBinary(Path)} 写入的二进制文件，读取的流可以作为集合算法的数据源
+	 * @param path 文件地址
+	 * @return 数据流
+	 */
+	public static N32SetStream readBinary(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			RoaringBitmap bitmap = new RoaringBitmap();
+			bitmap.deserialize(buffer);
+			return new N32SetStream(bitmap, null);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	@Override
+	public long size() {
+		return this.data.getLongCardinality();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.data.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		this.data.clear();
+		if (this.stream != null) {
+			this.stream.clear();
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.set.SetAlgoIdRange;
+
+/**
+ * 32位值转换，值域为无符号32位整数 {@code [0, 4294967295]}，位图中按无符号int存储
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class N32Values {
+
+	private N32Values() {
+	}
+
+	/**
+	 * 转换为位图中存储的int
+	 * @param val 值
+	 * @return 位图中存储的int
+	 * @throws NumberFormatException 值不在32位值域中
+	 */
+	static int toInt(long val) {
+		if (val < SetAlgoIdRange.N32_MIN || val > SetAlgoIdRange.N32_MAX) {
+			throw new NumberFormatException("value " + val + " out of n32 range [" + SetAlgoIdRange.N32_MIN + ", "
+					+ SetAlgoIdRange.N32_MAX + "]");
+		}
+		return (int) val;
+	}
+
+	/**
+	 * 位图中存储的int转换为值
+	 * @param val 位图中存储的int
+	 * @return 值
+	 */
+	static long toLong(int val) {
+		return Integer.toUnsignedLong(val);
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n32;
+
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.n64.N64SetStream;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 32位流数据处理器
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class StreamN32StreamProcessor implements N32StreamProcessor, BatchStreamProcessor<Long, RoaringBitmap> {
+
+	private final SetStream<Long> stream;
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private boolean hasNext = true;
+
+	public StreamN32StreamProcessor(SetStream<Long> stream) {
+		this.stream = stream;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long estimate() {
+		return this.hasNext ? this.stream.size() : 0;
+	}
+
+	@Override
+	public boolean skip() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			this.planMeter.skipData(this.stream.size());
+		}
+		return true;
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		this.stream.forEach(v -> accessor.apply(String.valueOf(v)));
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		if (this.stream instanceof N32SetStream) {
+			((N32SetStream) this.stream).forEachLong(accessor::test);
+			return;
+		}
+		if (this.stream instanceof N64SetStream) {
+			((N64SetStream) this.stream).forEachLong(accessor::test);
+			return;
+		}
+		this.stream.forEach(accessor::test);
+	}
+
+	@Override
+	public boolean isBatch() {
+		return this.stream instanceof N32SetStream;
+	}
+
+	@Override
+	public void nextBatch(Function<RoaringBitmap, Long> merger) {
+		merger.apply(((N32SetStream) this.stream).bitmap());
+	}
+
+}
@@ -14,34 +14,47 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
-import org.magneton.enhance.algorithm.set.chain.ChainData;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Consumer;
-
 /**
  * 基于Bitmap的链路数据
  *
  * @author zhangmsh 2022/10/27
  * @since 2.1.0
  */
-public class Bmp64ChainData implements ChainData<Long, Roaring64Bitmap> {
+public class Bmp64ChainData implements LongChainData<Roaring64Bitmap> {
 
 	private final Roaring64Bitmap bitmap = new Roaring64Bitmap();
 
 	@Override
 	public boolean contains(Long val) {
-		return this.bitmap.contains(val);
+		return this.contains(val.longValue());
 	}
 
 	@Override
 	public void add(Long val) {
-		this.bitmap.addLong(val);
+		this.add(val.longValue());
 	}
 
 	@Override
 	public void remove(Long val) {
+		this.remove(val.longValue());
+	}
+
+	@Override
+	public boolean contains(long val) {
+		return this.bitmap.contains(val);
+	}
+
+	@Override
+	public void add(long val) {
+		this.bitmap.addLong(val);
+	}
+
+	@Override
+	public void remove(long val) {
 		this.bitmap.removeLong(val);
 	}
 
@@ -67,39 +80,25 @@ public class Bmp64ChainData implements ChainData<Long, Roaring64Bitmap> {
 
 	@Override
 	public Roaring64Bitmap randomExtract(long size) {
-		Roaring64Bitmap extractBitmap = new Roaring64Bitmap();
-		this.randomExtract(size, extractBitmap::addLong);
-		return extractBitmap;
+		return this.randomExtract(size, new SetAlgoSampler());
 	}
 
-	private void randomExtract(long size, Consumer<Long> consumer) {
-		if (size < 1) {
-			return;
-		}
-		long dataSize = this.size();
-		if (size >= dataSize) {
-			this.bitmap.forEach(consumer::accept);
+	/**
+	 * 使用指定的抽样器随机抽出数据，抽出的数据将从数据集中移出
+	 * @param size 抽出数量，小于1时返回空集，超过数据量时返回全部数据
+	 * @param sampler 抽样器
+	 * @return 抽出的数据
+	 */
+	public Roaring64Bitmap randomExtract(long size, SetAlgoSampler sampler) {
+		Roaring64Bitmap extractBitmap = sampler.sample(this.bitmap, size);
+		// 抽取之后，原结果集要丢失这些数据
+		if (extractBitmap.getLongCardinality() == this.size()) {
 			this.bitmap.clear();
-			return;
 		}
-		Roaring64Bitmap mark = new Roaring64Bitmap();
-		int deep;
-		for (long i = 0; i < size; i++) {
-			deep = 0;
-			long idx = ThreadLocalRandom.current().nextLong(0, dataSize);
-			while (mark.contains(idx)) {
-				idx = ThreadLocalRandom.current().nextLong(0, dataSize);
-				deep++;
-				if (deep > 1000) {
-					throw new RuntimeException("无法找到合适的数据");
-				}
-			}
-			long val = this.bitmap.select(idx);
-			consumer.accept(val);
-			// 抽取之后，原结果集要丢失该数据
-			this.remove(val);
-			dataSize--;
+		else {
+			this.bitmap.andNot(extractBitmap);
 		}
+		return extractBitmap;
 	}
 
 }
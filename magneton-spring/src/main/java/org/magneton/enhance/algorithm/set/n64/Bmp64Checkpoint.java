@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoQuery;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.StreamProcessor;
+import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * 集合算法检查点，用于长时间运行的任务在中断后从最近一次检查点恢复
+ *
+ * <p>
+ * 每处理完一份数据（一个文件或一个查询分区）之后，如果距离上次检查点超过间隔时间，则复制当前的链路位图并在后台线程写入
+ * {@code <目录>/<任务标识>.ckpt}，上一次写入未完成时跳过本次检查点，不阻塞数据读取。检查点记录节点序号、节点内已处理的数据份数和链路位图，
+ * 节点的中间状态在两份数据之间总是已经合并到链路位图中，不需要单独保存。
+ *
+ * <p>
+ * 使用相同任务标识重新执行相同的算法链时，跳过检查点之前的数据继续执行，执行成功后删除检查点。算法链的节点类型或者任意输入
+ * （文件的大小和修改时间、查询语句和参数、数据的值）与检查点不一致时忽略检查点，从头执行。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class Bmp64Checkpoint {
+
+	/**
+	 * 默认的检查点间隔，单位毫秒
+	 */
+	public static final long DEFAULT_INTERVAL = 60_000;
+
+	private static final String SUFFIX = ".ckpt";
+
+	private static final int MAGIC = 0x4E363443;
+
+	private static final int VERSION = 2;
+
+	private static final int FINGERPRINT_BYTES = 32;
+
+	private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + FINGERPRINT_BYTES;
+
+	private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+	private final Path directory;
+
+	private final String jobId;
+
+	private final long interval;
+
+	private ExecutorService executor;
+
+	private Future<?> pending;
+
+	private long lastTime;
+
+	public Bmp64Checkpoint(Path directory, String jobId) {
+		this(directory, jobId, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * 创建检查点
+	 * @param directory 检查点目录
+	 * @param jobId 任务标识，作为检查点文件名，只能包含字母、数字以及 {@code ._-}
+	 * @param interval 检查点间隔，单位毫秒，小于1时每处理完一份数据都尝试写入
+	 */
+	public Bmp64Checkpoint(Path directory, String jobId, long interval) {
+		Preconditions.checkNotNull(directory, "directory");
+		Preconditions.checkArgument(jobId != null && JOB_ID.matcher(jobId).matches(), "illegal jobId %s", jobId);
+		this.directory = directory;
+		this.jobId = jobId;
+		this.interval = interval;
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+	}
+
+	public String getJobId() {
+		return this.jobId;
+	}
+
+	/**
+	 * 检查点文件
+	 * @return 文件地址
+	 */
+	public Path getPath() {
+		return this.directory.resolve(this.jobId + SUFFIX);
+	}
+
+	/**
+	 * 算法链的指纹，由规划后各个节点和处理器的类型以及处理器输入的标识组成，任何输入变化后检查点都不再匹配。
+	 * 文件取路径、大小、修改时间和读取规则，查询取语句、数据列和每个分区的完整参数，数据和流取全部值的哈希
+	 * @param chainNodes 规划后的算法链
+	 * @return 指纹
+	 */
+	static byte[] fingerprint(List<ChainNode<Long, Roaring64Bitmap>> chainNodes) {
+		Hasher hasher = Hashing.sha256().newHasher();
+		for (ChainNode<Long, Roaring64Bitmap> chainNode : chainNodes) {
+			hasher.putString(chainNode.getNode().getClass().getName(), StandardCharsets.UTF_8)
+				.putChar(':')
+				.putString(chainNode.getProcessor().getClass().getName(), StandardCharsets.UTF_8)
+				.putChar('(');
+			identity(hasher, chainNode.getProcessor());
+			hasher.putChar(')');
+		}
+		return hasher.hash().asBytes();
+	}
+
+	private static void identity(Hasher hasher, StreamProcessor<Long> processor) {
+		if (processor instanceof FileN64StreamProcessor) {
+			SetAlgoFile algoFile = ((FileN64StreamProcessor) processor).getAlgoFile();
+			for (String file : algoFile.getFiles()) {
+				Path path = Paths.get(file).toAbsolutePath().normalize();
+				hasher.putString(path.toString(), StandardCharsets.UTF_8);
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+					hasher.putLong(attributes.size()).putLong(attributes.lastModifiedTime().toMillis());
+				}
+				catch (IOException e) {
+					// 文件不存在时只使用路径，读取时会报错
+					hasher.putLong(-1L);
+				}
+			}
+			hasher.putInt(algoFile.getSkip())
+				.putInt(algoFile.getLimit())
+				.putString(String.valueOf(algoFile.getCsv()), StandardCharsets.UTF_8);
+		}
+		else if (processor instanceof QueryN64StreamProcessor) {
+			SetAlgoQuery query = ((QueryN64StreamProcessor) processor).getQuery();
+			hasher.putString(query.getSql(), StandardCharsets.UTF_8).putInt(query.getColumn());
+			for (int i = 0; i < query.getPartitionCount(); i++) {
+				hasher.putString(Arrays.deepToString(query.getParams(i)), StandardCharsets.UTF_8);
+			}
+		}
+		else if (processor instanceof DataN64StreamProcessor) {
+			List<Long> data = ((DataN64StreamProcessor) processor).getData().getData();
+			hasher.putInt(data.size());
+			for (Long val : data) {
+				hasher.putLong(val);
+			}
+		}
+		else if (processor instanceof StreamN64StreamProcessor) {
+			SetStream<Long> stream = ((StreamN64StreamProcessor) processor).getStream();
+			hasher.putLong(stream.size());
+			if (stream instanceof N64SetStream) {
+				((N64SetStream) stream).forEachLong(hasher::putLong);
+			}
+			else {
+				stream.forEach(hasher::putLong);
+			}
+		}
+	}
+
+	/**
+	 * 读取检查点
+	 * @param fingerprint 算法链指纹
+	 * @return 检查点状态，不存在、损坏或者算法链不一致时返回 {@code null}
+	 */
+	State restore(byte[] fingerprint) {
+		Path path = this.getPath();
+		if (!Files.exists(path)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				log.warn("broken checkpoint {}, ignored", path);
+				return null;
+			}
+			int nodeIndex = buffer.getInt();
+			int step = buffer.getInt();
+			byte[] expected = new byte[FINGERPRINT_BYTES];
+			buffer.get(expected);
+			if (!ByteBuffer.wrap(expected).equals(ByteBuffer.wrap(fingerprint))) {
+				log.warn("checkpoint {} does not match the chain, ignored", path);
+				return null;
+			}
+			Roaring64Bitmap bitmap = Roaring64Snapshot.deserialize(buffer);
+			log.info("restore checkpoint {}, node {}, step {}", path, nodeIndex, step);
+			return new State(nodeIndex, step, bitmap);
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("read checkpoint {} failed, ignored", path, e);
+			return null;
+		}
+	}
+
+	/**
+	 * 提交检查点，距离上次检查点不足间隔时间或者上一次写入未完成时忽略
+	 * @param fingerprint 算法链指纹
+	 * @param nodeIndex 正在执行的节点序号
+	 * @param step 节点内已处理的数据份数
+	 * @param bitmap 链路位图，会复制后异步写入
+	 */
+	void offer(byte[] fingerprint, int nodeIndex, int step, Roaring64Bitmap bitmap) {
+		long now = System.currentTimeMillis();
+		if (now - this.lastTime < this.interval || (this.pending != null && !this.pending.isDone())) {
+			return;
+		}
+		this.lastTime = now;
+		Roaring64Bitmap snapshot = bitmap.clone();
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadExecutor(
+					new ThreadFactoryBuilder().setNameFormat("set-algo-checkpoint-%d").setDaemon(true).build());
+		}
+		this.pending = this.executor.submit(() -> this.write(fingerprint, nodeIndex, step, snapshot));
+	}
+
+	/**
+	 * 执行结束，等待正在写入的检查点完成。执行成功时删除检查点，失败时保留最近一次检查点用于恢复
+	 * @param success 是否执行成功
+	 */
+	void finish(boolean success) {
+		if (this.pending != null) {
+			try {
+				this.pending.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e) {
+				// 写入异常已经在写入时处理
+			}
+			this.pending = null;
+		}
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+		this.lastTime = 0;
+		if (success) {
+			try {
+				Files.deleteIfExists(this.getPath());
+			}
+			catch (IOException e) {
+				log.warn("delete checkpoint {} failed", this.getPath(), e);
+			}
+		}
+	}
+
+	/**
+	 * 写入检查点，先写临时文件再原子替换
+	 */
+	private void write(byte[] fingerprint, int nodeIndex, int step, Roaring64Bitmap bitmap) {
+		Path target = this.getPath();
+		Path temp = this.directory.resolve(this.jobId + SUFFIX + ".tmp");
+		long s = System.currentTimeMillis();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+				header.putInt(MAGIC).putInt(VERSION).putInt(nodeIndex).putInt(step).put(fingerprint);
+				header.flip();
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				Roaring64Snapshot.serialize(bitmap, channel);
+				channel.force(true);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			if (log.isDebugEnabled()) {
+				log.debug("write checkpoint {}, node {}, step {}, used {} ms", target, nodeIndex, step,
+						System.currentTimeMillis() - s);
+			}
+		}
+		catch (IOException e) {
+			log.warn("write checkpoint {} failed", target, e);
+			try {
+				Files.deleteIfExists(temp);
+			}
+			catch (IOException ignore) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 检查点状态
+	 */
+	static class State {
+
+		private final int nodeIndex;
+
+		private final int step;
+
+		private final Roaring64Bitmap bitmap;
+
+		State(int nodeIndex, int step, Roaring64Bitmap bitmap) {
+			this.nodeIndex = nodeIndex;
+			this.step = step;
+			this.bitmap = bitmap;
+		}
+
+		int getNodeIndex() {
+			return this.nodeIndex;
+		}
+
+		int getStep() {
+			return this.step;
+		}
+
+		Roaring64Bitmap getBitmap() {
+			return this.bitmap;
+		}
+
+	}
+
+}
@@ -14,8 +14,11 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.ChainData;
-import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 /**
@@ -24,7 +27,13 @@ import org.roaringbitmap.longlong.Roaring64Bitmap;
  * @author zhangmsh 2022/10/26
  * @since 2.1.0
  */
-public class Bmp64ExcludeSetAlgoNode implements SetAlgoNode<Long, Roaring64Bitmap> {
+public class Bmp64ExcludeSetAlgoNode
+		implements LongSetAlgoNode<Roaring64Bitmap>, BatchSetAlgoNode<Long, Roaring64Bitmap> {
+
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.EXCLUDE;
+	}
 
 	@Override
 	public boolean useable(ChainData<Long, Roaring64Bitmap> chainData, String data) {
@@ -33,4 +42,22 @@ public class Bmp64ExcludeSetAlgoNode implements SetAlgoNode<Long, Roaring64Bitma
 		return false;
 	}
 
+	@Override
+	public boolean useable(LongChainData<Roaring64Bitmap> chainData, long data) {
+		chainData.remove(data);
+		return false;
+	}
+
+	@Override
+	public long merge(ChainData<Long, Roaring64Bitmap> chainData, Roaring64Bitmap data) {
+		chainData.getData().andNot(data);
+		return 0;
+	}
+
+	@Override
+	public Roaring64Bitmap reduce(Roaring64Bitmap left, Roaring64Bitmap right) {
+		left.or(right);
+		return left;
+	}
+
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.meter.FileCacheMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.set.SetAlgoCsv;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于磁盘的文件位图缓存
+ *
+ * <p>
+ * 以源文件的路径、大小、修改时间以及跳过和限制行数作为缓存键，缓存文件解析后的位图。位图以游程压缩后的
+ * {@link Roaring64Snapshot} 格式存储，读取时通过内存映射直接还原容器结构。缓存总大小超过上限时按最近最少使用淘汰。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class Bmp64FileCache {
+
+	private static final String SUFFIX = ".r64";
+
+	private final FileCacheMeter fileCacheMeter = Meters.fileCacheMeter();
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	/**
+	 * 缓存文件名与大小，按访问顺序排列
+	 */
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+	private long totalBytes;
+
+	/**
+	 * 创建缓存，目录中已有的缓存文件按修改时间作为访问顺序恢复
+	 * @param directory 缓存目录
+	 * @param maxBytes 缓存总大小上限，单位字节
+	 */
+	public Bmp64FileCache(Path directory, long maxBytes) {
+		Preconditions.checkNotNull(directory, "directory");
+		Preconditions.checkArgument(maxBytes > 0, "maxBytes must be greater than 0");
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+		File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(SUFFIX));
+		if (files != null) {
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			for (File file : files) {
+				this.entries.put(file.getName(), file.length());
+				this.totalBytes += file.length();
+			}
+		}
+		this.evict();
+	}
+
+	/**
+	 * 生成缓存键，需要在读取源文件之前生成，避免读取过程中文件被修改
+	 * @param file 源文件
+	 * @param skip 跳过行数
+	 * @param limit 限制行数
+	 * @return 缓存键
+	 */
+	public String key(Path file, int skip, int limit) {
+		return this.key(file, skip, limit, null);
+	}
+
+	/**
+	 * 生成缓存键，需要在读取源文件之前生成，避免读取过程中文件被修改
+	 * @param file 源文件
+	 * @param skip 跳过行数
+	 * @param limit 限制行数
+	 * @param csv CSV读取规则，为空时整行作为数据
+	 * @return 缓存键
+	 */
+	public String key(Path file, int skip, int limit, SetAlgoCsv csv) {
+		try {
+			Path path = file.toAbsolutePath().normalize();
+			String key = path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis() + "|"
+					+ Math.max(0, skip) + "|" + Math.max(0, limit) + (csv == null ? "" : "|" + csv);
+			return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + SUFFIX;
+		}
+		catch (IOException e) {
+			throw new NotFileException(file.toString(), e);
+		}
+	}
+
+	/**
+	 * 获取缓存的位图
+	 * @param file 源文件
+	 * @param key 缓存键
+	 * @return 位图，未命中时返回 {@code null}
+	 */
+	public Roaring64Bitmap get(Path file, String key) {
+		MappedByteBuffer buffer = this.map(key);
+		if (buffer == null) {
+			this.fileCacheMeter.miss(file);
+			return null;
+		}
+		try {
+			Roaring64Bitmap bitmap = Roaring64Snapshot.deserialize(buffer);
+			this.fileCacheMeter.hit(file);
+			return bitmap;
+		}
+		catch (RuntimeException e) {
+			log.warn("broken cache {} of {}, removed", key, file, e);
+			this.remove(key);
+			this.fileCacheMeter.miss(file);
+			return null;
+		}
+	}
+
+	/**
+	 * 获取缓存位图的基数，不加载位图数据
+	 * @param key 缓存键
+	 * @return 基数，未命中时返回-1
+	 */
+	public long cardinality(String key) {
+		MappedByteBuffer buffer = this.map(key);
+		if (buffer == null) {
+			return -1;
+		}
+		try {
+			return Roaring64Snapshot.cardinality(buffer);
+		}
+		catch (RuntimeException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * 写入缓存，先写临时文件再原子替换
+	 * @param key 缓存键
+	 * @param bitmap 位图，写入前会原地做游程压缩
+	 */
+	public void put(String key, Roaring64Bitmap bitmap) {
+		Path target = this.directory.resolve(key);
+		Path temp = this.directory.resolve(key + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				Roaring64Snapshot.serialize(bitmap, channel);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			long bytes = Files.size(target);
+			synchronized (this) {
+				Long old = this.entries.put(key, bytes);
+				this.totalBytes += bytes - (old == null ? 0 : old);
+				this.evict();
+			}
+		}
+		catch (IOException e) {
+			log.warn("write cache {} failed", key, e);
+			try {
+				Files.deleteIfExists(temp);
+			}
+			catch (IOException ignore) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 清除所有缓存
+	 */
+	public synchronized void clear() {
+		for (String key : this.entries.keySet().toArray(new String[0])) {
+			this.remove(key);
+		}
+	}
+
+	public synchronized long getTotalBytes() {
+		return this.totalBytes;
+	}
+
+	private MappedByteBuffer map(String key) {
+		synchronized (this) {
+			if (this.entries.get(key) == null) {
+				return null;
+			}
+		}
+		Path path = this.directory.resolve(key);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			// 以修改时间记录访问顺序，用于重启后恢复
+			Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+			return buffer;
+		}
+		catch (IOException e) {
+			this.remove(key);
+			return null;
+		}
+	}
+
+	private synchronized void remove(String key) {
+		Long bytes = this.entries.remove(key);
+		if (bytes != null) {
+			this.totalBytes -= bytes;
+		}
+		try {
+			Files.deleteIfExists(this.directory.resolve(key));
+		}
+		catch (IOException e) {
+			log.warn("delete cache {} failed", key, e);
+		}
+	}
+
+	private synchronized void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+		while (this.totalBytes > this.maxBytes && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			iterator.remove();
+			this.totalBytes -= eldest.getValue();
+			try {
+				Files.deleteIfExists(this.directory.resolve(eldest.getKey()));
+			}
+			catch (IOException e) {
+				log.warn("delete cache {} failed", eldest.getKey(), e);
+			}
+			this.fileCacheMeter.evict(eldest.getValue());
+		}
+	}
+
+}
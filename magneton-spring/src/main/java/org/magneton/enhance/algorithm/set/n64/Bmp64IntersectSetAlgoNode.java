@@ -14,7 +14,11 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.ChainData;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
 import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
@@ -24,10 +28,16 @@ import org.roaringbitmap.longlong.Roaring64Bitmap;
  * @author zhangmsh 2022/10/26
  * @since 2.1.0
  */
-public class Bmp64IntersectSetAlgoNode implements SetAlgoNode<Long, Roaring64Bitmap> {
+public class Bmp64IntersectSetAlgoNode
+		implements LongSetAlgoNode<Roaring64Bitmap>, BatchSetAlgoNode<Long, Roaring64Bitmap> {
 
 	private final Roaring64Bitmap global = new Roaring64Bitmap();
 
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.INTERSECT;
+	}
+
 	@Override
 	public boolean useable(ChainData<Long, Roaring64Bitmap> chainData, String data) {
 		Long val = Long.valueOf(data);
@@ -38,6 +48,28 @@ public class Bmp64IntersectSetAlgoNode implements SetAlgoNode<Long, Roaring64Bit
 		return false;
 	}
 
+	@Override
+	public boolean useable(LongChainData<Roaring64Bitmap> chainData, long data) {
+		if (!this.global.contains(data)) {
+			this.global.addLong(data);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long merge(ChainData<Long, Roaring64Bitmap> chainData, Roaring64Bitmap data) {
+		long before = this.global.getLongCardinality();
+		this.global.or(data);
+		return this.global.getLongCardinality() - before;
+	}
+
+	@Override
+	public Roaring64Bitmap reduce(Roaring64Bitmap left, Roaring64Bitmap right) {
+		left.and(right);
+		return left;
+	}
+
 	@Override
 	public void eachStream(ChainData<Long, Roaring64Bitmap> chainData, SetAlgoNode<Long, Roaring64Bitmap> node) {
 		this.switchData(chainData);
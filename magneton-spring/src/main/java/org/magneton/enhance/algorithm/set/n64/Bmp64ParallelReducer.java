@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 并行加载多个数据源，并对加载结果两两归并
+ *
+ * <p>
+ * 每个数据源在加载前按预估大小占用内存预算，预算不足时等待已完成的数据源归并后释放。单个数据源最多占用一半预算，
+ * 以保证归并中的结果与新加载的数据源不会互相等待。归并后按结果的序列化大小重新计算占用的预算，并集结果变大时继续占用，
+ * 交集或排除结果变小时归还多余的预算。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Bmp64ParallelReducer {
+
+	private static final long MB = 1024 * 1024;
+
+	private final SetAlgoParallelConfig config;
+
+	public Bmp64ParallelReducer(SetAlgoParallelConfig config) {
+		this.config = Preconditions.checkNotNull(config, "config");
+	}
+
+	public SetAlgoParallelConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * 并行加载并归并
+	 * @param sources 数据源列表
+	 * @param estimator 数据源加载后的内存占用预估，单位字节
+	 * @param loader 数据源加载器，会在并行线程中调用
+	 * @param reducer 归并器，可以直接修改并返回左侧位图
+	 * @param <S> 数据源类型
+	 * @return 归并结果，数据源为空时返回空位图
+	 */
+	public <S> Roaring64Bitmap reduce(List<S> sources, ToLongFunction<S> estimator, Function<S, Roaring64Bitmap> loader,
+			BinaryOperator<Roaring64Bitmap> reducer) {
+		Preconditions.checkNotNull(sources, "sources");
+		if (sources.isEmpty()) {
+			return new Roaring64Bitmap();
+		}
+		int budget = (int) Math.max(2, Math.min(Integer.MAX_VALUE, this.config.getMemoryBudget() / MB));
+		int maxPermits = budget / 2;
+		Reduction reduction = new Reduction(reducer, new Semaphore(budget), maxPermits);
+		ExecutorService executor = this.config.getExecutor();
+		boolean temporary = executor == null;
+		if (temporary) {
+			executor = Executors.newFixedThreadPool(Math.max(1, this.config.getParallelism()),
+					new ThreadFactoryBuilder().setNameFormat("set-algo-parallel-%d").setDaemon(true).build());
+		}
+		try {
+			List<Future<?>> futures = new ArrayList<>(sources.size());
+			for (S source : sources) {
+				int permits = (int) Math.max(1, Math.min(maxPermits, estimator.applyAsLong(source) / MB));
+				reduction.memory.acquire(permits);
+				if (reduction.error != null) {
+					reduction.memory.release(permits);
+					break;
+				}
+				futures.add(executor.submit(SetAlgoJobContext.wrap(() -> {
+					try {
+						reduction.offer(loader.apply(source), permits);
+					}
+					catch (Throwable e) {
+						reduction.error = e;
+						reduction.memory.release(permits);
+					}
+				})));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("parallel reduce interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			if (temporary) {
+				executor.shutdownNow();
+			}
+		}
+		if (reduction.error != null) {
+			if (reduction.error instanceof RuntimeException) {
+				throw (RuntimeException) reduction.error;
+			}
+			throw new IllegalStateException(reduction.error);
+		}
+		return reduction.pending;
+	}
+
+	private static class Reduction {
+
+		private final BinaryOperator<Roaring64Bitmap> reducer;
+
+		private final Semaphore memory;
+
+		private volatile Throwable error;
+
+		private Roaring64Bitmap pending;
+
+		private int pendingPermits;
+
+		/**
+		 * 单个结果最多占用的预算
+		 */
+		private final int maxPermits;
+
+		Reduction(BinaryOperator<Roaring64Bitmap> reducer, Semaphore memory, int maxPermits) {
+			this.reducer = reducer;
+			this.memory = memory;
+			this.maxPermits = maxPermits;
+		}
+
+		/**
+		 * 提交加载结果，如果已经有等待归并的结果则与其归并，直到没有可归并的结果为止。
+		 *
+		 * <p>
+		 * 归并前两个结果共同占用预算，归并后按结果的实际大小调整：多余的预算立即归还；不足的预算只尝试补占，
+		 * 不阻塞等待，避免归并线程与等待预算的加载互相等待。
+		 */
+		private void offer(Roaring64Bitmap bitmap, int permits) {
+			while (true) {
+				Roaring64Bitmap other;
+				int otherPermits;
+				synchronized (this) {
+					if (this.pending == null) {
+						this.pending = bitmap;
+						this.pendingPermits = permits;
+						return;
+					}
+					other = this.pending;
+					otherPermits = this.pendingPermits;
+					this.pending = null;
+				}
+				bitmap = this.reducer.apply(other, bitmap);
+				permits = this.resize(permits + otherPermits, bitmap);
+			}
+		}
+
+		/**
+		 * 按位图的序列化大小调整占用的预算
+		 * @param held 当前占用的预算
+		 * @param bitmap 归并结果
+		 * @return 调整后占用的预算
+		 */
+		private int resize(int held, Roaring64Bitmap bitmap) {
+			int actual = (int) Math.max(1, Math.min(this.maxPermits, bitmap.serializedSizeInBytes() / MB));
+			if (actual < held) {
+				this.memory.release(held - actual);
+				return actual;
+			}
+			if (actual > held && this.memory.tryAcquire(actual - held)) {
+				return actual;
+			}
+			return held;
+		}
+
+	}
+
+}
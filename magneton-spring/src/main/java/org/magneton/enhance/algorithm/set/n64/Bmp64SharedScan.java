@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import org.magneton.enhance.algorithm.set.SetAlgoCsv;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 多个查询共享的文件扫描
+ *
+ * <p>
+ * 先登记每个文件的订阅次数，被订阅两次以上的文件由第一个读取的查询扫描为位图，其他查询等待扫描完成后直接使用该位图。
+ * 每个订阅使用或跳过文件后释放一次，全部释放后位图随即被移除，因此同一时刻只有正在被使用的文件驻留在内存中。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class Bmp64SharedScan {
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * 文件的扫描键，跳过、限制行数和CSV读取规则不同的扫描结果不同
+	 * @param path 文件地址
+	 * @param skip 跳过行数
+	 * @param limit 限制行数
+	 * @param csv CSV读取规则，可以为空
+	 * @return 扫描键
+	 */
+	static String key(Path path, int skip, int limit, SetAlgoCsv csv) {
+		return path.toAbsolutePath().normalize() + "|" + Math.max(0, skip) + "|" + Math.max(0, limit)
+				+ (csv == null ? "" : "|" + csv);
+	}
+
+	/**
+	 * 登记一次订阅，需要在所有查询开始执行之前完成
+	 * @param key 扫描键
+	 */
+	void subscribe(String key) {
+		this.entries.computeIfAbsent(key, k -> new Entry()).subscribers++;
+	}
+
+	/**
+	 * 完成登记，只订阅一次的文件由查询自行读取
+	 */
+	void seal() {
+		this.entries.values().removeIf(entry -> entry.subscribers < 2);
+	}
+
+	/**
+	 * 文件是否被多次订阅
+	 * @param key 扫描键
+	 * @return 被订阅两次以上且还未全部释放时返回 {@code true}，反之返回 {@code false}.
+	 */
+	boolean isShared(String key) {
+		return this.entries.containsKey(key);
+	}
+
+	/**
+	 * 获取扫描结果，第一次获取时在当前线程中扫描，其他线程等待扫描完成，调用方不能修改返回的位图
+	 * @param key 扫描键
+	 * @param scanner 扫描器
+	 * @return 扫描结果
+	 */
+	Roaring64Bitmap acquire(String key, Supplier<Roaring64Bitmap> scanner) {
+		Entry entry = this.entries.get(key);
+		if (entry == null) {
+			throw new IllegalStateException("shared scan " + key + " already released");
+		}
+		synchronized (entry) {
+			if (entry.bitmap == null) {
+				entry.bitmap = scanner.get();
+			}
+			return entry.bitmap;
+		}
+	}
+
+	/**
+	 * 释放一次订阅，全部释放后移除扫描结果
+	 * @param key 扫描键
+	 */
+	void release(String key) {
+		this.entries.computeIfPresent(key, (k, entry) -> --entry.subscribers <= 0 ? null : entry);
+	}
+
+	private static class Entry {
+
+		private int subscribers;
+
+		private Roaring64Bitmap bitmap;
+
+	}
+
+}
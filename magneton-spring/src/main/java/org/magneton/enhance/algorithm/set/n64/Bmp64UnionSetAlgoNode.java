@@ -14,8 +14,11 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.ChainData;
-import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 /**
@@ -24,7 +27,13 @@ import org.roaringbitmap.longlong.Roaring64Bitmap;
  * @author zhangmsh 2022/10/26
  * @since 2.1.0
  */
-public class Bmp64UnionSetAlgoNode implements SetAlgoNode<Long, Roaring64Bitmap> {
+public class Bmp64UnionSetAlgoNode
+		implements LongSetAlgoNode<Roaring64Bitmap>, BatchSetAlgoNode<Long, Roaring64Bitmap> {
+
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.UNION;
+	}
 
 	@Override
 	public boolean useable(ChainData<Long, Roaring64Bitmap> chainData, String data) {
@@ -36,4 +45,27 @@ public class Bmp64UnionSetAlgoNode implements SetAlgoNode<Long, Roaring64Bitmap>
 		return true;
 	}
 
+	@Override
+	public boolean useable(LongChainData<Roaring64Bitmap> chainData, long data) {
+		if (chainData.contains(data)) {
+			return false;
+		}
+		chainData.add(data);
+		return true;
+	}
+
+	@Override
+	public long merge(ChainData<Long, Roaring64Bitmap> chainData, Roaring64Bitmap data) {
+		Roaring64Bitmap bitmap = chainData.getData();
+		long before = bitmap.getLongCardinality();
+		bitmap.or(data);
+		return bitmap.getLongCardinality() - before;
+	}
+
+	@Override
+	public Roaring64Bitmap reduce(Roaring64Bitmap left, Roaring64Bitmap right) {
+		left.or(right);
+		return left;
+	}
+
 }
@@ -14,9 +14,12 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
 import org.magneton.enhance.algorithm.set.SetAlgoData;
 
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 
 /**
  * 数据流处理器
@@ -28,6 +31,8 @@ public class DataN64StreamProcessor implements N64StreamProcessor {
 
 	private final SetAlgoData<Long> data;
 
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
 	private boolean hasNext = true;
 
 	public DataN64StreamProcessor(SetAlgoData<Long> data) {
@@ -43,9 +48,38 @@ public class DataN64StreamProcessor implements N64StreamProcessor {
 		return false;
 	}
 
+	@Override
+	public long estimate() {
+		return this.hasNext ? this.data.getData().size() : 0;
+	}
+
+	@Override
+	public boolean skip() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			this.planMeter.skipData(this.data.getData().size());
+		}
+		return true;
+	}
+
 	@Override
 	public void nextData(Function<String, Boolean> accessor) {
 		this.data.getData().forEach(v -> accessor.apply(String.valueOf(v)));
 	}
 
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		for (Long v : this.data.getData()) {
+			accessor.test(v);
+		}
+	}
+
+	/**
+	 * 读取的数据，用于计算检查点指纹
+	 * @return 读取的数据
+	 */
+	SetAlgoData<Long> getData() {
+		return this.data;
+	}
+
 }
@@ -12,19 +12,29 @@
  * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
  */
 
+
 package org.magneton.enhance.algorithm.set.n64;
 
-import org.magneton.enhance.algorithm.file.FileContentLoader;
-import org.magneton.enhance.algorithm.file.FileContextReadListener;
-import org.magneton.enhance.algorithm.file.LineFileContextLoader;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.file.DecimalParser;
 import org.magneton.enhance.algorithm.meter.FileReadMeter;
 import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
 import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 
 /**
  * 文件流处理器
@@ -32,19 +42,37 @@ import java.util.function.Function;
  * @author zhangmsh 2022/10/28
  * @since 2.1.9
  */
-public class FileN64StreamProcessor implements N64StreamProcessor {
+public class FileN64StreamProcessor implements N64StreamProcessor, BatchStreamProcessor<Long, Roaring64Bitmap> {
 
 	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
 
-	private final FileContentLoader fileContentLoader = new LineFileContextLoader();
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
 
 	private final SetAlgoFile algoFile;
 
+	private final SetAlgoFileReader fileReader;
+
 	private final Iterator<String> iterator;
 
+	/**
+	 * 文件位图缓存，为空时不使用缓存
+	 */
+	private final Bmp64FileCache fileCache;
+
+	/**
+	 * 多个查询共享的文件扫描，为空时单独读取文件
+	 */
+	private Bmp64SharedScan sharedScan;
+
 	public FileN64StreamProcessor(SetAlgoFile algoFile) {
+		this(algoFile, null);
+	}
+
+	public FileN64StreamProcessor(SetAlgoFile algoFile, Bmp64FileCache fileCache) {
 		this.algoFile = algoFile;
+		this.fileReader = new SetAlgoFileReader(algoFile, this.fileReadMeter);
 		this.iterator = algoFile.getFiles().iterator();
+		this.fileCache = fileCache;
 	}
 
 	@Override
@@ -56,36 +84,223 @@ public class FileN64StreamProcessor implements N64StreamProcessor {
 	public void nextData(Function<String, Boolean> accessor) {
 		String processFile = this.iterator.next();
 		Path path = Paths.get(processFile);
-		this.doFileStream(path, accessor);
+		this.release(path);
+		this.fileReader.forEachValue(path, accessor);
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.release(path);
+		this.fileReader.forEachLong(path, accessor);
+	}
+
+	@Override
+	public long estimate() {
+		long total = 0;
+		for (String file : this.algoFile.getFiles()) {
+			Path path = Paths.get(file);
+			if (this.fileCache != null && Files.exists(path)) {
+				long cardinality = this.fileCache
+					.cardinality(this.fileCache.key(path, this.algoFile.getSkip(), this.algoFile.getLimit(),
+							this.algoFile.getCsv()));
+				if (cardinality >= 0) {
+					total += cardinality;
+					continue;
+				}
+			}
+			long lines = this.fileReader.estimate(path);
+			if (lines < 0) {
+				return -1;
+			}
+			total += lines;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean skip() {
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			this.planMeter.skipFile(path, path.toFile().length());
+			this.release(path);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean skip(int count) {
+		for (int i = 0; i < count && this.iterator.hasNext(); i++) {
+			this.release(Paths.get(this.iterator.next()));
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isBatch() {
+		return (this.algoFile.isParallel() || this.fileCache != null || this.sharedScan != null)
+				&& this.fileReader.isBatchable();
+	}
+
+	/**
+	 * 订阅共享扫描，每个文件登记一次订阅
+	 * @param sharedScan 共享扫描
+	 */
+	void subscribe(Bmp64SharedScan sharedScan) {
+		for (String file : this.algoFile.getFiles()) {
+			sharedScan.subscribe(this.scanKey(Paths.get(file)));
+		}
+		this.sharedScan = sharedScan;
+	}
+
+	/**
+	 * 跳过或逐行读取时不使用共享扫描，释放文件的订阅
+	 * @param path 文件地址
+	 */
+	private void release(Path path) {
+		if (this.sharedScan != null) {
+			this.sharedScan.release(this.scanKey(path));
+		}
 	}
 
-	private void doFileStream(Path path, Function<String, Boolean> accessor) {
+	private String scanKey(Path path) {
+		return Bmp64SharedScan.key(path, this.algoFile.getSkip(), this.algoFile.getLimit(),
+				this.algoFile.getCsv());
+	}
+
+	@Override
+	public void nextBatch(Function<Roaring64Bitmap, Long> merger) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.doFileBatch(path, merger);
+	}
+
+	private void doFileBatch(Path path, Function<Roaring64Bitmap, Long> merger) {
+		String key = this.sharedScan == null ? null : this.scanKey(path);
+		if (key != null && this.sharedScan.isShared(key)) {
+			try {
+				merger.apply(this.sharedScan.acquire(key, () -> this.scanFile(path)));
+			}
+			finally {
+				this.sharedScan.release(key);
+			}
+			return;
+		}
 		if (!this.fileReadMeter.preRead(path)) {
 			return;
 		}
-		int skip = this.algoFile.getSkip();
-		int limit = this.algoFile.getLimit();
-		this.fileContentLoader.load(path, new FileContextReadListener() {
-			private int readLine = 0;
-
-			@Override
-			public boolean onRead(Path path, String data) {
-				FileN64StreamProcessor.this.fileReadMeter.incrReadCount(path);
-				if (this.readLine++ < skip || data == null || data.isEmpty()) {
-					FileN64StreamProcessor.this.fileReadMeter.incrSkipCount(path);
-					return true;
-				}
-				if (limit > 0 && this.readLine > limit) {
-					return false;
+		SetAlgoFileReader.Result<Roaring64Bitmap> result = this.loadFile(path);
+		long useable = merger.apply(result.getValue());
+		this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - useable);
+	}
+
+	/**
+	 * 是否可以通过 {@code nextAll} 批量加载剩余的所有文件
+	 * @return 如果可以批量加载返回 {@code true}，否则返回 {@code false}.
+	 * @see SetAlgoFileReader#isBatchable()
+	 */
+	public boolean isBatchable() {
+		return this.fileReader.isBatchable();
+	}
+
+	/**
+	 * 并行加载剩余的所有文件，每个文件加载为一个位图，位图之间两两归并后一次性合并到节点中
+	 *
+	 * <p>
+	 * 忽略行数只统计文件内的重复数据。
+	 * @param reducer 并行归并器
+	 * @param combiner 位图归并方式
+	 * @param merger 数据合并器
+	 */
+	public void nextAll(Bmp64ParallelReducer reducer, BinaryOperator<Roaring64Bitmap> combiner,
+			Function<Roaring64Bitmap, Long> merger) {
+		List<Path> paths = new ArrayList<>();
+		while (this.iterator.hasNext()) {
+			paths.add(Paths.get(this.iterator.next()));
+		}
+		Roaring64Bitmap bitmap = reducer.reduce(paths, this::fileSize, path -> {
+			String key = this.sharedScan == null ? null : this.scanKey(path);
+			if (key != null && this.sharedScan.isShared(key)) {
+				// 归并时会修改位图，共享的扫描结果需要复制
+				try {
+					return this.sharedScan.acquire(key, () -> this.scanFile(path)).clone();
 				}
-				boolean next = accessor.apply(data);
-				if (!next) {
-					FileN64StreamProcessor.this.fileReadMeter.ignoreCount(path, data);
-					return true;
+				finally {
+					this.sharedScan.release(key);
 				}
-				return true;
 			}
-		});
+			return this.scanFile(path);
+		}, combiner);
+		merger.apply(bitmap);
+	}
+
+	/**
+	 * 扫描文件为位图，忽略行数只统计文件内的重复数据
+	 * @param path 文件地址
+	 * @return 位图
+	 */
+	private Roaring64Bitmap scanFile(Path path) {
+		if (!this.fileReadMeter.preRead(path)) {
+			return new Roaring64Bitmap();
+		}
+		SetAlgoFileReader.Result<Roaring64Bitmap> result = this.loadFile(path);
+		this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - result.getValue().getLongCardinality());
+		return result.getValue();
+	}
+
+	private long fileSize(Path path) {
+		try {
+			return Files.size(path);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 加载单个文件为位图，优先从缓存中加载
+	 * @param path 文件地址
+	 * @return 加载结果
+	 */
+	private SetAlgoFileReader.Result<Roaring64Bitmap> loadFile(Path path) {
+		if (this.fileCache == null) {
+			return this.parseFile(path);
+		}
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		String key = this.fileCache.key(path, this.algoFile.getSkip(), this.algoFile.getLimit(),
+				this.algoFile.getCsv());
+		Roaring64Bitmap cached = this.fileCache.get(path, key);
+		if (cached != null) {
+			return SetAlgoFileReader.Result.of(cached, cached.getLongCardinality());
+		}
+		SetAlgoFileReader.Result<Roaring64Bitmap> result = this.parseFile(path);
+		this.fileCache.put(key, result.getValue());
+		return result;
+	}
+
+	/**
+	 * 解析文件为位图，{@link SetAlgoFile#isParallel()} 时分块并行读取，否则在当前线程中顺序读取
+	 * @param path 文件地址
+	 * @return 解析结果
+	 */
+	private SetAlgoFileReader.Result<Roaring64Bitmap> parseFile(Path path) {
+		return this.fileReader.read(path, Roaring64Bitmap::new,
+				(bitmap, buffer, from, to) -> bitmap.addLong(DecimalParser.parseLong(buffer, from, to)),
+				(left, right) -> {
+					left.or(right);
+					return left;
+				});
+	}
+
+	/**
+	 * 读取的文件，用于计算检查点指纹
+	 * @return 读取的文件
+	 */
+	SetAlgoFile getAlgoFile() {
+		return this.algoFile;
 	}
 
 }
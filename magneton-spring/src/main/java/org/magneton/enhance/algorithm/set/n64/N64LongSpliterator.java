@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * 按排名区间遍历位图的可拆分迭代器，拆分时按排名对半拆分，各区间在首次遍历时通过 {@link Roaring64Bitmap#select(long)}
+ * 定位起始值，不会复制数据
+ *
+ * <p>
+ * 位图按无符号顺序排列，因此比较器为 {@link Long#compareUnsigned(long, long)}.
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+final class N64LongSpliterator implements Spliterator.OfLong {
+
+	/**
+	 * 区间小于该值时不再拆分，避免定位起始值的开销超过遍历本身
+	 */
+	private static final long MIN_SPLIT_SIZE = 1 << 16;
+
+	private static final Comparator<Long> UNSIGNED = Long::compareUnsigned;
+
+	private final Roaring64Bitmap data;
+
+	private long rank;
+
+	private final long end;
+
+	private PeekableLongIterator iterator;
+
+	/**
+	 * 创建迭代器
+	 * @param data 位图，遍历期间不能修改
+	 * @param start 起始排名，包含
+	 * @param end 结束排名，不包含
+	 */
+	N64LongSpliterator(Roaring64Bitmap data, long start, long end) {
+		this.data = data;
+		this.rank = start;
+		this.end = end;
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (this.rank >= this.end) {
+			return false;
+		}
+		action.accept(this.iterator().next());
+		this.rank++;
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		if (this.rank >= this.end) {
+			return;
+		}
+		PeekableLongIterator iterator = this.iterator();
+		for (; this.rank < this.end; this.rank++) {
+			action.accept(iterator.next());
+		}
+	}
+
+	@Override
+	public Spliterator.OfLong trySplit() {
+		// 已经开始遍历的区间不再拆分，否则需要重新定位迭代器
+		if (this.iterator != null || this.end - this.rank < MIN_SPLIT_SIZE * 2) {
+			return null;
+		}
+		long mid = this.rank + (this.end - this.rank) / 2;
+		N64LongSpliterator prefix = new N64LongSpliterator(this.data, this.rank, mid);
+		this.rank = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return this.end - this.rank;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL;
+	}
+
+	@Override
+	public Comparator<? super Long> getComparator() {
+		return UNSIGNED;
+	}
+
+	private PeekableLongIterator iterator() {
+		if (this.iterator == null) {
+			this.iterator = this.rank == 0 ? this.data.getLongIterator()
+					: this.data.getLongIteratorFrom(this.data.select(this.rank));
+		}
+		return this.iterator;
+	}
+
+}
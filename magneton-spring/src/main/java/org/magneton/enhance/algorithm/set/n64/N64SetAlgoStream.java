@@ -17,14 +17,22 @@ package org.magneton.enhance.algorithm.set.n64;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
 import org.magneton.enhance.algorithm.set.*;
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.SetAlgoChain;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChainPlanner;
 import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
 import org.magneton.enhance.algorithm.set.chain.SimpleSetAlgoChain;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * 默认的集合算法流
@@ -33,15 +41,46 @@ import java.util.List;
  * @since 2.1.0
  */
 @Slf4j
-public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>, SetAlgoStream<Long> {
+public class N64SetAlgoStream implements SetAlgoQueryResource<Long, N64SetAlgoStream>, SetAlgoStream<Long> {
 
 	@Getter
 	private final SetAlgoChain<Long, Roaring64Bitmap> chain = new SimpleSetAlgoChain<>();
 
 	private final Bmp64ChainData chainData;
 
+	private final SetAlgoChainPlanner<Long, Roaring64Bitmap> planner = new SetAlgoChainPlanner<>();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	/**
+	 * 并行归并器，为空时按顺序逐个处理文件
+	 */
+	private final Bmp64ParallelReducer parallelReducer;
+
+	/**
+	 * 并行读取查询分区的线程池，优先使用并行配置指定的线程池
+	 */
+	private final Executor queryExecutor;
+
+	/**
+	 * 文件位图缓存，为空时不使用缓存
+	 */
+	private Bmp64FileCache fileCache;
+
+	/**
+	 * 检查点，为空时不写入检查点
+	 */
+	private Bmp64Checkpoint checkpoint;
+
 	public N64SetAlgoStream(Bmp64ChainData chainData) {
+		this(chainData, null);
+	}
+
+	public N64SetAlgoStream(Bmp64ChainData chainData, SetAlgoParallelConfig parallelConfig) {
 		this.chainData = chainData;
+		this.parallelReducer = parallelConfig == null ? null : new Bmp64ParallelReducer(parallelConfig);
+		this.queryExecutor = parallelConfig == null || parallelConfig.getExecutor() == null
+				? SetAlgoQueryReader.defaultExecutor() : parallelConfig.getExecutor();
 	}
 
 	@Override
@@ -64,6 +103,17 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 		return new N64SetStream(this.chainData.randomExtract(size), this);
 	}
 
+	/**
+	 * 使用指定的抽样器随机抽取数据，抽取的数据会从流中移除
+	 * @param size 抽取数量，如果数量小于1则返回空集，超过数据量则返回全部数据
+	 * @param sampler 抽样器，可以指定随机种子和并行度
+	 * @return 抽取数据
+	 */
+	public SetStream<Long> randomExtract(long size, SetAlgoSampler sampler) {
+		Preconditions.checkNotNull(sampler, "sampler");
+		return new N64SetStream(this.chainData.randomExtract(size, sampler), this);
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return this.chainData == null || this.chainData.isEmpty();
@@ -80,29 +130,106 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 	}
 
 	private void doStream() {
-		List<ChainNode<Long, Roaring64Bitmap>> chainNodes = this.chain.getChainNodes();
+		List<ChainNode<Long, Roaring64Bitmap>> chainNodes = this.planner.plan(this.chain.getChainNodes());
 
 		long s = System.currentTimeMillis();
+		byte[] fingerprint = null;
+		Bmp64Checkpoint.State resume = null;
+		if (this.checkpoint != null) {
+			fingerprint = Bmp64Checkpoint.fingerprint(chainNodes);
+			resume = this.checkpoint.restore(fingerprint);
+			if (resume != null) {
+				this.chainData.clear();
+				this.chainData.getData().or(resume.getBitmap());
+			}
+		}
+		boolean success = false;
+		try {
+			this.doStream(chainNodes, fingerprint, resume);
+			success = true;
+		}
+		finally {
+			if (this.checkpoint != null) {
+				this.checkpoint.finish(success);
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("doStream, used {} ms", (System.currentTimeMillis() - s));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void doStream(List<ChainNode<Long, Roaring64Bitmap>> chainNodes, byte[] fingerprint,
+			Bmp64Checkpoint.State resume) {
 		SetAlgoNode<Long, Roaring64Bitmap> preNode = null;
+		int index = 0;
 		for (ChainNode<Long, Roaring64Bitmap> chainNode : chainNodes) {
 			SetAlgoNode<Long, Roaring64Bitmap> algoNode = chainNode.getNode();
+			int nodeIndex = index++;
+			SetAlgoJobContext.checkpoint();
+			this.planMeter.beginNode(algoNode, nodeIndex, chainNodes.size());
 			StreamProcessor<Long> processor = chainNode.getProcessor();
+			if (resume != null && nodeIndex < resume.getNodeIndex()) {
+				// 检查点之前已经完成的节点
+				processor.skip();
+				algoNode.eachNode(this.chainData, algoNode);
+				continue;
+			}
+			// 不支持跳过的处理器从节点开始重新处理，同一节点内重复处理已经处理过的数据不影响结果
+			int step = resume != null && nodeIndex == resume.getNodeIndex() && processor.skip(resume.getStep())
+					? resume.getStep() : 0;
+			BatchSetAlgoNode<Long, Roaring64Bitmap> batchNode = algoNode instanceof BatchSetAlgoNode
+					? (BatchSetAlgoNode<Long, Roaring64Bitmap>) algoNode : null;
+			boolean batch = batchNode != null && processor instanceof BatchStreamProcessor
+					&& ((BatchStreamProcessor<Long, Roaring64Bitmap>) processor).isBatch();
+			boolean primitive = processor instanceof LongStreamProcessor && algoNode instanceof LongSetAlgoNode;
+			// 链路数据为空时交集和排除的结果仍为空，不需要再读取数据
+			boolean skippable = algoNode.getOperation() != null && algoNode.getOperation().keepEmpty();
+			if (skippable && this.chainData.isEmpty() && processor.skip()) {
+				algoNode.eachNode(this.chainData, algoNode);
+				continue;
+			}
+			if (this.parallelReducer != null && batchNode != null
+					&& processor instanceof FileN64StreamProcessor && ((FileN64StreamProcessor) processor).isBatchable()
+					&& processor.hasNext()) {
+				((FileN64StreamProcessor) processor).nextAll(this.parallelReducer, batchNode::reduce,
+						data -> batchNode.merge(this.chainData, data));
+				algoNode.eachStream(this.chainData, algoNode);
+			}
 			while (processor.hasNext()) {
-				processor.nextData(data -> algoNode.useable(this.chainData, data));
+				if (batch) {
+					((BatchStreamProcessor<Long, Roaring64Bitmap>) processor)
+						.nextBatch(data -> batchNode.merge(this.chainData, data));
+				}
+				else if (primitive) {
+					LongSetAlgoNode<Roaring64Bitmap> longNode = (LongSetAlgoNode<Roaring64Bitmap>) algoNode;
+					((LongStreamProcessor) processor).nextLong(data -> longNode.useable(this.chainData, data));
+				}
+				else {
+					processor.nextData(data -> algoNode.useable(this.chainData, data));
+				}
 				algoNode.eachStream(this.chainData, algoNode);
+				this.checkpoint(fingerprint, nodeIndex, ++step);
+				if (skippable && this.chainData.isEmpty() && processor.skip()) {
+					break;
+				}
 			}
 			algoNode.eachNode(this.chainData, algoNode);
+			this.checkpoint(fingerprint, nodeIndex + 1, 0);
 			preNode = algoNode;
 		}
-		if (log.isDebugEnabled()) {
-			log.debug("doStream, used {} ms", (System.currentTimeMillis() - s));
+	}
+
+	private void checkpoint(byte[] fingerprint, int nodeIndex, int step) {
+		if (this.checkpoint != null) {
+			this.checkpoint.offer(fingerprint, nodeIndex, step, this.chainData.getData());
 		}
 	}
 
 	@Override
 	public N64SetAlgoStream distinct(SetAlgoFile file) {
 		Preconditions.checkNotNull(file, "file");
-		this.addChainNode(new Bmp64DistinctSetAlgoNode(), new FileN64StreamProcessor(file));
+		this.addChainNode(new Bmp64DistinctSetAlgoNode(), new FileN64StreamProcessor(file, this.fileCache));
 		return this;
 	}
 
@@ -120,10 +247,17 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 		return this;
 	}
 
+	@Override
+	public SetAlgoResource<Long, N64SetAlgoStream> distinct(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp64DistinctSetAlgoNode(), new QueryN64StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
 	@Override
 	public N64SetAlgoStream exclude(SetAlgoFile files) {
 		Preconditions.checkNotNull(files, "file");
-		this.addChainNode(new Bmp64ExcludeSetAlgoNode(), new FileN64StreamProcessor(files));
+		this.addChainNode(new Bmp64ExcludeSetAlgoNode(), new FileN64StreamProcessor(files, this.fileCache));
 		return this;
 	}
 
@@ -141,10 +275,17 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 		return this;
 	}
 
+	@Override
+	public SetAlgoResource<Long, N64SetAlgoStream> exclude(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp64ExcludeSetAlgoNode(), new QueryN64StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
 	@Override
 	public N64SetAlgoStream intersect(SetAlgoFile file) {
 		Preconditions.checkNotNull(file, "file");
-		this.addChainNode(new Bmp64IntersectSetAlgoNode(), new FileN64StreamProcessor(file));
+		this.addChainNode(new Bmp64IntersectSetAlgoNode(), new FileN64StreamProcessor(file, this.fileCache));
 		return this;
 	}
 
@@ -162,10 +303,17 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 		return this;
 	}
 
+	@Override
+	public SetAlgoResource<Long, N64SetAlgoStream> intersect(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp64IntersectSetAlgoNode(), new QueryN64StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
 	@Override
 	public N64SetAlgoStream union(SetAlgoFile file) {
 		Preconditions.checkNotNull(file, "file");
-		this.addChainNode(new Bmp64UnionSetAlgoNode(), new FileN64StreamProcessor(file));
+		this.addChainNode(new Bmp64UnionSetAlgoNode(), new FileN64StreamProcessor(file, this.fileCache));
 		return this;
 	}
 
@@ -183,6 +331,21 @@ public class N64SetAlgoStream implements SetAlgoResource<Long, N64SetAlgoStream>
 		return this;
 	}
 
+	@Override
+	public SetAlgoResource<Long, N64SetAlgoStream> union(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new Bmp64UnionSetAlgoNode(), new QueryN64StreamProcessor(query, this.queryExecutor));
+		return this;
+	}
+
+	void setFileCache(Bmp64FileCache fileCache) {
+		this.fileCache = fileCache;
+	}
+
+	void setCheckpoint(Bmp64Checkpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
 	private void addChainNode(SetAlgoNode<Long, Roaring64Bitmap> node, N64StreamProcessor processor) {
 		Preconditions.checkNotNull(node, "node");
 		Preconditions.checkNotNull(node, "processor");
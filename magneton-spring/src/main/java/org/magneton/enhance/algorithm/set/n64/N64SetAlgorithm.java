@@ -14,6 +14,7 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
 import org.magneton.enhance.algorithm.set.SetAlgoResource;
 
 /**
@@ -24,7 +25,39 @@ import org.magneton.enhance.algorithm.set.SetAlgoResource;
  */
 public class N64SetAlgorithm {
 
-	private final N64SetAlgoStream stream = new N64SetAlgoStream(new Bmp64ChainData());
+	private final N64SetAlgoStream stream;
+
+	public N64SetAlgorithm() {
+		this(null);
+	}
+
+	/**
+	 * 创建算法
+	 * @param parallelConfig 并行配置，不为空时每个节点的多个文件会并行加载后归并
+	 */
+	public N64SetAlgorithm(SetAlgoParallelConfig parallelConfig) {
+		this.stream = new N64SetAlgoStream(new Bmp64ChainData(), parallelConfig);
+	}
+
+	/**
+	 * 使用文件位图缓存，缓存命中的文件不再解析文本
+	 * @param fileCache 文件位图缓存
+	 * @return this
+	 */
+	public N64SetAlgorithm fileCache(Bmp64FileCache fileCache) {
+		this.stream.setFileCache(fileCache);
+		return this;
+	}
+
+	/**
+	 * 使用检查点，中断后以相同的任务标识重新执行时从最近一次检查点恢复
+	 * @param checkpoint 检查点
+	 * @return this
+	 */
+	public N64SetAlgorithm checkpoint(Bmp64Checkpoint checkpoint) {
+		this.stream.setCheckpoint(checkpoint);
+		return this;
+	}
 
 	public SetAlgoResource<Long, N64SetAlgoStream> resource() {
 		return this.stream;
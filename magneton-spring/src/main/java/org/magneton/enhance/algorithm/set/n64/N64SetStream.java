@@ -15,19 +15,32 @@
 package org.magneton.enhance.algorithm.set.n64;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.magneton.enhance.algorithm.exception.NotFileException;
 import org.magneton.enhance.algorithm.set.SetAlgoStream;
 import org.magneton.enhance.algorithm.set.SetStream;
+import org.roaringbitmap.longlong.LongConsumer;
 import org.roaringbitmap.longlong.PeekableLongIterator;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * long型输出流
@@ -37,6 +50,13 @@ import java.util.function.Consumer;
  */
 public class N64SetStream implements SetStream<Long> {
 
+	private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * {@link #fetch()} 的最大数据量，与 {@link ArrayList} 的最大容量一致
+	 */
+	private static final int MAX_FETCH_SIZE = Integer.MAX_VALUE - 8;
+
 	private final Roaring64Bitmap data;
 
 	private final SetAlgoStream<Long> stream;
@@ -46,13 +66,80 @@ public class N64SetStream implements SetStream<Long> {
 		this.stream = stream;
 	}
 
+	/**
+	 * 获取全部数据，每个值都会装箱，数据量较大时应使用 {@link #fetch(long, int)}、{@link #forEachBatch(long[], ObjIntConsumer)}
+	 * 或 {@link #longStream()}
+	 * @return 全部数据
+	 */
 	@Override
 	public List<Long> fetch() {
-		List<Long> result = new LinkedList<>();
+		long size = this.data.getLongCardinality();
+		Preconditions.checkState(size <= MAX_FETCH_SIZE, "too many values to fetch: %s", size);
+		List<Long> result = new ArrayList<>((int) size);
 		this.data.forEach(result::add);
 		return result;
 	}
 
+	/**
+	 * 分页获取，按排名定位起始值，不需要遍历之前的数据
+	 * @param offset 起始排名，从0开始
+	 * @param limit 最大数量
+	 * @return 数据，按无符号顺序排列，超出范围时返回空数组
+	 */
+	public long[] fetch(long offset, int limit) {
+		Preconditions.checkArgument(offset >= 0, "offset must not be negative");
+		Preconditions.checkArgument(limit >= 0, "limit must not be negative");
+		long size = this.data.getLongCardinality();
+		if (offset >= size || limit == 0) {
+			return new long[0];
+		}
+		long[] page = new long[(int) Math.min(limit, size - offset)];
+		PeekableLongIterator iterator = offset == 0 ? this.data.getLongIterator()
+				: this.data.getLongIteratorFrom(this.data.select(offset));
+		for (int i = 0; i < page.length; i++) {
+			page[i] = iterator.next();
+		}
+		return page;
+	}
+
+	/**
+	 * 按批次无装箱的循环获取，数据依次填充到缓冲区中，缓冲区满或数据结束时回调一次
+	 * @param buffer 缓冲区，每个批次都会复用，回调之外需要保留的数据应自行复制
+	 * @param consumer 批次消费者，参数为缓冲区和本批次的数据量
+	 */
+	public void forEachBatch(long[] buffer, ObjIntConsumer<long[]> consumer) {
+		Preconditions.checkNotNull(buffer, "buffer");
+		Preconditions.checkNotNull(consumer, "consumer");
+		Preconditions.checkArgument(buffer.length > 0, "buffer must not be empty");
+		int[] count = { 0 };
+		this.data.forEach(v -> {
+			buffer[count[0]++] = v;
+			if (count[0] == buffer.length) {
+				consumer.accept(buffer, count[0]);
+				count[0] = 0;
+			}
+		});
+		if (count[0] > 0) {
+			consumer.accept(buffer, count[0]);
+		}
+	}
+
+	/**
+	 * 可拆分的可分割迭代器，按排名拆分，数据按无符号顺序排列
+	 * @return 可分割迭代器
+	 */
+	public Spliterator.OfLong spliterator() {
+		return new N64LongSpliterator(this.data, 0, this.data.getLongCardinality());
+	}
+
+	/**
+	 * 无装箱的数据流，可以通过 {@link LongStream#parallel()} 并行处理，遍历期间不能修改流
+	 * @return 数据流
+	 */
+	public LongStream longStream() {
+		return StreamSupport.longStream(this.spliterator(), false);
+	}
+
 	@Override
 	public Iterator<Long> iterator() {
 		PeekableLongIterator iterator = this.data.getLongIterator();
@@ -74,11 +161,27 @@ public class N64SetStream implements SetStream<Long> {
 		this.data.forEach(consumer::accept);
 	}
 
+	/**
+	 * 无装箱的循环获取
+	 * @param consumer 消费者
+	 */
+	public void forEachLong(LongConsumer consumer) {
+		this.data.forEach(consumer);
+	}
+
+	/**
+	 * 获取底层位图，仅用于同包内的批量合并，调用方不应修改其内容
+	 * @return 底层位图
+	 */
+	Roaring64Bitmap bitmap() {
+		return this.data;
+	}
+
 	@Override
 	public long write(Path path, List<String> headers) {
 		Preconditions.checkNotNull(path, "path");
 		Preconditions.checkNotNull(headers, "header");
-		this.writeTo(this.data, path, headers);
+		this.writeTo(path, headers, 0, -1);
 		return this.data.getLongCardinality() + headers.size();
 	}
 
@@ -95,28 +198,122 @@ public class N64SetStream implements SetStream<Long> {
 	@Override
 	public void clear() {
 		this.data.clear();
-		this.stream.clear();
+		if (this.stream != null) {
+			this.stream.clear();
+		}
+	}
+
+	/**
+	 * 分片写流，数据按排名均分为 {@code shards} 份并行写入，每个分片都会写入文件头
+	 *
+	 * <p>
+	 * 分片文件名为原文件名加分片序号，如 {@code result.txt} 的第1个分片为 {@code result-0.txt}。
+	 * @param path 文件地址
+	 * @param shards 分片数量
+	 * @param headers 文件头
+	 * @return 写入数量
+	 */
+	public long write(Path path, int shards, List<String> headers) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(headers, "header");
+		Preconditions.checkArgument(shards > 0, "shards must be greater than 0");
+		long size = this.data.getLongCardinality();
+		if (shards == 1 || size < shards) {
+			return this.write(path, headers);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(shards, PARALLELISM),
+				new ThreadFactoryBuilder().setNameFormat("set-stream-writer-%d").setDaemon(true).build());
+		try {
+			List<Future<?>> futures = new ArrayList<>(shards);
+			for (int i = 0; i < shards; i++) {
+				long startRank = size * i / shards;
+				long endRank = size * (i + 1) / shards;
+				Path shardPath = shardPath(path, i);
+				futures.add(executor.submit(() -> {
+					this.writeTo(shardPath, headers, this.data.select(startRank), endRank - startRank);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return size + (long) headers.size() * shards;
+	}
+
+	/**
+	 * 以 {@link Roaring64Snapshot} 二进制格式写流，可以通过 {@link #readBinary(Path)} 读取
+	 * @param path 文件地址
+	 * @return 写入数量
+	 */
+	public long writeBinary(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			Roaring64Snapshot.serialize(this.data, channel);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return this.data.getLongCardinality();
+	}
+
+	/**
+	 * 读取 {@link #writeBinary(Path)} 写入的二进制文件，读取的流可以作为集合算法的数据源
+	 *
+	 * <p>
+	 * 快照格式直接还原位图的容器结构，同时兼容 {@link Roaring64Portable} 格式的文件，可移植格式需要逐个添加数据，读取较慢。
+	 * @param path 文件地址
+	 * @return 数据流
+	 */
+	public static N64SetStream readBinary(Path path) {
+		Preconditions.checkNotNull(path, "path");
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			Roaring64Bitmap bitmap = Roaring64Snapshot.isSnapshot(buffer) ? Roaring64Snapshot.deserialize(buffer)
+					: Roaring64Portable.deserialize(buffer);
+			return new N64SetStream(bitmap, null);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	private static Path shardPath(Path path, int shard) {
+		String name = path.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String shardName = dot > 0 ? name.substring(0, dot) + "-" + shard + name.substring(dot) : name + "-" + shard;
+		return path.resolveSibling(shardName);
 	}
 
-	private void writeTo(Roaring64Bitmap writedBitmap, Path path, List<String> headers) {
-		try (FileOutputStream fos = new FileOutputStream(path.toFile());
-				BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos))) {
-			PeekableLongIterator iterator = writedBitmap.getLongIterator();
-			boolean first = true;
+	private void writeTo(Path path, List<String> headers, long start, long count) {
+		try (N64TextWriter writer = new N64TextWriter(path)) {
 			for (String header : headers) {
-				if (!first) {
-					writer.newLine();
-				}
-				writer.write(header);
-				first = false;
+				writer.writeLine(header);
 			}
-			while (iterator.hasNext()) {
-				if (!first) {
-					writer.newLine();
+			PeekableLongIterator iterator = this.data.getLongIterator();
+			if (count < 0) {
+				while (iterator.hasNext()) {
+					writer.writeLong(iterator.next());
 				}
-				long val = iterator.next();
-				writer.write(String.valueOf(val));
-				first = false;
+				return;
+			}
+			iterator.advanceIfNeeded(start);
+			for (long i = 0; i < count && iterator.hasNext(); i++) {
+				writer.writeLong(iterator.next());
 			}
 		}
 		catch (Throwable e) {
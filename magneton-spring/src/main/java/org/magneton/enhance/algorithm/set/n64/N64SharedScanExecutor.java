@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.StreamProcessor;
+import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 共享扫描的批量执行器
+ *
+ * <p>
+ * 多个long型集合算法读取相同的文件时，每个文件（相同的跳过和限制行数）只扫描一次，扫描结果供所有订阅该文件的节点使用，
+ * 各算法在线程池中并行执行。总读取量与不同文件的数量相关，与查询数量无关。
+ *
+ * <p>
+ * 共享的文件在第一次被读取时扫描为位图，在所有订阅的节点使用完之前驻留在内存中。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class N64SharedScanExecutor {
+
+	private final SetAlgoParallelConfig config;
+
+	public N64SharedScanExecutor() {
+		this(new SetAlgoParallelConfig());
+	}
+
+	/**
+	 * 创建执行器
+	 * @param config 并行配置，并行度为同时执行的算法数量
+	 */
+	public N64SharedScanExecutor(SetAlgoParallelConfig config) {
+		this.config = Preconditions.checkNotNull(config, "config");
+	}
+
+	/**
+	 * 批量执行，等价于对每个算法调用 {@link N64SetAlgoStream#stream()}
+	 * @param queries 通过 {@link org.magneton.enhance.algorithm.set.SetAlgorithm#number64()} 创建的算法
+	 * @return 执行完成的算法流，顺序与参数一致
+	 */
+	public List<N64SetAlgoStream> execute(List<? extends SetAlgoResource<Long, N64SetAlgoStream>> queries) {
+		Preconditions.checkNotNull(queries, "queries");
+		List<N64SetAlgoStream> streams = new ArrayList<>(queries.size());
+		for (SetAlgoResource<Long, N64SetAlgoStream> query : queries) {
+			Preconditions.checkArgument(query instanceof N64SetAlgoStream, "unsupported query %s", query);
+			streams.add((N64SetAlgoStream) query);
+		}
+		Bmp64SharedScan sharedScan = new Bmp64SharedScan();
+		for (N64SetAlgoStream stream : streams) {
+			for (ChainNode<Long, Roaring64Bitmap> chainNode : stream.getChain().getChainNodes()) {
+				StreamProcessor<Long> processor = chainNode.getProcessor();
+				if (processor instanceof FileN64StreamProcessor) {
+					((FileN64StreamProcessor) processor).subscribe(sharedScan);
+				}
+			}
+		}
+		sharedScan.seal();
+		long s = System.currentTimeMillis();
+		ExecutorService executor = this.config.getExecutor();
+		boolean temporary = executor == null;
+		if (temporary) {
+			executor = Executors.newFixedThreadPool(Math.max(1, Math.min(this.config.getParallelism(), streams.size())),
+					new ThreadFactoryBuilder().setNameFormat("set-algo-shared-scan-%d").setDaemon(true).build());
+		}
+		try {
+			List<Future<N64SetAlgoStream>> futures = new ArrayList<>(streams.size());
+			for (N64SetAlgoStream stream : streams) {
+				futures.add(executor.submit(stream::stream));
+			}
+			for (Future<N64SetAlgoStream> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("shared scan interrupted", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			if (temporary) {
+				executor.shutdownNow();
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("shared scan {} queries, used {} ms", streams.size(), (System.currentTimeMillis() - s));
+		}
+		return streams;
+	}
+
+}
@@ -14,7 +14,7 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
-import org.magneton.enhance.algorithm.set.StreamProcessor;
+import org.magneton.enhance.algorithm.set.LongStreamProcessor;
 
 /**
  * 流处理器
@@ -22,6 +22,6 @@ import org.magneton.enhance.algorithm.set.StreamProcessor;
  * @author zhangmsh 2022/10/28
  * @since 2.1.0
  */
-public interface N64StreamProcessor extends StreamProcessor<Long> {
+public interface N64StreamProcessor extends LongStreamProcessor {
 
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * long型文本写入器
+ *
+ * <p>
+ * 数值直接格式化到可复用的直接内存缓冲区中，缓冲区写满后通过 {@link FileChannel} 写出，不创建中间字符串。行之间以系统换行符分隔，最后一行之后没有换行符。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class N64TextWriter implements Closeable {
+
+	/**
+	 * 默认缓冲区大小，1M
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * long的最大长度（含符号位）
+	 */
+	private static final int MAX_LONG_LENGTH = 20;
+
+	private final FileChannel channel;
+
+	private final ByteBuffer buffer;
+
+	private final byte[] digits = new byte[MAX_LONG_LENGTH];
+
+	private boolean first = true;
+
+	public N64TextWriter(Path path) throws IOException {
+		this(path, DEFAULT_BUFFER_SIZE);
+	}
+
+	public N64TextWriter(Path path, int bufferSize) throws IOException {
+		Preconditions.checkNotNull(path, "path");
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MAX_LONG_LENGTH + LINE_SEPARATOR.length));
+	}
+
+	/**
+	 * 写入一行文本
+	 * @param line 文本
+	 * @throws IOException IO异常
+	 */
+	public void writeLine(String line) throws IOException {
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		this.writeLine(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 写入一行UTF-8编码的文本
+	 * @param bytes 文本字节
+	 * @param offset 起始位置
+	 * @param length 长度
+	 * @throws IOException IO异常
+	 */
+	public void writeLine(byte[] bytes, int offset, int length) throws IOException {
+		this.newLine();
+		int end = offset + length;
+		while (offset < end) {
+			if (!this.buffer.hasRemaining()) {
+				this.flush();
+			}
+			int len = Math.min(this.buffer.remaining(), end - offset);
+			this.buffer.put(bytes, offset, len);
+			offset += len;
+		}
+	}
+
+	/**
+	 * 写入一行数值
+	 * @param val 数值
+	 * @throws IOException IO异常
+	 */
+	public void writeLong(long val) throws IOException {
+		if (this.buffer.remaining() < MAX_LONG_LENGTH + LINE_SEPARATOR.length) {
+			this.flush();
+		}
+		this.newLine();
+		int pos = MAX_LONG_LENGTH;
+		// 以负数计算，避免Long.MIN_VALUE取反溢出
+		long n = val < 0 ? val : -val;
+		do {
+			this.digits[--pos] = (byte) ('0' - (n % 10));
+			n /= 10;
+		}
+		while (n != 0);
+		if (val < 0) {
+			this.digits[--pos] = '-';
+		}
+		this.buffer.put(this.digits, pos, MAX_LONG_LENGTH - pos);
+	}
+
+	/**
+	 * 将缓冲区数据写出到文件
+	 * @throws IOException IO异常
+	 */
+	public void flush() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		this.buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			this.flush();
+		}
+		finally {
+			this.channel.close();
+		}
+	}
+
+	private void newLine() throws IOException {
+		if (this.first) {
+			this.first = false;
+			return;
+		}
+		if (this.buffer.remaining() < LINE_SEPARATOR.length) {
+			this.flush();
+		}
+		this.buffer.put(LINE_SEPARATOR);
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import org.roaringbitmap.ContainerBatchIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MappeableContainer;
+import org.roaringbitmap.buffer.MappeableContainerPointer;
+import org.roaringbitmap.buffer.MappeableRunContainer;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Roaring64 可移植格式的序列化
+ *
+ * <p>
+ * 格式与 Roaring 规范中64位位图的可移植格式一致：小端序的8字节桶数量，之后每个桶为小端序的4字节高位，以及低32位对应的
+ * {@link RoaringBitmap} 可移植格式数据，桶按高位无符号升序排列。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Roaring64Portable {
+
+	private static final int BATCH_SIZE = 256;
+
+	private Roaring64Portable() {
+		// ignore
+	}
+
+	/**
+	 * 序列化到文件通道的当前位置，每个桶在写入前会做游程压缩
+	 * @param bitmap 位图
+	 * @param channel 文件通道
+	 * @return 写入的字节数
+	 * @throws IOException IO异常
+	 */
+	public static long serialize(Roaring64Bitmap bitmap, FileChannel channel) throws IOException {
+		long start = channel.position();
+		ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		write(channel, header.putLong(0, 0));
+		long buckets = 0;
+		PeekableLongIterator iterator = bitmap.getLongIterator();
+		RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+		int high = 0;
+		boolean open = false;
+		while (iterator.hasNext()) {
+			long val = iterator.next();
+			int valHigh = (int) (val >>> 32);
+			if (open && valHigh != high) {
+				writeBucket(channel, high, writer);
+				buckets++;
+			}
+			high = valHigh;
+			open = true;
+			writer.add((int) val);
+		}
+		if (open) {
+			writeBucket(channel, high, writer);
+			buckets++;
+		}
+		long end = channel.position();
+		header.clear();
+		header.putLong(0, buckets);
+		channel.write(header, start);
+		return end - start;
+	}
+
+	/**
+	 * 从可移植格式反序列化，数据可以是内存映射的缓冲区
+	 *
+	 * <p>
+	 * {@link Roaring64Bitmap} 没有按容器导入的公开接口，游程容器按区间整段添加，其余容器只能逐个添加数据，
+	 * 读取耗时与数据量成正比。只由本程序读取的文件应使用 {@link Roaring64Snapshot}.
+	 * @param buffer 数据，从当前位置开始读取
+	 * @return 位图
+	 */
+	public static Roaring64Bitmap deserialize(ByteBuffer buffer) {
+		Roaring64Bitmap bitmap = new Roaring64Bitmap();
+		int[] batch = new int[BATCH_SIZE];
+		forEachBucket(buffer, (high, bucket) -> {
+			long base = ((long) high) << 32;
+			MappeableContainerPointer pointer = bucket.getContainerPointer();
+			for (; pointer.hasContainer(); pointer.advance()) {
+				long key = base | ((long) pointer.key() << 16);
+				MappeableContainer container = pointer.getContainer();
+				if (pointer.isRunContainer()) {
+					MappeableRunContainer runs = (MappeableRunContainer) container;
+					for (int i = 0; i < runs.numberOfRuns(); i++) {
+						long start = key | runs.getValue(i);
+						bitmap.add(start, start + runs.getLength(i) + 1);
+					}
+					continue;
+				}
+				ContainerBatchIterator iterator = container.getBatchIterator();
+				while (iterator.hasNext()) {
+					int n = iterator.next(0, batch);
+					for (int i = 0; i < n; i++) {
+						bitmap.addLong(key | batch[i]);
+					}
+				}
+			}
+		});
+		return bitmap;
+	}
+
+	/**
+	 * 读取基数，只读取各个容器的头部信息
+	 * @param buffer 数据，从当前位置开始读取
+	 * @return 基数
+	 */
+	public static long cardinality(ByteBuffer buffer) {
+		long[] cardinality = { 0 };
+		forEachBucket(buffer, (high, bucket) -> cardinality[0] += bucket.getLongCardinality());
+		return cardinality[0];
+	}
+
+	private static void forEachBucket(ByteBuffer buffer, BucketConsumer consumer) {
+		ByteBuffer buf = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		long buckets = buf.getLong();
+		for (long i = 0; i < buckets; i++) {
+			int high = buf.getInt();
+			ImmutableRoaringBitmap bucket = new ImmutableRoaringBitmap(buf.slice());
+			consumer.accept(high, bucket);
+			buf.position(buf.position() + bucket.serializedSizeInBytes());
+		}
+	}
+
+	private static void writeBucket(FileChannel channel, int high, RoaringBitmapWriter<RoaringBitmap> writer)
+			throws IOException {
+		RoaringBitmap bucket = writer.get();
+		bucket.runOptimize();
+		ByteBuffer buf = ByteBuffer.allocate(4 + bucket.serializedSizeInBytes()).order(ByteOrder.LITTLE_ENDIAN);
+		buf.putInt(high);
+		bucket.serialize(buf);
+		buf.flip();
+		write(channel, buf);
+		writer.reset();
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	@FunctionalInterface
+	private interface BucketConsumer {
+
+		void accept(int high, ImmutableRoaringBitmap bucket);
+
+	}
+
+}
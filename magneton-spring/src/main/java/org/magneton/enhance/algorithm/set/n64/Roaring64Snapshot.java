@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.n64;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * Roaring64 位图快照，用于缓存、检查点以及流的二进制文件等由本程序读取的文件
+ *
+ * <p>
+ * 格式为小端序的4字节标识和8字节基数，之后是 {@link Roaring64Bitmap} 自身的序列化数据。读取时直接还原位图的容器结构，
+ * 不需要像 {@link Roaring64Portable} 一样逐个添加数据，读取基数只需要读取头部。需要与其他程序交换数据时使用
+ * {@link Roaring64Portable}.
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Roaring64Snapshot {
+
+	private static final int MAGIC = 0x4E343652;
+
+	private static final int HEADER_BYTES = 4 + 8;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private Roaring64Snapshot() {
+		// ignore
+	}
+
+	/**
+	 * 序列化到文件通道的当前位置，写入前会对位图做游程压缩
+	 * @param bitmap 位图
+	 * @param channel 文件通道
+	 * @return 写入的字节数
+	 * @throws IOException IO异常
+	 */
+	public static long serialize(Roaring64Bitmap bitmap, FileChannel channel) throws IOException {
+		long start = channel.position();
+		bitmap.runOptimize();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putLong(bitmap.getLongCardinality()).flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		// 不关闭输出流，由调用方关闭通道
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+		bitmap.serialize(out);
+		out.flush();
+		return channel.position() - start;
+	}
+
+	/**
+	 * 反序列化，数据可以是内存映射的缓冲区，读取后不再引用缓冲区
+	 * @param buffer 数据，从当前位置开始读取
+	 * @return 位图
+	 * @throws IllegalStateException 数据不是快照格式
+	 */
+	public static Roaring64Bitmap deserialize(ByteBuffer buffer) {
+		ByteBuffer buf = header(buffer);
+		buf.position(buf.position() + 8);
+		Roaring64Bitmap bitmap = new Roaring64Bitmap();
+		try {
+			bitmap.deserialize(buf.slice());
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("broken snapshot", e);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * 读取基数，只读取头部
+	 * @param buffer 数据，从当前位置开始读取
+	 * @return 基数
+	 * @throws IllegalStateException 数据不是快照格式
+	 */
+	public static long cardinality(ByteBuffer buffer) {
+		return header(buffer).getLong();
+	}
+
+	/**
+	 * 是否快照格式，只检查头部标识
+	 * @param buffer 数据，从当前位置开始读取
+	 * @return 如果是快照格式返回 {@code true}，否则返回 {@code false}.
+	 */
+	public static boolean isSnapshot(ByteBuffer buffer) {
+		ByteBuffer buf = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		return buf.remaining() >= HEADER_BYTES && buf.getInt() == MAGIC;
+	}
+
+	private static ByteBuffer header(ByteBuffer buffer) {
+		if (!isSnapshot(buffer)) {
+			throw new IllegalStateException("not a snapshot");
+		}
+		ByteBuffer buf = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		buf.position(4);
+		return buf;
+	}
+
+}
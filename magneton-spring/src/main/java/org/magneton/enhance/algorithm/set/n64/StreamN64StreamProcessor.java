@@ -14,9 +14,14 @@
 
 package org.magneton.enhance.algorithm.set.n64;
 
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
 import org.magneton.enhance.algorithm.set.SetStream;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 
 /**
  * 流数据处理器
@@ -24,10 +29,12 @@ import java.util.function.Function;
  * @author zhangmsh 2022/10/28
  * @since 2.1.0
  */
-public class StreamN64StreamProcessor implements N64StreamProcessor {
+public class StreamN64StreamProcessor implements N64StreamProcessor, BatchStreamProcessor<Long, Roaring64Bitmap> {
 
 	private final SetStream<Long> stream;
 
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
 	private boolean hasNext = true;
 
 	public StreamN64StreamProcessor(SetStream<Long> stream) {
@@ -43,9 +50,50 @@ public class StreamN64StreamProcessor implements N64StreamProcessor {
 		return false;
 	}
 
+	@Override
+	public long estimate() {
+		return this.hasNext ? this.stream.size() : 0;
+	}
+
+	@Override
+	public boolean skip() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			this.planMeter.skipData(this.stream.size());
+		}
+		return true;
+	}
+
 	@Override
 	public void nextData(Function<String, Boolean> accessor) {
 		this.stream.forEach(v -> accessor.apply(String.valueOf(v)));
 	}
 
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		if (this.stream instanceof N64SetStream) {
+			((N64SetStream) this.stream).forEachLong(accessor::test);
+			return;
+		}
+		this.stream.forEach(accessor::test);
+	}
+
+	@Override
+	public boolean isBatch() {
+		return this.stream instanceof N64SetStream;
+	}
+
+	@Override
+	public void nextBatch(Function<Roaring64Bitmap, Long> merger) {
+		merger.apply(((N64SetStream) this.stream).bitmap());
+	}
+
+	/**
+	 * 读取的流，用于计算检查点指纹
+	 * @return 读取的流
+	 */
+	SetStream<Long> getStream() {
+		return this.stream;
+	}
+
 }
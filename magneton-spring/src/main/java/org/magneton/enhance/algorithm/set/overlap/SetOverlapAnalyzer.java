@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.overlap;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.p64.P64ChainData;
+import org.magneton.enhance.algorithm.set.p64.P64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.p64.PartitionedBitmap;
+import org.magneton.enhance.algorithm.set.p64.SetAlgoMemoryGovernor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 数据源重叠分析，只计算交集、并集、差集的数据量和Jaccard相似度，不生成结果集合，也不写出任何文件
+ *
+ * <p>
+ * 每个数据源只加载一次，加载为按高40位分区的位图，N个数据源两两之间的 N×(N-1)/2 个交集数据量通过
+ * {@link PartitionedBitmap#andCardinality(PartitionedBitmap)} 逐个分区计数，在线程池中并行计算。
+ * 并集和差集的数据量由交集数据量推导。
+ *
+ * <pre>
+ * SetOverlapMatrix matrix = new SetOverlapAnalyzer().add("A", SetAlgoFile.of("a.txt"))
+ * 	.add("B", SetAlgoFile.of("b.txt"))
+ * 	.add("C", SetAlgoFile.of("c.txt"))
+ * 	.analyze();
+ * double jaccard = matrix.getJaccard("A", "B");
+ * </pre>
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SetOverlapAnalyzer {
+
+	private final Map<String, Object> sources = new LinkedHashMap<>();
+
+	private final ForkJoinPool pool;
+
+	private final SetAlgoMemoryGovernor governor;
+
+	public SetOverlapAnalyzer() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建分析器
+	 * @param pool 加载数据源和计算交集的线程池
+	 */
+	public SetOverlapAnalyzer(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * 创建分析器
+	 * @param pool 加载数据源和计算交集的线程池
+	 * @param governor 内存管理器，数据源超过内存预算时溢出到磁盘，为空时不溢出
+	 */
+	public SetOverlapAnalyzer(ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+		this.governor = governor;
+	}
+
+	/**
+	 * 添加文件，多个文件的语义为并集
+	 * @param name 名称，不能重复
+	 * @param file 文件
+	 * @return 分析器
+	 */
+	public SetOverlapAnalyzer add(String name, SetAlgoFile file) {
+		return this.doAdd(name, file);
+	}
+
+	/**
+	 * 添加数据
+	 * @param name 名称，不能重复
+	 * @param data 数据
+	 * @return 分析器
+	 */
+	public SetOverlapAnalyzer add(String name, SetAlgoData<Long> data) {
+		return this.doAdd(name, data);
+	}
+
+	/**
+	 * 添加流
+	 * @param name 名称，不能重复
+	 * @param stream 流
+	 * @return 分析器
+	 */
+	public SetOverlapAnalyzer add(String name, SetStream<Long> stream) {
+		return this.doAdd(name, stream);
+	}
+
+	/**
+	 * 加载所有数据源并计算两两之间的交集数据量
+	 * @return 重叠矩阵
+	 */
+	public SetOverlapMatrix analyze() {
+		long s = System.currentTimeMillis();
+		List<String> names = new ArrayList<>(this.sources.keySet());
+		List<ForkJoinTask<PartitionedBitmap>> loads = new ArrayList<>(names.size());
+		for (String name : names) {
+			Object source = this.sources.get(name);
+			loads.add(this.pool.submit(() -> this.load(source)));
+		}
+		List<PartitionedBitmap> bitmaps = new ArrayList<>(names.size());
+		for (ForkJoinTask<PartitionedBitmap> load : loads) {
+			bitmaps.add(load.join());
+		}
+
+		int size = names.size();
+		long[][] intersections = new long[size][size];
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(size * (size - 1) / 2);
+		for (int i = 0; i < size; i++) {
+			intersections[i][i] = bitmaps.get(i).getLongCardinality();
+			for (int j = i + 1; j < size; j++) {
+				int row = i;
+				int column = j;
+				tasks.add(this.pool.submit(() -> {
+					long cardinality = bitmaps.get(row).andCardinality(bitmaps.get(column));
+					intersections[row][column] = cardinality;
+					intersections[column][row] = cardinality;
+				}));
+			}
+		}
+		tasks.forEach(ForkJoinTask::join);
+		if (log.isDebugEnabled()) {
+			log.debug("analyze {} sources, used {} ms", size, (System.currentTimeMillis() - s));
+		}
+		return new SetOverlapMatrix(names, intersections);
+	}
+
+	private SetOverlapAnalyzer doAdd(String name, Object source) {
+		Preconditions.checkNotNull(name, "name");
+		Preconditions.checkNotNull(source, "source");
+		Preconditions.checkArgument(!this.sources.containsKey(name), "duplicate name %s", name);
+		this.sources.put(name, source);
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	private PartitionedBitmap load(Object source) {
+		P64ChainData chainData = new P64ChainData(this.pool, this.governor);
+		SetAlgoResource<Long, P64SetAlgoStream> resource = new P64SetAlgoStream(chainData);
+		if (source instanceof SetAlgoFile) {
+			resource.union((SetAlgoFile) source);
+		}
+		else if (source instanceof SetAlgoData) {
+			resource.union((SetAlgoData<Long>) source);
+		}
+		else {
+			resource.union((SetStream<Long>) source);
+		}
+		resource.stream();
+		return chainData.getData();
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.overlap;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 数据源两两之间的重叠矩阵，只包含数据量，不包含数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetOverlapMatrix {
+
+	private final List<String> names;
+
+	/**
+	 * 交集数据量，对称矩阵，对角线为数据源的数据量
+	 */
+	private final long[][] intersections;
+
+	SetOverlapMatrix(List<String> names, long[][] intersections) {
+		this.names = Collections.unmodifiableList(names);
+		this.intersections = intersections;
+	}
+
+	/**
+	 * 数据源名称，按添加顺序排列，下标即矩阵的行列号
+	 * @return 名称
+	 */
+	public List<String> getNames() {
+		return this.names;
+	}
+
+	/**
+	 * 数据源数量
+	 * @return 数量
+	 */
+	public int size() {
+		return this.names.size();
+	}
+
+	/**
+	 * 数据源的数据量
+	 * @param i 下标
+	 * @return |A|
+	 */
+	public long getCardinality(int i) {
+		return this.intersections[i][i];
+	}
+
+	public long getCardinality(String name) {
+		return this.getCardinality(this.indexOf(name));
+	}
+
+	/**
+	 * 交集的数据量
+	 * @param i 下标
+	 * @param j 下标
+	 * @return |A ∩ B|
+	 */
+	public long getIntersection(int i, int j) {
+		return this.intersections[i][j];
+	}
+
+	public long getIntersection(String a, String b) {
+		return this.getIntersection(this.indexOf(a), this.indexOf(b));
+	}
+
+	/**
+	 * 并集的数据量
+	 * @param i 下标
+	 * @param j 下标
+	 * @return |A ∪ B|
+	 */
+	public long getUnion(int i, int j) {
+		return this.intersections[i][i] + this.intersections[j][j] - this.intersections[i][j];
+	}
+
+	public long getUnion(String a, String b) {
+		return this.getUnion(this.indexOf(a), this.indexOf(b));
+	}
+
+	/**
+	 * 差集的数据量
+	 * @param i 被减数下标
+	 * @param j 减数下标
+	 * @return |A - B|
+	 */
+	public long getExclusion(int i, int j) {
+		return this.intersections[i][i] - this.intersections[i][j];
+	}
+
+	public long getExclusion(String a, String b) {
+		return this.getExclusion(this.indexOf(a), this.indexOf(b));
+	}
+
+	/**
+	 * Jaccard相似度
+	 * @param i 下标
+	 * @param j 下标
+	 * @return |A ∩ B| / |A ∪ B|，两个数据源都为空时返回0
+	 */
+	public double getJaccard(int i, int j) {
+		long union = this.getUnion(i, j);
+		return union == 0 ? 0 : (double) this.intersections[i][j] / union;
+	}
+
+	public double getJaccard(String a, String b) {
+		return this.getJaccard(this.indexOf(a), this.indexOf(b));
+	}
+
+	/**
+	 * 交集数据量矩阵的副本
+	 * @return 对称矩阵，对角线为数据源的数据量
+	 */
+	public long[][] toArray() {
+		long[][] copy = new long[this.intersections.length][];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = this.intersections[i].clone();
+		}
+		return copy;
+	}
+
+	private int indexOf(String name) {
+		int i = this.names.indexOf(name);
+		Preconditions.checkArgument(i >= 0, "unknown name %s", name);
+		return i;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < this.names.size(); i++) {
+			builder.append(this.names.get(i));
+			for (int j = 0; j < this.names.size(); j++) {
+				builder.append('\t').append(this.intersections[i][j]);
+			}
+			builder.append('\n');
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 数据流处理器
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class DataP64StreamProcessor implements P64StreamProcessor {
+
+	private final SetAlgoData<Long> data;
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private boolean hasNext = true;
+
+	public DataP64StreamProcessor(SetAlgoData<Long> data) {
+		this.data = data;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public long estimate() {
+		return this.hasNext ? this.data.getData().size() : 0;
+	}
+
+	@Override
+	public boolean skip() {
+		if (this.hasNext) {
+			this.hasNext = false;
+			this.planMeter.skipData(this.data.getData().size());
+		}
+		return true;
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		this.data.getData().forEach(v -> accessor.apply(String.valueOf(v)));
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		for (Long v : this.data.getData()) {
+			accessor.test(v);
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.file.DecimalParser;
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 分区位图文件流处理器
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileP64StreamProcessor implements P64StreamProcessor, BatchStreamProcessor<Long, PartitionedBitmap> {
+
+	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final SetAlgoFile algoFile;
+
+	private final SetAlgoFileReader fileReader;
+
+	private final Iterator<String> iterator;
+
+	private final ForkJoinPool pool;
+
+	private final SetAlgoMemoryGovernor governor;
+
+	public FileP64StreamProcessor(SetAlgoFile algoFile) {
+		this(algoFile, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建文件流处理器
+	 * @param algoFile 文件
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 */
+	public FileP64StreamProcessor(SetAlgoFile algoFile, ForkJoinPool pool) {
+		this(algoFile, pool, null);
+	}
+
+	/**
+	 * 创建文件流处理器
+	 * @param algoFile 文件
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 * @param governor 内存管理器，为空时不溢出
+	 */
+	public FileP64StreamProcessor(SetAlgoFile algoFile, ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.algoFile = algoFile;
+		this.fileReader = new SetAlgoFileReader(algoFile, this.fileReadMeter);
+		this.iterator = algoFile.getFiles().iterator();
+		this.pool = pool;
+		this.governor = governor;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.iterator.hasNext();
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.fileReader.forEachValue(path, accessor);
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.fileReader.forEachLong(path, accessor);
+	}
+
+	@Override
+	public long estimate() {
+		return this.fileReader.estimate();
+	}
+
+	@Override
+	public boolean skip() {
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			this.planMeter.skipFile(path, path.toFile().length());
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isBatch() {
+		return this.algoFile.isParallel() && this.fileReader.isBatchable();
+	}
+
+	@Override
+	public void nextBatch(Function<PartitionedBitmap, Long> merger) {
+		String processFile = this.iterator.next();
+		Path path = Paths.get(processFile);
+		this.doFileBatch(path, merger);
+	}
+
+	private void doFileBatch(Path path, Function<PartitionedBitmap, Long> merger) {
+		if (!this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		SetAlgoFileReader.Result<PartitionedBitmap> result = this.parseFile(path);
+		long useable = merger.apply(result.getValue());
+		this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - useable);
+	}
+
+	/**
+	 * 是否可以通过 {@code nextAll} 批量加载剩余的所有文件
+	 * @return 如果可以批量加载返回 {@code true}，否则返回 {@code false}.
+	 * @see SetAlgoFileReader#isBatchable()
+	 */
+	public boolean isBatchable() {
+		return this.fileReader.isBatchable();
+	}
+
+	/**
+	 * 在线程池中并行加载剩余的所有文件，每个文件加载为一个分区位图，再按分区多路归并后一次性合并到节点中
+	 *
+	 * <p>
+	 * 忽略行数只统计文件内的重复数据。
+	 * @param aggregator 分区位图多路归并方式
+	 * @param merger 数据合并器
+	 */
+	public void nextAll(Function<List<PartitionedBitmap>, PartitionedBitmap> aggregator,
+			Function<PartitionedBitmap, Long> merger) {
+		List<ForkJoinTask<PartitionedBitmap>> tasks = new ArrayList<>();
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			tasks.add(this.pool.submit(SetAlgoJobContext.wrap(() -> this.loadFile(path))));
+		}
+		if (tasks.isEmpty()) {
+			return;
+		}
+		List<PartitionedBitmap> bitmaps = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<PartitionedBitmap> task : tasks) {
+			bitmaps.add(task.join());
+		}
+		merger.apply(bitmaps.size() == 1 ? bitmaps.get(0) : aggregator.apply(bitmaps));
+	}
+
+	private PartitionedBitmap loadFile(Path path) {
+		if (!this.fileReadMeter.preRead(path)) {
+			return new PartitionedBitmap(this.pool, this.governor);
+		}
+		SetAlgoFileReader.Result<PartitionedBitmap> result = this.parseFile(path);
+		this.fileReadMeter.incrIgnoreCount(path, result.getParseCount() - result.getValue().getLongCardinality());
+		return result.getValue();
+	}
+
+	/**
+	 * 解析文件为位图，{@link SetAlgoFile#isParallel()} 时分块并行读取，否则在当前线程中顺序读取
+	 * @param path 文件地址
+	 * @return 解析结果
+	 */
+	private SetAlgoFileReader.Result<PartitionedBitmap> parseFile(Path path) {
+		return this.fileReader.read(path, () -> new PartitionedBitmap(this.pool, this.governor),
+				(bitmap, buffer, from, to) -> bitmap.addLong(DecimalParser.parseLong(buffer, from, to)),
+				(left, right) -> {
+					left.or(right);
+					return left;
+				});
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import com.google.common.collect.Maps;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基于分区位图的链路数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class P64ChainData implements LongChainData<PartitionedBitmap> {
+
+	private final PartitionedBitmap bitmap;
+
+	public P64ChainData() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建链路数据
+	 * @param pool 分区运算的线程池
+	 */
+	public P64ChainData(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * 创建链路数据
+	 * @param pool 分区运算的线程池
+	 * @param governor 内存管理器，为空时不溢出
+	 */
+	public P64ChainData(ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.bitmap = new PartitionedBitmap(pool, governor);
+	}
+
+	@Override
+	public boolean contains(Long val) {
+		return this.bitmap.contains(val);
+	}
+
+	@Override
+	public void add(Long val) {
+		this.bitmap.addLong(val);
+	}
+
+	@Override
+	public void remove(Long val) {
+		this.bitmap.removeLong(val);
+	}
+
+	@Override
+	public boolean contains(long val) {
+		return this.bitmap.contains(val);
+	}
+
+	@Override
+	public void add(long val) {
+		this.bitmap.addLong(val);
+	}
+
+	@Override
+	public void remove(long val) {
+		this.bitmap.removeLong(val);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.bitmap.isEmpty();
+	}
+
+	@Override
+	public PartitionedBitmap getData() {
+		return this.bitmap;
+	}
+
+	@Override
+	public void clear() {
+		this.bitmap.clear();
+	}
+
+	@Override
+	public long size() {
+		return this.bitmap.getLongCardinality();
+	}
+
+	@Override
+	public PartitionedBitmap randomExtract(long size) {
+		return this.randomExtract(size, new SetAlgoSampler());
+	}
+
+	/**
+	 * 使用指定的抽样器随机抽出数据，抽出的数据将从数据集中移出
+	 * @param size 抽出数量，小于1时返回空集，超过数据量时返回全部数据
+	 * @param sampler 抽样器
+	 * @return 抽出的数据
+	 */
+	public PartitionedBitmap randomExtract(long size, SetAlgoSampler sampler) {
+		// 逐个分区转换为堆内位图，溢出的分区不会同时全部加载到堆中
+		Map<Long, RoaringBitmap> samples = sampler.samplePartitions(
+				Maps.transformValues(this.bitmap.getPartitions(), ImmutableRoaringBitmap::toRoaringBitmap), size);
+		PartitionedBitmap extractBitmap = new PartitionedBitmap(this.bitmap.getPool(), this.bitmap.getGovernor());
+		samples.forEach((key, sample) -> extractBitmap.putPartition(key, sample.toMutableRoaringBitmap()));
+		// 抽取之后，原结果集要丢失这些数据
+		if (extractBitmap.getLongCardinality() == this.size()) {
+			this.bitmap.clear();
+		}
+		else {
+			this.bitmap.andNot(extractBitmap);
+		}
+		return extractBitmap;
+	}
+
+}
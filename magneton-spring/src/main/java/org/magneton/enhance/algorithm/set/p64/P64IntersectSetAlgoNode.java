@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.ChainData;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分区位图交集过滤器
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class P64IntersectSetAlgoNode
+		implements LongSetAlgoNode<PartitionedBitmap>, BatchSetAlgoNode<Long, PartitionedBitmap> {
+
+	private final PartitionedBitmap global;
+
+	public P64IntersectSetAlgoNode() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建交集过滤器
+	 * @param pool 分区运算的线程池
+	 */
+	public P64IntersectSetAlgoNode(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * 创建交集过滤器
+	 * @param pool 分区运算的线程池
+	 * @param governor 内存管理器，为空时不溢出
+	 */
+	public P64IntersectSetAlgoNode(ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.global = new PartitionedBitmap(pool, governor);
+	}
+
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.INTERSECT;
+	}
+
+	@Override
+	public boolean useable(ChainData<Long, PartitionedBitmap> chainData, String data) {
+		Long val = Long.valueOf(data);
+		return this.global.checkedAdd(val);
+	}
+
+	@Override
+	public boolean useable(LongChainData<PartitionedBitmap> chainData, long data) {
+		return this.global.checkedAdd(data);
+	}
+
+	@Override
+	public long merge(ChainData<Long, PartitionedBitmap> chainData, PartitionedBitmap data) {
+		long before = this.global.getLongCardinality();
+		this.global.or(data);
+		return this.global.getLongCardinality() - before;
+	}
+
+	@Override
+	public PartitionedBitmap reduce(PartitionedBitmap left, PartitionedBitmap right) {
+		left.and(right);
+		return left;
+	}
+
+	@Override
+	public PartitionedBitmap aggregate(List<PartitionedBitmap> data) {
+		return PartitionedBitmap.and(data);
+	}
+
+	@Override
+	public void eachStream(ChainData<Long, PartitionedBitmap> chainData, SetAlgoNode<Long, PartitionedBitmap> node) {
+		this.switchData(chainData);
+	}
+
+	private void switchData(ChainData<Long, PartitionedBitmap> chainData) {
+		PartitionedBitmap bitmap = chainData.getData();
+		bitmap.and(this.global);
+		this.global.clear();
+	}
+
+	@Override
+	public void clear() {
+		this.global.clear();
+	}
+
+}
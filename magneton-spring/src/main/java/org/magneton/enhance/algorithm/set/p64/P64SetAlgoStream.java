@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.*;
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.ChainNode;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChain;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChainPlanner;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SimpleSetAlgoChain;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分区位图集合算法流，位图运算和多文件加载在线程池中按分区并行执行
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class P64SetAlgoStream implements SetAlgoQueryResource<Long, P64SetAlgoStream>, SetAlgoStream<Long> {
+
+	@Getter
+	private final SetAlgoChain<Long, PartitionedBitmap> chain = new SimpleSetAlgoChain<>();
+
+	private final P64ChainData chainData;
+
+	private final SetAlgoChainPlanner<Long, PartitionedBitmap> planner = new SetAlgoChainPlanner<>();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final ForkJoinPool pool;
+
+	private final SetAlgoMemoryGovernor governor;
+
+	public P64SetAlgoStream(P64ChainData chainData) {
+		this.chainData = chainData;
+		this.pool = chainData.getData().getPool();
+		this.governor = chainData.getData().getGovernor();
+	}
+
+	@Override
+	public P64SetAlgoStream stream() {
+		// 加载流
+		this.doStream();
+		// 数据流处理完成之后，移除已经处理完成的链
+		this.chain.getChainNodes().clear();
+		return this;
+	}
+
+	@Override
+	public SetStream<Long> read() {
+		PartitionedBitmap data = this.chainData.getData();
+		return new P64SetStream(data, this);
+	}
+
+	@Override
+	public SetStream<Long> randomExtract(long size) {
+		return new P64SetStream(this.chainData.randomExtract(size), this);
+	}
+
+	/**
+	 * 使用指定的抽样器随机抽取数据，抽取的数据会从流中移除
+	 * @param size 抽取数量，如果数量小于1则返回空集，超过数据量则返回全部数据
+	 * @param sampler 抽样器，可以指定随机种子和并行度
+	 * @return 抽取数据
+	 */
+	public SetStream<Long> randomExtract(long size, SetAlgoSampler sampler) {
+		Preconditions.checkNotNull(sampler, "sampler");
+		return new P64SetStream(this.chainData.randomExtract(size, sampler), this);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.chainData == null || this.chainData.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		if (this.chainData != null) {
+			this.chainData.clear();
+		}
+		for (ChainNode<Long, PartitionedBitmap> chainNode : this.chain.getChainNodes()) {
+			chainNode.getNode().clear();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void doStream() {
+		List<ChainNode<Long, PartitionedBitmap>> chainNodes = this.planner.plan(this.chain.getChainNodes());
+
+		long s = System.currentTimeMillis();
+		SetAlgoNode<Long, PartitionedBitmap> preNode = null;
+		int index = 0;
+		for (ChainNode<Long, PartitionedBitmap> chainNode : chainNodes) {
+			SetAlgoNode<Long, PartitionedBitmap> algoNode = chainNode.getNode();
+			SetAlgoJobContext.checkpoint();
+			this.planMeter.beginNode(algoNode, index++, chainNodes.size());
+			StreamProcessor<Long> processor = chainNode.getProcessor();
+			BatchSetAlgoNode<Long, PartitionedBitmap> batchNode = algoNode instanceof BatchSetAlgoNode
+					? (BatchSetAlgoNode<Long, PartitionedBitmap>) algoNode : null;
+			boolean batch = batchNode != null && processor instanceof BatchStreamProcessor
+					&& ((BatchStreamProcessor<Long, PartitionedBitmap>) processor).isBatch();
+			boolean primitive = processor instanceof LongStreamProcessor && algoNode instanceof LongSetAlgoNode;
+			// 链路数据为空时交集和排除的结果仍为空，不需要再读取数据
+			boolean skippable = algoNode.getOperation() != null && algoNode.getOperation().keepEmpty();
+			if (skippable && this.chainData.isEmpty() && processor.skip()) {
+				algoNode.eachNode(this.chainData, algoNode);
+				continue;
+			}
+			if (batchNode != null && processor instanceof FileP64StreamProcessor
+					&& ((FileP64StreamProcessor) processor).isBatchable() && processor.hasNext()) {
+				((FileP64StreamProcessor) processor).nextAll(batchNode::aggregate,
+						data -> batchNode.merge(this.chainData, data));
+				algoNode.eachStream(this.chainData, algoNode);
+			}
+			while (processor.hasNext()) {
+				if (batch) {
+					((BatchStreamProcessor<Long, PartitionedBitmap>) processor)
+						.nextBatch(data -> batchNode.merge(this.chainData, data));
+				}
+				else if (primitive) {
+					LongSetAlgoNode<PartitionedBitmap> longNode = (LongSetAlgoNode<PartitionedBitmap>) algoNode;
+					((LongStreamProcessor) processor).nextLong(data -> longNode.useable(this.chainData, data));
+				}
+				else {
+					processor.nextData(data -> algoNode.useable(this.chainData, data));
+				}
+				algoNode.eachStream(this.chainData, algoNode);
+				if (skippable && this.chainData.isEmpty() && processor.skip()) {
+					break;
+				}
+			}
+			algoNode.eachNode(this.chainData, algoNode);
+			preNode = algoNode;
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("doStream, used {} ms", (System.currentTimeMillis() - s));
+		}
+	}
+
+	@Override
+	public P64SetAlgoStream distinct(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new P64DistinctSetAlgoNode(), new FileP64StreamProcessor(file, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> distinct(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new P64DistinctSetAlgoNode(), new DataP64StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> distinct(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new P64DistinctSetAlgoNode(), new StreamP64StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> distinct(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new P64DistinctSetAlgoNode(), new QueryP64StreamProcessor(query, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public P64SetAlgoStream exclude(SetAlgoFile files) {
+		Preconditions.checkNotNull(files, "file");
+		this.addChainNode(new P64ExcludeSetAlgoNode(), new FileP64StreamProcessor(files, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> exclude(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new P64ExcludeSetAlgoNode(), new DataP64StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> exclude(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new P64ExcludeSetAlgoNode(), new StreamP64StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> exclude(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new P64ExcludeSetAlgoNode(), new QueryP64StreamProcessor(query, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public P64SetAlgoStream intersect(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new P64IntersectSetAlgoNode(this.pool, this.governor),
+				new FileP64StreamProcessor(file, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> intersect(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new P64IntersectSetAlgoNode(this.pool, this.governor), new DataP64StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> intersect(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new P64IntersectSetAlgoNode(this.pool, this.governor), new StreamP64StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> intersect(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new P64IntersectSetAlgoNode(), new QueryP64StreamProcessor(query, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public P64SetAlgoStream union(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.addChainNode(new P64UnionSetAlgoNode(), new FileP64StreamProcessor(file, this.pool, this.governor));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> union(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.addChainNode(new P64UnionSetAlgoNode(), new DataP64StreamProcessor(data));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> union(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.addChainNode(new P64UnionSetAlgoNode(), new StreamP64StreamProcessor(stream));
+		return this;
+	}
+
+	@Override
+	public SetAlgoResource<Long, P64SetAlgoStream> union(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.addChainNode(new P64UnionSetAlgoNode(), new QueryP64StreamProcessor(query, this.pool, this.governor));
+		return this;
+	}
+
+	private void addChainNode(SetAlgoNode<Long, PartitionedBitmap> node, P64StreamProcessor processor) {
+		Preconditions.checkNotNull(node, "node");
+		Preconditions.checkNotNull(node, "processor");
+		this.chain.addChainNode(new ChainNode<>(node, processor));
+	}
+
+}
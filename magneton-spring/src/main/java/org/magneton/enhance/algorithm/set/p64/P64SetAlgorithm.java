@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分区位图集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class P64SetAlgorithm {
+
+	private final P64SetAlgoStream stream;
+
+	public P64SetAlgorithm() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建算法
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 */
+	public P64SetAlgorithm(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * 创建算法
+	 * @param pool 分区运算和多文件并行加载的线程池
+	 * @param governor 内存管理器，堆内存占用超过预算时分区溢出到磁盘，为空时不溢出
+	 */
+	public P64SetAlgorithm(ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.stream = new P64SetAlgoStream(new P64ChainData(pool, governor));
+	}
+
+	public SetAlgoResource<Long, P64SetAlgoStream> resource() {
+		return this.stream;
+	}
+
+}
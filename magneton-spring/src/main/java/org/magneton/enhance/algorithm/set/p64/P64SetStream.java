@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.n64.N64TextWriter;
+import org.roaringbitmap.longlong.LongConsumer;
+import org.roaringbitmap.longlong.LongIterator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 分区位图输出流
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class P64SetStream implements SetStream<Long> {
+
+	private final PartitionedBitmap data;
+
+	private final SetAlgoStream<Long> stream;
+
+	public P64SetStream(PartitionedBitmap data, SetAlgoStream<Long> stream) {
+		this.data = data;
+		this.stream = stream;
+	}
+
+	@Override
+	public List<Long> fetch() {
+		List<Long> result = new LinkedList<>();
+		this.data.forEach(result::add);
+		return result;
+	}
+
+	@Override
+	public Iterator<Long> iterator() {
+		LongIterator iterator = this.data.getLongIterator();
+		return new Iterator<Long>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Long next() {
+				return iterator.next();
+			}
+		};
+	}
+
+	@Override
+	public void forEach(Consumer<Long> consumer) {
+		this.data.forEach(consumer::accept);
+	}
+
+	/**
+	 * 无装箱的循环获取
+	 * @param consumer 消费者
+	 */
+	public void forEachLong(LongConsumer consumer) {
+		this.data.forEach(consumer);
+	}
+
+	/**
+	 * 各分区并行的无装箱循环获取，分区之间的顺序不确定
+	 * @param consumer 线程安全的消费者
+	 */
+	public void forEachParallel(LongConsumer consumer) {
+		this.data.forEachParallel(consumer);
+	}
+
+	/**
+	 * 获取底层位图，仅用于同包内的批量合并，调用方不应修改其内容
+	 * @return 底层位图
+	 */
+	PartitionedBitmap bitmap() {
+		return this.data;
+	}
+
+	@Override
+	public long write(Path path, List<String> headers) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(headers, "header");
+		try (N64TextWriter writer = new N64TextWriter(path)) {
+			for (String header : headers) {
+				writer.writeLine(header);
+			}
+			LongIterator iterator = this.data.getLongIterator();
+			while (iterator.hasNext()) {
+				writer.writeLong(iterator.next());
+			}
+		}
+		catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+		return this.data.getLongCardinality() + headers.size();
+	}
+
+	/**
+	 * 把每个分区以RoaringBitmap的标准序列化格式并行写入目录，可以通过 {@link #readPartitions(Path)} 读取，
+	 * 也可以通过 {@link PartitionedBitmap#readPartition(Path)} 单独读取某个分区
+	 * @param dir 目录
+	 * @return 写入数量
+	 */
+	public long writePartitions(Path dir) {
+		Preconditions.checkNotNull(dir, "dir");
+		this.data.runOptimize();
+		this.data.write(dir);
+		return this.data.getLongCardinality();
+	}
+
+	/**
+	 * 读取 {@link #writePartitions(Path)} 写入的目录，读取的流可以作为集合算法的数据源
+	 * @param dir 目录
+	 * @return 数据流
+	 */
+	public static P64SetStream readPartitions(Path dir) {
+		Preconditions.checkNotNull(dir, "dir");
+		if (!Files.isDirectory(dir)) {
+			throw new NotFileException(dir.toString());
+		}
+		return new P64SetStream(PartitionedBitmap.read(dir), null);
+	}
+
+	@Override
+	public long size() {
+		return this.data.getLongCardinality();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.data.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		this.data.clear();
+		if (this.stream != null) {
+			this.stream.clear();
+		}
+	}
+
+}
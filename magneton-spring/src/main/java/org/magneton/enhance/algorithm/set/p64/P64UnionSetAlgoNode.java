@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.set.chain.BatchSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.ChainData;
+import org.magneton.enhance.algorithm.set.chain.LongChainData;
+import org.magneton.enhance.algorithm.set.chain.LongSetAlgoNode;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+
+import java.util.List;
+
+/**
+ * 分区位图并集算法节点
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class P64UnionSetAlgoNode
+		implements LongSetAlgoNode<PartitionedBitmap>, BatchSetAlgoNode<Long, PartitionedBitmap> {
+
+	@Override
+	public SetAlgoOperation getOperation() {
+		return SetAlgoOperation.UNION;
+	}
+
+	@Override
+	public boolean useable(ChainData<Long, PartitionedBitmap> chainData, String data) {
+		Long val = Long.valueOf(data);
+		if (chainData.contains(val)) {
+			return false;
+		}
+		chainData.add(val);
+		return true;
+	}
+
+	@Override
+	public boolean useable(LongChainData<PartitionedBitmap> chainData, long data) {
+		if (chainData.contains(data)) {
+			return false;
+		}
+		chainData.add(data);
+		return true;
+	}
+
+	@Override
+	public long merge(ChainData<Long, PartitionedBitmap> chainData, PartitionedBitmap data) {
+		PartitionedBitmap bitmap = chainData.getData();
+		long before = bitmap.getLongCardinality();
+		bitmap.or(data);
+		return bitmap.getLongCardinality() - before;
+	}
+
+	@Override
+	public PartitionedBitmap reduce(PartitionedBitmap left, PartitionedBitmap right) {
+		left.or(right);
+		return left;
+	}
+
+	@Override
+	public PartitionedBitmap aggregate(List<PartitionedBitmap> data) {
+		return PartitionedBitmap.or(data);
+	}
+
+}
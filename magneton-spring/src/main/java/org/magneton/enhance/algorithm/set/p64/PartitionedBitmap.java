@@ -0,0 +1,1063 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.roaringbitmap.longlong.LongConsumer;
+import org.roaringbitmap.longlong.LongIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * 按高40位分区的64位位图，每个分区是一个独立的 {@link MutableRoaringBitmap}，保存低 {@value #PARTITION_BITS} 位
+ *
+ * <p>
+ * 每个分区覆盖 2<sup>24</sup> 个连续的值，即256个RoaringBitmap容器，单个分区在堆中最多占用约2MB。位图运算、
+ * 批量归并和并行遍历按分区拆分到 {@link ForkJoinPool} 中执行，小于 2<sup>32</sup> 的数据也最多可以拆分为256个分区并行计算，
+ * 运算耗时随核数下降。每个分区可以单独序列化，通过 {@link #write(Path)} 写出的目录中每个分区一个文件。
+ *
+ * <p>
+ * 分区按键升序排列，{@link #forEach(LongConsumer)} 和 {@link #getLongIterator()} 按值升序遍历，
+ * {@link #forEachParallel(LongConsumer)} 只保证分区内升序。每个分区额外占用约100字节的分区表和位图头部，
+ * 并行任务按分区数拆分，数据越分散分区越多，单个运算的调度开销随分区数线性增长。
+ *
+ * <p>
+ * 指定 {@link SetAlgoMemoryGovernor} 时，堆内存占用超过预算后最久未访问的分区会写入共享的溢出段，溢出为内存映射的
+ * {@link ImmutableRoaringBitmap}，溢出的粒度是一个分区，即最多256个容器。溢出的分区直接以映射的位图参与运算，只有被访问的容器会从磁盘读取：
+ * 新增的数据和并集写入堆内的增量位图，交集和差集的结果直接计算到堆中，不需要先把整个分区加载到堆中。
+ * 增量位图计入堆内存占用，分区再次溢出时与映射的位图合并写出。
+ *
+ * <p>
+ * 数据的高40位越集中分区越少，完全随机的64位数据会使每个分区只有极少数据，此时应使用
+ * {@link org.roaringbitmap.longlong.Roaring64Bitmap}. 非线程安全，并行只发生在单个运算内部。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class PartitionedBitmap {
+
+	/**
+	 * 分区文件的扩展名
+	 */
+	public static final String PARTITION_SUFFIX = ".rbm";
+
+	/**
+	 * 每个分区保存的低位数
+	 */
+	public static final int PARTITION_BITS = 24;
+
+	private static final long LOW_MASK = (1L << PARTITION_BITS) - 1;
+
+	/**
+	 * 两次上报内存占用之间最多添加的数据量
+	 */
+	private static final int GOVERN_INTERVAL = 1 << 16;
+
+	/**
+	 * 堆内占用小于该字节数的分区不溢出，映射的位图和增量位图本身的对象开销与节省的堆内存相当
+	 */
+	static final int MIN_SPILL_BYTES = 1024;
+
+	/**
+	 * 按高40位排序的分区，键总是非负数
+	 */
+	private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * 内存管理器，为空时所有分区都在堆中
+	 */
+	private final SetAlgoMemoryGovernor governor;
+
+	/**
+	 * 最近访问的分区，顺序写入时避免每次查找分区
+	 */
+	private long lastKey;
+
+	private Partition lastPartition;
+
+	/**
+	 * 分区的访问时钟，用于选择最久未访问的分区溢出
+	 */
+	private long clock;
+
+	/**
+	 * 上次上报内存占用之后添加的数据量
+	 */
+	private int adds;
+
+	public PartitionedBitmap() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建分区位图
+	 * @param pool 分区运算的线程池
+	 */
+	public PartitionedBitmap(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * 创建分区位图
+	 * @param pool 分区运算的线程池
+	 * @param governor 内存管理器，为空时不溢出
+	 */
+	public PartitionedBitmap(ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+		this.governor = governor;
+	}
+
+	/**
+	 * 分区运算的线程池
+	 * @return 线程池
+	 */
+	public ForkJoinPool getPool() {
+		return this.pool;
+	}
+
+	/**
+	 * 内存管理器
+	 * @return 内存管理器，可能为空
+	 */
+	public SetAlgoMemoryGovernor getGovernor() {
+		return this.governor;
+	}
+
+	public void addLong(long val) {
+		this.partition(key(val)).add(low(val));
+		if (this.governor != null && ++this.adds >= GOVERN_INTERVAL) {
+			this.govern();
+		}
+	}
+
+	/**
+	 * 添加数据
+	 * @param val 值
+	 * @return 如果数据不存在返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean checkedAdd(long val) {
+		boolean added = this.partition(key(val)).checkedAdd(low(val));
+		if (this.governor != null && added && ++this.adds >= GOVERN_INTERVAL) {
+			this.govern();
+		}
+		return added;
+	}
+
+	public void removeLong(long val) {
+		long key = key(val);
+		Partition partition = this.partitions.get(key);
+		if (partition == null || !partition.remove(low(val))) {
+			return;
+		}
+		if (partition.getLongCardinality() == 0) {
+			partition.release();
+			this.partitions.remove(key);
+			this.lastPartition = null;
+		}
+	}
+
+	public boolean contains(long val) {
+		Partition partition = this.partitions.get(key(val));
+		return partition != null && partition.contains(low(val));
+	}
+
+	public long getLongCardinality() {
+		long cardinality = 0;
+		for (Partition partition : this.partitions.values()) {
+			cardinality += partition.getLongCardinality();
+		}
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return this.partitions.isEmpty();
+	}
+
+	public void clear() {
+		this.partitions.values().forEach(Partition::release);
+		this.partitions.clear();
+		this.lastPartition = null;
+		if (this.governor != null) {
+			this.governor.report(this, 0);
+		}
+	}
+
+	/**
+	 * 分区数量
+	 * @return 分区数量
+	 */
+	public int getPartitionCount() {
+		return this.partitions.size();
+	}
+
+	/**
+	 * 已溢出到磁盘的分区数量
+	 * @return 分区数量
+	 */
+	public int getSpilledPartitionCount() {
+		int count = 0;
+		for (Partition partition : this.partitions.values()) {
+			if (partition.isSpilled()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 只读的分区视图，key为高40位，分区内容为低24位，不应被修改。堆内的分区直接返回，溢出的分区返回映射的位图，
+	 * 溢出后有增量的分区每次访问都会合并为新的堆内位图
+	 * @return 分区
+	 */
+	public NavigableMap<Long, ImmutableRoaringBitmap> getPartitions() {
+		return Maps.unmodifiableNavigableMap(Maps.transformValues(this.partitions, Partition::view));
+	}
+
+	/**
+	 * 交集，各分区并行计算
+	 * @param other 另一个位图
+	 */
+	public void and(PartitionedBitmap other) {
+		List<Partition[]> pairs = new ArrayList<>();
+		Iterator<Map.Entry<Long, Partition>> iterator = this.partitions.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Partition> entry = iterator.next();
+			Partition partition = other.partitions.get(entry.getKey());
+			if (partition == null) {
+				entry.getValue().release();
+				iterator.remove();
+			}
+			else {
+				pairs.add(new Partition[] { this.touch(entry.getValue()), partition });
+			}
+		}
+		this.fanOut(pairs, pair -> pair[0].and(pair[1].view()));
+		this.removeEmpty();
+		this.govern();
+	}
+
+	/**
+	 * 并集，各分区并行计算
+	 * @param other 另一个位图
+	 */
+	public void or(PartitionedBitmap other) {
+		List<Partition[]> pairs = new ArrayList<>(other.partitions.size());
+		for (Map.Entry<Long, Partition> entry : other.partitions.entrySet()) {
+			Partition partition = this.partitions.computeIfAbsent(entry.getKey(), k -> new Partition());
+			pairs.add(new Partition[] { this.touch(partition), entry.getValue() });
+		}
+		this.fanOut(pairs, pair -> pair[0].or(pair[1]));
+		this.govern();
+	}
+
+	/**
+	 * 差集，各分区并行计算
+	 * @param other 另一个位图
+	 */
+	public void andNot(PartitionedBitmap other) {
+		List<Partition[]> pairs = new ArrayList<>();
+		for (Map.Entry<Long, Partition> entry : this.partitions.entrySet()) {
+			Partition partition = other.partitions.get(entry.getKey());
+			if (partition != null) {
+				pairs.add(new Partition[] { this.touch(entry.getValue()), partition });
+			}
+		}
+		this.fanOut(pairs, pair -> pair[0].andNot(pair[1]));
+		this.removeEmpty();
+		this.govern();
+	}
+
+	/**
+	 * 交集的数据量，各分区并行计数，不创建结果位图。溢出的分区直接在映射的位图上计数，只读取两侧都存在的容器，
+	 * 映射的位图与增量分别计数后相加，不合并增量
+	 * @param other 另一个位图
+	 * @return 交集的数据量
+	 */
+	public long andCardinality(PartitionedBitmap other) {
+		PartitionedBitmap small = this.partitions.size() <= other.partitions.size() ? this : other;
+		PartitionedBitmap large = small == this ? other : this;
+		List<Partition[]> pairs = new ArrayList<>();
+		for (Map.Entry<Long, Partition> entry : small.partitions.entrySet()) {
+			Partition partition = large.partitions.get(entry.getKey());
+			if (partition != null) {
+				pairs.add(new Partition[] { entry.getValue(), partition });
+			}
+		}
+		long[] cardinalities = new long[pairs.size()];
+		this.fanOut(indexes(pairs.size()), i -> cardinalities[i] = pairs.get(i)[0].andCardinality(pairs.get(i)[1]));
+		long cardinality = 0;
+		for (long value : cardinalities) {
+			cardinality += value;
+		}
+		return cardinality;
+	}
+
+	/**
+	 * 并集的数据量，不创建结果位图
+	 * @param other 另一个位图
+	 * @return 并集的数据量
+	 */
+	public long orCardinality(PartitionedBitmap other) {
+		return this.getLongCardinality() + other.getLongCardinality() - this.andCardinality(other);
+	}
+
+	/**
+	 * 差集的数据量，不创建结果位图
+	 * @param other 另一个位图
+	 * @return 差集的数据量
+	 */
+	public long andNotCardinality(PartitionedBitmap other) {
+		return this.getLongCardinality() - this.andCardinality(other);
+	}
+
+	/**
+	 * 多路并集，按分区分组后各分区并行归并
+	 * @param bitmaps 位图列表，不能为空
+	 * @return 并集，使用第一个位图的线程池和内存管理器
+	 */
+	public static PartitionedBitmap or(List<PartitionedBitmap> bitmaps) {
+		Preconditions.checkArgument(!bitmaps.isEmpty(), "bitmaps must not be empty");
+		TreeMap<Long, List<Partition>> groups = new TreeMap<>();
+		for (PartitionedBitmap bitmap : bitmaps) {
+			bitmap.partitions.forEach((key, partition) -> groups.computeIfAbsent(key, k -> new ArrayList<>())
+				.add(partition));
+		}
+		return aggregate(bitmaps.get(0), groups, true);
+	}
+
+	/**
+	 * 多路交集，只归并所有位图都存在的分区
+	 * @param bitmaps 位图列表，不能为空
+	 * @return 交集，使用第一个位图的线程池和内存管理器
+	 */
+	public static PartitionedBitmap and(List<PartitionedBitmap> bitmaps) {
+		Preconditions.checkArgument(!bitmaps.isEmpty(), "bitmaps must not be empty");
+		TreeMap<Long, List<Partition>> groups = new TreeMap<>();
+		for (Long key : bitmaps.get(0).partitions.keySet()) {
+			List<Partition> group = new ArrayList<>(bitmaps.size());
+			for (PartitionedBitmap bitmap : bitmaps) {
+				Partition partition = bitmap.partitions.get(key);
+				if (partition == null) {
+					break;
+				}
+				group.add(partition);
+			}
+			if (group.size() == bitmaps.size()) {
+				groups.put(key, group);
+			}
+		}
+		return aggregate(bitmaps.get(0), groups, false);
+	}
+
+	/**
+	 * 按分区并行归并，并集直接使用溢出分区的映射位图和增量位图，交集使用合并后的分区
+	 */
+	private static PartitionedBitmap aggregate(PartitionedBitmap template, TreeMap<Long, List<Partition>> groups,
+			boolean union) {
+		PartitionedBitmap result = new PartitionedBitmap(template.pool, template.governor);
+		List<Map.Entry<Long, List<Partition>>> entries = new ArrayList<>(groups.entrySet());
+		MutableRoaringBitmap[] aggregated = new MutableRoaringBitmap[entries.size()];
+		result.fanOut(indexes(entries.size()), i -> {
+			List<Partition> group = entries.get(i).getValue();
+			// 单个分区时复制，避免结果与原位图共享分区
+			if (group.size() == 1) {
+				aggregated[i] = group.get(0).copy();
+				return;
+			}
+			List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>(group.size());
+			if (union) {
+				group.forEach(partition -> partition.pieces(bitmaps));
+				aggregated[i] = BufferFastAggregation.or(bitmaps.iterator());
+			}
+			else {
+				group.forEach(partition -> bitmaps.add(partition.view()));
+				aggregated[i] = BufferFastAggregation.and(bitmaps.iterator());
+			}
+		});
+		for (int i = 0; i < aggregated.length; i++) {
+			result.putPartition(entries.get(i).getKey(), aggregated[i]);
+		}
+		result.govern();
+		return result;
+	}
+
+	/**
+	 * 按升序遍历
+	 * @param consumer 消费者
+	 */
+	public void forEach(LongConsumer consumer) {
+		for (Map.Entry<Long, Partition> entry : this.partitions.entrySet()) {
+			long base = entry.getKey() << PARTITION_BITS;
+			entry.getValue().forEach(low -> consumer.accept(base | low));
+		}
+	}
+
+	/**
+	 * 各分区并行遍历，分区内升序，分区之间的顺序不确定
+	 * @param consumer 线程安全的消费者
+	 */
+	public void forEachParallel(LongConsumer consumer) {
+		this.fanOut(new ArrayList<>(this.partitions.entrySet()), entry -> {
+			long base = entry.getKey() << PARTITION_BITS;
+			entry.getValue().forEach(low -> consumer.accept(base | low));
+		});
+	}
+
+	/**
+	 * 升序迭代器
+	 * @return 迭代器
+	 */
+	public LongIterator getLongIterator() {
+		return new PartitionedLongIterator(this.partitions.entrySet().iterator());
+	}
+
+	/**
+	 * 压缩连续数据，各分区并行执行，溢出的分区在溢出时已经压缩
+	 */
+	public void runOptimize() {
+		this.fanOut(new ArrayList<>(this.partitions.values()), Partition::runOptimize);
+	}
+
+	/**
+	 * 序列化后的大小，即 {@link #write(Path)} 写出的分区文件大小之和
+	 * @return 字节数
+	 */
+	public long serializedSizeInBytes() {
+		long size = 0;
+		for (Partition partition : this.partitions.values()) {
+			size += partition.serializedSizeInBytes();
+		}
+		return size;
+	}
+
+	/**
+	 * 堆中分区的内存占用，不包括溢出的分区
+	 * @return 字节数
+	 */
+	public long getHeapSizeInBytes() {
+		long size = 0;
+		for (Partition partition : this.partitions.values()) {
+			size += partition.heapSizeInBytes();
+		}
+		return size;
+	}
+
+	@Override
+	public PartitionedBitmap clone() {
+		PartitionedBitmap clone = new PartitionedBitmap(this.pool, this.governor);
+		this.partitions.forEach((key, partition) -> clone.putPartition(key, partition.copy()));
+		clone.govern();
+		return clone;
+	}
+
+	/**
+	 * 把分区并行写入目录，每个分区一个RoaringBitmap标准格式的文件，文件名为高40位，文件内容为低24位
+	 * @param dir 目录，不存在时创建，已有的分区文件会被覆盖
+	 */
+	public void write(Path dir) {
+		Preconditions.checkNotNull(dir, "dir");
+		try {
+			Files.createDirectories(dir);
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+		this.fanOut(new ArrayList<>(this.partitions.entrySet()),
+				entry -> entry.getValue().write(partitionPath(dir, entry.getKey())));
+	}
+
+	/**
+	 * 从目录并行读取分区
+	 * @param dir 通过 {@link #write(Path)} 写出的目录
+	 * @return 分区位图
+	 */
+	public static PartitionedBitmap read(Path dir) {
+		return read(dir, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 从目录并行读取分区
+	 * @param dir 通过 {@link #write(Path)} 写出的目录
+	 * @param pool 分区运算的线程池
+	 * @return 分区位图
+	 */
+	public static PartitionedBitmap read(Path dir, ForkJoinPool pool) {
+		Preconditions.checkNotNull(dir, "dir");
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + PARTITION_SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		catch (IOException e) {
+			throw new NotFileException(dir.toString(), e);
+		}
+		PartitionedBitmap bitmap = new PartitionedBitmap(pool);
+		MutableRoaringBitmap[] partitions = new MutableRoaringBitmap[files.size()];
+		bitmap.fanOut(indexes(files.size()), i -> partitions[i] = readMutablePartition(files.get(i)));
+		for (int i = 0; i < partitions.length; i++) {
+			String name = files.get(i).getFileName().toString();
+			long key = Long.parseLong(name.substring(0, name.length() - PARTITION_SUFFIX.length()));
+			bitmap.putPartition(key, partitions[i]);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * 分区文件地址
+	 * @param dir 目录
+	 * @param key 高40位
+	 * @return 文件地址
+	 */
+	public static Path partitionPath(Path dir, long key) {
+		return dir.resolve(key + PARTITION_SUFFIX);
+	}
+
+	/**
+	 * 写出单个分区
+	 * @param partition 分区
+	 * @param path 文件地址
+	 */
+	public static void writePartition(RoaringBitmap partition, Path path) {
+		try (OutputStream out = Files.newOutputStream(path);
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			partition.serialize(data);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 写出单个分区
+	 * @param partition 分区，可以是内存映射的位图
+	 * @param path 文件地址
+	 */
+	public static void writePartition(ImmutableRoaringBitmap partition, Path path) {
+		try (OutputStream out = Files.newOutputStream(path);
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			partition.serialize(data);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 读取单个分区
+	 * @param path 文件地址
+	 * @return 分区
+	 */
+	public static RoaringBitmap readPartition(Path path) {
+		RoaringBitmap partition = new RoaringBitmap();
+		try (InputStream in = Files.newInputStream(path);
+				DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+			partition.deserialize(data);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+		return partition;
+	}
+
+	private static MutableRoaringBitmap readMutablePartition(Path path) {
+		MutableRoaringBitmap partition = new MutableRoaringBitmap();
+		try (InputStream in = Files.newInputStream(path);
+				DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+			partition.deserialize(data);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+		return partition;
+	}
+
+	/**
+	 * 以内存映射的方式读取单个分区，只有被访问的容器会从磁盘加载，文件在映射期间不能被修改
+	 * @param path 文件地址
+	 * @return 只读分区
+	 */
+	public static ImmutableRoaringBitmap mapPartition(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new ImmutableRoaringBitmap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+	}
+
+	/**
+	 * 添加已经按高40位拆分好的分区，分区不会被复制，已有的同名分区会被替换
+	 * @param key 高40位
+	 * @param partition 分区，只能包含低24位，为空时忽略
+	 */
+	public void putPartition(long key, MutableRoaringBitmap partition) {
+		if (!partition.isEmpty()) {
+			Partition previous = this.partitions.put(key, this.touch(new Partition(partition)));
+			if (previous != null) {
+				previous.release();
+			}
+			this.lastPartition = null;
+		}
+	}
+
+	/**
+	 * 获取用于写入的分区，不存在时创建
+	 */
+	private Partition partition(long key) {
+		Partition partition = this.lastPartition;
+		if (partition == null || this.lastKey != key) {
+			partition = this.touch(this.partitions.computeIfAbsent(key, k -> new Partition()));
+			this.lastKey = key;
+			this.lastPartition = partition;
+		}
+		return partition;
+	}
+
+	private Partition touch(Partition partition) {
+		partition.access = ++this.clock;
+		return partition;
+	}
+
+	private void removeEmpty() {
+		Iterator<Partition> iterator = this.partitions.values().iterator();
+		while (iterator.hasNext()) {
+			Partition partition = iterator.next();
+			if (partition.getLongCardinality() == 0) {
+				partition.release();
+				iterator.remove();
+			}
+		}
+		this.lastPartition = null;
+	}
+
+	/**
+	 * 上报堆内存占用，超出预算时溢出最久未访问的分区，溢出量额外包含预算的1/4，避免频繁溢出。
+	 * 已溢出但有增量的分区同样可以被选中，增量与映射的位图合并后重新溢出，堆内占用小于 {@value #MIN_SPILL_BYTES} 字节的分区不溢出
+	 */
+	private void govern() {
+		if (this.governor == null) {
+			return;
+		}
+		this.adds = 0;
+		long heapBytes = this.getHeapSizeInBytes();
+		long excess = this.governor.report(this, heapBytes);
+		if (excess <= 0) {
+			return;
+		}
+		long target = excess + this.governor.getBudgetBytes() / 4;
+		List<Partition> candidates = new ArrayList<>();
+		for (Partition partition : this.partitions.values()) {
+			if (partition.heapSizeInBytes() >= MIN_SPILL_BYTES) {
+				candidates.add(partition);
+			}
+		}
+		candidates.sort(Comparator.comparingLong(partition -> partition.access));
+		long freed = 0;
+		for (Partition partition : candidates) {
+			if (freed >= target) {
+				break;
+			}
+			long bytes = partition.heapSizeInBytes();
+			partition.spill(this.governor);
+			freed += bytes;
+		}
+		this.lastPartition = null;
+		this.governor.report(this, heapBytes - freed);
+	}
+
+	/**
+	 * 在线程池中并行处理，每个任务至少处理一个元素，元素较少或线程池只有一个线程时在当前线程处理
+	 */
+	private <E> void fanOut(List<E> items, Consumer<E> action) {
+		int parallelism = this.pool.getParallelism();
+		if (items.size() < 2 || parallelism < 2) {
+			items.forEach(action);
+			return;
+		}
+		int batch = Math.max(1, items.size() / (parallelism * 4));
+		this.pool.invoke(new FanOutTask<>(items, 0, items.size(), batch, action));
+	}
+
+	private static List<Integer> indexes(int size) {
+		List<Integer> indexes = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			indexes.add(i);
+		}
+		return indexes;
+	}
+
+	/**
+	 * 分区键，即无符号的高40位
+	 */
+	static long key(long val) {
+		return val >>> PARTITION_BITS;
+	}
+
+	/**
+	 * 分区内的值，即低24位
+	 */
+	static int low(long val) {
+		return (int) (val & LOW_MASK);
+	}
+
+	/**
+	 * 分区，数据在堆中，或者溢出为内存映射的只读位图加上堆内的增量位图，增量与映射的位图不相交
+	 */
+	private static final class Partition {
+
+		private MutableRoaringBitmap heap;
+
+		private ImmutableRoaringBitmap mapped;
+
+		/**
+		 * 溢出之后新增的数据，不包含映射的位图中已有的数据
+		 */
+		private MutableRoaringBitmap delta;
+
+		private SetAlgoMemoryGovernor.SpillSlot slot;
+
+		private long access;
+
+		Partition() {
+			this(new MutableRoaringBitmap());
+		}
+
+		Partition(MutableRoaringBitmap heap) {
+			this.heap = heap;
+		}
+
+		boolean isSpilled() {
+			return this.heap == null;
+		}
+
+		boolean contains(int low) {
+			return this.heap != null ? this.heap.contains(low) : this.mapped.contains(low) || this.delta.contains(low);
+		}
+
+		void add(int low) {
+			if (this.heap != null) {
+				this.heap.add(low);
+			}
+			else if (!this.mapped.contains(low)) {
+				this.delta.add(low);
+			}
+		}
+
+		boolean checkedAdd(int low) {
+			if (this.heap != null) {
+				return this.heap.checkedAdd(low);
+			}
+			return !this.mapped.contains(low) && this.delta.checkedAdd(low);
+		}
+
+		/**
+		 * 删除数据，只在映射的位图中存在时才把分区加载到堆中
+		 */
+		boolean remove(int low) {
+			if (this.heap != null) {
+				return this.heap.checkedRemove(low);
+			}
+			if (this.delta.checkedRemove(low)) {
+				return true;
+			}
+			if (!this.mapped.contains(low)) {
+				return false;
+			}
+			return this.writable().checkedRemove(low);
+		}
+
+		long getLongCardinality() {
+			return this.heap != null ? this.heap.getLongCardinality()
+					: this.mapped.getLongCardinality() + this.delta.getLongCardinality();
+		}
+
+		long heapSizeInBytes() {
+			return this.heap != null ? this.heap.getLongSizeInBytes()
+					: this.delta.isEmpty() ? 0 : this.delta.getLongSizeInBytes();
+		}
+
+		long serializedSizeInBytes() {
+			return this.view().serializedSizeInBytes();
+		}
+
+		/**
+		 * 只读视图，堆内的分区以及没有增量的溢出分区直接返回，不复制，有增量时合并为新的堆内位图
+		 */
+		ImmutableRoaringBitmap view() {
+			if (this.heap != null) {
+				return this.heap;
+			}
+			return this.delta.isEmpty() ? this.mapped : ImmutableRoaringBitmap.or(this.mapped, this.delta);
+		}
+
+		/**
+		 * 组成分区的所有位图，溢出的分区不合并增量，用于并集等可以直接处理多个位图的运算
+		 */
+		void pieces(List<ImmutableRoaringBitmap> pieces) {
+			if (this.heap != null) {
+				pieces.add(this.heap);
+				return;
+			}
+			pieces.add(this.mapped);
+			if (!this.delta.isEmpty()) {
+				pieces.add(this.delta);
+			}
+		}
+
+		/**
+		 * 可以修改的堆内位图，溢出的分区与增量合并后加载到堆中并释放溢出段中的分区
+		 */
+		MutableRoaringBitmap writable() {
+			if (this.heap == null) {
+				MutableRoaringBitmap loaded = ImmutableRoaringBitmap.or(this.mapped, this.delta);
+				this.release();
+				this.heap = loaded;
+			}
+			return this.heap;
+		}
+
+		/**
+		 * 交集，溢出的分区直接从映射的位图计算结果
+		 */
+		void and(ImmutableRoaringBitmap other) {
+			if (this.heap != null) {
+				this.heap.and(other);
+				return;
+			}
+			MutableRoaringBitmap result = ImmutableRoaringBitmap.and(this.mapped, other);
+			if (!this.delta.isEmpty()) {
+				result.or(ImmutableRoaringBitmap.and(this.delta, other));
+			}
+			this.release();
+			this.heap = result;
+		}
+
+		/**
+		 * 并集，溢出的分区只把映射的位图中没有的数据写入增量
+		 */
+		void or(Partition other) {
+			List<ImmutableRoaringBitmap> pieces = new ArrayList<>(2);
+			other.pieces(pieces);
+			for (ImmutableRoaringBitmap piece : pieces) {
+				if (this.heap != null) {
+					this.heap.or(piece);
+				}
+				else {
+					this.delta.or(ImmutableRoaringBitmap.andNot(piece, this.mapped));
+				}
+			}
+		}
+
+		/**
+		 * 差集，溢出的分区与另一个分区不相交时只修改增量，否则直接从映射的位图计算结果
+		 */
+		void andNot(Partition other) {
+			List<ImmutableRoaringBitmap> pieces = new ArrayList<>(2);
+			other.pieces(pieces);
+			for (ImmutableRoaringBitmap piece : pieces) {
+				if (this.heap != null) {
+					this.heap.andNot(piece);
+				}
+				else if (!ImmutableRoaringBitmap.intersects(this.mapped, piece)) {
+					this.delta.andNot(piece);
+				}
+				else {
+					MutableRoaringBitmap result = ImmutableRoaringBitmap.andNot(this.mapped, piece);
+					result.or(ImmutableRoaringBitmap.andNot(this.delta, piece));
+					this.release();
+					this.heap = result;
+				}
+			}
+		}
+
+		/**
+		 * 交集的数据量，两个分区的各个组成位图互不相交，分别计数后相加
+		 */
+		long andCardinality(Partition other) {
+			List<ImmutableRoaringBitmap> left = new ArrayList<>(2);
+			List<ImmutableRoaringBitmap> right = new ArrayList<>(2);
+			this.pieces(left);
+			other.pieces(right);
+			long cardinality = 0;
+			for (ImmutableRoaringBitmap leftPiece : left) {
+				for (ImmutableRoaringBitmap rightPiece : right) {
+					cardinality += ImmutableRoaringBitmap.andCardinality(leftPiece, rightPiece);
+				}
+			}
+			return cardinality;
+		}
+
+		MutableRoaringBitmap copy() {
+			return this.heap != null ? this.heap.clone() : ImmutableRoaringBitmap.or(this.mapped, this.delta);
+		}
+
+		void forEach(IntConsumer consumer) {
+			this.view().forEach(consumer);
+		}
+
+		PeekableIntIterator getIntIterator() {
+			return this.view().getIntIterator();
+		}
+
+		void runOptimize() {
+			if (this.heap != null) {
+				this.heap.runOptimize();
+			}
+			else {
+				this.delta.runOptimize();
+			}
+		}
+
+		void write(Path path) {
+			writePartition(this.view(), path);
+		}
+
+		/**
+		 * 压缩后写入溢出段并映射为只读位图，已溢出的分区与增量合并后重新写入
+		 */
+		void spill(SetAlgoMemoryGovernor governor) {
+			MutableRoaringBitmap bitmap = this.heap != null ? this.heap
+					: ImmutableRoaringBitmap.or(this.mapped, this.delta);
+			bitmap.runOptimize();
+			SetAlgoMemoryGovernor.SpillSlot spilled = governor.spill(bitmap);
+			this.release();
+			this.mapped = spilled.map();
+			this.delta = new MutableRoaringBitmap();
+			this.slot = spilled;
+			this.heap = null;
+		}
+
+		/**
+		 * 释放溢出段中的分区，段中的分区全部释放后删除溢出段
+		 */
+		void release() {
+			if (this.slot != null) {
+				this.slot.free();
+				this.slot = null;
+				this.mapped = null;
+				this.delta = null;
+			}
+		}
+
+	}
+
+	private static class FanOutTask<E> extends RecursiveAction {
+
+		private final List<E> items;
+
+		private final int from;
+
+		private final int to;
+
+		private final int batch;
+
+		private final Consumer<E> action;
+
+		FanOutTask(List<E> items, int from, int to, int batch, Consumer<E> action) {
+			this.items = items;
+			this.from = from;
+			this.to = to;
+			this.batch = batch;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.batch) {
+				for (int i = this.from; i < this.to; i++) {
+					this.action.accept(this.items.get(i));
+				}
+				return;
+			}
+			int mid = (this.from + this.to) >>> 1;
+			invokeAll(new FanOutTask<>(this.items, this.from, mid, this.batch, this.action),
+					new FanOutTask<>(this.items, mid, this.to, this.batch, this.action));
+		}
+
+	}
+
+	private static class PartitionedLongIterator implements LongIterator {
+
+		private final Iterator<Map.Entry<Long, Partition>> partitions;
+
+		private long base;
+
+		private PeekableIntIterator current;
+
+		PartitionedLongIterator(Iterator<Map.Entry<Long, Partition>> partitions) {
+			this.partitions = partitions;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.current == null || !this.current.hasNext()) {
+				if (!this.partitions.hasNext()) {
+					return false;
+				}
+				Map.Entry<Long, Partition> entry = this.partitions.next();
+				this.base = entry.getKey() << PARTITION_BITS;
+				this.current = entry.getValue().getIntIterator();
+			}
+			return true;
+		}
+
+		@Override
+		public long next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.base | this.current.next();
+		}
+
+		@Override
+		public LongIterator clone() {
+			throw new UnsupportedOperationException("clone");
+		}
+
+	}
+
+}
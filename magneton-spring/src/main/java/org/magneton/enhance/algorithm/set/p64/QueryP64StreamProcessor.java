@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoQuery;
+import org.magneton.enhance.algorithm.set.SetAlgoQueryReader;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * 分区位图查询数据处理器，每个分区作为一份数据，开启并行时一次并行读取全部分区
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class QueryP64StreamProcessor implements P64StreamProcessor, BatchStreamProcessor<Long, PartitionedBitmap> {
+
+	private final SetAlgoQuery query;
+
+	private final ForkJoinPool pool;
+
+	private final SetAlgoMemoryGovernor governor;
+
+	private final Executor executor;
+
+	private int partition;
+
+	public QueryP64StreamProcessor(SetAlgoQuery query, ForkJoinPool pool, SetAlgoMemoryGovernor governor) {
+		this(query, pool, governor, SetAlgoQueryReader.defaultExecutor());
+	}
+
+	/**
+	 * 创建查询数据处理器
+	 * @param query 查询
+	 * @param pool 分区运算的线程池
+	 * @param governor 内存管理器，为空时不溢出
+	 * @param executor 并行读取分区的线程池，读取会阻塞在数据库IO上，不应使用分区运算的线程池
+	 */
+	public QueryP64StreamProcessor(SetAlgoQuery query, ForkJoinPool pool, SetAlgoMemoryGovernor governor,
+			Executor executor) {
+		this.query = query;
+		this.pool = pool;
+		this.governor = governor;
+		this.executor = executor;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.partition < this.query.getPartitionCount();
+	}
+
+	@Override
+	public boolean skip() {
+		this.partition = this.query.getPartitionCount();
+		return true;
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		SetAlgoQueryReader.readString(this.query, this.partition++, accessor);
+	}
+
+	@Override
+	public void nextLong(LongPredicate accessor) {
+		SetAlgoQueryReader.readLong(this.query, this.partition++, accessor);
+	}
+
+	@Override
+	public boolean isBatch() {
+		return this.query.isParallel() && this.query.getPartitionCount() - this.partition > 1;
+	}
+
+	@Override
+	public void nextBatch(Function<PartitionedBitmap, Long> merger) {
+		PartitionedBitmap data = SetAlgoQueryReader.readAll(this.query, this.partition, this.executor,
+				() -> new PartitionedBitmap(this.pool, this.governor), PartitionedBitmap::addLong, (left, right) -> {
+					left.or(right);
+					return left;
+				});
+		this.partition = this.query.getPartitionCount();
+		merger.apply(data);
+	}
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.p64;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分区位图的内存管理器
+ *
+ * <p>
+ * 使用同一个管理器的分区位图定期上报堆内存占用，总占用超过预算时，上报的位图把自己最久未访问的分区写入溢出目录，
+ * 并以内存映射的只读位图替代。溢出的分区依次写入 {@value #SEGMENT_SIZE} 字节的溢出段文件中，每个溢出段只映射一次，
+ * 映射数量与溢出的数据量成正比，而不是与分区数量成正比。段中的分区全部被重新加载或释放后删除该段。溢出的分区仍然可以直接参与所有运算，新增的数据写入堆内的增量，增量同样计入占用，
+ * 因此超出预算的任务会退化为磁盘速度，而不是耗尽堆内存。
+ *
+ * <p>
+ * 位图只溢出自己的分区，不会修改其他线程中的位图。不再使用的位图被回收后不再计入占用。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SetAlgoMemoryGovernor implements Closeable {
+
+	/**
+	 * 溢出段的大小，超过该大小的分区单独写入一个溢出段
+	 */
+	static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final String SEGMENT_PREFIX = "spill-";
+
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private final long budgetBytes;
+
+	private final Path directory;
+
+	/**
+	 * 溢出目录是否由管理器创建，是时关闭时删除目录
+	 */
+	private final boolean ownedDirectory;
+
+	/**
+	 * 每个位图最近一次上报的堆内存占用
+	 */
+	private final Map<PartitionedBitmap, Long> usages = new WeakHashMap<>();
+
+	private final AtomicLong spillSequence = new AtomicLong();
+
+	private final AtomicLong spilledBytes = new AtomicLong();
+
+	/**
+	 * 正在写入的溢出段
+	 */
+	private SpillSegment segment;
+
+	/**
+	 * 创建管理器，溢出文件写入临时目录，关闭时删除该目录
+	 * @param budgetBytes 堆内存预算，单位字节
+	 */
+	public SetAlgoMemoryGovernor(long budgetBytes) {
+		this(budgetBytes, createTempDirectory(), true);
+	}
+
+	/**
+	 * 创建管理器
+	 * @param budgetBytes 堆内存预算，单位字节
+	 * @param directory 溢出目录，不存在时创建，关闭时只删除溢出文件
+	 */
+	public SetAlgoMemoryGovernor(long budgetBytes, Path directory) {
+		this(budgetBytes, directory, false);
+	}
+
+	private SetAlgoMemoryGovernor(long budgetBytes, Path directory, boolean ownedDirectory) {
+		Preconditions.checkArgument(budgetBytes > 0, "budgetBytes must be greater than 0");
+		Preconditions.checkNotNull(directory, "directory");
+		this.budgetBytes = budgetBytes;
+		this.directory = directory;
+		this.ownedDirectory = ownedDirectory;
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+	}
+
+	public long getBudgetBytes() {
+		return this.budgetBytes;
+	}
+
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * 所有位图最近一次上报的堆内存占用之和
+	 * @return 字节数
+	 */
+	public synchronized long getHeapBytes() {
+		long total = 0;
+		for (Long usage : this.usages.values()) {
+			total += usage;
+		}
+		return total;
+	}
+
+	/**
+	 * 累计溢出到磁盘的字节数
+	 * @return 字节数
+	 */
+	public long getSpilledBytes() {
+		return this.spilledBytes.get();
+	}
+
+	/**
+	 * 上报位图的堆内存占用
+	 * @param bitmap 位图
+	 * @param heapBytes 堆内存占用
+	 * @return 超出预算的字节数，未超出时返回0
+	 */
+	synchronized long report(PartitionedBitmap bitmap, long heapBytes) {
+		this.usages.put(bitmap, heapBytes);
+		return Math.max(0, this.getHeapBytes() - this.budgetBytes);
+	}
+
+	/**
+	 * 把分区写入溢出段并映射为只读位图
+	 * @param bitmap 分区
+	 * @return 溢出的分区
+	 */
+	SpillSlot spill(ImmutableRoaringBitmap bitmap) {
+		int size = bitmap.serializedSizeInBytes();
+		SpillSegment target;
+		int offset;
+		synchronized (this) {
+			if (this.segment == null || this.segment.remaining() < size) {
+				if (this.segment != null && this.segment.isEmpty()) {
+					this.segment.delete();
+				}
+				this.segment = this.newSegment(Math.max(SEGMENT_SIZE, size));
+			}
+			target = this.segment;
+			offset = target.allocate(size);
+		}
+		ByteBuffer buffer = target.slice(offset, size);
+		bitmap.serialize(buffer.duplicate());
+		this.spilledBytes.addAndGet(size);
+		return new SpillSlot(target, buffer);
+	}
+
+	/**
+	 * 释放溢出的分区，段中的分区全部释放且不再写入时删除该段
+	 */
+	private synchronized void free(SpillSegment segment) {
+		if (segment.free() && segment != this.segment) {
+			segment.delete();
+		}
+	}
+
+	private SpillSegment newSegment(int size) {
+		Path file = this.directory.resolve(SEGMENT_PREFIX + this.spillSequence.incrementAndGet() + SEGMENT_SUFFIX);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return new SpillSegment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+		}
+		catch (IOException e) {
+			throw new NotFileException(file.toString(), e);
+		}
+	}
+
+	/**
+	 * 删除溢出目录中的所有溢出文件，溢出目录是管理器创建的临时目录时同时删除目录，之后使用该管理器的位图中已溢出的分区不能再访问
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			this.segment = null;
+		}
+		File[] files = this.directory.toFile().listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+		if (files != null) {
+			for (File file : files) {
+				if (!file.delete() && log.isDebugEnabled()) {
+					log.debug("delete spill file {} failed", file);
+				}
+			}
+		}
+		if (this.ownedDirectory && !this.directory.toFile().delete() && log.isDebugEnabled()) {
+			log.debug("delete spill directory {} failed", this.directory);
+		}
+		synchronized (this) {
+			this.usages.clear();
+		}
+	}
+
+	private static Path createTempDirectory() {
+		try {
+			return Files.createTempDirectory("set-algo-spill");
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("create spill directory failed", e);
+		}
+	}
+
+	/**
+	 * 溢出段，多个分区依次写入同一个文件，整个文件只映射一次，映射的内存在回收后释放
+	 */
+	private static final class SpillSegment {
+
+		private final Path file;
+
+		private final MappedByteBuffer buffer;
+
+		private int position;
+
+		/**
+		 * 段中未释放的分区数量
+		 */
+		private int slots;
+
+		SpillSegment(Path file, MappedByteBuffer buffer) {
+			this.file = file;
+			this.buffer = buffer;
+		}
+
+		int remaining() {
+			return this.buffer.capacity() - this.position;
+		}
+
+		int allocate(int size) {
+			int offset = this.position;
+			this.position += size;
+			this.slots++;
+			return offset;
+		}
+
+		ByteBuffer slice(int offset, int size) {
+			ByteBuffer slice = this.buffer.duplicate();
+			slice.position(offset);
+			slice.limit(offset + size);
+			return slice.slice();
+		}
+
+		/**
+		 * @return 如果段中的分区已经全部释放返回 {@code true}，否则返回 {@code false}.
+		 */
+		boolean free() {
+			return --this.slots == 0;
+		}
+
+		boolean isEmpty() {
+			return this.slots == 0;
+		}
+
+		void delete() {
+			try {
+				Files.deleteIfExists(this.file);
+			}
+			catch (IOException e) {
+				throw new NotFileException(this.file.toString(), e);
+			}
+		}
+
+	}
+
+	/**
+	 * 溢出段中的一个分区
+	 */
+	final class SpillSlot {
+
+		private final SpillSegment segment;
+
+		private final ByteBuffer buffer;
+
+		private boolean freed;
+
+		private SpillSlot(SpillSegment segment, ByteBuffer buffer) {
+			this.segment = segment;
+			this.buffer = buffer;
+		}
+
+		/**
+		 * 映射为只读位图，只有被访问的容器会从磁盘读取
+		 * @return 只读位图
+		 */
+		ImmutableRoaringBitmap map() {
+			return new ImmutableRoaringBitmap(this.buffer.duplicate());
+		}
+
+		/**
+		 * 释放溢出的分区，重复释放时忽略
+		 */
+		void free() {
+			if (!this.freed) {
+				this.freed = true;
+				SetAlgoMemoryGovernor.this.free(this.segment);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.registry;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.p64.P64SetStream;
+import org.magneton.enhance.algorithm.set.p64.PartitionedBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 注册表中的命名集合，所有操作都只读，可以并发调用。
+ *
+ * <p>
+ * 每次操作都按名称解析当前的位图，集合被重新注册后读取到新的数据，被淘汰后在下次访问时从磁盘重新加载。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class RegisteredSet {
+
+	private final SetRegistry registry;
+
+	private final String name;
+
+	RegisteredSet(SetRegistry registry, String name) {
+		this.registry = registry;
+		this.name = name;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * 是否包含
+	 * @param val 值
+	 * @return 包含时返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean contains(long val) {
+		return this.bitmap().contains(val);
+	}
+
+	/**
+	 * 数据量，未加载时从元数据中读取，不会触发加载
+	 * @return 数据量
+	 */
+	public long getCardinality() {
+		return this.registry.cardinality(this.name);
+	}
+
+	/**
+	 * 交集的数据量
+	 * @param other 另一个集合
+	 * @return |A ∩ B|
+	 */
+	public long andCardinality(RegisteredSet other) {
+		return this.bitmap().andCardinality(other.bitmap());
+	}
+
+	/**
+	 * 并集的数据量
+	 * @param other 另一个集合
+	 * @return |A ∪ B|
+	 */
+	public long orCardinality(RegisteredSet other) {
+		return this.bitmap().orCardinality(other.bitmap());
+	}
+
+	/**
+	 * 差集的数据量
+	 * @param other 另一个集合
+	 * @return |A - B|
+	 */
+	public long andNotCardinality(RegisteredSet other) {
+		return this.bitmap().andNotCardinality(other.bitmap());
+	}
+
+	/**
+	 * 交集，结果为新的位图
+	 * @param others 其他集合
+	 * @return 结果流
+	 */
+	public P64SetStream and(RegisteredSet... others) {
+		return new P64SetStream(PartitionedBitmap.and(this.bitmaps(others)), null);
+	}
+
+	/**
+	 * 并集，结果为新的位图
+	 * @param others 其他集合
+	 * @return 结果流
+	 */
+	public P64SetStream or(RegisteredSet... others) {
+		return new P64SetStream(PartitionedBitmap.or(this.bitmaps(others)), null);
+	}
+
+	/**
+	 * 复制为结果流，可以作为集合算法的数据源，修改结果流不会影响注册表中的集合
+	 * @return 结果流
+	 */
+	public P64SetStream read() {
+		return new P64SetStream(this.bitmap().clone(), null);
+	}
+
+	private List<PartitionedBitmap> bitmaps(RegisteredSet... others) {
+		Preconditions.checkNotNull(others, "others");
+		List<PartitionedBitmap> bitmaps = new ArrayList<>(others.length + 1);
+		bitmaps.add(this.bitmap());
+		for (RegisteredSet other : others) {
+			bitmaps.add(other.bitmap());
+		}
+		return bitmaps;
+	}
+
+	private PartitionedBitmap bitmap() {
+		return this.registry.bitmap(this.name);
+	}
+
+	@Override
+	public String toString() {
+		return "RegisteredSet{" + this.name + "}";
+	}
+
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.registry;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+import org.magneton.enhance.algorithm.set.SetAlgoStorage;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.p64.P64ChainData;
+import org.magneton.enhance.algorithm.set.p64.P64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.p64.PartitionedBitmap;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 命名位图注册表，把反复查询的大集合常驻在内存中，进程内共享一个实例。
+ *
+ * <p>
+ * 集合通过 {@link SetAlgoResource} 构建后冻结为只读的 {@link PartitionedBitmap}，同时持久化到 {@code <directory>/<name>/} 目录。
+ * 读取不加锁：位图构建完成后不再修改，{@link RegisteredSet#contains(long)} 只有一次哈希查找和一次位图查找。
+ *
+ * <p>
+ * 已加载位图的堆内大小总和超过上限时，按 {@link SetRegistryEviction} 淘汰其他集合的内存，淘汰的集合在下次访问时从磁盘重新加载。
+ * 单个集合超过上限时仍然会被加载。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SetRegistry {
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	private final SetRegistryEviction eviction;
+
+	private final ForkJoinPool pool;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * 已加载位图的堆内大小总和，只在持有注册表锁时修改
+	 */
+	private volatile long heapBytes;
+
+	public SetRegistry(Path directory, long maxBytes) {
+		this(directory, maxBytes, SetRegistryEviction.LRU, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * 创建注册表，目录中已持久化的集合只登记元数据，首次访问时才加载
+	 * @param directory 持久化目录，不存在时创建
+	 * @param maxBytes 已加载位图的堆内大小上限，单位字节
+	 * @param eviction 淘汰策略
+	 * @param pool 构建和加载位图的线程池
+	 */
+	public SetRegistry(Path directory, long maxBytes, SetRegistryEviction eviction, ForkJoinPool pool) {
+		Preconditions.checkArgument(maxBytes > 0, "maxBytes must be greater than 0");
+		this.directory = Preconditions.checkNotNull(directory, "directory");
+		this.maxBytes = maxBytes;
+		this.eviction = Preconditions.checkNotNull(eviction, "eviction");
+		this.pool = Preconditions.checkNotNull(pool, "pool");
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+		this.recover();
+	}
+
+	/**
+	 * 注册集合，已存在时替换
+	 * @param name 名称，只能包含字母、数字、下划线、点和中划线
+	 * @param definition 在分区位图算法资源上定义运算，例如 {@code r -> r.union(a).intersect(b)}
+	 * @return 集合
+	 */
+	public RegisteredSet register(String name, Consumer<SetAlgoResource<Long, P64SetAlgoStream>> definition) {
+		SetAlgoStorage.checkName(name);
+		Preconditions.checkNotNull(definition, "definition");
+		P64ChainData chainData = new P64ChainData(this.pool);
+		P64SetAlgoStream resource = new P64SetAlgoStream(chainData);
+		definition.accept(resource);
+		resource.stream();
+		PartitionedBitmap bitmap = chainData.getData();
+		bitmap.runOptimize();
+		return this.publish(name, bitmap);
+	}
+
+	/**
+	 * 注册集合，数据复制到注册表中，已存在时替换
+	 * @param name 名称，只能包含字母、数字、下划线、点和中划线
+	 * @param stream 数据流，可以来自任意集合算法
+	 * @return 集合
+	 */
+	public RegisteredSet register(String name, SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		return this.register(name, resource -> resource.union(stream));
+	}
+
+	/**
+	 * 获取集合，不会触发加载
+	 * @param name 名称
+	 * @return 集合，不存在时返回 {@code null}
+	 */
+	public RegisteredSet get(String name) {
+		return this.entries.containsKey(name) ? new RegisteredSet(this, name) : null;
+	}
+
+	/**
+	 * 是否包含，等同于 {@code get(name).contains(val)}
+	 * @param name 名称
+	 * @param val 值
+	 * @return 包含时返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean contains(String name, long val) {
+		return this.bitmap(name).contains(val);
+	}
+
+	/**
+	 * 两个集合交集的数据量
+	 * @param left 名称
+	 * @param right 名称
+	 * @return |A ∩ B|
+	 */
+	public long andCardinality(String left, String right) {
+		return this.bitmap(left).andCardinality(this.bitmap(right));
+	}
+
+	/**
+	 * 删除集合及其持久化数据
+	 * @param name 名称
+	 * @return 存在时返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean unregister(String name) {
+		Entry entry = this.entries.get(name);
+		if (entry == null) {
+			return false;
+		}
+		synchronized (entry) {
+			synchronized (this) {
+				if (!this.entries.remove(name, entry)) {
+					return false;
+				}
+				this.drop(entry);
+				SetAlgoStorage.deleteRecursively(this.directory.resolve(name));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 所有集合名称，包括未加载的集合
+	 * @return 名称
+	 */
+	public Set<String> names() {
+		return new TreeSet<>(this.entries.keySet());
+	}
+
+	/**
+	 * 集合当前是否在内存中
+	 * @param name 名称
+	 * @return 已加载时返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isLoaded(String name) {
+		Entry entry = this.entries.get(name);
+		return entry != null && entry.bitmap != null;
+	}
+
+	/**
+	 * 已加载位图的堆内大小总和
+	 * @return 字节数
+	 */
+	public long getHeapSizeInBytes() {
+		return this.heapBytes;
+	}
+
+	public long getMaxBytes() {
+		return this.maxBytes;
+	}
+
+	/**
+	 * 集合的堆内大小，未加载时为上次加载时的大小
+	 * @param name 名称
+	 * @return 字节数
+	 */
+	public long getHeapSizeInBytes(String name) {
+		return this.entry(name).bytes;
+	}
+
+	long cardinality(String name) {
+		return this.entry(name).cardinality;
+	}
+
+	/**
+	 * 解析集合当前的位图，未加载时从磁盘加载，加载期间集合被替换时重新解析
+	 */
+	PartitionedBitmap bitmap(String name) {
+		while (true) {
+			Entry entry = this.entry(name);
+			PartitionedBitmap bitmap = entry.bitmap;
+			if (bitmap == null) {
+				bitmap = this.load(entry);
+			}
+			if (bitmap != null) {
+				entry.access = System.nanoTime();
+				entry.hits.increment();
+				return bitmap;
+			}
+		}
+	}
+
+	private Entry entry(String name) {
+		Entry entry = this.entries.get(name);
+		Preconditions.checkArgument(entry != null, "set %s not registered", name);
+		return entry;
+	}
+
+	/**
+	 * 加载位图，同一集合只加载一次
+	 * @return 位图，集合已被替换或删除时返回 {@code null}
+	 */
+	private PartitionedBitmap load(Entry entry) {
+		synchronized (entry) {
+			if (entry.dropped) {
+				return null;
+			}
+			PartitionedBitmap bitmap = entry.bitmap;
+			if (bitmap != null) {
+				return bitmap;
+			}
+			bitmap = PartitionedBitmap.read(this.directory.resolve(entry.name), this.pool);
+			long bytes = bitmap.getHeapSizeInBytes();
+			synchronized (this) {
+				entry.bytes = bytes;
+				entry.hits.reset();
+				entry.access = System.nanoTime();
+				entry.bitmap = bitmap;
+				this.heapBytes += bytes;
+				this.evict(entry);
+			}
+			log.debug("set registry load {}, {} bytes", entry.name, bytes);
+			return bitmap;
+		}
+	}
+
+	/**
+	 * 持久化并发布新的位图，替换同名集合
+	 */
+	private RegisteredSet publish(String name, PartitionedBitmap bitmap) {
+		Path temp;
+		try {
+			// 以点开头的临时目录在恢复时清理
+			temp = Files.createTempDirectory(this.directory, "." + name + ".");
+		}
+		catch (IOException e) {
+			throw new NotFileException(this.directory.toString(), e);
+		}
+		bitmap.write(temp);
+		Entry entry = new Entry(name, bitmap.getLongCardinality());
+		writeMeta(temp, entry.cardinality);
+		entry.bytes = bitmap.getHeapSizeInBytes();
+		entry.access = System.nanoTime();
+		entry.bitmap = bitmap;
+		while (true) {
+			Entry previous = this.entries.get(name);
+			// 先锁住被替换的集合，等待其正在进行的加载完成后再移动目录
+			synchronized (previous == null ? entry : previous) {
+				synchronized (this) {
+					if (this.entries.get(name) != previous) {
+						continue;
+					}
+					Path dir = this.directory.resolve(name);
+					Path old = this.directory.resolve("." + name + ".old");
+					try {
+						if (Files.exists(dir)) {
+							SetAlgoStorage.deleteRecursively(old);
+							Files.move(dir, old, StandardCopyOption.ATOMIC_MOVE);
+						}
+						Files.move(temp, dir, StandardCopyOption.ATOMIC_MOVE);
+					}
+					catch (IOException e) {
+						throw new NotFileException(dir.toString(), e);
+					}
+					SetAlgoStorage.deleteRecursively(old);
+					if (previous != null) {
+						this.drop(previous);
+					}
+					this.entries.put(name, entry);
+					this.heapBytes += entry.bytes;
+					this.evict(entry);
+					return new RegisteredSet(this, name);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 标记集合已被替换或删除并释放内存，需要持有注册表锁
+	 */
+	private void drop(Entry entry) {
+		entry.dropped = true;
+		this.unload(entry);
+	}
+
+	/**
+	 * 释放位图内存，需要持有注册表锁
+	 */
+	private void unload(Entry entry) {
+		if (entry.bitmap != null) {
+			entry.bitmap = null;
+			this.heapBytes -= entry.bytes;
+		}
+	}
+
+	/**
+	 * 超过上限时按淘汰策略释放其他集合，需要持有注册表锁
+	 * @param keep 刚加载的集合，不会被淘汰
+	 */
+	private void evict(Entry keep) {
+		Comparator<Entry> order = this.eviction == SetRegistryEviction.LFU
+				? Comparator.<Entry>comparingLong(entry -> entry.hits.sum()).thenComparingLong(entry -> entry.access)
+				: Comparator.comparingLong(entry -> entry.access);
+		while (this.heapBytes > this.maxBytes) {
+			Entry victim = null;
+			for (Entry entry : this.entries.values()) {
+				if (entry != keep && entry.bitmap != null && (victim == null || order.compare(entry, victim) < 0)) {
+					victim = entry;
+				}
+			}
+			if (victim == null) {
+				if (keep.bytes > this.maxBytes) {
+					log.warn("set registry {} uses {} bytes, exceeds max bytes {}", keep.name, keep.bytes,
+							this.maxBytes);
+				}
+				return;
+			}
+			this.unload(victim);
+			log.debug("set registry evict {}, {} bytes", victim.name, victim.bytes);
+		}
+	}
+
+	/**
+	 * 登记目录中已持久化的集合，清理未完成的临时目录
+	 */
+	private void recover() {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+			for (Path dir : stream) {
+				String name = dir.getFileName().toString();
+				if (name.startsWith(".")) {
+					SetAlgoStorage.deleteRecursively(dir);
+					continue;
+				}
+				if (!SetAlgoStorage.isValidName(name) || !SetAlgoStorage.hasMeta(dir)) {
+					continue;
+				}
+				Properties properties = SetAlgoStorage.readMeta(dir);
+				this.entries.put(name, new Entry(name, Long.parseLong(properties.getProperty("cardinality"))));
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(this.directory.toString(), e);
+		}
+	}
+
+	private static void writeMeta(Path dir, long cardinality) {
+		Properties properties = new Properties();
+		properties.setProperty("cardinality", String.valueOf(cardinality));
+		properties.setProperty("createTime", String.valueOf(System.currentTimeMillis()));
+		SetAlgoStorage.writeMeta(dir, properties);
+	}
+
+	private static final class Entry {
+
+		private final String name;
+
+		private final long cardinality;
+
+		private final LongAdder hits = new LongAdder();
+
+		/**
+		 * 已加载的位图，被淘汰后为空
+		 */
+		private volatile PartitionedBitmap bitmap;
+
+		/**
+		 * 最近一次加载时的堆内大小
+		 */
+		private volatile long bytes;
+
+		/**
+		 * 最近一次访问的时间，单位纳秒
+		 */
+		private volatile long access;
+
+		/**
+		 * 集合已被替换或删除
+		 */
+		private volatile boolean dropped;
+
+		private Entry(String name, long cardinality) {
+			this.name = name;
+			this.cardinality = cardinality;
+		}
+
+	}
+
+}
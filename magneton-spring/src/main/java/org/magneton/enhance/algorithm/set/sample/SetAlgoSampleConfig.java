@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sample;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 随机抽样配置
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Setter
+@Getter
+@ToString
+public class SetAlgoSampleConfig {
+
+	/**
+	 * 随机种子，相同的种子、数据和并行度得到相同的样本，为空时每次抽样使用不同的随机数
+	 */
+	private Long seed;
+
+	/**
+	 * 并行度，大于1时数据按排名均分为多个分区并行抽样，每个分区的抽样数量按分区大小分配
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * 执行线程池，为空时每次抽样创建 {@link #parallelism} 个线程的临时线程池
+	 */
+	private ExecutorService executor;
+
+}
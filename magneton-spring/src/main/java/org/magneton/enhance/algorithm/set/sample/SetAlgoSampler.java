@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sample;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.LongConsumer;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 位图随机抽样器，从位图中等概率抽取不重复的数据，不修改原位图
+ *
+ * <p>
+ * 先按 {@link SortedRanks} 抽取升序的排名，再按顺序遍历位图取出排名对应的数据，抽样比例很小时改为通过 {@code select}
+ * 直接定位每个排名，因此一次抽样最多完整遍历一次位图。抽样数量超过数据量的一半时抽取不要的数据再从全集中排除。抽样数量不超过数据量时一定成功。
+ *
+ * <p>
+ * 并行抽样时数据按排名均分为多个分区，每个分区的抽样数量按分区大小随机取整分配后独立抽样，每个数据被抽中的概率仍然相同。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SetAlgoSampler {
+
+	/**
+	 * 64位位图的平均排名间隔超过该值时通过 {@code select} 定位每个排名，否则遍历位图
+	 */
+	private static final long BMP64_SELECT_GAP = 1 << 16;
+
+	/**
+	 * 32位位图的 {@code select} 更快，平均排名间隔超过该值时即通过 {@code select} 定位
+	 */
+	private static final long BMP32_SELECT_GAP = 1 << 12;
+
+	/**
+	 * 64位位图的数据平均间距不超过该值时按值区间批量遍历，否则数据过于稀疏，使用迭代器遍历
+	 */
+	private static final long BMP64_DENSE_SPACING = 1 << 16;
+
+	private final SetAlgoSampleConfig config;
+
+	public SetAlgoSampler() {
+		this(new SetAlgoSampleConfig());
+	}
+
+	public SetAlgoSampler(SetAlgoSampleConfig config) {
+		this.config = Preconditions.checkNotNull(config, "config");
+	}
+
+	/**
+	 * 使用指定随机种子的抽样器
+	 * @param seed 随机种子
+	 * @return 抽样器
+	 */
+	public static SetAlgoSampler seeded(long seed) {
+		SetAlgoSampleConfig config = new SetAlgoSampleConfig();
+		config.setSeed(seed);
+		return new SetAlgoSampler(config);
+	}
+
+	public SetAlgoSampleConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * 随机抽样
+	 * @param data 数据
+	 * @param size 抽样数量，小于1时返回空集，不小于数据量时返回全部数据
+	 * @return 样本
+	 */
+	public Roaring64Bitmap sample(Roaring64Bitmap data, long size) {
+		return this.sample(data, size, this.newRandom());
+	}
+
+	/**
+	 * 随机抽样
+	 * @param data 数据
+	 * @param size 抽样数量，小于1时返回空集，不小于数据量时返回全部数据
+	 * @return 样本
+	 */
+	public RoaringBitmap sample(RoaringBitmap data, long size) {
+		return this.sample(data, size, this.newRandom());
+	}
+
+	/**
+	 * 分层抽样，总抽样数量按每层的数据量分配（最大余数法），每层独立抽样
+	 * @param strata 分层数据，key为层名称
+	 * @param size 总抽样数量
+	 * @return 每层的样本，顺序与分层数据一致
+	 */
+	public Map<String, Roaring64Bitmap> sampleStratified(Map<String, Roaring64Bitmap> strata, long size) {
+		Preconditions.checkNotNull(strata, "strata");
+		Map<String, Long> cardinalities = new LinkedHashMap<>();
+		strata.forEach((name, bitmap) -> cardinalities.put(name, bitmap.getLongCardinality()));
+		return this.sampleStratified(strata, allocate(cardinalities, size));
+	}
+
+	/**
+	 * 分层抽样，每层按指定数量独立抽样
+	 * @param strata 分层数据，key为层名称
+	 * @param sizes 每层的抽样数量，没有指定的层不抽样
+	 * @return 每层的样本，顺序与分层数据一致
+	 */
+	public Map<String, Roaring64Bitmap> sampleStratified(Map<String, Roaring64Bitmap> strata, Map<String, Long> sizes) {
+		Preconditions.checkNotNull(strata, "strata");
+		Preconditions.checkNotNull(sizes, "sizes");
+		// 按层名称顺序派生每层的随机数，使结果与分层数据的迭代顺序无关
+		SplittableRandom random = this.newRandom();
+		Map<String, SplittableRandom> randoms = new HashMap<>();
+		for (String name : new TreeSet<>(strata.keySet())) {
+			randoms.put(name, random.split());
+		}
+		Map<String, Roaring64Bitmap> samples = new LinkedHashMap<>();
+		strata.forEach((name, bitmap) -> samples.put(name,
+				this.sample(bitmap, sizes.getOrDefault(name, 0L), randoms.get(name))));
+		return samples;
+	}
+
+	/**
+	 * 对拆分为多个分区的数据整体随机抽样，抽样数量按分区的累计数据量系统取整分配，每个值被抽中的概率相同
+	 * @param partitions 分区数据，分配顺序与迭代顺序一致
+	 * @param size 抽样数量，小于1时返回空集，不小于数据量时返回全部数据
+	 * @param <K> 分区标识类型
+	 * @return 每个分区的样本，没有抽中数据的分区不在结果中，顺序与分区数据一致
+	 */
+	public <K> Map<K, RoaringBitmap> samplePartitions(Map<K, RoaringBitmap> partitions, long size) {
+		Preconditions.checkNotNull(partitions, "partitions");
+		long population = 0;
+		for (RoaringBitmap partition : partitions.values()) {
+			population += partition.getLongCardinality();
+		}
+		Map<K, RoaringBitmap> samples = new LinkedHashMap<>();
+		if (size < 1 || population == 0) {
+			return samples;
+		}
+		SplittableRandom random = this.newRandom();
+		long offset = random.nextLong(population);
+		long rank = 0;
+		for (Map.Entry<K, RoaringBitmap> entry : partitions.entrySet()) {
+			long cardinality = entry.getValue().getLongCardinality();
+			long partitionSize = size >= population ? cardinality
+					: allocated(size, rank + cardinality, population, offset)
+							- allocated(size, rank, population, offset);
+			rank += cardinality;
+			SplittableRandom partitionRandom = random.split();
+			if (partitionSize > 0) {
+				samples.put(entry.getKey(), this.sample(entry.getValue(), partitionSize, partitionRandom));
+			}
+		}
+		return samples;
+	}
+
+	private Roaring64Bitmap sample(Roaring64Bitmap data, long size, SplittableRandom random) {
+		Preconditions.checkNotNull(data, "data");
+		long population = data.getLongCardinality();
+		if (size < 1) {
+			return new Roaring64Bitmap();
+		}
+		if (size >= population) {
+			return data.clone();
+		}
+		if (size <= population / 2) {
+			return this.pick(data, population, size, random);
+		}
+		Roaring64Bitmap sample = data.clone();
+		sample.andNot(this.pick(data, population, population - size, random));
+		return sample;
+	}
+
+	private RoaringBitmap sample(RoaringBitmap data, long size, SplittableRandom random) {
+		Preconditions.checkNotNull(data, "data");
+		long population = data.getLongCardinality();
+		if (size < 1) {
+			return new RoaringBitmap();
+		}
+		if (size >= population) {
+			return data.clone();
+		}
+		if (size <= population / 2) {
+			return this.pick(data, population, size, random);
+		}
+		RoaringBitmap sample = data.clone();
+		sample.andNot(this.pick(data, population, population - size, random));
+		return sample;
+	}
+
+	private Roaring64Bitmap pick(Roaring64Bitmap data, long population, long size, SplittableRandom random) {
+		return this.run(population, size, random, Roaring64Bitmap::new,
+				(partition, sample) -> new Bmp64Picker(data, partition, sample).pick(), (left, right) -> {
+					left.or(right);
+					return left;
+				});
+	}
+
+	private RoaringBitmap pick(RoaringBitmap data, long population, long size, SplittableRandom random) {
+		return this.run(population, size, random, RoaringBitmap::new,
+				(partition, sample) -> new Bmp32Picker(data, partition, sample).pick(), (left, right) -> {
+					left.or(right);
+					return left;
+				});
+	}
+
+	/**
+	 * 按排名分区抽样，分区的随机数按顺序从根随机数派生，与执行顺序无关
+	 */
+	private <R> R run(long population, long size, SplittableRandom random, Supplier<R> factory,
+			PartitionSampler<R> sampler, BinaryOperator<R> combiner) {
+		int parallelism = (int) Math.max(1, Math.min(this.config.getParallelism(), size));
+		if (parallelism == 1) {
+			R sample = factory.get();
+			sampler.sample(new Partition(0, population, size, random, true), sample);
+			return sample;
+		}
+		List<Partition> partitions = new ArrayList<>(parallelism);
+		// 按分区边界的累计比例系统取整分配，每个分区的期望抽样数量与分区大小成正比，且不超过分区大小
+		long offset = random.nextLong(population);
+		for (int i = 0; i < parallelism; i++) {
+			long start = population * i / parallelism;
+			long end = population * (i + 1) / parallelism;
+			long partitionSize = allocated(size, end, population, offset) - allocated(size, start, population, offset);
+			partitions.add(new Partition(start, end - start, partitionSize, random.split(), i == parallelism - 1));
+		}
+		ExecutorService executor = this.config.getExecutor();
+		boolean temporary = executor == null;
+		if (temporary) {
+			executor = Executors.newFixedThreadPool(parallelism,
+					new ThreadFactoryBuilder().setNameFormat("set-algo-sampler-%d").setDaemon(true).build());
+		}
+		try {
+			List<Future<R>> futures = new ArrayList<>(parallelism);
+			for (Partition partition : partitions) {
+				Callable<R> task = () -> {
+					R sample = factory.get();
+					sampler.sample(partition, sample);
+					return sample;
+				};
+				futures.add(executor.submit(task));
+			}
+			R result = null;
+			for (Future<R> future : futures) {
+				R sample = future.get();
+				result = result == null ? sample : combiner.apply(result, sample);
+			}
+			return result;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("parallel sample interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			if (temporary) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * 排名 {@code [0, rank)} 分配到的抽样数量 {@code floor((size * rank + offset) / population)}
+	 */
+	private static long allocated(long size, long rank, long population, long offset) {
+		return BigInteger.valueOf(size)
+			.multiply(BigInteger.valueOf(rank))
+			.add(BigInteger.valueOf(offset))
+			.divide(BigInteger.valueOf(population))
+			.longValue();
+	}
+
+	private SplittableRandom newRandom() {
+		Long seed = this.config.getSeed();
+		return seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+	}
+
+	/**
+	 * 最大余数法按数据量分配抽样数量，余数相同时按名称顺序分配
+	 * @param cardinalities 每层的数据量
+	 * @param size 总抽样数量
+	 * @return 每层的抽样数量
+	 */
+	private static Map<String, Long> allocate(Map<String, Long> cardinalities, long size) {
+		long total = cardinalities.values().stream().mapToLong(Long::longValue).sum();
+		Map<String, Long> sizes = new LinkedHashMap<>();
+		if (total == 0 || size < 1) {
+			cardinalities.keySet().forEach(name -> sizes.put(name, 0L));
+			return sizes;
+		}
+		if (size >= total) {
+			sizes.putAll(cardinalities);
+			return sizes;
+		}
+		String[] names = cardinalities.keySet().toArray(new String[0]);
+		double[] remainders = new double[names.length];
+		long allocated = 0;
+		for (int i = 0; i < names.length; i++) {
+			double quota = (double) size * cardinalities.get(names[i]) / total;
+			long floor = (long) quota;
+			sizes.put(names[i], floor);
+			remainders[i] = quota - floor;
+			allocated += floor;
+		}
+		Integer[] order = new Integer[names.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -remainders[i]).thenComparing(i -> names[i]));
+		for (int i = 0; allocated < size; i = (i + 1) % order.length) {
+			String name = names[order[i]];
+			if (sizes.get(name) < cardinalities.get(name)) {
+				sizes.put(name, sizes.get(name) + 1);
+				allocated++;
+			}
+		}
+		return sizes;
+	}
+
+	@FunctionalInterface
+	private interface PartitionSampler<R> {
+
+		void sample(Partition partition, R sample);
+
+	}
+
+	/**
+	 * 排名分区 {@code [start, start + population)}
+	 */
+	private static class Partition {
+
+		private final long start;
+
+		private final long population;
+
+		private final long size;
+
+		private final SplittableRandom random;
+
+		/**
+		 * 是否为最后一个分区，最后一个分区没有结束值
+		 */
+		private final boolean last;
+
+		Partition(long start, long population, long size, SplittableRandom random, boolean last) {
+			this.start = start;
+			this.population = population;
+			this.size = size;
+			this.random = random;
+			this.last = last;
+		}
+
+	}
+
+	/**
+	 * 从64位位图的一个分区中取出抽样排名对应的数据
+	 */
+	private static class Bmp64Picker implements LongConsumer {
+
+		private final Roaring64Bitmap data;
+
+		private final Partition partition;
+
+		private final Roaring64Bitmap sample;
+
+		private final SortedRanks ranks;
+
+		/**
+		 * 下一个遍历到的数据在分区内的排名
+		 */
+		private long rank;
+
+		/**
+		 * 下一个需要的排名，没有时为-1
+		 */
+		private long wanted;
+
+		Bmp64Picker(Roaring64Bitmap data, Partition partition, Roaring64Bitmap sample) {
+			this.data = data;
+			this.partition = partition;
+			this.sample = sample;
+			this.ranks = SortedRanks.of(partition.population, partition.size, partition.random);
+			this.nextWanted();
+		}
+
+		@Override
+		public void accept(long value) {
+			if (this.rank++ == this.wanted) {
+				this.sample.addLong(value);
+				this.nextWanted();
+			}
+		}
+
+		void pick() {
+			if (this.wanted < 0) {
+				return;
+			}
+			if (this.partition.population / this.partition.size > BMP64_SELECT_GAP) {
+				while (this.wanted >= 0) {
+					this.sample.addLong(this.data.select(this.partition.start + this.wanted));
+					this.nextWanted();
+				}
+				return;
+			}
+			long value = this.data.select(this.partition.start);
+			// 分区的结束值（不包含），最后一个分区为最大值
+			long end = this.partition.last ? this.data.getReverseLongIterator().next()
+					: this.data.select(this.partition.start + this.partition.population);
+			boolean dense = Long.divideUnsigned(end - value, this.partition.population) <= BMP64_DENSE_SPACING;
+			// 按值区间批量遍历比迭代器快，但只支持非负数区间
+			while (dense && value >= 0 && this.wanted >= 0) {
+				long width = Math.min(Integer.MAX_VALUE, Long.MAX_VALUE - value);
+				if (!this.partition.last && end >= 0) {
+					width = Math.min(width, end - value);
+				}
+				this.data.forEachInRange(value, (int) width, this);
+				PeekableLongIterator iterator = this.data.getLongIteratorFrom(value + width);
+				if (!iterator.hasNext()) {
+					return;
+				}
+				value = iterator.peekNext();
+			}
+			PeekableLongIterator iterator = this.data.getLongIteratorFrom(value);
+			while (this.wanted >= 0 && iterator.hasNext()) {
+				this.accept(iterator.next());
+			}
+		}
+
+		private void nextWanted() {
+			this.wanted = this.ranks.hasNext() ? this.ranks.next() : -1;
+		}
+
+	}
+
+	/**
+	 * 从32位位图的一个分区中取出抽样排名对应的数据
+	 */
+	private static class Bmp32Picker {
+
+		private final RoaringBitmap data;
+
+		private final Partition partition;
+
+		private final RoaringBitmap sample;
+
+		private final SortedRanks ranks;
+
+		private long rank;
+
+		private long wanted;
+
+		Bmp32Picker(RoaringBitmap data, Partition partition, RoaringBitmap sample) {
+			this.data = data;
+			this.partition = partition;
+			this.sample = sample;
+			this.ranks = SortedRanks.of(partition.population, partition.size, partition.random);
+			this.nextWanted();
+		}
+
+		private void accept(int value) {
+			if (this.rank++ == this.wanted) {
+				this.sample.add(value);
+				this.nextWanted();
+			}
+		}
+
+		void pick() {
+			if (this.wanted < 0) {
+				return;
+			}
+			if (this.partition.population / this.partition.size > BMP32_SELECT_GAP) {
+				while (this.wanted >= 0) {
+					this.sample.add(this.data.select((int) (this.partition.start + this.wanted)));
+					this.nextWanted();
+				}
+				return;
+			}
+			PeekableIntIterator iterator = this.data.getIntIterator();
+			iterator.advanceIfNeeded(this.data.select((int) this.partition.start));
+			while (this.wanted >= 0 && iterator.hasNext()) {
+				this.accept(iterator.next());
+			}
+		}
+
+		private void nextWanted() {
+			this.wanted = this.ranks.hasNext() ? this.ranks.next() : -1;
+		}
+
+	}
+
+}
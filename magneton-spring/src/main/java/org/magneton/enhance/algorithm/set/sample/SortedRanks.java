@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sample;
+
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * 有序排名抽样，从 {@code [0, population)} 中等概率抽取 {@code size} 个不重复的排名，并按升序输出
+ *
+ * <p>
+ * 抽样比例较小时使用Floyd算法抽取排名集合后按顺序输出，内存占用与抽样数量成正比；否则使用Vitter的顺序抽样（Method A）
+ * 逐个计算相邻排名的间隔，不占用额外内存。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+abstract class SortedRanks {
+
+	/**
+	 * 抽样数量不超过总数的 {@code 1/FLOYD_RATIO} 时使用Floyd算法
+	 */
+	private static final long FLOYD_RATIO = 64;
+
+	static SortedRanks of(long population, long size, SplittableRandom random) {
+		if (size < population / FLOYD_RATIO) {
+			return new FloydRanks(population, size, random);
+		}
+		return new SequentialRanks(population, size, random);
+	}
+
+	abstract boolean hasNext();
+
+	abstract long next();
+
+	/**
+	 * Floyd算法：依次处理 {@code j = N - n ... N - 1}，在 {@code [0, j]} 中随机取值，已经取过时改取 {@code j}
+	 */
+	private static class FloydRanks extends SortedRanks {
+
+		private final PeekableLongIterator iterator;
+
+		FloydRanks(long population, long size, SplittableRandom random) {
+			Roaring64Bitmap ranks = new Roaring64Bitmap();
+			for (long j = population - size; j < population; j++) {
+				long rank = random.nextLong(j + 1);
+				ranks.addLong(ranks.contains(rank) ? j : rank);
+			}
+			this.iterator = ranks.getLongIterator();
+		}
+
+		@Override
+		boolean hasNext() {
+			return this.iterator.hasNext();
+		}
+
+		@Override
+		long next() {
+			return this.iterator.next();
+		}
+
+	}
+
+	/**
+	 * 顺序抽样：剩余 {@code N} 个排名中还需要抽取 {@code n} 个时，跳过 {@code S} 个排名的概率满足超几何分布，
+	 * 每个样本只需要一个随机数
+	 */
+	private static class SequentialRanks extends SortedRanks {
+
+		private final SplittableRandom random;
+
+		private long remaining;
+
+		private long needed;
+
+		private long position;
+
+		SequentialRanks(long population, long size, SplittableRandom random) {
+			this.random = random;
+			this.remaining = population;
+			this.needed = size;
+		}
+
+		@Override
+		boolean hasNext() {
+			return this.needed > 0;
+		}
+
+		@Override
+		long next() {
+			if (this.needed <= 0) {
+				throw new NoSuchElementException();
+			}
+			long skip = this.skip();
+			long rank = this.position + skip;
+			this.position = rank + 1;
+			this.remaining -= skip + 1;
+			this.needed--;
+			return rank;
+		}
+
+		private long skip() {
+			if (this.needed >= this.remaining) {
+				return 0;
+			}
+			double v = this.random.nextDouble();
+			if (this.needed == 1) {
+				return (long) (this.remaining * v);
+			}
+			long skip = 0;
+			double top = this.remaining - this.needed;
+			double total = this.remaining;
+			double quot = top / total;
+			while (quot > v) {
+				skip++;
+				top--;
+				total--;
+				quot *= top / total;
+			}
+			return skip;
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 草图文件流处理器，每个文件读取为一个草图
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileSketchStreamProcessor implements BatchStreamProcessor<String, Sketch> {
+
+	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final SetAlgoFile algoFile;
+
+	private final SetAlgoFileReader fileReader;
+
+	private final Iterator<String> iterator;
+
+	private final Supplier<Sketch> sketchFactory;
+
+	/**
+	 * 文件草图缓存，为空时不使用缓存
+	 */
+	private final SketchFileCache fileCache;
+
+	public FileSketchStreamProcessor(SetAlgoFile algoFile, Supplier<Sketch> sketchFactory,
+			SketchFileCache fileCache) {
+		this.algoFile = algoFile;
+		this.fileReader = new SetAlgoFileReader(algoFile, this.fileReadMeter);
+		this.iterator = algoFile.getFiles().iterator();
+		this.sketchFactory = sketchFactory;
+		this.fileCache = fileCache;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.iterator.hasNext();
+	}
+
+	@Override
+	public void nextData(Function<String, Boolean> accessor) {
+		this.fileReader.forEachValue(Paths.get(this.iterator.next()), accessor);
+	}
+
+	@Override
+	public boolean isBatch() {
+		return true;
+	}
+
+	@Override
+	public void nextBatch(Function<Sketch, Long> merger) {
+		Path path = Paths.get(this.iterator.next());
+		if (!this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		merger.apply(this.loadFile(path));
+	}
+
+	@Override
+	public long estimate() {
+		return this.fileReader.estimate();
+	}
+
+	@Override
+	public boolean skip() {
+		while (this.iterator.hasNext()) {
+			Path path = Paths.get(this.iterator.next());
+			this.planMeter.skipFile(path, path.toFile().length());
+		}
+		return true;
+	}
+
+	/**
+	 * 加载单个文件为草图，优先从缓存中加载
+	 * @param path 文件地址
+	 * @return 草图
+	 */
+	private Sketch loadFile(Path path) {
+		if (this.fileCache == null) {
+			return this.parseFile(path);
+		}
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		Sketch empty = this.sketchFactory.get();
+		String key = this.fileCache.key(path, this.algoFile.getSkip(), this.algoFile.getLimit(),
+				this.algoFile.getCsv() == null ? empty.getSpec() : empty.getSpec() + "|" + this.algoFile.getCsv());
+		Sketch cached = this.fileCache.get(path, key);
+		if (cached != null) {
+			return cached;
+		}
+		Sketch sketch = this.parseFile(path);
+		this.fileCache.put(key, sketch);
+		return sketch;
+	}
+
+	/**
+	 * 解析文件为草图，{@link SetAlgoFile#isParallel()} 时分块并行读取后合并，否则在当前线程中顺序读取
+	 * @param path 文件地址
+	 * @return 草图
+	 */
+	private Sketch parseFile(Path path) {
+		SetAlgoFileReader.Result<Sketch> result = this.fileReader.read(path, this.sketchFactory,
+				(sketch, buffer, from, to) -> sketch.update(Sketches.hash(buffer, from, to)), (left, right) -> {
+					left.union(right);
+					return left;
+				});
+		return result.getValue();
+	}
+
+}
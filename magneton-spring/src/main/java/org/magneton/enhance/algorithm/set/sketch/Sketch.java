@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 可合并的基数估计草图，草图占用的内存与数据量无关
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public interface Sketch {
+
+	/**
+	 * 添加数据
+	 * @param hash 数据的64位哈希值，见 {@link Sketches#hash(String)}
+	 */
+	void update(long hash);
+
+	/**
+	 * 并集，结果保存在当前草图中
+	 * @param other 同类型的草图
+	 */
+	void union(Sketch other);
+
+	/**
+	 * 交集，结果保存在当前草图中
+	 * @param other 同类型的草图
+	 */
+	void intersect(Sketch other);
+
+	/**
+	 * 差集，结果保存在当前草图中
+	 * @param other 同类型的草图
+	 */
+	void andNot(Sketch other);
+
+	/**
+	 * 估计的基数
+	 * @return 基数
+	 */
+	double estimate();
+
+	/**
+	 * 估计值的相对标准误差
+	 * @return 相对标准误差，精确时返回0
+	 */
+	double getRelativeError();
+
+	/**
+	 * 是否为空
+	 * @return 如果没有数据返回 {@code true}，否则返回 {@code false}.
+	 */
+	boolean isEmpty();
+
+	/**
+	 * 清除数据
+	 */
+	void reset();
+
+	/**
+	 * 复制草图
+	 * @return 新的草图
+	 */
+	Sketch copy();
+
+	/**
+	 * 草图的类型和参数，参数相同的草图才可以合并
+	 * @return 类型和参数
+	 */
+	String getSpec();
+
+	/**
+	 * 序列化后的大小
+	 * @return 字节数
+	 */
+	int getSerializedSize();
+
+	/**
+	 * 序列化，可以通过 {@link Sketches#deserialize(ByteBuffer)} 读取
+	 * @param buffer 缓冲区
+	 */
+	void serialize(ByteBuffer buffer);
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 近似集合算法配置
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Getter
+@ToString
+public class SketchConfig {
+
+	/**
+	 * 相对标准误差，默认1%
+	 */
+	private double relativeError = 0.01;
+
+	public void setRelativeError(double relativeError) {
+		Preconditions.checkArgument(relativeError > 0 && relativeError < 1, "relativeError must be in (0, 1)");
+		this.relativeError = relativeError;
+	}
+
+	/**
+	 * Theta草图的名义保留数量，满足误差要求的最小的2的幂
+	 * @return 名义保留数量
+	 */
+	public int getNominalEntries() {
+		double k = Math.ceil(1 / (this.relativeError * this.relativeError));
+		int entries = 16;
+		while (entries < k && entries < (1 << 26)) {
+			entries <<= 1;
+		}
+		return entries;
+	}
+
+	/**
+	 * HyperLogLog草图的精度，满足误差要求的最小精度
+	 * @return 精度
+	 */
+	public int getHllPrecision() {
+		double m = Math.pow(1.04 / this.relativeError, 2);
+		int p = 4;
+		while ((1 << p) < m && p < 21) {
+			p++;
+		}
+		return p;
+	}
+
+	/**
+	 * 创建草图
+	 * @param unionOnly 是否只有并集运算，是时使用HyperLogLog草图，否则使用Theta草图
+	 * @return 草图
+	 */
+	public Sketch newSketch(boolean unionOnly) {
+		return unionOnly ? new HllSketch(this.getHllPrecision()) : new ThetaSketch(this.getNominalEntries());
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.meter.FileCacheMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于磁盘的文件草图缓存
+ *
+ * <p>
+ * 以源文件的路径、大小、修改时间、跳过和限制行数以及草图参数作为缓存键。草图大小与数据量无关，缓存不做淘汰。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SketchFileCache {
+
+	private static final String SUFFIX = ".sketch";
+
+	private final FileCacheMeter fileCacheMeter = Meters.fileCacheMeter();
+
+	private final Path directory;
+
+	public SketchFileCache(Path directory) {
+		Preconditions.checkNotNull(directory, "directory");
+		this.directory = directory;
+		try {
+			Files.createDirectories(directory);
+		}
+		catch (IOException e) {
+			throw new NotFileException(directory.toString(), e);
+		}
+	}
+
+	/**
+	 * 生成缓存键，需要在读取源文件之前生成，避免读取过程中文件被修改
+	 * @param file 源文件
+	 * @param skip 跳过行数
+	 * @param limit 限制行数
+	 * @param spec 草图类型和参数
+	 * @return 缓存键
+	 */
+	public String key(Path file, int skip, int limit, String spec) {
+		try {
+			Path path = file.toAbsolutePath().normalize();
+			String key = path + "|" + Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis() + "|"
+					+ Math.max(0, skip) + "|" + Math.max(0, limit) + "|" + spec;
+			return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + SUFFIX;
+		}
+		catch (IOException e) {
+			throw new NotFileException(file.toString(), e);
+		}
+	}
+
+	/**
+	 * 获取缓存的草图
+	 * @param file 源文件
+	 * @param key 缓存键
+	 * @return 草图，未命中时返回 {@code null}
+	 */
+	public Sketch get(Path file, String key) {
+		Path path = this.directory.resolve(key);
+		if (!Files.exists(path)) {
+			this.fileCacheMeter.miss(file);
+			return null;
+		}
+		try {
+			Sketch sketch = Sketches.deserialize(ByteBuffer.wrap(Files.readAllBytes(path)));
+			this.fileCacheMeter.hit(file);
+			return sketch;
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("broken cache {} of {}, removed", key, file, e);
+			this.remove(path);
+			this.fileCacheMeter.miss(file);
+			return null;
+		}
+	}
+
+	/**
+	 * 写入缓存，先写临时文件再原子替换
+	 * @param key 缓存键
+	 * @param sketch 草图
+	 */
+	public void put(String key, Sketch sketch) {
+		Path target = this.directory.resolve(key);
+		Path temp = this.directory.resolve(key + "." + Thread.currentThread().getId() + ".tmp");
+		ByteBuffer buffer = ByteBuffer.allocate(sketch.getSerializedSize());
+		sketch.serialize(buffer);
+		buffer.flip();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			log.warn("write cache {} failed", key, e);
+			this.remove(temp);
+		}
+	}
+
+	private void remove(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException ignore) {
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * 近似集合算法的结果，只提供估计的基数，不保留数据本身。结果是读取时草图的快照，可以作为其它近似集合算法的输入
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SketchResult {
+
+	/**
+	 * 估计区间使用的标准误差倍数，约95%的置信度
+	 */
+	private static final double CONFIDENCE_SIGMAS = 2;
+
+	private final Sketch sketch;
+
+	public SketchResult(Sketch sketch) {
+		this.sketch = Preconditions.checkNotNull(sketch, "sketch");
+	}
+
+	public Sketch getSketch() {
+		return this.sketch;
+	}
+
+	/**
+	 * 估计的基数
+	 * @return 基数
+	 */
+	public double estimate() {
+		return this.sketch.estimate();
+	}
+
+	/**
+	 * 估计的基数，四舍五入为整数
+	 * @return 基数
+	 */
+	public long size() {
+		return Math.round(this.sketch.estimate());
+	}
+
+	/**
+	 * 估计值的相对标准误差
+	 * @return 相对标准误差
+	 */
+	public double getRelativeError() {
+		return this.sketch.getRelativeError();
+	}
+
+	/**
+	 * 约95%置信度的基数下限
+	 * @return 基数下限
+	 */
+	public long lowerBound() {
+		double estimate = this.sketch.estimate();
+		return (long) Math.max(0, Math.floor(estimate * (1 - CONFIDENCE_SIGMAS * this.sketch.getRelativeError())));
+	}
+
+	/**
+	 * 约95%置信度的基数上限
+	 * @return 基数上限
+	 */
+	public long upperBound() {
+		double estimate = this.sketch.estimate();
+		return (long) Math.ceil(estimate * (1 + CONFIDENCE_SIGMAS * this.sketch.getRelativeError()));
+	}
+
+	public boolean isEmpty() {
+		return this.sketch.isEmpty();
+	}
+
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.meter.SetAlgoPlanMeter;
+import org.magneton.enhance.algorithm.set.BatchStreamProcessor;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoChainPlanner;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 近似集合算法流，每个数据源读取为固定大小的草图后合并，内存占用与数据量无关
+ *
+ * <p>
+ * 只有并集和去重时使用HyperLogLog草图，否则使用支持交集和差集的Theta草图。草图不保留数据本身，
+ * 因此算法流不是 {@link org.magneton.enhance.algorithm.set.SetAlgoStream}，结果通过 {@link #read()} 读取为
+ * 只提供估计基数的 {@link SketchResult}。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SketchSetAlgoStream {
+
+	/**
+	 * 等待执行的运算，{@link #stream()} 后清空
+	 */
+	private final List<SketchStep> steps = new ArrayList<>();
+
+	private final SetAlgoChainPlanner<String, Sketch> planner = new SetAlgoChainPlanner<>();
+
+	private final SetAlgoPlanMeter planMeter = Meters.setAlgoPlanMeter();
+
+	private final SketchConfig config;
+
+	/**
+	 * 链路草图，首次运算时创建
+	 */
+	private Sketch sketch;
+
+	/**
+	 * 文件草图缓存，为空时不使用缓存
+	 */
+	private SketchFileCache fileCache;
+
+	public SketchSetAlgoStream(SketchConfig config) {
+		this.config = Preconditions.checkNotNull(config, "config");
+	}
+
+	/**
+	 * 执行等待中的运算
+	 * @return this
+	 */
+	public SketchSetAlgoStream stream() {
+		// 加载流
+		this.doStream();
+		// 数据流处理完成之后，移除已经处理完成的运算
+		this.steps.clear();
+		return this;
+	}
+
+	/**
+	 * 读取当前的结果
+	 * @return 近似结果，之后的运算不影响已经读取的结果
+	 */
+	public SketchResult read() {
+		return new SketchResult(this.sketch == null ? this.config.newSketch(true) : this.sketch.copy());
+	}
+
+	public boolean isEmpty() {
+		return this.sketch == null || this.sketch.isEmpty();
+	}
+
+	/**
+	 * 清空结果和等待中的运算
+	 */
+	public void clear() {
+		this.sketch = null;
+		this.steps.clear();
+	}
+
+	private void doStream() {
+		List<SketchStep> planned = this.planner.plan(this.steps, SketchStep::getOperation, SketchStep::estimate);
+		this.initSketch(planned);
+
+		long s = System.currentTimeMillis();
+		int index = 0;
+		for (SketchStep step : planned) {
+			SetAlgoJobContext.checkpoint();
+			this.planMeter.beginNode(step.getOperation(), step.getName(), index++, planned.size());
+			// 链路数据为空时交集和排除的结果仍为空，不需要再读取数据
+			boolean skippable = step.getOperation().keepEmpty();
+			if (step.getSketch() != null) {
+				if (!skippable || !this.isEmpty()) {
+					this.merge(step.getOperation(), step.getSketch());
+				}
+				continue;
+			}
+			BatchStreamProcessor<String, Sketch> processor = step.getProcessor();
+			if (skippable && this.isEmpty() && processor.skip()) {
+				continue;
+			}
+			while (processor.hasNext()) {
+				processor.nextBatch(data -> {
+					this.merge(step.getOperation(), data);
+					return 0L;
+				});
+				if (skippable && this.isEmpty() && processor.skip()) {
+					break;
+				}
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("doStream, used {} ms", (System.currentTimeMillis() - s));
+		}
+	}
+
+	/**
+	 * 合并一份数据的草图，交集和排除按份计算
+	 */
+	private void merge(SetAlgoOperation operation, Sketch data) {
+		switch (operation) {
+			case INTERSECT:
+				this.sketch.intersect(data);
+				break;
+			case EXCLUDE:
+				this.sketch.andNot(data);
+				break;
+			default:
+				this.sketch.union(data);
+				break;
+		}
+	}
+
+	/**
+	 * 首次运算时根据运算类型和作为输入的近似结果选择草图，并在读取数据前检查草图是否匹配：
+	 * <ul>
+	 * <li>只有并集和去重且输入的近似结果都是HyperLogLog草图时使用HyperLogLog草图，否则使用Theta草图</li>
+	 * <li>HyperLogLog草图不能进行交集和差集运算，也不能与Theta草图合并</li>
+	 * <li>HyperLogLog草图的精度不同时统一降低到最低的精度</li>
+	 * </ul>
+	 */
+	private void initSketch(List<SketchStep> planned) {
+		boolean unionOnly = true;
+		boolean thetaInput = false;
+		int hllPrecision = Integer.MAX_VALUE;
+		for (SketchStep step : planned) {
+			SetAlgoOperation operation = step.getOperation();
+			if (operation != SetAlgoOperation.UNION && operation != SetAlgoOperation.DISTINCT) {
+				unionOnly = false;
+			}
+			if (step.getSketch() instanceof HllSketch) {
+				hllPrecision = Math.min(hllPrecision, ((HllSketch) step.getSketch()).getP());
+			}
+			else if (step.getSketch() != null) {
+				thetaInput = true;
+			}
+		}
+		if (this.sketch == null) {
+			this.sketch = this.config.newSketch(unionOnly && !thetaInput);
+		}
+		if (this.sketch instanceof ThetaSketch) {
+			if (hllPrecision != Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(unionOnly ? "can not merge HyperLogLog result into theta sketch"
+						: "HyperLogLog result only supports union, read it from a stream with intersect or exclude "
+								+ "to get a theta sketch");
+			}
+			return;
+		}
+		Preconditions.checkState(unionOnly, "%s sketch only supports union, can not intersect or exclude",
+				this.sketch.getSpec());
+		Preconditions.checkArgument(!thetaInput, "can not merge theta result into %s sketch", this.sketch.getSpec());
+		HllSketch hll = (HllSketch) this.sketch;
+		if (hllPrecision < hll.getP()) {
+			this.sketch = hll.fold(hllPrecision);
+		}
+	}
+
+	private Sketch newSketch() {
+		return this.sketch == null ? this.config.newSketch(true)
+				: this.config.newSketch(this.sketch instanceof HllSketch);
+	}
+
+	/**
+	 * 去重运算
+	 * @param file 文件
+	 * @return this
+	 */
+	public SketchSetAlgoStream distinct(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		return this.addStep(SetAlgoOperation.DISTINCT,
+				new FileSketchStreamProcessor(file, this::newSketch, this.fileCache));
+	}
+
+	/**
+	 * 去重运算
+	 * @param data 数据
+	 * @return this
+	 */
+	public SketchSetAlgoStream distinct(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		return this.addStep(SetAlgoOperation.DISTINCT, new DataSketchStreamProcessor(data, this::newSketch));
+	}
+
+	/**
+	 * 去重运算
+	 * @param stream 数据流
+	 * @return this
+	 */
+	public SketchSetAlgoStream distinct(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		return this.addStep(SetAlgoOperation.DISTINCT, new StreamSketchStreamProcessor(stream, this::newSketch));
+	}
+
+	/**
+	 * 去重运算
+	 * @param result 近似结果
+	 * @return this
+	 */
+	public SketchSetAlgoStream distinct(SketchResult result) {
+		Preconditions.checkNotNull(result, "result");
+		this.steps.add(new SketchStep(SetAlgoOperation.DISTINCT, null, result.getSketch()));
+		return this;
+	}
+
+	/**
+	 * 并集运算
+	 * @param file 文件
+	 * @return this
+	 */
+	public SketchSetAlgoStream union(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		return this.addStep(SetAlgoOperation.UNION,
+				new FileSketchStreamProcessor(file, this::newSketch, this.fileCache));
+	}
+
+	/**
+	 * 并集运算
+	 * @param data 数据
+	 * @return this
+	 */
+	public SketchSetAlgoStream union(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		return this.addStep(SetAlgoOperation.UNION, new DataSketchStreamProcessor(data, this::newSketch));
+	}
+
+	/**
+	 * 并集运算
+	 * @param stream 数据流
+	 * @return this
+	 */
+	public SketchSetAlgoStream union(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		return this.addStep(SetAlgoOperation.UNION, new StreamSketchStreamProcessor(stream, this::newSketch));
+	}
+
+	/**
+	 * 并集运算
+	 * @param result 近似结果
+	 * @return this
+	 */
+	public SketchSetAlgoStream union(SketchResult result) {
+		Preconditions.checkNotNull(result, "result");
+		this.steps.add(new SketchStep(SetAlgoOperation.UNION, null, result.getSketch()));
+		return this;
+	}
+
+	/**
+	 * 交集运算
+	 * @param file 文件
+	 * @return this
+	 */
+	public SketchSetAlgoStream intersect(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		return this.addStep(SetAlgoOperation.INTERSECT,
+				new FileSketchStreamProcessor(file, this::newSketch, this.fileCache));
+	}
+
+	/**
+	 * 交集运算
+	 * @param data 数据
+	 * @return this
+	 */
+	public SketchSetAlgoStream intersect(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		return this.addStep(SetAlgoOperation.INTERSECT, new DataSketchStreamProcessor(data, this::newSketch));
+	}
+
+	/**
+	 * 交集运算
+	 * @param stream 数据流
+	 * @return this
+	 */
+	public SketchSetAlgoStream intersect(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		return this.addStep(SetAlgoOperation.INTERSECT, new StreamSketchStreamProcessor(stream, this::newSketch));
+	}
+
+	/**
+	 * 交集运算
+	 * @param result 近似结果
+	 * @return this
+	 */
+	public SketchSetAlgoStream intersect(SketchResult result) {
+		Preconditions.checkNotNull(result, "result");
+		this.steps.add(new SketchStep(SetAlgoOperation.INTERSECT, null, result.getSketch()));
+		return this;
+	}
+
+	/**
+	 * 去除运算
+	 * @param file 文件
+	 * @return this
+	 */
+	public SketchSetAlgoStream exclude(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		return this.addStep(SetAlgoOperation.EXCLUDE,
+				new FileSketchStreamProcessor(file, this::newSketch, this.fileCache));
+	}
+
+	/**
+	 * 去除运算
+	 * @param data 数据
+	 * @return this
+	 */
+	public SketchSetAlgoStream exclude(SetAlgoData<String> data) {
+		Preconditions.checkNotNull(data, "data");
+		return this.addStep(SetAlgoOperation.EXCLUDE, new DataSketchStreamProcessor(data, this::newSketch));
+	}
+
+	/**
+	 * 去除运算
+	 * @param stream 数据流
+	 * @return this
+	 */
+	public SketchSetAlgoStream exclude(SetStream<String> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		return this.addStep(SetAlgoOperation.EXCLUDE, new StreamSketchStreamProcessor(stream, this::newSketch));
+	}
+
+	/**
+	 * 去除运算
+	 * @param result 近似结果
+	 * @return this
+	 */
+	public SketchSetAlgoStream exclude(SketchResult result) {
+		Preconditions.checkNotNull(result, "result");
+		this.steps.add(new SketchStep(SetAlgoOperation.EXCLUDE, null, result.getSketch()));
+		return this;
+	}
+
+	void setFileCache(SketchFileCache fileCache) {
+		this.fileCache = fileCache;
+	}
+
+	private SketchSetAlgoStream addStep(SetAlgoOperation operation, BatchStreamProcessor<String, Sketch> processor) {
+		this.steps.add(new SketchStep(operation, processor, null));
+		return this;
+	}
+
+	/**
+	 * 等待执行的运算，数据来源为处理器或已经计算好的草图
+	 */
+	private static final class SketchStep {
+
+		private final SetAlgoOperation operation;
+
+		private final BatchStreamProcessor<String, Sketch> processor;
+
+		private final Sketch sketch;
+
+		SketchStep(SetAlgoOperation operation, BatchStreamProcessor<String, Sketch> processor, Sketch sketch) {
+			this.operation = operation;
+			this.processor = processor;
+			this.sketch = sketch;
+		}
+
+		SetAlgoOperation getOperation() {
+			return this.operation;
+		}
+
+		BatchStreamProcessor<String, Sketch> getProcessor() {
+			return this.processor;
+		}
+
+		Sketch getSketch() {
+			return this.sketch;
+		}
+
+		String getName() {
+			return this.processor == null ? SketchResult.class.getSimpleName()
+					: this.processor.getClass().getSimpleName();
+		}
+
+		long estimate() {
+			return this.processor == null ? Math.round(this.sketch.estimate()) : this.processor.estimate();
+		}
+
+	}
+
+}
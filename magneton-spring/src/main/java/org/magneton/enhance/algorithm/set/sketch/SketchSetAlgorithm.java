@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+/**
+ * 近似集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SketchSetAlgorithm {
+
+	private final SketchSetAlgoStream stream;
+
+	public SketchSetAlgorithm() {
+		this(new SketchConfig());
+	}
+
+	/**
+	 * 创建算法
+	 * @param config 草图配置
+	 */
+	public SketchSetAlgorithm(SketchConfig config) {
+		this.stream = new SketchSetAlgoStream(config);
+	}
+
+	/**
+	 * 使用文件草图缓存，缓存命中的文件不再读取
+	 * @param fileCache 文件草图缓存
+	 * @return this
+	 */
+	public SketchSetAlgorithm fileCache(SketchFileCache fileCache) {
+		this.stream.setFileCache(fileCache);
+		return this;
+	}
+
+	public SketchSetAlgoStream resource() {
+		return this.stream;
+	}
+
+}
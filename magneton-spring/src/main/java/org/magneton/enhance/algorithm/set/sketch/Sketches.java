@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 草图工具
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public final class Sketches {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private Sketches() {
+	}
+
+	/**
+	 * 计算字符串UTF-8字节的哈希值，与文件中同样内容的行哈希值一致
+	 * @param value 字符串
+	 * @return 64位哈希值
+	 */
+	public static long hash(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return hash(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 计算字节的哈希值
+	 * @param bytes 字节
+	 * @param offset 起始位置
+	 * @param length 长度
+	 * @return 64位哈希值
+	 */
+	public static long hash(byte[] bytes, int offset, int length) {
+		long h = FNV_OFFSET;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			h = (h ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+		}
+		return mix(h);
+	}
+
+	/**
+	 * 计算缓冲区中字节的哈希值
+	 * @param buffer 缓冲区
+	 * @param from 起始位置（包含）
+	 * @param to 结束位置（不包含）
+	 * @return 64位哈希值
+	 */
+	public static long hash(ByteBuffer buffer, int from, int to) {
+		long h = FNV_OFFSET;
+		for (int i = from; i < to; i++) {
+			h = (h ^ (buffer.get(i) & 0xFF)) * FNV_PRIME;
+		}
+		return mix(h);
+	}
+
+	/**
+	 * 读取 {@link Sketch#serialize(ByteBuffer)} 序列化的草图
+	 * @param buffer 缓冲区
+	 * @return 草图
+	 */
+	public static Sketch deserialize(ByteBuffer buffer) {
+		Preconditions.checkNotNull(buffer, "buffer");
+		byte type = buffer.get();
+		switch (type) {
+			case ThetaSketch.TYPE:
+				return ThetaSketch.read(buffer);
+			case HllSketch.TYPE:
+				return HllSketch.read(buffer);
+			default:
+				throw new IllegalArgumentException("unknown sketch type " + type);
+		}
+	}
+
+	/**
+	 * 64位哈希的最终混合，使低位和高位都均匀分布
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
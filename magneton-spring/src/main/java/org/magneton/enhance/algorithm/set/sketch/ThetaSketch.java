@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sketch;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Theta草图（KMV），保留小于阈值的最小哈希值，支持并集、交集和差集
+ *
+ * <p>
+ * 哈希值取高63位，保留的哈希值达到 {@code 2k} 个时只保留最小的 {@code k} 个，第 {@code k+1} 小的值作为新的阈值。
+ * 估计值为保留数量除以阈值占哈希空间的比例，相对标准误差约为 {@code 1/sqrt(k)}。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class ThetaSketch implements Sketch {
+
+	static final byte TYPE = 1;
+
+	private final int k;
+
+	/**
+	 * 阈值，只保留小于阈值的哈希值，为 {@link Long#MAX_VALUE} 时为精确模式
+	 */
+	private long theta = Long.MAX_VALUE;
+
+	/**
+	 * 开放寻址的哈希表，0表示空槽位
+	 */
+	private long[] table;
+
+	private int count;
+
+	/**
+	 * 创建草图
+	 * @param k 名义保留数量，至少为16
+	 */
+	public ThetaSketch(int k) {
+		Preconditions.checkArgument(k >= 16, "k must be greater than or equal to 16");
+		this.k = k;
+		this.table = new long[tableSize(k)];
+	}
+
+	public int getK() {
+		return this.k;
+	}
+
+	@Override
+	public void update(long hash) {
+		long h = hash >>> 1;
+		this.insert(h == 0 ? 1 : h);
+	}
+
+	@Override
+	public void union(Sketch other) {
+		ThetaSketch o = this.cast(other);
+		if (o.theta < this.theta) {
+			this.theta = o.theta;
+			this.retain(v -> true);
+		}
+		for (long v : o.table) {
+			if (v != 0) {
+				this.insert(v);
+			}
+		}
+	}
+
+	@Override
+	public void intersect(Sketch other) {
+		ThetaSketch o = this.cast(other);
+		this.theta = Math.min(this.theta, o.theta);
+		this.retain(o::contains);
+	}
+
+	@Override
+	public void andNot(Sketch other) {
+		ThetaSketch o = this.cast(other);
+		this.theta = Math.min(this.theta, o.theta);
+		this.retain(v -> !o.contains(v));
+	}
+
+	@Override
+	public double estimate() {
+		if (this.theta == Long.MAX_VALUE) {
+			return this.count;
+		}
+		return this.count / ((double) this.theta / Long.MAX_VALUE);
+	}
+
+	@Override
+	public double getRelativeError() {
+		if (this.theta == Long.MAX_VALUE) {
+			return 0;
+		}
+		return 1 / Math.sqrt(Math.max(1, this.count));
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	@Override
+	public void reset() {
+		Arrays.fill(this.table, 0);
+		this.count = 0;
+		this.theta = Long.MAX_VALUE;
+	}
+
+	@Override
+	public ThetaSketch copy() {
+		ThetaSketch copy = new ThetaSketch(this.k);
+		copy.theta = this.theta;
+		copy.table = this.table.clone();
+		copy.count = this.count;
+		return copy;
+	}
+
+	@Override
+	public String getSpec() {
+		return "theta-" + this.k;
+	}
+
+	@Override
+	public int getSerializedSize() {
+		return 1 + 4 + 8 + 4 + this.count * 8;
+	}
+
+	@Override
+	public void serialize(ByteBuffer buffer) {
+		buffer.put(TYPE).putInt(this.k).putLong(this.theta).putInt(this.count);
+		for (long v : this.table) {
+			if (v != 0) {
+				buffer.putLong(v);
+			}
+		}
+	}
+
+	static ThetaSketch read(ByteBuffer buffer) {
+		ThetaSketch sketch = new ThetaSketch(buffer.getInt());
+		sketch.theta = buffer.getLong();
+		int count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			sketch.insert(buffer.getLong());
+		}
+		return sketch;
+	}
+
+	private boolean contains(long h) {
+		int mask = this.table.length - 1;
+		int idx = index(h, mask);
+		while (this.table[idx] != 0) {
+			if (this.table[idx] == h) {
+				return true;
+			}
+			idx = (idx + 1) & mask;
+		}
+		return false;
+	}
+
+	private void insert(long h) {
+		if (h >= this.theta) {
+			return;
+		}
+		int mask = this.table.length - 1;
+		int idx = index(h, mask);
+		while (this.table[idx] != 0) {
+			if (this.table[idx] == h) {
+				return;
+			}
+			idx = (idx + 1) & mask;
+		}
+		this.table[idx] = h;
+		this.count++;
+		if (this.count >= this.k << 1) {
+			this.trim();
+		}
+	}
+
+	/**
+	 * 只保留最小的k个哈希值
+	 */
+	private void trim() {
+		long[] values = this.values();
+		Arrays.sort(values);
+		this.theta = values[this.k];
+		this.retain(v -> true);
+	}
+
+	/**
+	 * 重建哈希表，只保留小于阈值且满足条件的哈希值
+	 */
+	private void retain(LongPredicate predicate) {
+		long[] values = this.values();
+		Arrays.fill(this.table, 0);
+		this.count = 0;
+		int mask = this.table.length - 1;
+		for (long v : values) {
+			if (v < this.theta && predicate.test(v)) {
+				int idx = index(v, mask);
+				while (this.table[idx] != 0) {
+					idx = (idx + 1) & mask;
+				}
+				this.table[idx] = v;
+				this.count++;
+			}
+		}
+	}
+
+	private long[] values() {
+		long[] values = new long[this.count];
+		int i = 0;
+		for (long v : this.table) {
+			if (v != 0) {
+				values[i++] = v;
+			}
+		}
+		return values;
+	}
+
+	private ThetaSketch cast(Sketch other) {
+		Preconditions.checkArgument(other instanceof ThetaSketch, "can not merge %s with %s", this.getSpec(),
+				other.getSpec());
+		return (ThetaSketch) other;
+	}
+
+	private static int index(long h, int mask) {
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * 哈希表大小，保留2k个值时负载不超过一半
+	 */
+	private static int tableSize(int k) {
+		return Integer.highestOneBit((k << 1) - 1) << 2;
+	}
+
+}
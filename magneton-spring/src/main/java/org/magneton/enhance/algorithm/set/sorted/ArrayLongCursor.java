@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * 数组游标
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class ArrayLongCursor implements LongCursor {
+
+	private final long[] data;
+
+	private final int size;
+
+	private int index;
+
+	/**
+	 * 创建游标
+	 * @param data 无序、可重复的数据，会被原地排序
+	 */
+	public ArrayLongCursor(long[] data) {
+		this.data = data;
+		this.size = sortUnsigned(data);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.index < this.size;
+	}
+
+	@Override
+	public long next() {
+		if (this.index >= this.size) {
+			throw new NoSuchElementException();
+		}
+		return this.data[this.index++];
+	}
+
+	/**
+	 * 按无符号升序排序并去重
+	 * @param data 数据
+	 * @return 去重后的数据量，有效数据在数组前部
+	 */
+	private static int sortUnsigned(long[] data) {
+		// 翻转符号位后按有符号排序，即为无符号顺序
+		for (int i = 0; i < data.length; i++) {
+			data[i] ^= Long.MIN_VALUE;
+		}
+		Arrays.sort(data);
+		int size = 0;
+		for (int i = 0; i < data.length; i++) {
+			long val = data[i] ^ Long.MIN_VALUE;
+			if (size == 0 || data[size - 1] != val) {
+				data[size++] = val;
+			}
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 排除游标，返回左侧游标中不存在于右侧游标的数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class ExcludeLongCursor implements LongCursor {
+
+	private final LongCursor left;
+
+	private final LongCursor right;
+
+	private boolean rightHasHead;
+
+	private long rightHead;
+
+	private boolean hasNext;
+
+	private long next;
+
+	public ExcludeLongCursor(LongCursor left, LongCursor right) {
+		this.left = left;
+		this.right = right;
+		this.nextRight();
+		this.advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.hasNext;
+	}
+
+	@Override
+	public long next() {
+		if (!this.hasNext) {
+			throw new NoSuchElementException();
+		}
+		long val = this.next;
+		this.advance();
+		return val;
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.left.close();
+		}
+		finally {
+			this.right.close();
+		}
+	}
+
+	private void advance() {
+		while (this.left.hasNext()) {
+			long val = this.left.next();
+			while (this.rightHasHead && Long.compareUnsigned(this.rightHead, val) < 0) {
+				this.nextRight();
+			}
+			if (this.rightHasHead && this.rightHead == val) {
+				continue;
+			}
+			this.next = val;
+			this.hasNext = true;
+			return;
+		}
+		this.hasNext = false;
+	}
+
+	private void nextRight() {
+		this.rightHasHead = this.right.hasNext();
+		if (this.rightHasHead) {
+			this.rightHead = this.right.next();
+		}
+	}
+
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import org.magneton.enhance.algorithm.exception.NotFileException;
+import org.magneton.enhance.algorithm.exception.UnsortedFileException;
+import org.magneton.enhance.algorithm.file.DecimalParser;
+import org.magneton.enhance.algorithm.file.FileCompression;
+import org.magneton.enhance.algorithm.meter.FileReadMeter;
+import org.magneton.enhance.algorithm.meter.Meters;
+import org.magneton.enhance.algorithm.set.SetAlgoCsv;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoFileReader;
+import org.magneton.enhance.algorithm.set.job.SetAlgoJobContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * 有序文件游标，按行顺序读取文件，内存占用只有一个读缓冲区
+ *
+ * <p>
+ * 跳过和限制规则与 {@link SetAlgoFile} 一致，连续的重复数据只返回一次，数据比上一个数据小时抛出
+ * {@link UnsortedFileException}.
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class FileLongCursor implements LongCursor {
+
+	/**
+	 * 读缓冲区大小，单行超过缓冲区时会扩容
+	 */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte LF = '\n';
+
+	private static final byte CR = '\r';
+
+	private final FileReadMeter fileReadMeter = Meters.fileReadMeter();
+
+	/**
+	 * 是否记录读取指标，有序检查不记录
+	 */
+	private final boolean metered;
+
+	/**
+	 * 是否逐行上报忽略的数据，否则关闭时批量上报忽略行数
+	 */
+	private final boolean ignoreData;
+
+	private final Path path;
+
+	private final int skip;
+
+	private final int limit;
+
+	/**
+	 * CSV读取规则，为空时整行作为数据
+	 */
+	private final SetAlgoCsv csv;
+
+	private ReadableByteChannel channel;
+
+	private long readBytes;
+
+	private byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * 包装 {@link #buffer} 的视图，只在缓冲区扩容时重新创建，解析时按绝对位置读取
+	 */
+	private ByteBuffer view = ByteBuffer.wrap(this.buffer);
+
+	private int position;
+
+	private int end;
+
+	/**
+	 * 当前行的结束位置（不包含换行符）
+	 */
+	private int lineEnd;
+
+	/**
+	 * 下一行的起始位置
+	 */
+	private int nextPosition;
+
+	private boolean eof;
+
+	private long line;
+
+	private boolean hasNext;
+
+	private long next;
+
+	private boolean started;
+
+	private long readCount;
+
+	private long skipCount;
+
+	private long ignoreCount;
+
+	public FileLongCursor(Path path, int skip, int limit) {
+		this(path, skip, limit, null);
+	}
+
+	public FileLongCursor(Path path, int skip, int limit, SetAlgoCsv csv) {
+		this(path, skip, limit, csv, true);
+	}
+
+	private FileLongCursor(Path path, int skip, int limit, SetAlgoCsv csv, boolean metered) {
+		SetAlgoJobContext.checkpoint();
+		if (!Files.exists(path)) {
+			throw new NotFileException(path.toString());
+		}
+		this.path = path;
+		this.skip = skip;
+		this.limit = limit;
+		this.csv = csv;
+		this.metered = metered;
+		this.ignoreData = metered && this.fileReadMeter.isIgnoreDataRequired();
+		if (metered && !this.fileReadMeter.preRead(path)) {
+			return;
+		}
+		try {
+			FileCompression compression = FileCompression.detect(path);
+			this.channel = compression.isCompressed() ? Channels.newChannel(FileCompression.open(path, BUFFER_SIZE))
+					: FileChannel.open(path, StandardOpenOption.READ);
+		}
+		catch (IOException e) {
+			throw new NotFileException(path.toString(), e);
+		}
+		this.advance();
+	}
+
+	/**
+	 * 检查文件第一个值开始的 {@link #BUFFER_SIZE} 字节是否有序，只能发现局部无序，后续数据无序时仍会在读取时抛出异常
+	 * @param path 文件地址
+	 * @param skip 跳过的行
+	 * @param limit 限制行数
+	 * @return 如果有序返回 {@code true}，否则返回 {@code false}.
+	 */
+	public static boolean isSorted(Path path, int skip, int limit) {
+		return isSorted(path, skip, limit, null);
+	}
+
+	/**
+	 * 检查文件第一个值开始的 {@link #BUFFER_SIZE} 字节是否有序
+	 * @param path 文件地址
+	 * @param skip 跳过的行
+	 * @param limit 限制行数
+	 * @param csv CSV读取规则，为空时整行作为数据
+	 * @return 如果有序返回 {@code true}，否则返回 {@code false}.
+	 */
+	public static boolean isSorted(Path path, int skip, int limit, SetAlgoCsv csv) {
+		try (FileLongCursor cursor = new FileLongCursor(path, skip, limit, csv, false)) {
+			// 从第一个值开始计算窗口，跳过和被CSV条件过滤的行不占用窗口
+			long start = cursor.consumedBytes();
+			while (cursor.hasNext() && cursor.consumedBytes() - start < BUFFER_SIZE) {
+				cursor.next();
+			}
+			return true;
+		}
+		catch (UnsortedFileException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.hasNext;
+	}
+
+	@Override
+	public long next() {
+		if (!this.hasNext) {
+			throw new NoSuchElementException();
+		}
+		long val = this.next;
+		this.advance();
+		return val;
+	}
+
+	@Override
+	public void close() {
+		if (this.channel == null) {
+			return;
+		}
+		try {
+			this.channel.close();
+		}
+		catch (IOException e) {
+			throw new NotFileException(this.path.toString(), e);
+		}
+		finally {
+			this.channel = null;
+			this.buffer = null;
+			this.view = null;
+			this.hasNext = false;
+			this.recordMeter();
+		}
+	}
+
+	private void recordMeter() {
+		if (this.metered) {
+			this.fileReadMeter.incrReadCount(this.path, this.readCount);
+			this.fileReadMeter.incrSkipCount(this.path, this.skipCount);
+			if (this.ignoreCount > 0) {
+				this.fileReadMeter.incrIgnoreCount(this.path, this.ignoreCount);
+			}
+		}
+	}
+
+	private long consumedBytes() {
+		return this.channel == null ? 0 : this.readBytes - (this.end - this.position);
+	}
+
+	private void advance() {
+		while (this.readLine()) {
+			long readLine = this.line++;
+			this.readCount++;
+			int from = this.position;
+			int to = this.lineEnd;
+			this.position = this.nextPosition;
+			if (readLine < this.skip || from == to) {
+				this.skipCount++;
+				continue;
+			}
+			if (this.limit > 0 && readLine >= this.limit) {
+				break;
+			}
+			if (this.csv != null) {
+				long field = SetAlgoCsv.field(this.csv, this.view, from, to);
+				if (field < 0) {
+					this.skipCount++;
+					continue;
+				}
+				from = SetAlgoCsv.start(field);
+				to = SetAlgoCsv.end(field);
+			}
+			long val;
+			try {
+				val = DecimalParser.parseLong(this.view, from, to);
+			}
+			catch (NumberFormatException e) {
+				throw SetAlgoFileReader.invalidValue(this.path, readLine, e);
+			}
+			if (this.started) {
+				int compare = Long.compareUnsigned(val, this.next);
+				if (compare == 0) {
+					if (this.ignoreData) {
+						this.fileReadMeter.ignoreCount(this.path, Long.toString(val));
+					}
+					else {
+						this.ignoreCount++;
+					}
+					continue;
+				}
+				if (compare < 0) {
+					throw new UnsortedFileException(this.path + " is not sorted at line " + (readLine + 1) + ": "
+							+ Long.toUnsignedString(val) + " < " + Long.toUnsignedString(this.next));
+				}
+			}
+			this.started = true;
+			this.next = val;
+			this.hasNext = true;
+			return;
+		}
+		this.close();
+	}
+
+	/**
+	 * 在缓冲区中定位下一行，缓冲区中没有完整的行时从文件读取
+	 * @return 如果还有行返回 {@code true}，否则返回 {@code false}.
+	 */
+	private boolean readLine() {
+		int scan = this.position;
+		while (true) {
+			for (int i = scan; i < this.end; i++) {
+				if (this.buffer[i] == LF) {
+					this.lineEnd = trimCr(this.buffer, this.position, i);
+					this.nextPosition = i + 1;
+					return true;
+				}
+			}
+			if (this.eof) {
+				if (this.position < this.end) {
+					this.lineEnd = trimCr(this.buffer, this.position, this.end);
+					this.nextPosition = this.end;
+					return true;
+				}
+				return false;
+			}
+			scan = this.fill();
+		}
+	}
+
+	/**
+	 * 把未处理的数据移动到缓冲区头部，再从文件读取数据填满缓冲区，读取之前检查任务是否已被取消
+	 * @return 新数据的起始位置
+	 */
+	private int fill() {
+		SetAlgoJobContext.checkpoint();
+		int remaining = this.end - this.position;
+		if (remaining == this.buffer.length) {
+			byte[] expanded = new byte[this.buffer.length << 1];
+			System.arraycopy(this.buffer, this.position, expanded, 0, remaining);
+			this.buffer = expanded;
+			this.view = ByteBuffer.wrap(expanded);
+		}
+		else if (this.position > 0) {
+			System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+		}
+		this.position = 0;
+		this.end = remaining;
+		try {
+			this.view.clear();
+			this.view.position(this.end);
+			int read = this.channel.read(this.view);
+			if (read < 0) {
+				this.eof = true;
+			}
+			else {
+				this.end += read;
+				this.readBytes += read;
+				if (this.metered) {
+					this.fileReadMeter.incrReadBytes(this.path, read);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new NotFileException(this.path.toString(), e);
+		}
+		return remaining;
+	}
+
+	private static int trimCr(byte[] buffer, int from, int to) {
+		return to > from && buffer[to - 1] == CR ? to - 1 : to;
+	}
+
+}
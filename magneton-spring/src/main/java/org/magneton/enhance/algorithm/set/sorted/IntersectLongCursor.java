@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 交集游标，同时推进两个有序游标，只返回两边都存在的数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class IntersectLongCursor implements LongCursor {
+
+	private final LongCursor left;
+
+	private final LongCursor right;
+
+	private boolean hasNext;
+
+	private long next;
+
+	public IntersectLongCursor(LongCursor left, LongCursor right) {
+		this.left = left;
+		this.right = right;
+		this.advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.hasNext;
+	}
+
+	@Override
+	public long next() {
+		if (!this.hasNext) {
+			throw new NoSuchElementException();
+		}
+		long val = this.next;
+		this.advance();
+		return val;
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.left.close();
+		}
+		finally {
+			this.right.close();
+		}
+	}
+
+	private void advance() {
+		this.hasNext = false;
+		if (!this.left.hasNext() || !this.right.hasNext()) {
+			return;
+		}
+		long l = this.left.next();
+		long r = this.right.next();
+		while (true) {
+			int compare = Long.compareUnsigned(l, r);
+			if (compare == 0) {
+				this.next = l;
+				this.hasNext = true;
+				return;
+			}
+			if (compare < 0) {
+				if (!this.left.hasNext()) {
+					return;
+				}
+				l = this.left.next();
+			}
+			else {
+				if (!this.right.hasNext()) {
+					return;
+				}
+				r = this.right.next();
+			}
+		}
+	}
+
+}
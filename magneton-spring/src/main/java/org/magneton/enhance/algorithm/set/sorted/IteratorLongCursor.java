@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 迭代器游标，用于按升序迭代的输出流，连续的重复数据只返回一次
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class IteratorLongCursor implements LongCursor {
+
+	private final Iterator<Long> iterator;
+
+	private boolean hasNext;
+
+	private long next;
+
+	private boolean started;
+
+	public IteratorLongCursor(Iterator<Long> iterator) {
+		this.iterator = iterator;
+		this.advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.hasNext;
+	}
+
+	@Override
+	public long next() {
+		if (!this.hasNext) {
+			throw new NoSuchElementException();
+		}
+		long val = this.next;
+		this.advance();
+		return val;
+	}
+
+	private void advance() {
+		while (this.iterator.hasNext()) {
+			long val = this.iterator.next();
+			if (this.started) {
+				int compare = Long.compareUnsigned(val, this.next);
+				if (compare == 0) {
+					continue;
+				}
+				if (compare < 0) {
+					throw new IllegalStateException("stream is not sorted: " + Long.toUnsignedString(val) + " < "
+							+ Long.toUnsignedString(this.next));
+				}
+			}
+			this.started = true;
+			this.next = val;
+			this.hasNext = true;
+			return;
+		}
+		this.hasNext = false;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.io.Closeable;
+
+/**
+ * 有序long游标，按无符号升序（与位图的迭代顺序一致）提供不重复的数据
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public interface LongCursor extends Closeable {
+
+	/**
+	 * 是否还有数据
+	 * @return 如果还有数据返回 {@code true}，否则返回 {@code false}.
+	 */
+	boolean hasNext();
+
+	/**
+	 * 下一个数据，比上一个数据大
+	 * @return 数据
+	 */
+	long next();
+
+	/**
+	 * 关闭游标，释放文件等资源
+	 */
+	@Override
+	default void close() {
+
+	}
+
+}
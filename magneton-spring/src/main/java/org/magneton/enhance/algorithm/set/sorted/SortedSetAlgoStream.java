@@ -0,0 +1,505 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import com.google.common.base.Preconditions;
+import lombok.extern.slf4j.Slf4j;
+import org.magneton.enhance.algorithm.set.SetAlgoData;
+import org.magneton.enhance.algorithm.set.SetAlgoFile;
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.SetAlgoQuery;
+import org.magneton.enhance.algorithm.set.SetAlgoQueryResource;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation;
+import org.magneton.enhance.algorithm.set.n32.N32SetStream;
+import org.magneton.enhance.algorithm.set.n64.Bmp64ChainData;
+import org.magneton.enhance.algorithm.set.n64.N64SetAlgoStream;
+import org.magneton.enhance.algorithm.set.n64.N64SetStream;
+import org.magneton.enhance.algorithm.set.sample.SetAlgoSampler;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 有序归并集合算法流
+ *
+ * <p>
+ * 输入数据已经按升序排列时，每个输入作为一个游标，按节点顺序组合为并集、交集和排除游标，读取时多路归并，内存占用只与输入数量有关。
+ * {@link #stream()} 时检查新输入的第一个分块是否有序，存在无序输入时回退到 {@link N64SetAlgoStream}，之后的运算都由位图完成。
+ * 查询结果不保证有序，添加查询时总是回退。
+ *
+ * <p>
+ * 只有文件开头被检查，后续数据无序时读取会抛出 {@link org.magneton.enhance.algorithm.exception.UnsortedFileException}.
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+@Slf4j
+public class SortedSetAlgoStream implements SetAlgoQueryResource<Long, SortedSetAlgoStream>, SetAlgoStream<Long> {
+
+	/**
+	 * 已添加还没有处理的输入
+	 */
+	private final List<SortedSource> sources = new ArrayList<>();
+
+	/**
+	 * 已经处理的输入，按处理顺序组成结果
+	 */
+	private final List<SortedSource> streamed = new ArrayList<>();
+
+	/**
+	 * 回退时位图算法的并行配置
+	 */
+	private final SetAlgoParallelConfig parallelConfig;
+
+	/**
+	 * 回退后的位图算法，为空时使用有序归并
+	 */
+	private N64SetAlgoStream fallback;
+
+	public SortedSetAlgoStream() {
+		this(null);
+	}
+
+	public SortedSetAlgoStream(SetAlgoParallelConfig parallelConfig) {
+		this.parallelConfig = parallelConfig;
+	}
+
+	@Override
+	public SortedSetAlgoStream stream() {
+		if (this.fallback == null) {
+			for (SortedSource source : this.sources) {
+				if (!source.isSorted()) {
+					log.info("unsorted input {}, fallback to bitmap", source);
+					this.fallback(this.streamed);
+					break;
+				}
+			}
+		}
+		if (this.fallback != null) {
+			for (SortedSource source : this.sources) {
+				source.replay(this.fallback);
+			}
+			this.fallback.stream();
+		}
+		else {
+			this.streamed.addAll(this.sources);
+		}
+		this.sources.clear();
+		return this;
+	}
+
+	/**
+	 * 是否已经回退到位图算法
+	 * @return 如果已经回退返回 {@code true}，否则返回 {@code false}.
+	 */
+	public boolean isFallback() {
+		return this.fallback != null;
+	}
+
+	@Override
+	public SetStream<Long> read() {
+		if (this.fallback != null) {
+			return this.fallback.read();
+		}
+		List<SortedSource> snapshot = new ArrayList<>(this.streamed);
+		return new SortedSetStream(() -> open(snapshot), this);
+	}
+
+	/**
+	 * 随机抽取需要从结果中移除数据，会先把已处理的输入加载到位图算法中
+	 */
+	@Override
+	public SetStream<Long> randomExtract(long size) {
+		if (this.fallback == null) {
+			this.fallback(this.streamed);
+			this.fallback.stream();
+		}
+		return this.fallback.randomExtract(size);
+	}
+
+	/**
+	 * 使用指定的抽样器随机抽取数据，会先把已处理的输入加载到位图算法中
+	 * @param size 抽取数量，如果数量小于1则返回空集，超过数据量则返回全部数据
+	 * @param sampler 抽样器
+	 * @return 抽取数据
+	 */
+	public SetStream<Long> randomExtract(long size, SetAlgoSampler sampler) {
+		if (this.fallback == null) {
+			this.fallback(this.streamed);
+			this.fallback.stream();
+		}
+		return this.fallback.randomExtract(size, sampler);
+	}
+
+	@Override
+	public void clear() {
+		this.sources.clear();
+		this.streamed.clear();
+		if (this.fallback != null) {
+			this.fallback.clear();
+			this.fallback = null;
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (this.fallback != null) {
+			return this.fallback.isEmpty();
+		}
+		try (LongCursor cursor = open(this.streamed)) {
+			return !cursor.hasNext();
+		}
+	}
+
+	@Override
+	public SortedSetAlgoStream distinct(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.sources.add(new SortedSource(SetAlgoOperation.DISTINCT, file, null, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream distinct(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.sources.add(new SortedSource(SetAlgoOperation.DISTINCT, null, data, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream distinct(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.sources.add(new SortedSource(SetAlgoOperation.DISTINCT, null, null, stream));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream distinct(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.sources.add(new SortedSource(SetAlgoOperation.DISTINCT, query));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream exclude(SetAlgoFile files) {
+		Preconditions.checkNotNull(files, "file");
+		this.sources.add(new SortedSource(SetAlgoOperation.EXCLUDE, files, null, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream exclude(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.sources.add(new SortedSource(SetAlgoOperation.EXCLUDE, null, data, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream exclude(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.sources.add(new SortedSource(SetAlgoOperation.EXCLUDE, null, null, stream));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream exclude(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.sources.add(new SortedSource(SetAlgoOperation.EXCLUDE, query));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream intersect(SetAlgoFile files) {
+		Preconditions.checkNotNull(files, "file");
+		this.sources.add(new SortedSource(SetAlgoOperation.INTERSECT, files, null, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream intersect(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.sources.add(new SortedSource(SetAlgoOperation.INTERSECT, null, data, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream intersect(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.sources.add(new SortedSource(SetAlgoOperation.INTERSECT, null, null, stream));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream intersect(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.sources.add(new SortedSource(SetAlgoOperation.INTERSECT, query));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream union(SetAlgoFile file) {
+		Preconditions.checkNotNull(file, "file");
+		this.sources.add(new SortedSource(SetAlgoOperation.UNION, file, null, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream union(SetAlgoData<Long> data) {
+		Preconditions.checkNotNull(data, "data");
+		this.sources.add(new SortedSource(SetAlgoOperation.UNION, null, data, null));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream union(SetStream<Long> stream) {
+		Preconditions.checkNotNull(stream, "stream");
+		this.sources.add(new SortedSource(SetAlgoOperation.UNION, null, null, stream));
+		return this;
+	}
+
+	@Override
+	public SortedSetAlgoStream union(SetAlgoQuery query) {
+		Preconditions.checkNotNull(query, "query");
+		this.sources.add(new SortedSource(SetAlgoOperation.UNION, query));
+		return this;
+	}
+
+	/**
+	 * 切换到位图算法，并重放已经处理的输入
+	 * @param replays 需要重放的输入
+	 */
+	private void fallback(List<SortedSource> replays) {
+		this.fallback = new N64SetAlgoStream(new Bmp64ChainData(), this.parallelConfig);
+		for (SortedSource source : replays) {
+			source.replay(this.fallback);
+		}
+		this.streamed.clear();
+	}
+
+	/**
+	 * 按处理顺序组合游标，与位图算法的链路语义一致：并集和去重合并所有输入，交集依次与每个输入求交，排除去掉所有输入
+	 * @param sources 已处理的输入
+	 * @return 结果游标
+	 */
+	private static LongCursor open(List<SortedSource> sources) {
+		LongCursor cursor = null;
+		try {
+			for (SortedSource source : sources) {
+				List<LongCursor> cursors = source.open();
+				SetAlgoOperation operation = source.operation;
+				if (cursor == null && operation.keepEmpty()) {
+					// 链路数据为空时交集和排除的结果仍为空
+					cursors.forEach(LongCursor::close);
+					continue;
+				}
+				switch (operation) {
+					case INTERSECT:
+						for (LongCursor other : cursors) {
+							cursor = new IntersectLongCursor(cursor, other);
+						}
+						break;
+					case EXCLUDE:
+						cursor = new ExcludeLongCursor(cursor, union(cursors));
+						break;
+					default:
+						if (cursor != null) {
+							cursors.add(0, cursor);
+						}
+						cursor = union(cursors);
+						break;
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			if (cursor != null) {
+				cursor.close();
+			}
+			throw e;
+		}
+		return cursor == null ? new ArrayLongCursor(new long[0]) : cursor;
+	}
+
+	private static LongCursor union(List<LongCursor> cursors) {
+		return cursors.size() == 1 ? cursors.get(0) : new UnionLongCursor(cursors);
+	}
+
+	/**
+	 * 输入，文件、数据、流和查询四者之一，查询只用于回退后重放
+	 */
+	private static class SortedSource {
+
+		private final SetAlgoOperation operation;
+
+		private final SetAlgoFile file;
+
+		private final SetAlgoData<Long> data;
+
+		private final SetStream<Long> stream;
+
+		private final SetAlgoQuery query;
+
+		SortedSource(SetAlgoOperation operation, SetAlgoFile file, SetAlgoData<Long> data, SetStream<Long> stream) {
+			this.operation = operation;
+			this.file = file;
+			this.data = data;
+			this.stream = stream;
+			this.query = null;
+		}
+
+		SortedSource(SetAlgoOperation operation, SetAlgoQuery query) {
+			this.operation = operation;
+			this.file = null;
+			this.data = null;
+			this.stream = null;
+			this.query = query;
+		}
+
+		/**
+		 * 检查输入是否有序，文件只检查第一个分块，数据在打开时排序，流只接受按升序迭代的位图流，查询总是视为无序
+		 * @return 如果有序返回 {@code true}，否则返回 {@code false}.
+		 */
+		boolean isSorted() {
+			if (this.query != null) {
+				return false;
+			}
+			if (this.file != null) {
+				for (String file : this.file.getFiles()) {
+					if (!FileLongCursor.isSorted(Paths.get(file), this.file.getSkip(), this.file.getLimit(),
+							this.file.getCsv())) {
+						return false;
+					}
+				}
+				return true;
+			}
+			if (this.stream != null) {
+				return this.stream instanceof N64SetStream || this.stream instanceof N32SetStream
+						|| this.stream instanceof SortedSetStream;
+			}
+			return true;
+		}
+
+		/**
+		 * 打开输入的游标，每个文件一个游标
+		 * @return 游标列表
+		 */
+		List<LongCursor> open() {
+			List<LongCursor> cursors = new ArrayList<>();
+			if (this.file != null) {
+				try {
+					for (String file : this.file.getFiles()) {
+						cursors.add(new FileLongCursor(Paths.get(file), this.file.getSkip(), this.file.getLimit(),
+								this.file.getCsv()));
+					}
+				}
+				catch (RuntimeException e) {
+					cursors.forEach(LongCursor::close);
+					throw e;
+				}
+			}
+			else if (this.stream instanceof SortedSetStream) {
+				cursors.add(((SortedSetStream) this.stream).cursor());
+			}
+			else if (this.stream != null) {
+				cursors.add(new IteratorLongCursor(this.stream.iterator()));
+			}
+			else {
+				List<Long> values = this.data.getData();
+				long[] array = new long[values.size()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = values.get(i);
+				}
+				cursors.add(new ArrayLongCursor(array));
+			}
+			return cursors;
+		}
+
+		/**
+		 * 把输入添加到位图算法中
+		 * @param resource 位图算法
+		 */
+		void replay(N64SetAlgoStream resource) {
+			switch (this.operation) {
+				case DISTINCT:
+					if (this.file != null) {
+						resource.distinct(this.file);
+					}
+					else if (this.data != null) {
+						resource.distinct(this.data);
+					}
+					else if (this.query != null) {
+						resource.distinct(this.query);
+					}
+					else {
+						resource.distinct(this.stream);
+					}
+					break;
+				case UNION:
+					if (this.file != null) {
+						resource.union(this.file);
+					}
+					else if (this.data != null) {
+						resource.union(this.data);
+					}
+					else if (this.query != null) {
+						resource.union(this.query);
+					}
+					else {
+						resource.union(this.stream);
+					}
+					break;
+				case INTERSECT:
+					if (this.file != null) {
+						resource.intersect(this.file);
+					}
+					else if (this.data != null) {
+						resource.intersect(this.data);
+					}
+					else if (this.query != null) {
+						resource.intersect(this.query);
+					}
+					else {
+						resource.intersect(this.stream);
+					}
+					break;
+				default:
+					if (this.file != null) {
+						resource.exclude(this.file);
+					}
+					else if (this.data != null) {
+						resource.exclude(this.data);
+					}
+					else if (this.query != null) {
+						resource.exclude(this.query);
+					}
+					else {
+						resource.exclude(this.stream);
+					}
+					break;
+			}
+		}
+
+		@Override
+		public String toString() {
+			Object input = this.file != null ? this.file
+					: this.data != null ? this.data : this.query != null ? this.query : this.stream;
+			return this.operation + " " + input;
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig;
+import org.magneton.enhance.algorithm.set.SetAlgoResource;
+
+/**
+ * 有序归并集合算法
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SortedSetAlgorithm {
+
+	private final SortedSetAlgoStream stream;
+
+	public SortedSetAlgorithm() {
+		this(null);
+	}
+
+	/**
+	 * 创建算法
+	 * @param parallelConfig 输入无序回退到位图算法时使用的并行配置
+	 */
+	public SortedSetAlgorithm(SetAlgoParallelConfig parallelConfig) {
+		this.stream = new SortedSetAlgoStream(parallelConfig);
+	}
+
+	public SetAlgoResource<Long, SortedSetAlgoStream> resource() {
+		return this.stream;
+	}
+
+}
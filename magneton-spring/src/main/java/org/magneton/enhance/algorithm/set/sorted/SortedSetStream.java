@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import com.google.common.base.Preconditions;
+import org.magneton.enhance.algorithm.set.SetAlgoStream;
+import org.magneton.enhance.algorithm.set.SetStream;
+import org.magneton.enhance.algorithm.set.n64.N64TextWriter;
+import org.roaringbitmap.longlong.LongConsumer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 有序输出流，不保存结果数据，每次读取时重新打开所有输入并归并
+ *
+ * <p>
+ * 数据按无符号升序输出，写出的文件与 {@link org.magneton.enhance.algorithm.set.n64.N64SetStream} 的写出格式一致，
+ * 也可以作为有序输入参与下一次运算。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class SortedSetStream implements SetStream<Long> {
+
+	private final Supplier<LongCursor> cursorSupplier;
+
+	private final SetAlgoStream<Long> stream;
+
+	/**
+	 * 结果数量，小于0表示还没有统计
+	 */
+	private long size = -1;
+
+	public SortedSetStream(Supplier<LongCursor> cursorSupplier, SetAlgoStream<Long> stream) {
+		this.cursorSupplier = cursorSupplier;
+		this.stream = stream;
+	}
+
+	/**
+	 * 打开一个新的游标，使用完成后需要关闭
+	 * @return 游标
+	 */
+	public LongCursor cursor() {
+		return this.cursorSupplier.get();
+	}
+
+	@Override
+	public List<Long> fetch() {
+		List<Long> result = new ArrayList<>();
+		this.forEachLong(result::add);
+		return result;
+	}
+
+	/**
+	 * 迭代器，迭代完成后自动关闭底层游标，没有迭代完成时底层文件会一直打开，应使用 {@link #cursor()}
+	 * @return 迭代器
+	 */
+	@Override
+	public Iterator<Long> iterator() {
+		LongCursor cursor = this.cursor();
+		return new Iterator<Long>() {
+			@Override
+			public boolean hasNext() {
+				if (cursor.hasNext()) {
+					return true;
+				}
+				cursor.close();
+				return false;
+			}
+
+			@Override
+			public Long next() {
+				if (!cursor.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return cursor.next();
+			}
+		};
+	}
+
+	@Override
+	public void forEach(Consumer<Long> consumer) {
+		this.forEachLong(consumer::accept);
+	}
+
+	/**
+	 * 无装箱的循环获取
+	 * @param consumer 消费者
+	 */
+	public void forEachLong(LongConsumer consumer) {
+		long count = 0;
+		try (LongCursor cursor = this.cursor()) {
+			while (cursor.hasNext()) {
+				consumer.accept(cursor.next());
+				count++;
+			}
+		}
+		this.size = count;
+	}
+
+	@Override
+	public long write(Path path, List<String> headers) {
+		Preconditions.checkNotNull(path, "path");
+		Preconditions.checkNotNull(headers, "header");
+		long count = 0;
+		try (LongCursor cursor = this.cursor(); N64TextWriter writer = new N64TextWriter(path)) {
+			for (String header : headers) {
+				writer.writeLine(header);
+			}
+			while (cursor.hasNext()) {
+				writer.writeLong(cursor.next());
+				count++;
+			}
+		}
+		catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+		this.size = count;
+		return count + headers.size();
+	}
+
+	/**
+	 * 流大小，第一次调用时需要完整归并一次
+	 * @return 流大小
+	 */
+	@Override
+	public long size() {
+		if (this.size < 0) {
+			long count = 0;
+			try (LongCursor cursor = this.cursor()) {
+				while (cursor.hasNext()) {
+					cursor.next();
+					count++;
+				}
+			}
+			this.size = count;
+		}
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (this.size >= 0) {
+			return this.size == 0;
+		}
+		try (LongCursor cursor = this.cursor()) {
+			return !cursor.hasNext();
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.size = -1;
+		if (this.stream != null) {
+			this.stream.clear();
+		}
+	}
+
+}
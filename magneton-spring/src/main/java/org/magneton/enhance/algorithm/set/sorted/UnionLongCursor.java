@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020-2030  Xiamen Nascent Corporation. All rights reserved.
+ *
+ * https://www.nascent.cn
+ *
+ * 厦门南讯股份有限公司创立于2010年，是一家始终以技术和产品为驱动，帮助大消费领域企业提供客户资源管理（CRM）解决方案的公司。
+ * 福建省厦门市软件园二期观日路22号501
+ * 客服电话 400-009-2300
+ * 电话 +86（592）5971731 传真 +86（592）5971710
+ *
+ * All source code copyright of this system belongs to Xiamen Nascent Co., Ltd.
+ * Any organization or individual is not allowed to reprint, publish, disclose, embezzle, sell and use it for other illegal purposes without permission!
+ */
+
+
+package org.magneton.enhance.algorithm.set.sorted;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 并集游标，以最小堆多路归并多个有序游标，内存占用只与游标数量有关
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class UnionLongCursor implements LongCursor {
+
+	private final LongCursor[] cursors;
+
+	/**
+	 * 每个游标的当前数据
+	 */
+	private final long[] heads;
+
+	/**
+	 * 按当前数据排列的游标下标最小堆
+	 */
+	private final int[] heap;
+
+	private int size;
+
+	private boolean hasNext;
+
+	private long next;
+
+	public UnionLongCursor(List<LongCursor> cursors) {
+		this.cursors = cursors.toArray(new LongCursor[0]);
+		this.heads = new long[this.cursors.length];
+		this.heap = new int[this.cursors.length];
+		for (int i = 0; i < this.cursors.length; i++) {
+			if (this.cursors[i].hasNext()) {
+				this.heads[i] = this.cursors[i].next();
+				this.heap[this.size++] = i;
+			}
+		}
+		for (int i = (this.size >>> 1) - 1; i >= 0; i--) {
+			this.siftDown(i);
+		}
+		this.advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.hasNext;
+	}
+
+	@Override
+	public long next() {
+		if (!this.hasNext) {
+			throw new NoSuchElementException();
+		}
+		long val = this.next;
+		this.advance();
+		return val;
+	}
+
+	@Override
+	public void close() {
+		for (LongCursor cursor : this.cursors) {
+			cursor.close();
+		}
+	}
+
+	private void advance() {
+		if (this.size == 0) {
+			this.hasNext = false;
+			return;
+		}
+		long min = this.heads[this.heap[0]];
+		// 所有游标中等于最小值的数据只返回一次
+		while (this.size > 0 && this.heads[this.heap[0]] == min) {
+			int top = this.heap[0];
+			if (this.cursors[top].hasNext()) {
+				this.heads[top] = this.cursors[top].next();
+			}
+			else {
+				this.heap[0] = this.heap[--this.size];
+			}
+			this.siftDown(0);
+		}
+		this.next = min;
+		this.hasNext = true;
+	}
+
+	private void siftDown(int i) {
+		int index = this.heap[i];
+		long val = this.heads[index];
+		int half = this.size >>> 1;
+		while (i < half) {
+			int child = (i << 1) + 1;
+			int right = child + 1;
+			if (right < this.size
+					&& Long.compareUnsigned(this.heads[this.heap[right]], this.heads[this.heap[child]]) < 0) {
+				child = right;
+			}
+			if (Long.compareUnsigned(val, this.heads[this.heap[child]]) <= 0) {
+				break;
+			}
+			this.heap[i] = this.heap[child];
+			i = child;
+		}
+		this.heap[i] = index;
+	}
+
+}
@@ -0,0 +1,161 @@
+package org.magneton.enhance.pvuv;
+
+import com.google.common.base.Preconditions;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/**
+ * 基于压缩位图的内存PVUV处理器
+ *
+ * <p>
+ * 与 {@link MemoryPvUv} 相比支持完整的64位Id，内存占用与访客数量相关而与Id的最大值无关，并且可以被多个线程并发写入。
+ * 访客按Id的高48位分散到多个分段中，每个分段是一个由独立锁保护的 {@link Roaring64Bitmap}，相邻的Id落在同一个分段，不影响位图的压缩效果。
+ *
+ * @author zhangmsh 2026/10/18
+ * @since 2025.2
+ */
+public class Roaring64PvUv extends AbstractPvUv {
+
+	/**
+	 * 默认的分段数量
+	 */
+	public static final int DEFAULT_SHARDS = 64;
+
+	private final int shards;
+
+	public Roaring64PvUv(PvUvConfig pvUvConfig) {
+		this(pvUvConfig, DEFAULT_SHARDS);
+	}
+
+	/**
+	 * 创建PVUV处理器
+	 * @param pvUvConfig 配置
+	 * @param shards 分段数量，会向上取整为2的幂
+	 */
+	public Roaring64PvUv(PvUvConfig pvUvConfig, int shards) {
+		super(pvUvConfig);
+		Preconditions.checkArgument(shards > 0 && shards <= 1 << 16, "shards must be in [1, 65536]");
+		int size = 1;
+		while (size < shards) {
+			size <<= 1;
+		}
+		this.shards = size;
+	}
+
+	@Override
+	public Uv uv(String group) {
+		return new Roaring64Uv(this.getPvUvConfig(), group, this.shards);
+	}
+
+	public static class Roaring64Uv implements Uv {
+
+		private final PvUvConfig pvUvConfig;
+
+		private final String group;
+
+		private final Roaring64Bitmap[] buckets;
+
+		private final int mask;
+
+		private final long uvStatsCycleMills;
+
+		private volatile long expireTimeMills;
+
+		public Roaring64Uv(PvUvConfig pvUvConfig, String group, int shards) {
+			Preconditions.checkArgument(shards > 0 && (shards & (shards - 1)) == 0, "shards must be a power of 2");
+			this.pvUvConfig = pvUvConfig;
+			this.group = group;
+			this.buckets = new Roaring64Bitmap[shards];
+			for (int i = 0; i < shards; i++) {
+				this.buckets[i] = new Roaring64Bitmap();
+			}
+			this.mask = shards - 1;
+			this.uvStatsCycleMills = pvUvConfig.getUvStatsCycleSec() * 1000;
+			if (this.uvStatsCycleMills > 0) {
+				this.expireTimeMills = System.currentTimeMillis() + this.uvStatsCycleMills;
+			}
+		}
+
+		@Override
+		public boolean is(long id) {
+			this.checkExpire();
+			Roaring64Bitmap bucket = this.bucket(id);
+			synchronized (bucket) {
+				return !bucket.contains(id);
+			}
+		}
+
+		@Override
+		public boolean set(long id) {
+			this.checkExpire();
+			Roaring64Bitmap bucket = this.bucket(id);
+			synchronized (bucket) {
+				if (bucket.contains(id)) {
+					return false;
+				}
+				bucket.addLong(id);
+				return true;
+			}
+		}
+
+		@Override
+		public boolean remove(long id) {
+			this.checkExpire();
+			Roaring64Bitmap bucket = this.bucket(id);
+			synchronized (bucket) {
+				if (!bucket.contains(id)) {
+					return false;
+				}
+				bucket.removeLong(id);
+				return true;
+			}
+		}
+
+		@Override
+		public void clean() {
+			for (Roaring64Bitmap bucket : this.buckets) {
+				synchronized (bucket) {
+					bucket.clear();
+				}
+			}
+		}
+
+		/**
+		 * 当前统计周期内的UV数量
+		 * @return UV数量
+		 */
+		public long count() {
+			long count = 0;
+			for (Roaring64Bitmap bucket : this.buckets) {
+				synchronized (bucket) {
+					count += bucket.getLongCardinality();
+				}
+			}
+			return count;
+		}
+
+		private Roaring64Bitmap bucket(long id) {
+			// 按高48位分段，同一个低16位容器中的Id总是落在同一个分段
+			long high = id >>> 16;
+			int hash = (int) (high ^ (high >>> 32));
+			return this.buckets[(hash ^ (hash >>> 16)) & this.mask];
+		}
+
+		/**
+		 * 统计周期结束时清除数据并进入下一个周期
+		 */
+		private void checkExpire() {
+			if (this.expireTimeMills <= 0 || System.currentTimeMillis() <= this.expireTimeMills) {
+				return;
+			}
+			synchronized (this) {
+				long now = System.currentTimeMillis();
+				if (now > this.expireTimeMills) {
+					this.clean();
+					this.expireTimeMills = now + this.uvStatsCycleMills;
+				}
+			}
+		}
+
+	}
+
+}
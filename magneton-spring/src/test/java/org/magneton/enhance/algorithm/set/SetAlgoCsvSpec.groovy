@@ -0,0 +1,124 @@
+package org.magneton.enhance.algorithm.set
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+/**
+ * Test Case For {@link SetAlgoCsv}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetAlgoCsvSpec extends Specification {
+
+    @Unroll
+    def "locate column #column in #line"() {
+        expect:
+        locate(SetAlgoCsv.of(column), line) == expected
+
+        where:
+        line                     | column || expected
+        '1,2,3'                  | 0      || '1'
+        '1,2,3'                  | 2      || '3'
+        ' 1 ,\t2\t, 3 '          | 1      || '2'
+        '"a,b",42'               | 1      || '42'
+        '"a,b",42'               | 0      || 'a,b'
+        '"say ""hi"", ok",7'     | 1      || '7'
+        '"say ""hi"", ok",7'     | 0      || 'say ""hi"", ok'
+        '1,,3'                   | 1      || ''
+        '1,2'                    | 2      || null
+        ''                       | 1      || null
+    }
+
+    def "locate honours the line bounds inside a larger buffer"() {
+        given:
+        def bytes = 'xx9,8,7yy'.getBytes(StandardCharsets.UTF_8)
+
+        when:
+        def field = SetAlgoCsv.of(2).locate(ByteBuffer.wrap(bytes), 2, 7)
+
+        then:
+        new String(bytes, SetAlgoCsv.start(field), SetAlgoCsv.end(field) - SetAlgoCsv.start(field),
+                StandardCharsets.UTF_8) == '7'
+    }
+
+    def "short rows are skipped"() {
+        given:
+        def csv = SetAlgoCsv.of(0).where(3, '1')
+
+        expect:
+        locate(csv, '5,a,b,1') == '5'
+        locate(csv, '5,a,b') == null
+        SetAlgoCsv.field(csv, wrap('5,a'), 0, 3) < 0
+    }
+
+    def "where keeps only matching rows"() {
+        given:
+        def csv = SetAlgoCsv.of(0).where(1, 'paid', 'done')
+
+        expect:
+        locate(csv, '1,paid') == '1'
+        locate(csv, '2,done') == '2'
+        locate(csv, '3,open') == null
+        locate(csv, '4,paid2') == null
+    }
+
+    def "whereNot drops matching rows"() {
+        given:
+        def csv = SetAlgoCsv.of(1).whereNot(0, 'x')
+
+        expect:
+        locate(csv, 'x,1') == null
+        locate(csv, 'y,2') == '2'
+    }
+
+    def "filters compare quoted values after unescaping"() {
+        given:
+        def csv = SetAlgoCsv.of(0).where(1, 'a,"b"')
+
+        expect:
+        locate(csv, '1,"a,""b"""') == '1'
+        locate(csv, '2,"a,b"') == null
+    }
+
+    def "where and whereNot combine with and"() {
+        given:
+        def csv = SetAlgoCsv.of(0).where(1, '1').whereNot(2, 'test')
+
+        expect:
+        locate(csv, '7,1,prod') == '7'
+        locate(csv, '8,1,test') == null
+        locate(csv, '9,0,prod') == null
+    }
+
+    def "custom delimiter and unquoted fields"() {
+        expect:
+        locate(SetAlgoCsv.of(1).delimiter('\t' as char), 'a,b\t3') == '3'
+        locate(SetAlgoCsv.of(1).unquoted(), '"a,b",3') == 'b"'
+        locate(SetAlgoCsv.of(1).quote('\'' as char), "'a,b',3") == '3'
+    }
+
+    def "extract unescapes quotes"() {
+        expect:
+        SetAlgoCsv.of(0).extract('"say ""hi""",1') == 'say "hi"'
+        SetAlgoCsv.value(SetAlgoCsv.of(1), '1,') == null
+        SetAlgoCsv.value(null, '12') == '12'
+    }
+
+    private static String locate(SetAlgoCsv csv, String line) {
+        def bytes = line.getBytes(StandardCharsets.UTF_8)
+        long field = csv.locate(ByteBuffer.wrap(bytes), 0, bytes.length)
+        if (field < 0) {
+            return null
+        }
+        return new String(bytes, SetAlgoCsv.start(field), SetAlgoCsv.end(field) - SetAlgoCsv.start(field),
+                StandardCharsets.UTF_8)
+    }
+
+    private static ByteBuffer wrap(String line) {
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8))
+    }
+
+}
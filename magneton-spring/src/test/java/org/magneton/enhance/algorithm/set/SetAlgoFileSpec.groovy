@@ -0,0 +1,145 @@
+package org.magneton.enhance.algorithm.set
+
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+
+/**
+ * Test Case For {@link SetAlgoFileReader}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetAlgoFileSpec extends Specification {
+
+    static final long SEED = 20261018L
+
+    static final int LINES = 50_000
+
+    static final long BOUND = LINES * 4L
+
+    @Shared
+    Path dir
+
+    @Shared
+    List<String> plain = []
+
+    @Shared
+    List<String> csv = []
+
+    /**
+     * 第一个文件并集，其余文件依次交集的期望结果
+     */
+    @Shared
+    SortedSet<Long> expected
+
+    /**
+     * 只取第三列为1的行时的期望结果
+     */
+    @Shared
+    SortedSet<Long> expectedCsv
+
+    def setupSpec() {
+        dir = Files.createTempDirectory('set-algo-file')
+        def random = new SplittableRandom(SEED)
+        List<Set<Long>> all = []
+        List<Set<Long>> odd = []
+        for (int i = 0; i < 4; i++) {
+            def split = random.split()
+            def values = new TreeSet<Long>()
+            def oddValues = new TreeSet<Long>()
+            def plainLines = []
+            def csvLines = []
+            for (int line = 0; line < LINES; line++) {
+                long id = split.nextLong(BOUND)
+                values << id
+                if ((line & 1) == 1) {
+                    oddValues << id
+                }
+                plainLines << Long.toString(id)
+                csvLines << "${line},\"${id}\",${line & 1}".toString()
+            }
+            plain << Files.write(dir.resolve("plain-${i}.txt"), plainLines).toString()
+            csv << Files.write(dir.resolve("csv-${i}.csv"), csvLines).toString()
+            all << values
+            odd << oddValues
+        }
+        expected = new TreeSet<>(all[0])
+        all.drop(1).each { expected.retainAll(it) }
+        expectedCsv = new TreeSet<>(odd[0])
+        odd.drop(1).each { expectedCsv.retainAll(it) }
+    }
+
+    def cleanupSpec() {
+        dir.toFile().deleteDir()
+    }
+
+    @Unroll
+    def "#name reads plain files with parallel=#parallel"() {
+        when:
+        def result = chain(resource(), plain, null, parallel)
+
+        then:
+        !expected.isEmpty()
+        result == expected.toList()
+
+        where:
+        name  | resource                        | parallel
+        'n64' | { SetAlgorithm.number64() }     | false
+        'n64' | { SetAlgorithm.number64() }     | true
+        'n32' | { SetAlgorithm.number32() }     | false
+        'n32' | { SetAlgorithm.number32() }     | true
+        'p64' | { SetAlgorithm.partitioned() }  | false
+        'p64' | { SetAlgorithm.partitioned() }  | true
+    }
+
+    @Unroll
+    def "#name reads csv columns with where filter and parallel=#parallel"() {
+        when:
+        def result = chain(resource(), csv, SetAlgoCsv.of(1).where(2, '1'), parallel)
+
+        then:
+        !expectedCsv.isEmpty()
+        result == expectedCsv.toList()
+
+        where:
+        name  | resource                        | parallel
+        'n64' | { SetAlgorithm.number64() }     | false
+        'n64' | { SetAlgorithm.number64() }     | true
+        'p64' | { SetAlgorithm.partitioned() }  | false
+        'p64' | { SetAlgorithm.partitioned() }  | true
+    }
+
+    def "scan gives the exact range and observe stays inside it"() {
+        given:
+        SetAlgoFile[] files = [SetAlgoFile.of(plain)]
+        def values = plain.collectMany { Files.readAllLines(Paths.get(it)) }.collect { Long.parseLong(it) }
+
+        when:
+        def scanned = SetAlgoIdRange.scan(files)
+        def observed = SetAlgoIdRange.observe(files)
+
+        then:
+        scanned.getMin() == values.min()
+        scanned.getMax() == values.max()
+        observed.getMin() >= scanned.getMin()
+        observed.getMax() <= scanned.getMax()
+        scanned.isN32()
+    }
+
+    private static List<Long> chain(SetAlgoResource<Long, ?> resource, List<String> files, SetAlgoCsv csv,
+                                    boolean parallel) {
+        resource.union(file(files[0], csv, parallel))
+        files.drop(1).each { resource.intersect(file(it, csv, parallel)) }
+        return resource.stream().read().fetch()
+    }
+
+    private static SetAlgoFile file(String file, SetAlgoCsv csv, boolean parallel) {
+        def algoFile = SetAlgoFile.of(file).parallel(parallel)
+        return csv == null ? algoFile : algoFile.csv(csv)
+    }
+
+}
@@ -0,0 +1,180 @@
+package org.magneton.enhance.algorithm.set
+
+import org.h2.jdbcx.JdbcDataSource
+import org.magneton.enhance.algorithm.set.n64.Bmp64ChainData
+import org.magneton.enhance.algorithm.set.n64.N64SetAlgoStream
+import org.magneton.enhance.algorithm.set.sorted.SortedSetAlgoStream
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Test Case For {@link SetAlgoQueryReader}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetAlgoQuerySpec extends Specification {
+
+    @Shared
+    JdbcDataSource dataSource = new JdbcDataSource()
+
+    @Shared
+    Connection keepAlive
+
+    def setupSpec() {
+        dataSource.setURL('jdbc:h2:mem:set_algo_query;DB_CLOSE_DELAY=-1')
+        keepAlive = dataSource.getConnection()
+        def statement = keepAlive.createStatement()
+        statement.execute('CREATE TABLE member (id BIGINT, name VARCHAR(32), seq INT)')
+        // 1..100 中每 7 个插入一行 NULL
+        for (int i = 1; i <= 100; i++) {
+            statement.execute("INSERT INTO member VALUES (${i}, 'm${i}', ${i})")
+            if (i % 7 == 0) {
+                statement.execute("INSERT INTO member VALUES (NULL, NULL, ${i})")
+            }
+        }
+        statement.close()
+    }
+
+    def cleanupSpec() {
+        keepAlive.close()
+    }
+
+    def "cursor fetch reads every row across batches"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE seq <= ?', 30).fetchSize(4)
+        def values = []
+
+        when:
+        def rows = SetAlgoQueryReader.readLong(query, 0, { long val -> values << val; true })
+
+        then:
+        rows == 34
+        values.sort() == (1L..30L).toList()
+    }
+
+    def "NULL rows are counted but not passed to the accessor"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id, name FROM member WHERE id IS NULL OR id <= 7')
+        def longs = []
+        def names = []
+
+        when:
+        def longRows = SetAlgoQueryReader.readLong(query, 0, { long val -> longs << val; true })
+        def stringRows = SetAlgoQueryReader.readString(query.column(2), 0, { String val -> names << val; true })
+
+        then:
+        longRows == 21
+        stringRows == 21
+        longs.sort() == (1L..7L).toList()
+        names.sort() == (1..7).collect { "m${it}".toString() }.sort()
+    }
+
+    def "ranges splits the value range into closed partitions"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE seq > ? AND id BETWEEN ? AND ?', 0)
+
+        when:
+        query.ranges(min, max, partitions)
+
+        then:
+        query.getPartitionCount() == bounds.size()
+        (0..<bounds.size()).collect { query.getParams(it).toList() } == bounds.collect { [0] + it }
+
+        where:
+        min | max | partitions || bounds
+        1   | 10  | 3          || [[1L, 4L], [5L, 8L], [9L, 10L]]
+        1   | 9   | 3          || [[1L, 3L], [4L, 6L], [7L, 9L]]
+        5   | 5   | 4          || [[5L, 5L]]
+        0   | 2   | 5          || [[0L, 0L], [1L, 1L], [2L, 2L]]
+    }
+
+    def "ranges partitions cover the table without overlap"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE id BETWEEN ? AND ?').ranges(1, 100, 7)
+        def values = []
+
+        when:
+        (0..<query.getPartitionCount()).each { partition ->
+            SetAlgoQueryReader.readLong(query, partition, { long val -> values << val; true })
+        }
+
+        then:
+        values.size() == 100
+        values.sort() == (1L..100L).toList()
+    }
+
+    def "readAll reduces partitions read on the given executor"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE id BETWEEN ? AND ?')
+                .ranges(1, 100, 10).fetchSize(3).parallel(true).parallelism(3)
+        def pool = Executors.newFixedThreadPool(3)
+        def submitted = new AtomicInteger()
+        Executor executor = { Runnable task -> submitted.incrementAndGet(); pool.execute(task) }
+
+        when:
+        def result = SetAlgoQueryReader.readAll(query, from, executor, { new TreeSet<Long>() },
+                { set, long val -> set.add(val) }, { left, right -> left.addAll(right); left })
+
+        then:
+        submitted.get() == workers
+        result.toList() == ((from * 10 + 1L)..100L).toList()
+
+        cleanup:
+        pool.shutdownNow()
+
+        where:
+        from || workers
+        0    || 3
+        8    || 2
+        9    || 1
+    }
+
+    def "readAll rethrows a failed partition"() {
+        given:
+        def query = SetAlgoQuery.of(dataSource, 'SELECT missing FROM member WHERE id BETWEEN ? AND ?')
+                .ranges(1, 100, 4).parallel(true)
+
+        when:
+        SetAlgoQueryReader.readAll(query, 0, SetAlgoQueryReader.defaultExecutor(), { new TreeSet<Long>() },
+                { set, long val -> set.add(val) }, { left, right -> left.addAll(right); left })
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith('query partition')
+    }
+
+    def "numeric stream reads partitions in parallel"() {
+        given:
+        def config = new SetAlgoParallelConfig()
+        def stream = new N64SetAlgoStream(new Bmp64ChainData(), config)
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE id BETWEEN ? AND ?')
+                .ranges(1, 100, 5).parallel(true)
+
+        when:
+        stream.distinct(query).stream()
+        stream.exclude(SetAlgoData.of(1L, 2L, 3L)).stream()
+
+        then:
+        stream.read().fetch() == (4L..100L).toList()
+    }
+
+    def "sorted stream falls back to bitmap for queries"() {
+        given:
+        def stream = new SortedSetAlgoStream()
+        def query = SetAlgoQuery.of(dataSource, 'SELECT id FROM member WHERE id > ? ORDER BY id DESC', 90)
+
+        when:
+        stream.union(SetAlgoData.of(1L, 2L)).stream()
+        stream.union(query).stream()
+
+        then:
+        stream.isFallback()
+        stream.read().fetch() == [1L, 2L] + (91L..100L).toList()
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.magneton.enhance.algorithm.set.expr
+
+import org.magneton.enhance.algorithm.exception.SetExprSyntaxException
+import org.magneton.enhance.algorithm.set.chain.SetAlgoOperation
+import spock.lang.Specification
+import spock.lang.Unroll
+
+/**
+ * Test Case For {@link SetExprCompiler}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetExprCompilerSpec extends Specification {
+
+    @Unroll
+    def "compile #expression to #key"() {
+        expect:
+        SetExprCompiler.compile(expression).getKey() == key
+
+        where:
+        expression              || key
+        'A'                     || 'A'
+        'B | A'                 || '(A|B)'
+        'A \u222A B \u222A A'   || '(A|B)'
+        'C | (B | A)'           || '(A|B|C)'
+        'B & A'                 || '(A&B)'
+        'A \u2229 B'            || '(A&B)'
+        'A | B & C'             || '((B&C)|A)'
+        '(A | B) & C'           || '((A|B)&C)'
+        'A - C - B'             || '(A-B-C)'
+        'A - (C | B)'           || '(A-B-C)'
+        'A \u2212 B'            || '(A-B)'
+        'A \\ B'                || '(A-B)'
+        'A - B | C'             || '((A-B)|C)'
+        'user_2024.q1 & x'      || '(user_2024.q1&x)'
+    }
+
+    def "same sub-expressions share one node"() {
+        when:
+        def expr = SetExprCompiler.compile('(A & B) | (C - (B & A))')
+
+        then:
+        expr.getOperation() == SetAlgoOperation.UNION
+        def intersect = expr.getOperands().find { it.getOperation() == SetAlgoOperation.INTERSECT }
+        def exclude = expr.getOperands().find { it.getOperation() == SetAlgoOperation.EXCLUDE }
+        exclude.getOperands()[0].getName() == 'C'
+        exclude.getOperands()[1].is(intersect)
+    }
+
+    @Unroll
+    def "reject #expression"() {
+        when:
+        SetExprCompiler.compile(expression)
+
+        then:
+        def e = thrown(SetExprSyntaxException)
+        e.message.startsWith(message)
+
+        where:
+        expression || message
+        ''         || 'unexpected end at position 0'
+        'A |'      || 'unexpected end at position 3'
+        '(A | B'   || "expected ')' at position 6"
+        'A B'      || "unexpected 'B' at position 2"
+        'A & 1B'   || "unexpected '1' at position 4"
+        'A + B'    || "unexpected '+' at position 2"
+    }
+
+}
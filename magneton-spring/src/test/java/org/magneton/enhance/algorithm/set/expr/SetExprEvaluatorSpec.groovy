@@ -0,0 +1,140 @@
+package org.magneton.enhance.algorithm.set.expr
+
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgoFile
+import org.magneton.enhance.algorithm.set.SetStream
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+/**
+ * Test Case For {@link SetExprEvaluator}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetExprEvaluatorSpec extends Specification {
+
+    Path dir
+
+    Path file
+
+    SetExprEvaluator evaluator = new SetExprEvaluator()
+
+    def setup() {
+        dir = Files.createTempDirectory('set-expr')
+        file = write('a', 1..10)
+        evaluator.bind('A', SetAlgoFile.of(file.toString()))
+                .bind('B', SetAlgoData.of((5L..15L).toList()))
+                .bind('C', SetAlgoData.of(1L, 2L, 9L, 14L))
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    @Unroll
+    def "evaluate #expression"() {
+        expect:
+        evaluator.evaluate(expression).fetch() == expected
+
+        where:
+        expression              || expected
+        'A | B'                 || (1L..15L).toList()
+        'A & B'                 || (5L..10L).toList()
+        'A - B'                 || (1L..4L).toList()
+        'A | B & C'             || (1L..10L).toList() + [14L]
+        '(A | B) & C'           || [1L, 2L, 9L, 14L]
+        'A - B - C'             || [3L, 4L]
+        'A - (B | C)'           || [3L, 4L]
+        '(A & B) | (B & A) - C' || [5L, 6L, 7L, 8L, 10L]
+    }
+
+    def "shared and repeated sub-expressions read their sources once"() {
+        given:
+        def reads = 0
+        evaluator.bind('D', stream((5L..8L).toList(), { reads++ }))
+
+        when:
+        def first = evaluator.evaluate('(A & D) | (D & A) | (A & D - C)').fetch()
+        def second = evaluator.evaluate('D & A').fetch()
+
+        then:
+        first == (5L..8L).toList()
+        second == first
+        reads == 1
+    }
+
+    def "unchanged files hit the cache and changed files are read again"() {
+        given:
+        def reads = 0
+        evaluator.bind('D', stream((1L..20L).toList(), { reads++ }))
+        assert evaluator.evaluate('A & D').fetch() == (1L..10L).toList()
+
+        when:
+        def cached = evaluator.evaluate('A & D').fetch()
+        def readsBefore = reads
+        switch (change) {
+            case 'rewritten':
+                write('a', 3..12)
+                break
+            case 'touched':
+                // 大小不变只有修改时间变化
+                def mtime = Files.getLastModifiedTime(file).toMillis()
+                write('a', 11..20)
+                Files.setLastModifiedTime(file, FileTime.fromMillis(mtime - 60_000))
+                break
+        }
+        def changed = evaluator.evaluate('A & D').fetch()
+
+        then:
+        cached == (1L..10L).toList()
+        readsBefore == 1
+        changed == expected
+        reads == 2
+
+        where:
+        change      || expected
+        'rewritten' || (3L..12L).toList()
+        'touched'   || (11L..20L).toList()
+    }
+
+    def "rebinding a name clears cached results"() {
+        given:
+        evaluator.evaluate('A & B')
+
+        when:
+        evaluator.bind('B', SetAlgoData.of(1L, 2L))
+
+        then:
+        evaluator.getCacheBytes() == 0
+        evaluator.evaluate('A & B').fetch() == [1L, 2L]
+    }
+
+    def "unbound names are rejected"() {
+        when:
+        evaluator.evaluate('A | X')
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == 'unbound name X'
+    }
+
+    private Path write(String name, IntRange range) {
+        def path = dir.resolve(name)
+        Files.write(path, range.collect { String.valueOf(it) })
+        return path
+    }
+
+    private static SetStream<Long> stream(List<Long> values, Closure onRead) {
+        return [
+                size   : { -> (long) values.size() },
+                isEmpty: { -> values.isEmpty() },
+                fetch  : { -> onRead(); values },
+                forEach: { consumer -> onRead(); values.each { consumer.accept(it) } }
+        ] as SetStream<Long>
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.magneton.enhance.algorithm.set.incr
+
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgoFile
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Test Case For {@link MaterializedSetStore}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class MaterializedSetStoreSpec extends Specification {
+
+    static final String EXPRESSION = '(a | b) - c'
+
+    Path dir
+
+    MaterializedSetStore store
+
+    Random random = new Random(42)
+
+    Map<String, TreeSet<Long>> inputs = [a: new TreeSet<Long>(), b: new TreeSet<Long>(), c: new TreeSet<Long>()]
+
+    def setup() {
+        dir = Files.createTempDirectory('materialized-set')
+        store = new MaterializedSetStore(dir.resolve('store'))
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "applying deltas matches recomputing the expression on the full inputs"() {
+        given:
+        def file = dir.resolve('a.txt')
+        def initial = values(3000)
+        Files.write(file, initial.collect { String.valueOf(it) })
+        def delta = new SetDelta().add('a', SetAlgoFile.of(file.toString())).add('b', data(values(2000)))
+                .add('c', data(values(1000)))
+        def snapshot = store.create('active', EXPRESSION, record(delta))
+
+        expect:
+        snapshot.version == 1
+        snapshot.inputs == ['a', 'b', 'c']
+        check(snapshot)
+
+        when:
+        for (int i = 0; i < 6; i++) {
+            snapshot = store.apply('active', record(randomDelta(300)))
+            assert check(snapshot)
+        }
+
+        then:
+        snapshot.version == 7
+        store.versions('active') == (0L..7L).toList()
+        store.get('active').version == 7
+    }
+
+    def "old versions stay readable after later versions compact their logs"() {
+        given:
+        store.create('active', EXPRESSION, record(new SetDelta().add('a', data(values(60000)))))
+        def expected = [1L: result()]
+        def logs = [1L: logCount(store.get('active'))]
+
+        when:
+        // 增量远小于基础文件，先追加日志，日志累计到基础文件的一半时合并
+        long version = 1
+        while (version < 60 && !(version > 2 && logs[version] < logs[version - 1])) {
+            def snapshot = store.apply('active', record(randomDelta(1500)))
+            version = snapshot.version
+            expected[version] = result()
+            logs[version] = logCount(snapshot)
+        }
+
+        then:
+        logs.values().any { it > 0 }
+        logs[version] < logs[version - 1]
+        expected.every { v, result -> store.get('active', v).read().fetch() == result.toList() }
+
+        when:
+        store.retain('active', 2)
+
+        then:
+        store.versions('active') == [version - 1, version]
+        store.get('active', version - 2) == null
+        store.get('active', version - 1).read().fetch() == expected[version - 1].toList()
+        store.get('active').read().fetch() == expected[version].toList()
+        store.get('active').readInput('a').fetch() == inputs.a.toList()
+    }
+
+    def "apply rejects unknown inputs and missing sets"() {
+        given:
+        store.create('active', EXPRESSION)
+
+        when:
+        store.apply('active', new SetDelta().add('d', SetAlgoData.of(1L)))
+
+        then:
+        thrown(IllegalArgumentException)
+        store.versions('active') == [0L]
+
+        when:
+        store.apply('missing', new SetDelta().add('a', SetAlgoData.of(1L)))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        store.create('active', 'a')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "drop removes every version"() {
+        given:
+        store.create('active', EXPRESSION, new SetDelta().add('a', SetAlgoData.of(1L, 2L)))
+
+        when:
+        store.drop('active')
+
+        then:
+        store.get('active') == null
+        store.versions('active').isEmpty()
+        store.create('active', EXPRESSION).version == 0
+    }
+
+    /**
+     * 在三个分区中生成随机值，其中一个分区超出32位
+     */
+    private List<Long> values(int count) {
+        def offsets = [0L, 1L << 24, 1L << 40]
+        return (1..count).collect { offsets[random.nextInt(offsets.size())] + random.nextInt(1 << 20) }
+    }
+
+    private SetDelta randomDelta(int count) {
+        def delta = new SetDelta()
+        inputs.each { input, content ->
+            delta.add(input, data(values(count)))
+            def existing = content.toList()
+            def removed = existing.isEmpty() ? values(count)
+                    : (1..count).collect { existing[random.nextInt(existing.size())] } + values(count / 10 as int)
+            delta.remove(input, data(removed))
+        }
+        return delta
+    }
+
+    /**
+     * 把增量应用到内存中的数据源上，同一数据源的新增和删除都包含的值最终被删除
+     */
+    private SetDelta record(SetDelta delta) {
+        delta.added.each { input, sources -> sources.each { inputs[input].addAll(fetch(it)) } }
+        delta.removed.each { input, sources -> sources.each { inputs[input].removeAll(fetch(it)) } }
+        return delta
+    }
+
+    private static List<Long> fetch(def source) {
+        if (source instanceof SetAlgoFile) {
+            return Files.readAllLines(new File(source.files[0]).toPath()).collect { Long.parseLong(it) }
+        }
+        return source.data
+    }
+
+    private TreeSet<Long> result() {
+        def result = new TreeSet<Long>(inputs.a)
+        result.addAll(inputs.b)
+        result.removeAll(inputs.c)
+        return result
+    }
+
+    private boolean check(MaterializedSet snapshot) {
+        def expected = result()
+        assert snapshot.cardinality == expected.size()
+        assert snapshot.read().fetch() == expected.toList()
+        inputs.each { input, content -> assert snapshot.readInput(input).fetch() == content.toList() }
+        return true
+    }
+
+    private static int logCount(MaterializedSet snapshot) {
+        return snapshot.resultDirectory.toFile().listFiles().count { it.name.endsWith(PartitionLog.LOG_SUFFIX) }
+    }
+
+    private static SetAlgoData<Long> data(List<Long> values) {
+        return SetAlgoData.of(values)
+    }
+
+}
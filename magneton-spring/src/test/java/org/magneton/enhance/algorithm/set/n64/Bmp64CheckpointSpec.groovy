@@ -0,0 +1,156 @@
+package org.magneton.enhance.algorithm.set.n64
+
+import org.h2.jdbcx.JdbcDataSource
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgoFile
+import org.magneton.enhance.algorithm.set.SetAlgoQuery
+import org.magneton.enhance.algorithm.set.SetStream
+import org.magneton.enhance.algorithm.set.chain.ChainNode
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+/**
+ * Test Case For {@link Bmp64Checkpoint}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class Bmp64CheckpointSpec extends Specification {
+
+    Path dir
+
+    Path first
+
+    Path second
+
+    def setup() {
+        dir = Files.createTempDirectory('bmp64-checkpoint')
+        first = write('first', 100..199)
+        second = write('second', 300..399)
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "resume with unchanged inputs does not read consumed inputs again"() {
+        given:
+        fail(SetAlgoFile.of(first.toString(), second.toString()))
+        // 内容变化但大小和修改时间不变，指纹一致，已经处理的文件不会被重新读取
+        def mtime = Files.getLastModifiedTime(first)
+        write('first', 200..299)
+        Files.setLastModifiedTime(first, mtime)
+
+        when:
+        def result = run(SetAlgoFile.of(first.toString(), second.toString()))
+
+        then:
+        result == (100L..199L).toList() + (300L..399L).toList() + [1000L, 1001L]
+        !Files.exists(dir.resolve('ck/job.ckpt'))
+    }
+
+    @Unroll
+    def "resume with #change input starts over"() {
+        given:
+        def input = change == 'data' ? SetAlgoData.of(1L, 2L) : SetAlgoFile.of(first.toString(), second.toString())
+        fail(input)
+
+        when:
+        switch (change) {
+            case 'rewritten':
+                write('first', 500..549)
+                break
+            case 'touched':
+                // 大小不变只有修改时间变化
+                def mtime = Files.getLastModifiedTime(first).toMillis()
+                write('first', 200..299)
+                Files.setLastModifiedTime(first, FileTime.fromMillis(mtime - 60_000))
+                break
+            case 'skipped':
+                input = SetAlgoFile.of(first.toString(), second.toString()).skip(10)
+                break
+            case 'data':
+                input = SetAlgoData.of(3L, 4L)
+                break
+        }
+        def expected = new N64SetAlgorithm().resource().union(input).union(stream(false)).stream().read().fetch()
+        def result = run(input)
+
+        then:
+        result == expected
+        !Files.exists(dir.resolve('ck/job.ckpt'))
+
+        where:
+        change << ['rewritten', 'touched', 'skipped', 'data']
+    }
+
+    def "fingerprint follows query sql, column and partition params"() {
+        given:
+        def dataSource = new JdbcDataSource()
+        def sql = 'SELECT id FROM member WHERE id BETWEEN ? AND ?'
+        def base = fingerprint(SetAlgoQuery.of(dataSource, sql).ranges(1, 100, 4))
+
+        expect:
+        fingerprint(SetAlgoQuery.of(dataSource, sql).ranges(1, 100, 4)) == base
+        fingerprint(SetAlgoQuery.of(dataSource, sql).ranges(1, 100, 5)) != base
+        fingerprint(SetAlgoQuery.of(dataSource, sql).ranges(1, 200, 4)) != base
+        fingerprint(SetAlgoQuery.of(dataSource, sql.replace('SELECT id', 'SELECT uid')).ranges(1, 100, 4)) != base
+        fingerprint(SetAlgoQuery.of(dataSource, sql).ranges(1, 100, 4).column(2)) != base
+    }
+
+    private Path write(String name, IntRange range) {
+        def path = dir.resolve(name)
+        Files.write(path, range.collect { String.valueOf(it) })
+        return path
+    }
+
+    /**
+     * 执行到最后的流时失败，留下检查点。检查点间隔为0时第一份数据处理完成后一定会写入检查点，
+     * 之后上一次写入未完成时会跳过，因此变化的输入都放在第一份
+     */
+    private void fail(def input) {
+        try {
+            run0(input, stream(true))
+            assert false: 'expected failure'
+        }
+        catch (IllegalStateException ignore) {
+            assert Files.exists(dir.resolve('ck/job.ckpt'))
+        }
+    }
+
+    private List<Long> run(def input) {
+        return run0(input, stream(false))
+    }
+
+    private List<Long> run0(def input, SetStream<Long> stream) {
+        def algorithm = new N64SetAlgorithm().checkpoint(new Bmp64Checkpoint(dir.resolve('ck'), 'job', 0))
+        return algorithm.resource().union(input).union(stream).stream().read().fetch()
+    }
+
+    /**
+     * 失败的流在处理器读取数据时抛出异常，计算指纹时的遍历不受影响
+     */
+    private static SetStream<Long> stream(boolean failing) {
+        def values = [1000L, 1001L]
+        return [
+                size   : { -> (long) values.size() },
+                isEmpty: { -> values.isEmpty() },
+                fetch  : { -> values },
+                forEach: { consumer ->
+                    if (failing && !consumer.getClass().getName().contains('Bmp64Checkpoint')) {
+                        throw new IllegalStateException('broken stream')
+                    }
+                    values.each { consumer.accept(it) }
+                }
+        ] as SetStream<Long>
+    }
+
+    private static byte[] fingerprint(SetAlgoQuery query) {
+        return Bmp64Checkpoint.fingerprint([new ChainNode<>(new Bmp64UnionSetAlgoNode(),
+                new QueryN64StreamProcessor(query))])
+    }
+
+}
@@ -0,0 +1,194 @@
+package org.magneton.enhance.algorithm.set.n64
+
+import org.magneton.enhance.algorithm.meter.FileReadMeter
+import org.magneton.enhance.algorithm.meter.Meters
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgoFile
+import org.magneton.enhance.algorithm.set.SetAlgoParallelConfig
+import org.magneton.enhance.algorithm.set.SetAlgorithm
+import org.roaringbitmap.longlong.Roaring64Bitmap
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Test Case For {@link N64SharedScanExecutor}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class N64SharedScanExecutorSpec extends Specification {
+
+    Path dir
+
+    Path a
+
+    Path b
+
+    Path c
+
+    CountingMeter meter = new CountingMeter()
+
+    def setup() {
+        dir = Files.createTempDirectory('n64-shared-scan')
+        a = write('a', 1..600)
+        b = write('b', 400..1000)
+        c = write('c', 500..700)
+        Meters.regFileReadMeter(meter)
+    }
+
+    def cleanup() {
+        Meters.unregFileReadMeter(meter)
+        dir.toFile().deleteDir()
+    }
+
+    def "shared scan returns the same results as running each query alone"() {
+        given:
+        def expected = queries().collect { it.stream().read().fetch() }
+        // 逐个执行，并行读取的查询先执行，修改共享的位图会影响后面的查询
+        def config = new SetAlgoParallelConfig()
+        config.setParallelism(1)
+
+        when:
+        def result = new N64SharedScanExecutor(config).execute(queries()).collect { it.read().fetch() }
+
+        then:
+        result == expected
+        result[0] == (1L..499L).toList() + (701L..1000L).toList()
+        result[1] == (400L..600L).toList()
+        result[2] == (400L..499L).toList() + (701L..1000L).toList()
+    }
+
+    def "files subscribed by several queries are read once"() {
+        given:
+        def queries = queries()
+        meter.reads.clear()
+
+        when:
+        new N64SharedScanExecutor(new SetAlgoParallelConfig()).execute(queries)
+
+        then:
+        meter.count(a) == 1
+        meter.count(b) == 1
+        meter.count(c) == 1
+    }
+
+    def "files read with different skip are not shared"() {
+        given:
+        def queries = [
+                SetAlgorithm.number64().union(SetAlgoFile.of(a.toString())),
+                SetAlgorithm.number64().union(SetAlgoFile.of(a.toString(), 100)),
+                SetAlgorithm.number64().union(SetAlgoFile.of(a.toString(), 100))
+        ]
+
+        when:
+        def result = new N64SharedScanExecutor().execute(queries).collect { it.read().fetch() }
+
+        then:
+        meter.count(a) == 2
+        result[0] == (1L..600L).toList()
+        result[1] == (101L..600L).toList()
+        result[2] == (101L..600L).toList()
+    }
+
+    def "queries created by other algorithms are rejected"() {
+        when:
+        new N64SharedScanExecutor().execute([SetAlgorithm.partitioned().union(SetAlgoFile.of(a.toString()))])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "subscriptions are removed once every subscriber released"() {
+        given:
+        def scan = new Bmp64SharedScan()
+        def shared = Bmp64SharedScan.key(a, 0, 0, null)
+        def single = Bmp64SharedScan.key(b, 0, 0, null)
+        def scans = new AtomicInteger()
+        scan.subscribe(shared)
+        scan.subscribe(shared)
+        scan.subscribe(single)
+        scan.seal()
+
+        when:
+        def first = scan.acquire(shared, { scans.incrementAndGet(); new Roaring64Bitmap() })
+        scan.release(shared)
+        def second = scan.acquire(shared, { scans.incrementAndGet(); new Roaring64Bitmap() })
+        scan.release(shared)
+
+        then:
+        first.is(second)
+        scans.get() == 1
+        !scan.isShared(single)
+        !scan.isShared(shared)
+
+        when:
+        scan.acquire(shared, { new Roaring64Bitmap() })
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    /**
+     * a、b和c都被多个查询订阅，第一个查询并行归并时会修改参与归并的位图，以此检查共享的位图没有被修改；
+     * 以空数据开始的查询会跳过文件，跳过时同样释放订阅
+     */
+    private List<N64SetAlgoStream> queries() {
+        return [
+                SetAlgorithm.number64(new SetAlgoParallelConfig())
+                        .union(SetAlgoFile.of(a.toString(), b.toString()).parallel(true))
+                        .exclude(SetAlgoFile.of(c.toString())),
+                SetAlgorithm.number64().union(SetAlgoFile.of(a.toString())).intersect(SetAlgoFile.of(b.toString())),
+                SetAlgorithm.number64().union(SetAlgoFile.of(b.toString())).exclude(SetAlgoFile.of(c.toString())),
+                SetAlgorithm.number64().union(SetAlgoData.of(1L, 2L, 3L, 2000L))
+                        .intersect(SetAlgoFile.of(a.toString())),
+                SetAlgorithm.number64().union(SetAlgoData.<Long> of()).intersect(SetAlgoFile.of(c.toString()))
+        ] as List<N64SetAlgoStream>
+    }
+
+    private Path write(String name, IntRange range) {
+        def path = dir.resolve(name)
+        Files.write(path, range.collect { String.valueOf(it) })
+        return path
+    }
+
+    /**
+     * 按文件统计开始读取的次数，需要忽略的数据时只能逐行读取，不会使用共享扫描
+     */
+    static class CountingMeter implements FileReadMeter {
+
+        Map<Path, AtomicInteger> reads = new ConcurrentHashMap<>()
+
+        int count(Path file) {
+            def count = reads.get(file.toAbsolutePath().normalize())
+            return count == null ? 0 : count.get()
+        }
+
+        @Override
+        boolean preRead(Path file) {
+            reads.computeIfAbsent(file.toAbsolutePath().normalize(), { new AtomicInteger() }).incrementAndGet()
+            return true
+        }
+
+        @Override
+        void incrReadCount(Path file) {
+        }
+
+        @Override
+        void incrSkipCount(Path file) {
+        }
+
+        @Override
+        <T> void ignoreCount(Path file, Object data) {
+        }
+
+        @Override
+        boolean isIgnoreDataRequired() {
+            return false
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.magneton.enhance.algorithm.set.p64
+
+import org.roaringbitmap.longlong.Roaring64Bitmap
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Test Case For {@link PartitionedBitmap} and {@link SetAlgoMemoryGovernor}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class PartitionedBitmapSpec extends Specification {
+
+    static final long BUDGET = 512 * 1024
+
+    Path dir
+
+    SetAlgoMemoryGovernor governor
+
+    def setup() {
+        dir = Files.createTempDirectory('partitioned-bitmap')
+        governor = new SetAlgoMemoryGovernor(BUDGET, dir.resolve('spill'))
+    }
+
+    def cleanup() {
+        governor.close()
+        dir.toFile().deleteDir()
+    }
+
+    def "heap usage is kept within the budget by spilling partitions"() {
+        given:
+        def bitmap = governed()
+
+        when:
+        fill(bitmap, 0, 1_000, 1_000, 7)
+
+        then:
+        bitmap.getSpilledPartitionCount() > 0
+        governor.getHeapBytes() <= BUDGET
+        governor.getSpilledBytes() > 0
+        bitmap.getLongCardinality() == 1_000_000
+    }
+
+    def "spilled partitions read, change and write back the same values"() {
+        given:
+        def bitmap = governed()
+        def reference = new Roaring64Bitmap()
+        fill(bitmap, 0, 1_000, 1_000, 7)
+        fill(reference, 0, 1_000, 1_000, 7)
+        assert bitmap.getSpilledPartitionCount() > 0
+
+        when:
+        [0L, 1L, 500L].each { long key ->
+            bitmap.removeLong(key << 24 | 7)
+            reference.removeLong(key << 24 | 7)
+            bitmap.addLong(key << 24 | 8)
+            reference.addLong(key << 24 | 8)
+        }
+        bitmap.write(dir.resolve('written'))
+        def read = PartitionedBitmap.read(dir.resolve('written'))
+
+        then:
+        values(bitmap) == reference
+        values(read) == reference
+        bitmap.contains(1L << 24 | 8)
+        !bitmap.contains(1L << 24 | 7)
+    }
+
+    @Unroll
+    def "#op across spilled and in-memory partitions matches the reference"() {
+        given:
+        def spilled = governed()
+        def memory = new PartitionedBitmap(ForkJoinPool.commonPool())
+        def left = new Roaring64Bitmap()
+        def right = new Roaring64Bitmap()
+        fill(spilled, 0, 1_000, 1_000, 7)
+        fill(left, 0, 1_000, 1_000, 7)
+        fill(memory, 500, 1_500, 1_000, 5)
+        fill(right, 500, 1_500, 1_000, 5)
+        assert spilled.getSpilledPartitionCount() > 0
+
+        when:
+        def spilledResult = spilled.clone()
+        spilledResult."$op"(memory)
+        def memoryResult = memory.clone()
+        memoryResult."$op"(spilled)
+        def expectedLeft = left.clone()
+        expectedLeft."$op"(right)
+        def expectedRight = right.clone()
+        expectedRight."$op"(left)
+
+        then:
+        values(spilledResult) == expectedLeft
+        values(memoryResult) == expectedRight
+        spilled."${op}Cardinality"(memory) == expectedLeft.getLongCardinality()
+        values(spilled) == left
+
+        where:
+        op << ['and', 'or', 'andNot']
+    }
+
+    @Requires({ new File('/proc/self/maps').exists() })
+    def "a small budget with many partitions maps each spill segment once"() {
+        given:
+        def bitmap = governed()
+
+        when:
+        fill(bitmap, 0, 5_000, 600, 37)
+        def maps = new File('/proc/self/maps').readLines().count { it.contains(governor.getDirectory().toString()) }
+        def segments = governor.getDirectory().toFile().list().length
+
+        then:
+        bitmap.getSpilledPartitionCount() > 4_000
+        segments <= 2
+        maps <= segments
+        bitmap.getLongCardinality() == 3_000_000
+    }
+
+    def "partitions smaller than the minimum spill size stay in memory"() {
+        given:
+        def bitmap = governed()
+
+        when:
+        fill(bitmap, 0, 20_000, 50, 37)
+
+        then:
+        governor.getHeapBytes() > BUDGET
+        bitmap.getSpilledPartitionCount() == 0
+        governor.getDirectory().toFile().list().length == 0
+    }
+
+    def "close removes spill files and only a temporary directory it created"() {
+        given:
+        def temp = new SetAlgoMemoryGovernor(BUDGET)
+        fill(new PartitionedBitmap(ForkJoinPool.commonPool(), temp), 0, 1_000, 1_000, 7)
+        fill(governed(), 0, 1_000, 1_000, 7)
+        assert temp.getDirectory().toFile().list().length > 0
+
+        when:
+        temp.close()
+        governor.close()
+
+        then:
+        !Files.exists(temp.getDirectory())
+        Files.isDirectory(governor.getDirectory())
+        governor.getDirectory().toFile().list().length == 0
+    }
+
+    private PartitionedBitmap governed() {
+        return new PartitionedBitmap(ForkJoinPool.commonPool(), governor)
+    }
+
+    /**
+     * 每个分区写入 {@code values} 个间隔为 {@code step} 的值
+     */
+    private static void fill(def bitmap, long from, long to, int values, int step) {
+        for (long key = from; key < to; key++) {
+            for (int i = 0; i < values; i++) {
+                bitmap.addLong(key << 24 | i * step)
+            }
+        }
+    }
+
+    private static Roaring64Bitmap values(PartitionedBitmap bitmap) {
+        def values = new Roaring64Bitmap()
+        bitmap.forEach { long val -> values.addLong(val) }
+        return values
+    }
+
+}
@@ -0,0 +1,185 @@
+package org.magneton.enhance.algorithm.set.registry
+
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgorithm
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * Test Case For {@link SetRegistry}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SetRegistrySpec extends Specification {
+
+    static final long PARTITION = 1L << 24
+
+    Path dir
+
+    List<Long> base
+
+    def setup() {
+        dir = Files.createTempDirectory('set-registry')
+        def random = new Random(7)
+        base = new TreeSet<Long>((1..20000).collect { (long) random.nextInt(1 << 22) }).toList()
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "registered sets answer queries against the registered data"() {
+        given:
+        def registry = new SetRegistry(dir, Long.MAX_VALUE)
+        def left = registry.register('left', { it.union(SetAlgoData.of(1L, 2L, 3L, 4L, 1L << 40)) })
+        def right = registry.register('right', SetAlgorithm.number64().union(SetAlgoData.of(3L, 4L, 5L))
+                .stream().read())
+
+        expect:
+        left.contains(1L << 40)
+        !left.contains(5L)
+        registry.contains('right', 5L)
+        left.cardinality == 5
+        left.andCardinality(right) == 2
+        left.orCardinality(right) == 6
+        left.andNotCardinality(right) == 3
+        registry.andCardinality('left', 'right') == 2
+        left.and(right).fetch() == [3L, 4L]
+        left.or(right).fetch() == [1L, 2L, 3L, 4L, 5L, 1L << 40]
+        left.read().fetch() == [1L, 2L, 3L, 4L, 1L << 40]
+        registry.names() == ['left', 'right'] as Set
+    }
+
+    def "re-registering a name replaces the data seen by existing handles"() {
+        given:
+        def registry = new SetRegistry(dir, Long.MAX_VALUE)
+        def handle = registry.register('members', { it.union(SetAlgoData.of(1L, 2L)) })
+
+        when:
+        registry.register('members', { it.union(SetAlgoData.of(3L)) })
+
+        then:
+        !handle.contains(1L)
+        handle.contains(3L)
+        handle.cardinality == 1
+        dir.toFile().list().toList() == ['members']
+    }
+
+    @Unroll
+    def "#eviction evicts #evicted when the loaded sets exceed max bytes"() {
+        given:
+        def bytes = probe()
+        def registry = new SetRegistry(dir, (long) (bytes * 2.5), eviction, ForkJoinPool.commonPool())
+        registry.register('a', shifted(0))
+        registry.register('b', shifted(1))
+        // a的访问次数更多，b的访问时间更近
+        3.times { registry.contains('a', base[0]) }
+        registry.contains('b', PARTITION + base[0])
+
+        when:
+        registry.register('c', shifted(2))
+
+        then:
+        !registry.isLoaded(evicted)
+        registry.isLoaded('c')
+        registry.getHeapSizeInBytes() == bytes * 2
+        registry.get(evicted).cardinality == base.size()
+
+        when:
+        // 被淘汰的集合在下次访问时重新加载，并淘汰另一个集合
+        def reloaded = registry.get(evicted).read().fetch()
+
+        then:
+        reloaded == base.collect { it + PARTITION * (evicted == 'a' ? 0 : 1) }
+        registry.isLoaded(evicted)
+        registry.getHeapSizeInBytes() == bytes * 2
+
+        where:
+        eviction                 || evicted
+        SetRegistryEviction.LRU  || 'a'
+        SetRegistryEviction.LFU  || 'b'
+    }
+
+    def "a set larger than max bytes is still loaded"() {
+        given:
+        def registry = new SetRegistry(dir, 1)
+
+        when:
+        registry.register('a', shifted(0))
+        registry.register('b', shifted(1))
+
+        then:
+        !registry.isLoaded('a')
+        registry.isLoaded('b')
+        registry.contains('a', base[0])
+        registry.isLoaded('a')
+        !registry.isLoaded('b')
+    }
+
+    def "persisted sets are recovered lazily and temporary directories are removed"() {
+        given:
+        def registry = new SetRegistry(dir, Long.MAX_VALUE)
+        registry.register('a', shifted(0))
+        registry.register('b', { it.union(SetAlgoData.of(9L)) })
+        Files.createDirectories(dir.resolve('.a.unfinished'))
+
+        when:
+        def recovered = new SetRegistry(dir, Long.MAX_VALUE)
+
+        then:
+        recovered.names() == ['a', 'b'] as Set
+        !Files.exists(dir.resolve('.a.unfinished'))
+        recovered.get('a').cardinality == base.size()
+        !recovered.isLoaded('a')
+        recovered.get('a').read().fetch() == base
+        recovered.isLoaded('a')
+        !recovered.isLoaded('b')
+    }
+
+    def "unregister removes the set and its directory"() {
+        given:
+        def registry = new SetRegistry(dir, Long.MAX_VALUE)
+        def handle = registry.register('a', shifted(0))
+
+        when:
+        def removed = registry.unregister('a')
+
+        then:
+        removed
+        !registry.unregister('a')
+        registry.get('a') == null
+        registry.getHeapSizeInBytes() == 0
+        !Files.exists(dir.resolve('a'))
+
+        when:
+        handle.contains(1L)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "names must be usable as directory names"() {
+        when:
+        new SetRegistry(dir, Long.MAX_VALUE).register('../a', { it.union(SetAlgoData.of(1L)) })
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    /**
+     * 数据移动到第n个分区，各个集合的容器完全相同，堆内大小也相同
+     */
+    private Closure shifted(int n) {
+        return { it.union(SetAlgoData.of(base.collect { it + PARTITION * n })) }
+    }
+
+    private long probe() {
+        def probe = new SetRegistry(Files.createTempDirectory(dir, '.probe'), Long.MAX_VALUE)
+        return probe.register('a', shifted(0)).with { probe.getHeapSizeInBytes('a') }
+    }
+
+}
@@ -0,0 +1,158 @@
+package org.magneton.enhance.algorithm.set.sketch
+
+import org.magneton.enhance.algorithm.set.SetAlgoData
+import org.magneton.enhance.algorithm.set.SetAlgoFile
+import org.magneton.enhance.algorithm.set.SetAlgorithm
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Test Case For {@link SketchSetAlgoStream}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class SketchSetAlgoStreamSpec extends Specification {
+
+    Path dir
+
+    def setup() {
+        dir = Files.createTempDirectory('sketch-stream')
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    @Unroll
+    def "union of #count values stays within the confidence bounds"() {
+        given:
+        def first = write('first', 0..<(count.intdiv(3) * 2))
+        def second = write('second', count.intdiv(3)..<count)
+
+        when:
+        def result = SetAlgorithm.approximate().union(SetAlgoFile.of(first.toString(), second.toString())).stream().read()
+
+        then:
+        result.getSketch() instanceof HllSketch
+        result.lowerBound() <= count
+        result.upperBound() >= count
+        Math.abs(result.estimate() - count) <= 3 * result.getRelativeError() * count
+
+        where:
+        count << [1_000, 30_000, 200_000]
+    }
+
+    def "intersect and exclude use theta sketches and stay within the confidence bounds"() {
+        given:
+        def all = write('all', 0..<100_000)
+        def even = SetAlgoData.of((0..<100_000).findAll { it % 2 == 0 }.collect { String.valueOf(it) })
+
+        when:
+        def intersect = SetAlgorithm.approximate().union(SetAlgoFile.of(all.toString())).intersect(even).stream().read()
+        def exclude = SetAlgorithm.approximate().union(SetAlgoFile.of(all.toString())).exclude(even).stream().read()
+
+        then:
+        intersect.getSketch() instanceof ThetaSketch
+        intersect.lowerBound() <= 50_000 && intersect.upperBound() >= 50_000
+        exclude.lowerBound() <= 50_000 && exclude.upperBound() >= 50_000
+    }
+
+    def "read returns a snapshot that can be used as input"() {
+        given:
+        def stream = SetAlgorithm.approximate().union(data(0..<1_000)).stream()
+        def first = stream.read()
+
+        when:
+        stream.union(data(1_000..<2_000)).stream()
+        def merged = SetAlgorithm.approximate().union(first).union(data(500..<1_500)).stream().read()
+
+        then:
+        first.size() < 1_100
+        stream.read().size() > 1_900
+        merged.lowerBound() <= 1_500 && merged.upperBound() >= 1_500
+    }
+
+    def "hll results with different precision are folded to the lower precision"() {
+        given:
+        def coarse = new SketchConfig()
+        coarse.setRelativeError(0.05)
+        def low = SetAlgorithm.approximate(coarse).union(data(0..<5_000)).stream().read()
+        def high = SetAlgorithm.approximate().union(data(5_000..<10_000)).stream().read()
+
+        when:
+        def result = SetAlgorithm.approximate().union(high).union(low).stream().read()
+
+        then:
+        result.getSketch().getSpec() == low.getSketch().getSpec()
+        result.lowerBound() <= 10_000 && result.upperBound() >= 10_000
+    }
+
+    def "folding keeps the registers of a sketch built at the lower precision"() {
+        given:
+        def high = new HllSketch(14)
+        def low = new HllSketch(10)
+        (0..<50_000).each {
+            def hash = Sketches.hash(String.valueOf(it))
+            high.update(hash)
+            low.update(hash)
+        }
+
+        expect:
+        high.fold(10).estimate() == low.estimate()
+    }
+
+    def "theta results can be intersected"() {
+        given:
+        def theta = SetAlgorithm.approximate().union(data(0..<4_000)).exclude(data(3_000..<4_000)).stream().read()
+
+        when:
+        def result = SetAlgorithm.approximate().union(data(0..<10_000)).intersect(theta).stream().read()
+
+        then:
+        theta.getSketch() instanceof ThetaSketch
+        result.lowerBound() <= 3_000 && result.upperBound() >= 3_000
+    }
+
+    def "mismatched sketch inputs are rejected before reading"() {
+        given:
+        def hll = SetAlgorithm.approximate().union(data(0..<100)).stream().read()
+        def theta = SetAlgorithm.approximate().union(data(0..<100)).intersect(data(0..<50)).stream().read()
+
+        when:
+        SetAlgorithm.approximate().union(data(0..<100)).intersect(hll).stream()
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.startsWith('HyperLogLog result only supports union')
+
+        when:
+        SetAlgorithm.approximate().union(hll).union(theta).stream()
+
+        then:
+        e = thrown(IllegalArgumentException)
+        e.message == 'can not merge HyperLogLog result into theta sketch'
+
+        when:
+        def stream = SetAlgorithm.approximate().union(data(0..<100)).stream()
+        stream.union(theta).stream()
+
+        then:
+        e = thrown(IllegalArgumentException)
+        e.message == 'can not merge theta result into hll-14 sketch'
+        stream.read().size() > 90
+    }
+
+    private Path write(String name, IntRange range) {
+        def path = dir.resolve(name)
+        Files.write(path, range.collect { String.valueOf(it) })
+        return path
+    }
+
+    private static SetAlgoData<String> data(IntRange range) {
+        return SetAlgoData.of(range.collect { String.valueOf(it) })
+    }
+
+}
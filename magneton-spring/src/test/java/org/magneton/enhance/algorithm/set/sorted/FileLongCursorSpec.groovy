@@ -0,0 +1,79 @@
+package org.magneton.enhance.algorithm.set.sorted
+
+import org.magneton.enhance.algorithm.exception.UnsortedFileException
+import org.magneton.enhance.algorithm.set.SetAlgoCsv
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Test Case For {@link FileLongCursor}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class FileLongCursorSpec extends Specification {
+
+    Path dir
+
+    def setup() {
+        dir = Files.createTempDirectory('file-long-cursor')
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "sorted and unsorted heads are detected"() {
+        given:
+        def sorted = write('sorted', (1..1_000).collect { String.valueOf(it) })
+        def unsorted = write('unsorted', ['1', '3', '2'] + (4..1_000).collect { String.valueOf(it) })
+
+        expect:
+        FileLongCursor.isSorted(sorted, 0, 0)
+        !FileLongCursor.isSorted(unsorted, 0, 0)
+    }
+
+    def "skipped lines do not use up the probe window"() {
+        given:
+        // 跳过的行超过64K
+        def lines = (1..30_000).collect { '9999999' } + ['5', '3', '4']
+
+        expect:
+        !FileLongCursor.isSorted(write('skipped', lines), 30_000, 0)
+    }
+
+    def "lines filtered by the csv condition do not use up the probe window"() {
+        given:
+        def lines = (1..30_000).collect { "${it},0".toString() } + ['5,1', '3,1', '4,1']
+
+        expect:
+        !FileLongCursor.isSorted(write('filtered', lines), 0, 0, SetAlgoCsv.of(0).where(1, '1'))
+    }
+
+    def "unsorted values after the probe window are reported while reading"() {
+        given:
+        def path = write('late', (1..30_000).collect { String.valueOf(it) } + ['1'])
+
+        when:
+        def probed = FileLongCursor.isSorted(path, 0, 0)
+        def cursor = new FileLongCursor(path, 0, 0)
+        while (cursor.hasNext()) {
+            cursor.next()
+        }
+
+        then:
+        probed
+        thrown(UnsortedFileException)
+
+        cleanup:
+        cursor?.close()
+    }
+
+    private Path write(String name, List<String> lines) {
+        def path = dir.resolve(name)
+        Files.write(path, lines)
+        return path
+    }
+
+}
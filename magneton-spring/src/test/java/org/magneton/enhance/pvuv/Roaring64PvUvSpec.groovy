@@ -0,0 +1,128 @@
+package org.magneton.enhance.pvuv
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+/**
+ * Test Case For {@link Roaring64PvUv}
+ * @author zhangmsh
+ * @since 2025.2
+ */
+class Roaring64PvUvSpec extends Specification {
+
+    PvUvConfig config = new PvUvConfig()
+
+    def "concurrent set across stripes admits every id exactly once"() {
+        given:
+        def uv = (Roaring64PvUv.Roaring64Uv) new Roaring64PvUv(config, 8).uv('concurrent')
+        def threads = 8
+        def pool = Executors.newFixedThreadPool(threads)
+        def ready = new CountDownLatch(threads)
+        // 每个线程写入全部Id，高位不同的Id分布在不同的分段，同一分段内的Id共享低16位容器
+        def ids = (0L..<512L).collectMany { high -> (0L..<64L).collect { low -> high << 20 | low * 3 } }
+
+        when:
+        def futures = (0..<threads).collect { thread ->
+            pool.submit({
+                ready.countDown()
+                ready.await()
+                def shuffled = new ArrayList<Long>(ids)
+                Collections.shuffle(shuffled, new Random(thread))
+                shuffled.count { uv.set(it) }
+            } as Callable<Integer>)
+        }
+        def admitted = futures.sum { it.get() }
+
+        then:
+        admitted == ids.size()
+        uv.count() == ids.size()
+        ids.every { !uv.is(it) }
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    @Unroll
+    def "pv and uv counts match MemoryPvUv for #pv visits"() {
+        given:
+        def roaring = (Roaring64PvUv.Roaring64Uv) new Roaring64PvUv(config).uv('compare')
+        def memory = new MemoryPvUv(config).uv('compare')
+        def random = new Random(pv)
+        def memoryUv = 0
+
+        when:
+        def results = (0..<pv).collect {
+            long id = random.nextInt(pv.intdiv(2))
+            if (it % 10 == 9) {
+                def removed = memory.remove(id)
+                memoryUv -= removed ? 1 : 0
+                return [removed, roaring.remove(id)]
+            }
+            def added = memory.set(id)
+            memoryUv += added ? 1 : 0
+            return [added, roaring.set(id)]
+        }
+
+        then:
+        results.every { it[0] == it[1] }
+        roaring.count() == memoryUv
+        (0L..<pv.intdiv(2)).every { memory.is(it) == roaring.is(it) }
+
+        where:
+        pv << [100, 10_000, 200_000]
+    }
+
+    def "ids beyond the int range are kept apart"() {
+        given:
+        def uv = (Roaring64PvUv.Roaring64Uv) new Roaring64PvUv(config).uv('wide')
+
+        expect:
+        uv.set(1L)
+        uv.set(1L << 32 | 1)
+        uv.set(-1L)
+        !uv.set(1L << 32 | 1)
+        uv.count() == 3
+        uv.remove(-1L)
+        !uv.remove(-1L)
+        uv.count() == 2
+    }
+
+    def "data is cleared once per statistics cycle"() {
+        given:
+        config.setUvStatsCycleSec(1)
+        def uv = (Roaring64PvUv.Roaring64Uv) new Roaring64PvUv(config).uv('expire')
+        uv.set(1L)
+        uv.set(2L)
+
+        when:
+        Thread.sleep(1_100)
+        def afterExpire = uv.set(1L)
+        def again = uv.set(1L)
+
+        then:
+        afterExpire
+        !again
+        uv.count() == 1
+        !uv.is(1L)
+        uv.is(2L)
+    }
+
+    def "non-positive cycle never expires"() {
+        given:
+        config.setUvStatsCycleSec(0)
+        def uv = (Roaring64PvUv.Roaring64Uv) new Roaring64PvUv(config).uv('forever')
+
+        when:
+        uv.set(1L)
+        Thread.sleep(10)
+
+        then:
+        !uv.set(1L)
+        uv.count() == 1
+    }
+
+}